@@ -70,6 +70,8 @@ import org.ovirt.engine.core.common.utils.SimpleDependencyInjector;
 import org.ovirt.engine.core.common.utils.customprop.VmPropertiesUtils;
 import org.ovirt.engine.core.compat.DateTime;
 import org.ovirt.engine.core.dal.dbbroker.DbConnectionUtil;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.AsyncAuditLogWriter;
+import org.ovirt.engine.core.dal.dbbroker.auditloghandling.EventFloodMonitor;
 import org.ovirt.engine.core.dal.dbbroker.generic.DBConfigUtils;
 import org.ovirt.engine.core.dal.job.ExecutionMessageDirector;
 import org.ovirt.engine.core.dal.utils.CacheManager;
@@ -242,6 +244,7 @@ public class Backend implements BackendInternal, BackendCommandObjectsHandler {
         serviceLoader.load(CacheManager.class);
         // initialize configuration utils to use DB
         Config.setConfigUtils(dbConfigUtils);
+        serviceLoader.load(EventFloodMonitor.class);
 
         // we need to initialize os-info before the compensations take place because of VmPoolCommandBase#osRepository
         initOsRepository();
@@ -261,6 +264,7 @@ public class Backend implements BackendInternal, BackendCommandObjectsHandler {
 
         serviceLoader.load(CpuFlagsManagerHandler.class);
         serviceLoader.load(AuditLogCleanupManager.class);
+        serviceLoader.load(AsyncAuditLogWriter.class);
         serviceLoader.load(ClusterUpgradeRunningCleanupManager.class);
 
         serviceLoader.load(TagsDirector.class);
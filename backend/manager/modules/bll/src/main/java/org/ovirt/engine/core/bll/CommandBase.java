@@ -103,6 +103,7 @@ import org.ovirt.engine.core.utils.lock.LockingResult;
 import org.ovirt.engine.core.utils.transaction.TransactionCompletionListener;
 import org.ovirt.engine.core.utils.transaction.TransactionMethod;
 import org.ovirt.engine.core.utils.transaction.TransactionRollbackListener;
+import org.ovirt.engine.core.utils.transaction.TransactionSuccessListener;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -340,9 +341,23 @@ public abstract class CommandBase<T extends ActionParametersBase>
         defaultContext.setBusinessEntitySnapshotDao(businessEntitySnapshotDao);
         defaultContext.setSnapshotSerializer(
                 SerializationFactory.getSerializer());
+        defaultContext.setInMemory(isCompensationInMemory() && getCallback() == null);
         return defaultContext;
     }
 
+    /**
+     * Returns true, if the command doesn't need its compensation data to survive a restart of the engine, so it can
+     * be kept in memory instead of being saved to the DB at each state change.
+     * <p>
+     * Only synchronous commands may opt in. The snapshots kept in memory belong to this instance of the command, while
+     * the end action of a command with async tasks or a callback runs on an instance re-created from the DB, which
+     * compensates from the snapshots saved there (see {@link #endActionInTransactionScope()}). So the opt-in is
+     * ignored for commands with a callback, and commands that create async tasks must not opt in.
+     */
+    protected boolean isCompensationInMemory() {
+        return false;
+    }
+
     /**
      * Returns true, if the caller of the command wants the command to use compensation context.
      * In case the command uses transaction, it should also use compensation context.
@@ -1385,6 +1400,7 @@ public abstract class CommandBase<T extends ActionParametersBase>
         try {
             handleTransactivity();
             TransactionSupport.executeInScope(scope, this);
+            wakeUpEndedCommandCallback();
         } catch (TransactionRolledbackLocalException e) {
             log.info("Transaction was aborted in '{}'", this.getClass().getName());
             // Transaction was aborted - we must sure we compensation for all previous applicative stages of the command
@@ -1414,6 +1430,23 @@ public abstract class CommandBase<T extends ActionParametersBase>
         }
     }
 
+    /**
+     * Wakes up the callback of the command if the command already ended while executing, so the callback doesn't wait
+     * for its next polling. When the command is executed within an outer transaction, the callback is woken up only
+     * once that transaction commits, so it doesn't end the command before the changes of its execution are visible.
+     */
+    private void wakeUpEndedCommandCallback() {
+        if (getCallback() == null) {
+            return;
+        }
+        TransactionSuccessListener wakeUp = () -> commandCoordinatorUtil.wakeUpEndedCommandCallback(getCommandId());
+        if (TransactionSupport.current() == null) {
+            wakeUp.onSuccess();
+        } else {
+            TransactionSupport.registerRollbackHandler(wakeUp);
+        }
+    }
+
     public boolean hasTasks() {
         return !getReturnValue().getVdsmTaskIdList().isEmpty();
     }
@@ -7,6 +7,7 @@ import javax.inject.Inject;
 
 import org.apache.commons.collections.KeyValue;
 import org.ovirt.engine.core.bll.context.CompensationContext;
+import org.ovirt.engine.core.bll.context.DefaultCompensationContext;
 import org.ovirt.engine.core.common.businessentities.BusinessEntity;
 import org.ovirt.engine.core.common.businessentities.BusinessEntitySnapshot;
 import org.ovirt.engine.core.common.businessentities.TransientCompensationBusinessEntity;
@@ -63,7 +64,7 @@ public class CommandCompensator {
         TransactionSupport.executeInNewTransaction(() -> {
             Deserializer deserializer =
                     SerializationFactory.getDeserializer();
-            List<BusinessEntitySnapshot> entitySnapshots = businessEntitySnapshotDao.getAllForCommandId(commandId);
+            List<BusinessEntitySnapshot> entitySnapshots = getSnapshots(commandId, compensationContext);
             log.debug("Command [id={}]: {} compensation data.",
                     commandId,
                     entitySnapshots.isEmpty() ? "No" : "Going over");
@@ -116,6 +117,14 @@ public class CommandCompensator {
         });
     }
 
+    private List<BusinessEntitySnapshot> getSnapshots(Guid commandId, CompensationContext compensationContext) {
+        if (compensationContext instanceof DefaultCompensationContext
+                && ((DefaultCompensationContext) compensationContext).isInMemory()) {
+            return ((DefaultCompensationContext) compensationContext).getInMemorySnapshots();
+        }
+        return businessEntitySnapshotDao.getAllForCommandId(commandId);
+    }
+
     private void deletedOrUpdateEntity(Class<BusinessEntity<Serializable>> entityClass,
             BusinessEntity<Serializable> entitySnapshot) {
         GenericDao<BusinessEntity<Serializable>, Serializable> daoForEntity = getDaoForEntity(entityClass);
@@ -1,27 +1,81 @@
 package org.ovirt.engine.core.bll;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import javax.inject.Inject;
 
 import org.ovirt.engine.core.bll.context.EngineContext;
 import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
 import org.ovirt.engine.core.common.queries.IdsQueryParameters;
 import org.ovirt.engine.core.compat.Guid;
-import org.ovirt.engine.core.dao.VmDao;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
 
+/**
+ * Returns the VMs running on the given hosts, by host id.
+ * <p>
+ * The VMs are composed of their static and dynamic data and the statistics kept in memory by their {@link VmManager}
+ * instead of being read from the {@code vms} view, so only the static and dynamic tables are queried. Fields that
+ * only the view provides, like the cluster and data center names, are not set.
+ */
 public class GetAllVmsRunningForMultipleVdsQuery<P extends IdsQueryParameters> extends QueriesCommandBase<P> {
 
     @Inject
-    private VmDao vmDao;
+    private VmDynamicDao vmDynamicDao;
+
+    @Inject
+    private VmStaticDao vmStaticDao;
+
+    @Inject
+    private VmStatisticsDao vmStatisticsDao;
+
+    @Inject
+    private ResourceManager resourceManager;
 
     public GetAllVmsRunningForMultipleVdsQuery(P parameters, EngineContext engineContext) {
         super(parameters, engineContext);
     }
 
-    @Override protected void executeQueryCommand() {
-        Map<Guid, List<VM>> hostsToVms = vmDao.getAllRunningForMultipleVds(getParameters().getIds());
+    @Override
+    protected void executeQueryCommand() {
+        Map<Guid, List<VM>> hostsToVms = new HashMap<>();
+        List<VmDynamic> vmsDynamic = vmDynamicDao.getAllRunningForMultipleVds(getParameters().getIds());
+        if (!vmsDynamic.isEmpty()) {
+            Map<Guid, VmStatic> vmsStatic = vmStaticDao.getByIds(
+                    vmsDynamic.stream().map(VmDynamic::getId).collect(Collectors.toList())).stream()
+                    .collect(Collectors.toMap(VmStatic::getId, Function.identity()));
+            for (VmDynamic vmDynamic : vmsDynamic) {
+                VmStatic vmStatic = vmsStatic.get(vmDynamic.getId());
+                // the VM may have been removed since its dynamic data was read
+                if (vmStatic != null) {
+                    hostsToVms.computeIfAbsent(vmDynamic.getRunOnVds(), hostId -> new ArrayList<>())
+                            .add(createVm(vmStatic, vmDynamic));
+                }
+            }
+        }
         setReturnValue(hostsToVms);
     }
+
+    private VM createVm(VmStatic vmStatic, VmDynamic vmDynamic) {
+        VmManager vmManager = resourceManager.getVmManager(vmStatic.getId(), false);
+        if (vmManager == null) {
+            return new VM(vmStatic, vmDynamic, vmStatisticsDao.get(vmStatic.getId()));
+        }
+        return new VM(vmStatic,
+                vmDynamic,
+                vmManager.getStatistics(),
+                vmManager.getClusterArchitecture(),
+                vmManager.getClusterCompatibilityVersion(),
+                vmManager.getClusterBiosType());
+    }
 }
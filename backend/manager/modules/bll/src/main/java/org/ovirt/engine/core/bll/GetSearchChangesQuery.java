@@ -0,0 +1,60 @@
+package org.ovirt.engine.core.bll;
+
+import java.util.List;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.businessentities.Queryable;
+import org.ovirt.engine.core.common.queries.SearchChanges;
+import org.ovirt.engine.core.common.queries.SearchChangesParameters;
+
+/**
+ * Returns the changes of the results of a search since the version of them the client already has. Searches whose
+ * changes can't be followed by the {@link SearchChangeFeed}, or which are continued by a token, always return
+ * complete changes. A failed search returns no changes, and its failure is not kept by the feed.
+ */
+public class GetSearchChangesQuery<P extends SearchChangesParameters> extends SearchQuery<P> {
+
+    @Inject
+    private SearchChangeFeed searchChangeFeed;
+
+    public GetSearchChangesQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        P parameters = getParameters();
+        if (!SearchChangeFeed.isSupported(parameters.getSearchTypeValue())
+                || parameters.getContinuationToken() != null) {
+            List<? extends Queryable> results = search();
+            if (results != null) {
+                getQueryReturnValue().setReturnValue(SearchChanges.complete(0, results));
+            }
+            return;
+        }
+
+        SearchChangeFeed.SearchKey key = new SearchChangeFeed.SearchKey(parameters.getSearchPattern(),
+                parameters.getSearchTypeValue(),
+                parameters.getCaseSensitive(),
+                parameters.getMaxCount(),
+                parameters.getSearchFrom(),
+                parameters.isFiltered() ? getUserID() : null);
+        SearchChanges<Queryable> changes = searchChangeFeed.getChanges(key,
+                parameters.getKnownVersion(),
+                parameters.isSearchAgain(),
+                this::search);
+        if (changes != null) {
+            getQueryReturnValue().setReturnValue(changes);
+        }
+    }
+
+    /**
+     * @return the results of the search, or {@code null} if it failed
+     */
+    private List<? extends Queryable> search() {
+        super.executeQueryCommand();
+        return getQueryReturnValue().getSucceeded() ? getQueryReturnValue().getReturnValue() : null;
+    }
+}
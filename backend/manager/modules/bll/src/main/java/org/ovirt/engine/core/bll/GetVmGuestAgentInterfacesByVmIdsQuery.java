@@ -0,0 +1,24 @@
+package org.ovirt.engine.core.bll;
+
+import javax.inject.Inject;
+
+import org.ovirt.engine.core.bll.context.EngineContext;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.dao.VmGuestAgentInterfaceDao;
+
+public class GetVmGuestAgentInterfacesByVmIdsQuery<P extends IdsQueryParameters>
+        extends QueriesCommandBase<P> {
+
+    @Inject
+    private VmGuestAgentInterfaceDao vmGuestAgentInterfaceDao;
+
+    public GetVmGuestAgentInterfacesByVmIdsQuery(P parameters, EngineContext engineContext) {
+        super(parameters, engineContext);
+    }
+
+    @Override
+    protected void executeQueryCommand() {
+        getQueryReturnValue().setReturnValue(vmGuestAgentInterfaceDao
+                .getAllForVms(getParameters().getIds(), getUserID(), getParameters().isFiltered()));
+    }
+}
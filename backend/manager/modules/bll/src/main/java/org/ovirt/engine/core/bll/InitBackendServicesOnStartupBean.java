@@ -30,6 +30,7 @@ import org.ovirt.engine.core.common.utils.exceptions.InitializationException;
 import org.ovirt.engine.core.utils.customprop.DevicePropertiesUtils;
 import org.ovirt.engine.core.vdsbroker.ResourceManager;
 import org.ovirt.engine.core.vdsbroker.irsbroker.IrsProxyManager;
+import org.ovirt.engine.core.vdsbroker.monitoring.WriteBehindStatisticsStore;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +74,7 @@ public class InitBackendServicesOnStartupBean implements InitBackendServicesOnSt
             serviceLoader.load(PmHealthCheckManager.class);
             serviceLoader.load(EngineBackupAwarenessManager.class);
             serviceLoader.load(DataCenterCompatibilityChecker.class);
+            serviceLoader.load(WriteBehindStatisticsStore.class);
             serviceLoader.load(ResourceManager.class);
             serviceLoader.load(HostDeviceManager.class);
 
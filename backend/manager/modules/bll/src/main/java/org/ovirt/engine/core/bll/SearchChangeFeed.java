@@ -0,0 +1,292 @@
+package org.ovirt.engine.core.bll;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.businessentities.Queryable;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.common.queries.SearchChanges;
+import org.ovirt.engine.core.compat.Guid;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the latest results of searches, so the clients which repeat a search get only the results which changed
+ * since the version of the results they already have.
+ * <p>
+ * Each result carries the version in which it last changed, and the versions come from a single counter, so they
+ * only grow. A result changed when the digest of its serialized form differs from the one of the previous search,
+ * since the entities are equal whenever their ids are. The clients repeating the same search share its results,
+ * which are searched again once they are older than {@link ConfigValues#SearchChangeFeedTimeToLiveInMillis}, so a
+ * search repeated by many clients runs at most once in that time. Filtered searches are kept per user.
+ * <p>
+ * The feed holds the latest results of up to {@link ConfigValues#SearchChangeFeedSize} searches, dropping the least
+ * recently requested ones, and drops the results of searches nobody requested for a while.
+ */
+@Singleton
+public class SearchChangeFeed {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchChangeFeed.class);
+
+    private static final Set<SearchType> SUPPORTED_TYPES = EnumSet.of(SearchType.VM, SearchType.VDS);
+    private static final long IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+    /**
+     * The versions start from the time the engine started in microseconds, so the versions a client got before the
+     * engine restarted aren't taken for later ones
+     */
+    private final AtomicLong versions = new AtomicLong(TimeUnit.MILLISECONDS.toMicros(System.currentTimeMillis()));
+
+    private Map<SearchKey, Feed> feeds;
+    private long timeToLiveMillis;
+
+    public SearchChangeFeed() {
+    }
+
+    SearchChangeFeed(int maxSize, long timeToLiveMillis) {
+        init(maxSize, timeToLiveMillis);
+    }
+
+    @PostConstruct
+    private void init() {
+        init(Config.<Integer> getValue(ConfigValues.SearchChangeFeedSize),
+                Config.<Integer> getValue(ConfigValues.SearchChangeFeedTimeToLiveInMillis));
+    }
+
+    private void init(int maxSize, long timeToLiveMillis) {
+        this.feeds = new LinkedHashMap<SearchKey, Feed>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchKey, Feed> eldest) {
+                return size() > maxSize;
+            }
+        };
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * @return whether the changes of searches of the given type can be followed by the feed
+     */
+    public static boolean isSupported(SearchType searchType) {
+        return SUPPORTED_TYPES.contains(searchType);
+    }
+
+    /**
+     * Returns the changes of the results of the given search since the given version, searching for the results
+     * again if they are too old or if the client asked to search again.
+     *
+     * @param knownVersion
+     *            the version of the results the client already has, 0 if it has none
+     * @param searchAgain
+     *            whether to search again even if the latest results are recent enough
+     * @param search
+     *            runs the search and returns its results, or {@code null} if it failed
+     * @return the changes, or {@code null} if the search failed
+     */
+    public SearchChanges<Queryable> getChanges(SearchKey key,
+            long knownVersion,
+            boolean searchAgain,
+            Supplier<List<? extends Queryable>> search) {
+        long now = System.currentTimeMillis();
+        Feed feed;
+        synchronized (this) {
+            removeIdleFeeds(now);
+            feed = feeds.get(key);
+            if (feed == null) {
+                feed = new Feed();
+                feeds.put(key, feed);
+            }
+            feed.lastRequested = now;
+        }
+
+        // the clients repeating the search wait for the one searching instead of searching as well
+        synchronized (feed) {
+            if (searchAgain || feed.items == null || now - feed.date >= timeToLiveMillis) {
+                List<? extends Queryable> items = search.get();
+                if (items == null) {
+                    // the failure is not kept, so the next request searches again
+                    return null;
+                }
+                feed.update(items, System.currentTimeMillis());
+            }
+            return feed.getChangesSince(knownVersion);
+        }
+    }
+
+    private void removeIdleFeeds(long now) {
+        Iterator<Feed> iterator = feeds.values().iterator();
+        while (iterator.hasNext() && now - iterator.next().lastRequested >= IDLE_TIMEOUT_MILLIS) {
+            iterator.remove();
+        }
+    }
+
+    synchronized int getSize() {
+        return feeds.size();
+    }
+
+    /**
+     * @return the digest of the serialized form of the given result, or {@code null} if it can't be serialized
+     */
+    private static byte[] digest(Queryable item) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (ObjectOutputStream out =
+                    new ObjectOutputStream(new DigestOutputStream(OutputStream.nullOutputStream(), digest))) {
+                out.writeObject(item);
+            }
+            return digest.digest();
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debug("Can't digest search result '{}', it is taken as changed: {}",
+                    item.getQueryableId(),
+                    e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The latest results of a search.
+     */
+    private class Feed {
+        /** the version the feed started from, the changes since an earlier version can't be told */
+        private long firstVersion;
+        private long version;
+        /** the version in which the ids of the results or their order last changed */
+        private long idsVersion;
+        private List<Queryable> items;
+        private List<Object> ids;
+        private Map<Object, ItemVersion> itemVersions = Collections.emptyMap();
+        private long date;
+        private long lastRequested;
+
+        private void update(List<? extends Queryable> newItems, long date) {
+            long newVersion = 0;
+            List<Object> newIds = new ArrayList<>(newItems.size());
+            Map<Object, ItemVersion> newItemVersions = new HashMap<>();
+            for (Queryable item : newItems) {
+                Object id = item.getQueryableId();
+                byte[] digest = digest(item);
+                ItemVersion itemVersion = itemVersions.get(id);
+                if (itemVersion == null || digest == null || !Arrays.equals(itemVersion.digest, digest)) {
+                    if (newVersion == 0) {
+                        newVersion = versions.incrementAndGet();
+                    }
+                    itemVersion = new ItemVersion(digest, newVersion);
+                }
+                newItemVersions.put(id, itemVersion);
+                newIds.add(id);
+            }
+            if (!newIds.equals(ids)) {
+                if (newVersion == 0) {
+                    newVersion = versions.incrementAndGet();
+                }
+                idsVersion = newVersion;
+            }
+
+            if (items == null) {
+                firstVersion = newVersion;
+            }
+            if (newVersion != 0) {
+                version = newVersion;
+            }
+            this.items = new ArrayList<>(newItems);
+            this.ids = newIds;
+            this.itemVersions = newItemVersions;
+            this.date = date;
+        }
+
+        private SearchChanges<Queryable> getChangesSince(long knownVersion) {
+            if (knownVersion < firstVersion || knownVersion > version) {
+                return SearchChanges.complete(version, items);
+            }
+
+            List<Queryable> changedItems = new ArrayList<>();
+            for (Queryable item : items) {
+                if (itemVersions.get(item.getQueryableId()).version > knownVersion) {
+                    changedItems.add(item);
+                }
+            }
+            return new SearchChanges<>(version, changedItems, idsVersion > knownVersion ? new ArrayList<>(ids) : null);
+        }
+    }
+
+    private static class ItemVersion {
+        private final byte[] digest;
+        private final long version;
+
+        private ItemVersion(byte[] digest, long version) {
+            this.digest = digest;
+            this.version = version;
+        }
+    }
+
+    /**
+     * Identifies a search by everything its results depend on.
+     */
+    public static class SearchKey {
+        private final String searchText;
+        private final SearchType searchType;
+        private final boolean caseSensitive;
+        private final int maxCount;
+        private final long searchFrom;
+        /** the user whose permissions filter the results, {@code null} if they aren't filtered */
+        private final Guid userId;
+
+        public SearchKey(String searchText,
+                SearchType searchType,
+                boolean caseSensitive,
+                int maxCount,
+                long searchFrom,
+                Guid userId) {
+            this.searchText = searchText;
+            this.searchType = searchType;
+            this.caseSensitive = caseSensitive;
+            this.maxCount = maxCount;
+            this.searchFrom = searchFrom;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SearchKey)) {
+                return false;
+            }
+            SearchKey other = (SearchKey) obj;
+            return caseSensitive == other.caseSensitive
+                    && maxCount == other.maxCount
+                    && searchFrom == other.searchFrom
+                    && searchType == other.searchType
+                    && Objects.equals(searchText, other.searchText)
+                    && Objects.equals(userId, other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(searchText, searchType, caseSensitive, maxCount, searchFrom, userId);
+        }
+    }
+}
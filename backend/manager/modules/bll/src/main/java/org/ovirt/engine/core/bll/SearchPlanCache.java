@@ -0,0 +1,403 @@
+package org.ovirt.engine.core.bll;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the SQL queries compiled from search texts, so repeated searches don't go through the syntax checker again.
+ * <p>
+ * The cache holds up to {@link ConfigValues#SearchPlanCacheSize} compiled queries, dropping the least recently used
+ * ones, and compiles a search again once its query is older than {@link ConfigValues#SearchPlanCacheTimeToLiveInMinutes}.
+ * <p>
+ * Besides the queries of exact search texts, the cache keeps query templates of searches which differ only in their
+ * values, so {@code Vms: name=vm1} and {@code Vms: name=vm2} are compiled once. A template is made by compiling the
+ * search with placeholders instead of its plain alphanumeric values, and is only kept when putting the original values
+ * in place of the placeholders gives exactly the query compiled from the original search. Searches whose values are
+ * converted by the syntax checker, like dates, enums or numbers, therefore never get a template.
+ */
+@Singleton
+public class SearchPlanCache implements SearchPlanCacheMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchPlanCache.class);
+
+    /** a plain value right after a condition relation, which is put in the query as is */
+    private static final Pattern TEMPLATE_VALUE = Pattern.compile("(?<=[=<>]\\s{0,10})([A-Za-z0-9]+)(?=\\s|$)");
+    private static final String PLACEHOLDER_PREFIX = "zzsearchvalue";
+    private static final String PLACEHOLDER_SUFFIX = "zz";
+    /** a value which the syntax checker turns into a condition of its own, so it can't share a template */
+    private static final String NULL_VALUE = "null";
+
+    private Map<SearchPlanKey, QueryData> plans;
+    private Map<SearchPlanKey, SearchTemplate> templates;
+    private long timeToLiveMillis;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder templateHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    public SearchPlanCache() {
+    }
+
+    SearchPlanCache(int maxSize, long timeToLiveMillis) {
+        init(maxSize, timeToLiveMillis);
+    }
+
+    @PostConstruct
+    private void init() {
+        init(Config.<Integer> getValue(ConfigValues.SearchPlanCacheSize),
+                TimeUnit.MINUTES.toMillis(Config.<Integer> getValue(ConfigValues.SearchPlanCacheTimeToLiveInMinutes)));
+        registerInJMX();
+    }
+
+    private void init(int maxSize, long timeToLiveMillis) {
+        this.plans = createLruMap(maxSize);
+        this.templates = createLruMap(maxSize);
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        unregisterFromJMX();
+    }
+
+    private <V> Map<SearchPlanKey, V> createLruMap(int maxSize) {
+        return new LinkedHashMap<SearchPlanKey, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<SearchPlanKey, V> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        };
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("SearchPlanCache:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Problem during unregistration of Monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * @return the query compiled for the given search, either from the same search text or from a template of a
+     *         search which differs only in its values, or {@code null} if the search has to be compiled
+     */
+    public QueryData get(SearchPlanKey key) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            QueryData data = plans.get(key);
+            if (data != null && !isExpired(data.getDate(), now)) {
+                hits.increment();
+                return data;
+            }
+        }
+
+        TemplateValues values = TemplateValues.of(key.getSearchText());
+        if (values != null) {
+            SearchTemplate template;
+            synchronized (this) {
+                template = templates.get(key.withSearchText(values.getTemplateText()));
+            }
+            if (template != null && template.isUsable() && !isExpired(template.getDate(), now)) {
+                QueryData data = new QueryData(template.fill(values.getValues()), template.getDate(), null, null);
+                synchronized (this) {
+                    plans.put(key, data);
+                }
+                templateHits.increment();
+                return data;
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Keeps the query compiled for the given search. When the search may share a template with other searches and
+     * there's no template for it yet, the given compiler is used to compile the search with placeholders instead of
+     * its values.
+     *
+     * @param compiler
+     *            compiles a search text into a query, returns {@code null} if the search text isn't valid. May be
+     *            {@code null} if the search must not be templated.
+     */
+    public void put(SearchPlanKey key, QueryData data, Function<String, String> compiler) {
+        synchronized (this) {
+            plans.put(key, data);
+        }
+
+        TemplateValues values = compiler == null ? null : TemplateValues.of(key.getSearchText());
+        if (values == null) {
+            return;
+        }
+        SearchPlanKey templateKey = key.withSearchText(values.getTemplateText());
+        synchronized (this) {
+            SearchTemplate template = templates.get(templateKey);
+            if (template != null && !isExpired(template.getDate(), data.getDate())) {
+                return;
+            }
+        }
+
+        SearchTemplate template = SearchTemplate.create(compiler.apply(values.getPlaceholderText()),
+                values.getValues(),
+                data.getQuery(),
+                data.getDate());
+        log.debug("Search '{}' {} be templated", key.getSearchText(), template.isUsable() ? "can" : "can't");
+        synchronized (this) {
+            templates.put(templateKey, template);
+        }
+    }
+
+    private boolean isExpired(long date, long now) {
+        return now - date >= timeToLiveMillis;
+    }
+
+    @Override
+    public synchronized int getPlanCount() {
+        return plans.size();
+    }
+
+    @Override
+    public synchronized int getTemplateCount() {
+        return templates.size();
+    }
+
+    @Override
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getTemplateHitCount() {
+        return templateHits.sum();
+    }
+
+    @Override
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    @Override
+    public double getHitRatio() {
+        long answered = getHitCount() + getTemplateHitCount();
+        long total = answered + getMissCount();
+        return total == 0 ? 0 : (double) answered / total;
+    }
+
+    private static String placeholder(int index) {
+        return PLACEHOLDER_PREFIX + index + PLACEHOLDER_SUFFIX;
+    }
+
+    /**
+     * Identifies a compiled search query by everything it is compiled from.
+     */
+    public static class SearchPlanKey {
+        private final String searchText;
+        private final SearchType searchType;
+        private final boolean caseSensitive;
+        private final int maxCount;
+        private final long searchFrom;
+
+        public SearchPlanKey(String searchText,
+                SearchType searchType,
+                boolean caseSensitive,
+                int maxCount,
+                long searchFrom) {
+            this.searchText = searchText;
+            this.searchType = searchType;
+            this.caseSensitive = caseSensitive;
+            this.maxCount = maxCount;
+            this.searchFrom = searchFrom;
+        }
+
+        public String getSearchText() {
+            return searchText;
+        }
+
+        SearchPlanKey withSearchText(String searchText) {
+            return new SearchPlanKey(searchText, searchType, caseSensitive, maxCount, searchFrom);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof SearchPlanKey)) {
+                return false;
+            }
+            SearchPlanKey other = (SearchPlanKey) obj;
+            return caseSensitive == other.caseSensitive
+                    && maxCount == other.maxCount
+                    && searchFrom == other.searchFrom
+                    && searchType == other.searchType
+                    && Objects.equals(searchText, other.searchText);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(searchText, searchType, caseSensitive, maxCount, searchFrom);
+        }
+    }
+
+    /**
+     * The values of a search which may be replaced by placeholders.
+     */
+    static class TemplateValues {
+        private final String templateText;
+        private final String placeholderText;
+        private final List<String> values;
+
+        private TemplateValues(String templateText, String placeholderText, List<String> values) {
+            this.templateText = templateText;
+            this.placeholderText = placeholderText;
+            this.values = values;
+        }
+
+        /**
+         * @return the values of the given search, or {@code null} if it has no values which may be replaced
+         */
+        static TemplateValues of(String searchText) {
+            if (searchText.indexOf('\'') >= 0 || searchText.indexOf('"') >= 0 || searchText.indexOf('?') >= 0
+                    || searchText.contains(PLACEHOLDER_PREFIX)) {
+                return null;
+            }
+
+            List<String> values = new ArrayList<>();
+            StringBuffer templateText = new StringBuffer();
+            StringBuffer placeholderText = new StringBuffer();
+            Matcher matcher = TEMPLATE_VALUE.matcher(searchText);
+            int end = 0;
+            while (matcher.find()) {
+                String value = matcher.group(1);
+                if (NULL_VALUE.equalsIgnoreCase(value)) {
+                    continue;
+                }
+                String textBefore = searchText.substring(end, matcher.start());
+                templateText.append(textBefore).append('?');
+                placeholderText.append(textBefore).append(placeholder(values.size()));
+                values.add(value);
+                end = matcher.end();
+            }
+            if (values.isEmpty()) {
+                return null;
+            }
+            templateText.append(searchText.substring(end));
+            placeholderText.append(searchText.substring(end));
+            return new TemplateValues(templateText.toString(), placeholderText.toString(), values);
+        }
+
+        String getTemplateText() {
+            return templateText;
+        }
+
+        String getPlaceholderText() {
+            return placeholderText;
+        }
+
+        List<String> getValues() {
+            return values;
+        }
+    }
+
+    /**
+     * A query compiled with placeholders instead of the values of the search.
+     */
+    static class SearchTemplate {
+        /** the query, or {@code null} if the search can't be templated */
+        private final String query;
+        private final int valueCount;
+        private final long date;
+
+        private SearchTemplate(String query, int valueCount, long date) {
+            this.query = query;
+            this.valueCount = valueCount;
+            this.date = date;
+        }
+
+        /**
+         * @param placeholderQuery
+         *            the query compiled with placeholders, {@code null} if it couldn't be compiled
+         * @param values
+         *            the values of the original search
+         * @param query
+         *            the query compiled from the original search
+         */
+        static SearchTemplate create(String placeholderQuery, List<String> values, String query, long date) {
+            SearchTemplate template = new SearchTemplate(placeholderQuery, values.size(), date);
+            if (placeholderQuery == null) {
+                return template;
+            }
+            for (int i = 0; i < values.size(); i++) {
+                if (!placeholderQuery.contains(placeholder(i))) {
+                    return new SearchTemplate(null, values.size(), date);
+                }
+            }
+            return query.equals(template.fill(values)) ? template : new SearchTemplate(null, values.size(), date);
+        }
+
+        boolean isUsable() {
+            return query != null;
+        }
+
+        long getDate() {
+            return date;
+        }
+
+        String fill(List<String> values) {
+            if (values.size() != valueCount) {
+                throw new IllegalArgumentException("Expected " + valueCount + " values but got " + values.size());
+            }
+            String filled = query;
+            for (int i = 0; i < values.size(); i++) {
+                filled = filled.replace(placeholder(i), values.get(i));
+            }
+            return filled;
+        }
+    }
+}
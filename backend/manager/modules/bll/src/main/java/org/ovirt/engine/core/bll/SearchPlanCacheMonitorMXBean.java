@@ -0,0 +1,42 @@
+package org.ovirt.engine.core.bll;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface SearchPlanCacheMonitorMXBean {
+
+    /**
+     * The number of compiled search queries currently kept
+     */
+    int getPlanCount();
+
+    /**
+     * The number of search query templates currently kept, including the ones of searches which can't be templated
+     */
+    int getTemplateCount();
+
+    /**
+     * The number of searches answered by a compiled search query of the same search text
+     */
+    long getHitCount();
+
+    /**
+     * The number of searches answered by a search query template of a search which differs only in its values
+     */
+    long getTemplateHitCount();
+
+    /**
+     * The number of searches which had to be compiled
+     */
+    long getMissCount();
+
+    /**
+     * The number of compiled search queries and templates dropped to keep the cache within its size
+     */
+    long getEvictionCount();
+
+    /**
+     * The share of searches which didn't have to be compiled, between 0 and 1
+     */
+    double getHitRatio();
+}
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,8 +55,8 @@ import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.common.utils.SearchContinuationToken;
 import org.ovirt.engine.core.compat.DateTime;
-import org.ovirt.engine.core.compat.TimeSpan;
 import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dao.AuditLogDao;
 import org.ovirt.engine.core.dao.ClusterDao;
@@ -87,9 +86,11 @@ import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 
 public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<P> {
-    private static final Map<String, QueryData> queriesCache = new HashMap<>();
     public static final String LDAP = "LDAP";
 
+    @Inject
+    private SearchPlanCache searchPlanCache;
+
     @Inject
     private QuotaManager quotaManager;
 
@@ -486,43 +487,39 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                     StringUtils.join(AD_SEARCH_TYPES, "|")));
 
     private QueryData initQueryData(boolean useCache) {
-        final String ASTR = "*";
         QueryData data = null;
-        boolean isExistsValue = false;
-        boolean IsFromYesterday = false;
         boolean isSafe = false;
-        String searchKey = "";
+        SearchPlanCache.SearchPlanKey planKey = null;
         try {
             if (getParameters().getMaxCount() < 0) {
                 throw new RuntimeException(String.format("Illegal max count value for query : %s", getParameters().getMaxCount()));
             }
             String searchText = getParameters().getSearchPattern();
-            // do not cache expressions with '*' since it is translated to specific IDs that might be changed
-            useCache = useCache && !searchText.contains(ASTR);
-            if (useCache) {
+            if (!isValidContinuationToken()) {
+                return null;
+            }
+            // a continued search compiles the sort key of its token into the query, so it isn't cached
+            if (useCache && getParameters().getContinuationToken() == null) {
                 // first lets check the cache of queries.
-                searchKey = String.format("%1$s,%2$s,%3$s", searchText, getParameters().getMaxCount(), getParameters().getCaseSensitive());
-                data = queriesCache.get(searchKey);
-                isExistsValue = data != null;
-
-                if (isExistsValue) {
-                    TimeSpan span = DateTime.getNow().subtract(new Date(data.getDate()));
-                    if (span.Days >= 1) {
-                        IsFromYesterday = true;
-                    }
-                }
+                planKey = new SearchPlanCache.SearchPlanKey(searchText,
+                        getParameters().getSearchTypeValue(),
+                        getParameters().getCaseSensitive(),
+                        getParameters().getMaxCount(),
+                        getParameters().getSearchFrom());
+                data = searchPlanCache.get(planKey);
             }
             // query not in cache or the cached entry is too old, process the
             // search text.
-            if (!isExistsValue || IsFromYesterday) {
+            if (data == null) {
                 log.debug("ResourceManager::searchBusinessObjects(''{}'') - entered", searchText);
                 final char AT='@';
                 String queryAuthz = null;
                 String queryNamespace = null;
                 ISyntaxChecker curSyntaxChecker;
                 Matcher m = adSearchPattern.matcher(searchText);
+                boolean isADQuery = m.matches();
                 // checks if this is a AD query, if it is, verify given profile and namespace and pass the query
-                if (m.matches()) {
+                if (isADQuery) {
                     final String COLON = ":";
                     String prefix = m.group("prefix");
                     searchText =  m.group("content");
@@ -562,13 +559,7 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 } else {
                     curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker(LDAP);
                 }
-                SyntaxContainer searchObj = curSyntaxChecker.analyzeSyntaxState(searchText, true);
-                // set the case-sensitive flag
-                searchObj.setCaseSensitive(getParameters().getCaseSensitive());
-                // If a number > maxValue is given then maxValue will be used
-                searchObj.setMaxCount(Math.min(Integer.MAX_VALUE, getParameters().getMaxCount()));
-                // setting FromSearch value
-                searchObj.setSearchFrom(getParameters().getSearchFrom());
+                SyntaxContainer searchObj = analyzeSyntaxState(curSyntaxChecker, searchText);
                 if (searchObj.getError() != SyntaxError.NO_ERROR) {
                     int startPos = searchObj.getErrorStartPos();
                     int endPos = searchObj.getErrorEndPos();
@@ -604,8 +595,12 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
                 // statically, therefore , in order to reflect changes in the parent tree
                 // we should not rely on the cached query in such case and have to build the
                 // query from scratch.
-                if (!containsStaticInValues(data.getQuery())) {
-                    queriesCache.put(searchKey, data);
+                if (planKey != null && !containsStaticInValues(data.getQuery())) {
+                    // AD queries depend on the profile and namespace found for them, so they aren't templated
+                    final ISyntaxChecker syntaxChecker = curSyntaxChecker;
+                    searchPlanCache.put(planKey,
+                            data,
+                            isADQuery ? null : text -> generateQuery(syntaxChecker, text));
                 }
             }
         } catch (SearchEngineIllegalCharacterException e) {
@@ -622,12 +617,70 @@ public class SearchQuery<P extends SearchParameters> extends QueriesCommandBase<
         return data;
     }
 
+    private SyntaxContainer analyzeSyntaxState(ISyntaxChecker syntaxChecker, String searchText) {
+        SyntaxContainer searchObj = syntaxChecker.analyzeSyntaxState(searchText, true);
+        // set the case-sensitive flag
+        searchObj.setCaseSensitive(getParameters().getCaseSensitive());
+        // If a number > maxValue is given then maxValue will be used
+        searchObj.setMaxCount(Math.min(Integer.MAX_VALUE, getParameters().getMaxCount()));
+        // setting FromSearch value
+        searchObj.setSearchFrom(getParameters().getSearchFrom());
+        // setting the sort key to continue the search after
+        if (getParameters().getContinuationToken() != null) {
+            searchObj.setSearchAfter(SearchContinuationToken.parse(getParameters().getSearchTypeValue(),
+                    getParameters().getContinuationToken()));
+        }
+        return searchObj;
+    }
+
+    private boolean isValidContinuationToken() {
+        String token = getParameters().getContinuationToken();
+        if (token == null) {
+            return true;
+        }
+        String error = null;
+        if (!SearchContinuationToken.isSupported(getParameters().getSearchTypeValue())) {
+            error = String.format("Search of %s can't be continued by a token", getParameters().getSearchTypeValue());
+        } else {
+            try {
+                SearchContinuationToken.parse(getParameters().getSearchTypeValue(), token);
+            } catch (IllegalArgumentException e) {
+                error = String.format("Invalid continuation token: %s", token);
+            }
+        }
+        if (error != null) {
+            getQueryReturnValue().setExceptionString(error);
+            log.info("ResourceManager::searchBusinessObjects - {}", error);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return the query of the given search text, or {@code null} if the search text isn't valid
+     */
+    private String generateQuery(ISyntaxChecker syntaxChecker, String searchText) {
+        try {
+            SyntaxContainer searchObj = analyzeSyntaxState(syntaxChecker, searchText);
+            if (searchObj.getError() != SyntaxError.NO_ERROR || !searchObj.getvalid()) {
+                return null;
+            }
+            return syntaxChecker.generateQueryFromSyntaxContainer(searchObj,
+                    SearchObjects.isSafeExpression(searchText));
+        } catch (RuntimeException e) {
+            log.debug("Failed to generate query of search '{}': {}", searchText, e.getMessage());
+            return null;
+        }
+    }
+
     protected String getDefaultAuthz() {
         return AuthenticationProfileRepository.getInstance().getProfiles().get(0).getName();
     }
 
     private static boolean containsStaticInValues(String query) {
         final String MATCH_IN_TAG_ID_CLAUSE = "with_tags.tag_id in";
-        return query.toLowerCase().contains(MATCH_IN_TAG_ID_CLAUSE);
+        final String MATCH_IN_TAG_NAME_CLAUSE = "tag_name in";
+        String lowerCaseQuery = query.toLowerCase();
+        return lowerCaseQuery.contains(MATCH_IN_TAG_ID_CLAUSE) || lowerCaseQuery.contains(MATCH_IN_TAG_NAME_CLAUSE);
     }
 }
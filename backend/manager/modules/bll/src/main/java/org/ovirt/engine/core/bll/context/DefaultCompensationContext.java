@@ -1,9 +1,10 @@
 package org.ovirt.engine.core.bll.context;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -22,7 +23,8 @@ import org.ovirt.engine.core.utils.Serializer;
 
 /**
  * Default context used to track entities that are changing during a command's execution and save the changes at each
- * state change to the DB.
+ * state change to the DB, or only keep them in memory for commands whose compensation doesn't need to survive a
+ * restart of the engine.
  */
 public class DefaultCompensationContext extends CompensationContextBase {
 
@@ -35,7 +37,17 @@ public class DefaultCompensationContext extends CompensationContextBase {
     /**
      * All the entities that have been changed/added since the state/command began.
      */
-    private List<BusinessEntitySnapshot> entitiesToPersist = new LinkedList<>();
+    private List<BusinessEntitySnapshot> entitiesToPersist = new ArrayList<>();
+
+    /**
+     * All the entities that have been changed/added by the states that ended, when they are not saved to the DB.
+     */
+    private List<BusinessEntitySnapshot> inMemorySnapshots = new ArrayList<>();
+
+    /**
+     * Whether the snapshots are kept only in memory, so they are not compensated if the engine restarts.
+     */
+    private boolean inMemory;
 
     /**
      * The serializer which is used to convert the entity to a snapshot.
@@ -97,6 +109,28 @@ public class DefaultCompensationContext extends CompensationContextBase {
         this.commandType = commandType;
     }
 
+    /**
+     * @param inMemory
+     *            whether to keep the snapshots only in memory instead of saving them to the DB
+     */
+    public void setInMemory(boolean inMemory) {
+        this.inMemory = inMemory;
+    }
+
+    public boolean isInMemory() {
+        return inMemory;
+    }
+
+    /**
+     * @return the snapshots kept in memory by the states that ended, the last one taken first, like the snapshots
+     *         saved to the DB are read back
+     */
+    public List<BusinessEntitySnapshot> getInMemorySnapshots() {
+        List<BusinessEntitySnapshot> snapshots = new ArrayList<>(inMemorySnapshots);
+        Collections.reverse(snapshots);
+        return snapshots;
+    }
+
     @Override
     public void snapshotEntity(BusinessEntity<?> entity) {
         snapshotEntityInMemory(entity, entity, SnapshotType.DELETED_OR_UPDATED_ENTITY);
@@ -131,7 +165,8 @@ public class DefaultCompensationContext extends CompensationContextBase {
     }
 
     /**
-     * Save a snapshot of the entity but only if it is new to this context.
+     * Save a snapshot of the entity but only if it is new to this context, so entities that were already snapshotted
+     * aren't serialized again.
      *
      * @param entity
      *            The entity to save a snapshot of.
@@ -144,9 +179,7 @@ public class DefaultCompensationContext extends CompensationContextBase {
     private void snapshotEntityInMemory(BusinessEntity<?> entity, Serializable payload, SnapshotType snapshotType) {
         CachedEntityEntry cachedEntityEntry = new CachedEntityEntry(entity, snapshotType);
         checkEntityForRollback(entity);
-        if (!cachedEntities.contains(cachedEntityEntry)) {
-            cachedEntities.add(cachedEntityEntry);
-
+        if (cachedEntities.add(cachedEntityEntry)) {
             entitiesToPersist.add(createBusinessEntitySnapshot(entity, payload, snapshotType));
         }
     }
@@ -184,8 +217,10 @@ public class DefaultCompensationContext extends CompensationContextBase {
 
     @Override
     public void stateChanged() {
-        for (BusinessEntitySnapshot snapshot : entitiesToPersist) {
-            businessEntitySnapshotDao.save(snapshot);
+        if (inMemory) {
+            inMemorySnapshots.addAll(entitiesToPersist);
+        } else if (!entitiesToPersist.isEmpty()) {
+            businessEntitySnapshotDao.saveAll(entitiesToPersist);
         }
 
         entitiesToPersist.clear();
@@ -203,7 +238,10 @@ public class DefaultCompensationContext extends CompensationContextBase {
 
     @Override
     public void doClearCollectedCompensationData() {
-        businessEntitySnapshotDao.removeAllForCommandId(commandId);
+        if (!inMemory) {
+            businessEntitySnapshotDao.removeAllForCommandId(commandId);
+        }
+        inMemorySnapshots.clear();
         cachedEntities.clear();
         entitiesToPersist.clear();
     }
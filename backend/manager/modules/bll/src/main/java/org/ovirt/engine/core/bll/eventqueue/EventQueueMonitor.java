@@ -1,36 +1,86 @@
 package org.ovirt.engine.core.bll.eventqueue;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.ListIterator;
 import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.Future;
 import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.ovirt.engine.core.common.eventqueue.Event;
 import org.ovirt.engine.core.common.eventqueue.EventQueue;
 import org.ovirt.engine.core.common.eventqueue.EventResult;
 import org.ovirt.engine.core.common.eventqueue.EventType;
-import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 @Singleton
-public class EventQueueMonitor implements EventQueue {
+public class EventQueueMonitor implements EventQueue, EventQueueMonitorMXBean {
 
     private static final Logger log = LoggerFactory.getLogger(EventQueueMonitor.class);
 
-    private static final ConcurrentMap<Guid, ReentrantLock> poolsLockMap = new ConcurrentHashMap<>();
-    private static final Map<Guid, LinkedList<Pair<Event, FutureTask<EventResult>>>> poolsEventsMap =
-            new ConcurrentHashMap<>();
-    private static final Map<Guid, Event> poolCurrentEventMap = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Guid, PoolEventQueue> poolEventQueues = new ConcurrentHashMap<>();
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName = null;
+
+    /**
+     * The order in which the queued events of a pool are started. Events of the same priority are started in the
+     * order they were submitted in.
+     */
+    private enum Priority {
+        HIGH,
+        NORMAL
+    }
+
+    @PostConstruct
+    private void init() {
+        registerInJMX();
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        unregisterFromJMX();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("EventQueueMonitor:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Problem during unregistration of Monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
 
     @Override
     public void submitEventAsync(Event event, Callable<EventResult> callable) {
@@ -64,161 +114,307 @@ public class EventQueueMonitor implements EventQueue {
             Callable<EventResult> callable) {
         FutureTask<EventResult> task = null;
         Guid storagePoolId = event.getStoragePoolId();
-        ReentrantLock lock = getPoolLock(storagePoolId);
-        lock.lock();
+        PoolEventQueue queue = getPoolEventQueue(storagePoolId);
+        queue.lock.lock();
         try {
-            Event currentEvent = poolCurrentEventMap.get(storagePoolId);
-            if (currentEvent != null) {
-                switch (currentEvent.getEventType()) {
-                case RECOVERY:
-                    if (event.getEventType() == EventType.VDSCONNECTTOPOOL
-                            || event.getEventType() == EventType.VDSCLEARCACHE
-                            || event.getEventType() == EventType.DOMAINFAILOVER) {
-                        task = addTaskToQueue(event, callable, storagePoolId, isEventShouldBeFirst(event));
-                    } else {
-                        log.debug("Current event was skipped because of recovery is running now for pool '{}', event '{}'",
-                                storagePoolId, event);
-                    }
-                    break;
-                case RECONSTRUCT:
-                    if (event.getEventType() == EventType.VDSCONNECTTOPOOL
-                            || event.getEventType() == EventType.RECOVERY
-                            || event.getEventType() == EventType.DOMAINFAILOVER
-                            || event.getEventType() == EventType.VDSCLEARCACHE) {
-                        task = addTaskToQueue(event, callable, storagePoolId, isEventShouldBeFirst(event));
-                    } else {
-                        log.debug("Current event was skipped because of reconstruct is running now for pool '{}', event '{}'",
-                                storagePoolId, event);
-                    }
-                    break;
-                default:
-                    task = addTaskToQueue(event, callable, storagePoolId, isEventShouldBeFirst(event));
-                    break;
+            Event currentEvent = queue.getRunningExclusiveEvent();
+            if (currentEvent != null && currentEvent.getEventType() == EventType.RECOVERY) {
+                if (event.getEventType() == EventType.VDSCONNECTTOPOOL
+                        || event.getEventType() == EventType.VDSCLEARCACHE
+                        || event.getEventType() == EventType.DOMAINFAILOVER) {
+                    task = queue.add(event, callable);
+                } else {
+                    log.debug("Current event was skipped because of recovery is running now for pool '{}', event '{}'",
+                            storagePoolId, event);
+                }
+            } else if (currentEvent != null && currentEvent.getEventType() == EventType.RECONSTRUCT) {
+                if (event.getEventType() == EventType.VDSCONNECTTOPOOL
+                        || event.getEventType() == EventType.RECOVERY
+                        || event.getEventType() == EventType.DOMAINFAILOVER
+                        || event.getEventType() == EventType.VDSCLEARCACHE) {
+                    task = queue.add(event, callable);
+                } else {
+                    log.debug("Current event was skipped because of reconstruct is running now for pool '{}', event '{}'",
+                            storagePoolId, event);
                 }
             } else {
-                task = addTaskToQueue(event, callable, storagePoolId, false);
-                poolCurrentEventMap.put(storagePoolId, event);
-                ThreadPoolUtil.execute(new InternalEventQueueThread(storagePoolId, lock,
-                        poolsEventsMap, poolCurrentEventMap));
+                task = queue.add(event, callable);
             }
+            queue.startEvents();
         } finally {
-            lock.unlock();
+            queue.lock.unlock();
         }
         return task;
     }
 
     /**
-     * The following method should decide if we want that the event will be first for executing, before all other events
-     * already submitted to queue
+     * The following method decides the priority of the event among the other events already submitted to queue
      * @param event
      *            - submitted event
      */
-    private boolean isEventShouldBeFirst(Event event) {
-        return event.getEventType() == EventType.RECOVERY;
+    private static Priority getPriority(Event event) {
+        return event.getEventType() == EventType.RECOVERY ? Priority.HIGH : Priority.NORMAL;
     }
 
-    private FutureTask<EventResult> addTaskToQueue(Event event, Callable<EventResult> callable, Guid storagePoolId, boolean addFirst) {
-        FutureTask<EventResult> task = new FutureTask<>(callable);
-        Pair<Event, FutureTask<EventResult>> queueEvent = new Pair<>(event, task);
-        if (addFirst) {
-            getEventQueue(storagePoolId).addFirst(queueEvent);
-        } else {
-            getEventQueue(storagePoolId).add(queueEvent);
-        }
-        return task;
+    /**
+     * Failover events of different domains do not conflict and may run in parallel, any other event
+     * of the pool runs alone.
+     */
+    private static boolean isExclusive(Event event) {
+        return event.getEventType() != EventType.DOMAINFAILOVER || event.getDomainId() == null;
     }
 
-    private LinkedList<Pair<Event, FutureTask<EventResult>>> getEventQueue(Guid storagePoolId) {
-        LinkedList<Pair<Event, FutureTask<EventResult>>> queue = poolsEventsMap.get(storagePoolId);
-        if (queue == null) {
-            queue = new LinkedList<>();
-            poolsEventsMap.put(storagePoolId, queue);
+    private PoolEventQueue getPoolEventQueue(Guid storagePoolId) {
+        return poolEventQueues.computeIfAbsent(storagePoolId, PoolEventQueue::new);
+    }
+
+    private <T> Map<String, T> collectStatistics(Function<PoolEventQueue, T> statistic) {
+        return poolEventQueues.values().stream()
+                .collect(Collectors.toMap(queue -> queue.storagePoolId.toString(), statistic));
+    }
+
+    @Override
+    public Map<String, Integer> getQueuedEventCounts() {
+        return collectStatistics(PoolEventQueue::getQueuedEventCount);
+    }
+
+    @Override
+    public Map<String, Integer> getRunningEventCounts() {
+        return collectStatistics(PoolEventQueue::getRunningEventCount);
+    }
+
+    @Override
+    public Map<String, Long> getProcessedEventCounts() {
+        return collectStatistics(queue -> queue.processedEvents.sum());
+    }
+
+    @Override
+    public Map<String, Long> getCoalescedEventCounts() {
+        return collectStatistics(queue -> queue.coalescedEvents.sum());
+    }
+
+    @Override
+    public Map<String, Double> getAverageWaitMillis() {
+        return collectStatistics(queue -> queue.getAverageMillis(queue.waitNanos));
+    }
+
+    @Override
+    public Map<String, Double> getAverageServiceMillis() {
+        return collectStatistics(queue -> queue.getAverageMillis(queue.serviceNanos));
+    }
+
+    @Override
+    public void resetStatistics() {
+        for (PoolEventQueue queue : poolEventQueues.values()) {
+            queue.processedEvents.reset();
+            queue.coalescedEvents.reset();
+            queue.waitNanos.reset();
+            queue.serviceNanos.reset();
         }
-        return queue;
     }
 
-    private ReentrantLock getPoolLock(Guid poolId) {
-        if (!poolsLockMap.containsKey(poolId)) {
-            poolsLockMap.putIfAbsent(poolId, new ReentrantLock());
+    private static class QueuedEvent {
+
+        private final Event event;
+        private final Callable<EventResult> callable;
+        private final FutureTask<EventResult> task;
+        private final Priority priority;
+        private final long submitTime = System.nanoTime();
+
+        public QueuedEvent(Event event, Callable<EventResult> callable) {
+            this.event = event;
+            this.callable = callable;
+            this.task = new FutureTask<>(callable);
+            this.priority = getPriority(event);
+        }
+
+        /**
+         * A failover event of a domain duplicates a queued one when it is submitted by the same code,
+         * as running the queued event covers it as well.
+         */
+        public boolean isDuplicatedBy(Event otherEvent, Callable<EventResult> otherCallable) {
+            return otherEvent.getEventType() == EventType.DOMAINFAILOVER
+                    && event.equals(otherEvent)
+                    && callable.getClass() == otherCallable.getClass();
         }
-        return poolsLockMap.get(poolId);
     }
 
-    private static class InternalEventQueueThread implements Runnable {
+    private static class PoolEventQueue {
 
-        private Guid storagePoolId;
-        private ReentrantLock lock;
-        private Map<Guid, Event> poolCurrentEventMap;
-        private Map<Guid, LinkedList<Pair<Event, FutureTask<EventResult>>>> poolsEventsMap;
+        private final Guid storagePoolId;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Ordered by priority and then by submission
+        private final LinkedList<QueuedEvent> queuedEvents = new LinkedList<>();
+        private final List<QueuedEvent> runningEvents = new ArrayList<>();
 
-        public InternalEventQueueThread(Guid storagePoolId,
-                ReentrantLock lock,
-                Map<Guid, LinkedList<Pair<Event, FutureTask<EventResult>>>> poolsEventsMap,
-                Map<Guid, Event> poolCurrentEventMap) {
+        private final LongAdder processedEvents = new LongAdder();
+        private final LongAdder coalescedEvents = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAdder serviceNanos = new LongAdder();
+
+        public PoolEventQueue(Guid storagePoolId) {
             this.storagePoolId = storagePoolId;
-            this.lock = lock;
-            this.poolsEventsMap = poolsEventsMap;
-            this.poolCurrentEventMap = poolCurrentEventMap;
-        }
-
-        @Override
-        public void run() {
-            while (true) {
-                Pair<Event, FutureTask<EventResult>> pair;
-                lock.lock();
-                try {
-                    pair = poolsEventsMap.get(storagePoolId).poll();
-                    if (pair != null) {
-                        poolCurrentEventMap.put(storagePoolId, pair.getFirst());
-                    } else {
-                        poolCurrentEventMap.remove(storagePoolId);
-                        poolsEventsMap.remove(storagePoolId);
-                        log.debug("All task for event query were executed pool '{}'", storagePoolId);
-                        break;
-                    }
-                } finally {
-                    lock.unlock();
+        }
+
+        /**
+         * Adds the event to the queue, after the queued events of the same or higher priority, unless it duplicates
+         * a queued event. Must be called with the lock held.
+         * @return the task of the event
+         */
+        public FutureTask<EventResult> add(Event event, Callable<EventResult> callable) {
+            for (QueuedEvent queuedEvent : queuedEvents) {
+                if (queuedEvent.isDuplicatedBy(event, callable)) {
+                    log.debug("Event '{}' was coalesced with an already queued event for pool '{}'",
+                            event, storagePoolId);
+                    coalescedEvents.increment();
+                    return queuedEvent.task;
+                }
+            }
+
+            QueuedEvent newEvent = new QueuedEvent(event, callable);
+            ListIterator<QueuedEvent> iterator = queuedEvents.listIterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().priority.compareTo(newEvent.priority) > 0) {
+                    iterator.previous();
+                    break;
                 }
-                Future<EventResult> futureResult = ThreadPoolUtil.execute(pair.getSecond());
-                try {
-                    if (futureResult.get() == null) {
-                        EventResult result = pair.getSecond().get();
-                        if (result != null && result.getEventType() == EventType.RECONSTRUCT) {
-                            log.info("Finished reconstruct for pool '{}'. Clearing event queue", storagePoolId);
-                            lock.lock();
-                            try {
-                                LinkedList<Pair<Event, FutureTask<EventResult>>> queue = new LinkedList<>();
-                                for (Pair<Event, FutureTask<EventResult>> task : poolsEventsMap.get(storagePoolId)) {
-                                    EventType eventType = task.getFirst().getEventType();
-                                    if (eventType == EventType.VDSCONNECTTOPOOL
-                                            ||
-                                            ((eventType == EventType.RECOVERY || eventType == EventType.DOMAINFAILOVER || eventType == EventType.VDSCLEARCACHE) && !result.isSuccess())) {
-                                        queue.add(task);
-                                    } else {
-                                        log.info("The following operation '{}' was cancelled, because of reconstruct was run before",
-                                                task.getFirst());
-                                        task.getSecond().cancel(true);
-                                    }
-                                }
-                                if (queue.isEmpty()) {
-                                    poolCurrentEventMap.remove(storagePoolId);
-                                    poolsEventsMap.remove(storagePoolId);
-                                    break;
-                                } else {
-                                    poolsEventsMap.put(storagePoolId, queue);
-                                }
-                            } finally {
-                                lock.unlock();
-                            }
-                        }
+            }
+            iterator.add(newEvent);
+            return newEvent.task;
+        }
+
+        /**
+         * Returns the running event that runs alone in the pool, or null if there is none.
+         * Must be called with the lock held.
+         */
+        public Event getRunningExclusiveEvent() {
+            return runningEvents.stream()
+                    .map(runningEvent -> runningEvent.event)
+                    .filter(EventQueueMonitor::isExclusive)
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /**
+         * Starts the queued events that do not conflict with the running ones. An event that runs alone waits for
+         * the running events to finish, and no event behind it is started before it. Must be called with the lock
+         * held.
+         */
+        public void startEvents() {
+            if (getRunningExclusiveEvent() != null) {
+                return;
+            }
+
+            Iterator<QueuedEvent> iterator = queuedEvents.iterator();
+            while (iterator.hasNext()) {
+                QueuedEvent queuedEvent = iterator.next();
+                if (isExclusive(queuedEvent.event)) {
+                    if (runningEvents.isEmpty()) {
+                        iterator.remove();
+                        start(queuedEvent);
                     }
-                } catch (Exception e) {
-                    log.error("Exception during process of events for pool '{}': {}",
-                            storagePoolId,
-                            e.getMessage());
-                    log.debug("Exception", e);
+                    break;
+                }
+
+                if (!isDomainRunning(queuedEvent.event.getDomainId())) {
+                    iterator.remove();
+                    start(queuedEvent);
+                }
+            }
+
+            if (runningEvents.isEmpty() && queuedEvents.isEmpty()) {
+                log.debug("All task for event query were executed pool '{}'", storagePoolId);
+            }
+        }
+
+        private boolean isDomainRunning(Guid domainId) {
+            return runningEvents.stream().anyMatch(runningEvent -> domainId.equals(runningEvent.event.getDomainId()));
+        }
+
+        private void start(QueuedEvent queuedEvent) {
+            runningEvents.add(queuedEvent);
+            try {
+                ThreadPoolUtil.execute(new FutureTask<Void>(() -> run(queuedEvent), null));
+            } catch (RejectedExecutionException e) {
+                runningEvents.remove(queuedEvent);
+                queuedEvent.task.cancel(false);
+                log.error("Failed to start event '{}' for pool '{}': {}",
+                        queuedEvent.event,
+                        storagePoolId,
+                        e.getMessage());
+            }
+        }
+
+        private void run(QueuedEvent queuedEvent) {
+            long startTime = System.nanoTime();
+            waitNanos.add(startTime - queuedEvent.submitTime);
+            queuedEvent.task.run();
+            serviceNanos.add(System.nanoTime() - startTime);
+            processedEvents.increment();
+
+            EventResult result = null;
+            try {
+                result = queuedEvent.task.get();
+            } catch (CancellationException e) {
+                log.debug("Event '{}' was cancelled for pool '{}'", queuedEvent.event, storagePoolId);
+            } catch (Exception e) {
+                log.error("Exception during process of events for pool '{}': {}",
+                        storagePoolId,
+                        e.getMessage());
+                log.debug("Exception", e);
+            }
+
+            lock.lock();
+            try {
+                runningEvents.remove(queuedEvent);
+                if (result != null && result.getEventType() == EventType.RECONSTRUCT) {
+                    log.info("Finished reconstruct for pool '{}'. Clearing event queue", storagePoolId);
+                    cancelEventsAfterReconstruct(result.isSuccess());
                 }
+                startEvents();
+            } finally {
+                lock.unlock();
             }
         }
+
+        private void cancelEventsAfterReconstruct(boolean reconstructSucceeded) {
+            Iterator<QueuedEvent> iterator = queuedEvents.iterator();
+            while (iterator.hasNext()) {
+                QueuedEvent queuedEvent = iterator.next();
+                EventType eventType = queuedEvent.event.getEventType();
+                boolean keepAfterFailedReconstruct = eventType == EventType.RECOVERY
+                        || eventType == EventType.DOMAINFAILOVER
+                        || eventType == EventType.VDSCLEARCACHE;
+                if (eventType != EventType.VDSCONNECTTOPOOL && (reconstructSucceeded || !keepAfterFailedReconstruct)) {
+                    log.info("The following operation '{}' was cancelled, because of reconstruct was run before",
+                            queuedEvent.event);
+                    queuedEvent.task.cancel(true);
+                    iterator.remove();
+                }
+            }
+        }
+
+        public int getQueuedEventCount() {
+            lock.lock();
+            try {
+                return queuedEvents.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public int getRunningEventCount() {
+            lock.lock();
+            try {
+                return runningEvents.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public double getAverageMillis(LongAdder nanos) {
+            long count = processedEvents.sum();
+            return count == 0 ? 0 : (double) nanos.sum() / TimeUnit.MILLISECONDS.toNanos(1) / count;
+        }
     }
 }
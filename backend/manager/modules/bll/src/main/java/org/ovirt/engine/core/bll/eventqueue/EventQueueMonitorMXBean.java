@@ -0,0 +1,44 @@
+package org.ovirt.engine.core.bll.eventqueue;
+
+import java.util.Map;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface EventQueueMonitorMXBean {
+
+    /**
+     * The number of events waiting to be started, by storage pool id
+     */
+    Map<String, Integer> getQueuedEventCounts();
+
+    /**
+     * The number of running events, by storage pool id
+     */
+    Map<String, Integer> getRunningEventCounts();
+
+    /**
+     * The number of processed events, by storage pool id
+     */
+    Map<String, Long> getProcessedEventCounts();
+
+    /**
+     * The number of events that were coalesced with an already queued event, by storage pool id
+     */
+    Map<String, Long> getCoalescedEventCounts();
+
+    /**
+     * The average time an event waited in the queue before it was started, in milliseconds, by storage pool id
+     */
+    Map<String, Double> getAverageWaitMillis();
+
+    /**
+     * The average time it took to process an event, in milliseconds, by storage pool id
+     */
+    Map<String, Double> getAverageServiceMillis();
+
+    /**
+     * Clears the recorded statistics
+     */
+    void resetStatistics();
+}
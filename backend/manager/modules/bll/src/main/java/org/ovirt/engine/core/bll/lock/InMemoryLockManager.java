@@ -29,6 +29,7 @@ import javax.management.ObjectName;
 import org.ovirt.engine.core.common.errors.EngineMessage;
 import org.ovirt.engine.core.common.locks.LockInfo;
 import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.utils.EngineLocalConfig;
 import org.ovirt.engine.core.utils.lock.EngineLock;
 import org.ovirt.engine.core.utils.lock.LockManager;
 import org.ovirt.engine.core.utils.lock.LockingResult;
@@ -37,6 +38,10 @@ import org.slf4j.LoggerFactory;
 
 /**
  * The following class an implementation of internal locking mechanism
+ * <p>
+ * By default all the locks are guarded by one global lock. When ENGINE_LOCK_MANAGER_STRIPES is set to a positive power
+ * of two in the engine configuration, the locks are kept by a {@link StripedInMemoryLockManager} with that number of
+ * stripes instead.
  */
 @Startup
 @Singleton(name = "LockManager")
@@ -56,8 +61,20 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
     private ObjectName objectName = null;
     private static final Logger log = LoggerFactory.getLogger(InMemoryLockManager.class);
 
+    /** The striped lock manager which keeps the locks instead of this one, null if striping is disabled **/
+    private StripedInMemoryLockManager stripedLockManager;
+
     @PostConstruct
-    public void registerInJMX() {
+    public void init() {
+        int stripes = EngineLocalConfig.getInstance().getInteger("ENGINE_LOCK_MANAGER_STRIPES", 0);
+        if (stripes > 0) {
+            log.info("Using a striped in memory lock manager with {} stripes", stripes);
+            stripedLockManager = new StripedInMemoryLockManager(stripes);
+        }
+        registerInJMX();
+    }
+
+    private void registerInJMX() {
         try {
             objectName = new ObjectName("InMemoryLockManager:type=" + this.getClass().getName());
             platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
@@ -78,6 +95,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public LockingResult acquireLock(EngineLock lock) {
+        if (stripedLockManager != null) {
+            return stripedLockManager.acquireLock(lock);
+        }
         log.debug("Before acquiring lock '{}'", lock);
         globalLock.lock();
         try {
@@ -89,6 +109,10 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public void acquireLockWait(EngineLock lock) {
+        if (stripedLockManager != null) {
+            stripedLockManager.acquireLockWait(lock);
+            return;
+        }
         log.debug("Before acquiring and wait lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
         globalLock.lock();
@@ -106,6 +130,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public LockingResult acquireLockWait(EngineLock lock, long timeoutMillis) {
+        if (stripedLockManager != null) {
+            return stripedLockManager.acquireLockWait(lock, timeoutMillis);
+        }
         log.debug("Before acquiring wait or timeout lock '{}'", lock);
         validateLockForAcquireAndWait(lock);
         if (timeoutMillis <= 0) {
@@ -143,6 +170,10 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public void releaseLock(EngineLock lock) {
+        if (stripedLockManager != null) {
+            stripedLockManager.releaseLock(lock);
+            return;
+        }
         log.debug("Before releasing a lock '{}'", lock);
         globalLock.lock();
         try {
@@ -162,6 +193,10 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public void clear() {
+        if (stripedLockManager != null) {
+            stripedLockManager.clear();
+            return;
+        }
         log.warn("Cleaning all in memory locks");
         globalLock.lock();
         try {
@@ -174,6 +209,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public boolean releaseLock(String lockId) {
+        if (stripedLockManager != null) {
+            return stripedLockManager.releaseLock(lockId);
+        }
         log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
                 + " left for shared lock",
                 lockId);
@@ -199,6 +237,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public List<String> showAllLocks() {
+        if (stripedLockManager != null) {
+            return stripedLockManager.showAllLocks();
+        }
         log.debug("All in memory locks will be shown");
         globalLock.lock();
         try {
@@ -337,6 +378,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public LockInfo getLockInfo(String key) {
+        if (stripedLockManager != null) {
+            return stripedLockManager.getLockInfo(key);
+        }
         InternalLockView internalLockView = locks.get(key);
         if (internalLockView == null) {
             return null;
@@ -356,6 +400,9 @@ public class InMemoryLockManager implements LockManager, LockManagerMonitorMXBea
 
     @Override
     public boolean isExclusiveLockPresent(EngineLock lock) {
+        if (stripedLockManager != null) {
+            return stripedLockManager.isExclusiveLockPresent(lock);
+        }
         return lock.getExclusiveLocks() != null &&
             lock.getExclusiveLocks().entrySet().stream()
                 .anyMatch(entry -> getLockInfo(buildHashMapKey(entry)) != null);
@@ -0,0 +1,575 @@
+package org.ovirt.engine.core.bll.lock;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import javax.enterprise.inject.Vetoed;
+
+import org.ovirt.engine.core.common.errors.EngineMessage;
+import org.ovirt.engine.core.common.locks.LockInfo;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.lock.LockManager;
+import org.ovirt.engine.core.utils.lock.LockingResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An in memory {@link LockManager} which spreads the lock keys over a fixed number of stripes instead of guarding
+ * all of them with one global lock.
+ * <p>
+ * Every stripe owns its own {@link ReentrantLock} and the part of the key space that hashes to it. An
+ * {@link EngineLock} which spans several keys takes the stripes of those keys in ascending index order, so that two
+ * concurrent multi-key acquisitions can never deadlock. Threads blocked in {@code acquireLockWait()} wait on a
+ * condition which belongs to the key they conflicted on, and are only signalled once that very key is removed,
+ * rather than on every release in the engine.
+ * <p>
+ * The locking semantics, messages and {@link LockInfo} reporting are the same as in {@link InMemoryLockManager}.
+ * <p>
+ * It isn't a bean of its own, {@link InMemoryLockManager} delegates to it when striping is enabled.
+ */
+@Vetoed
+public class StripedInMemoryLockManager implements LockManager, LockManagerMonitorMXBean {
+
+    /** The default number of stripes, must be a power of two **/
+    static final int DEFAULT_STRIPES = 64;
+
+    private static final Logger log = LoggerFactory.getLogger(StripedInMemoryLockManager.class);
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public StripedInMemoryLockManager() {
+        this(DEFAULT_STRIPES);
+    }
+
+    public StripedInMemoryLockManager(int stripesCount) {
+        if (stripesCount <= 0 || Integer.bitCount(stripesCount) != 1) {
+            throw new IllegalArgumentException("number of stripes must be a positive power of two");
+        }
+        stripes = new Stripe[stripesCount];
+        for (int i = 0; i < stripesCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        mask = stripesCount - 1;
+    }
+
+    @Override
+    public LockingResult acquireLock(EngineLock lock) {
+        log.debug("Before acquiring lock '{}'", lock);
+        int[] indexes = stripeIndexes(lock);
+        lockStripes(indexes);
+        try {
+            return acquireLockInternal(lock).result;
+        } finally {
+            unlockStripes(indexes);
+        }
+    }
+
+    @Override
+    public void acquireLockWait(EngineLock lock) {
+        log.debug("Before acquiring and wait lock '{}'", lock);
+        validateLockForAcquireAndWait(lock);
+        int[] indexes = stripeIndexes(lock);
+        try {
+            while (true) {
+                Attempt attempt = tryAcquire(lock, indexes);
+                if (attempt.result.isAcquired()) {
+                    return;
+                }
+                log.info("Failed to acquire lock and wait lock '{}'", lock);
+                awaitRelease(attempt, -1L);
+            }
+        } catch (InterruptedException ignore) {
+
+        }
+    }
+
+    @Override
+    public LockingResult acquireLockWait(EngineLock lock, long timeoutMillis) {
+        log.debug("Before acquiring wait or timeout lock '{}'", lock);
+        validateLockForAcquireAndWait(lock);
+        if (timeoutMillis <= 0) {
+            throw new IllegalArgumentException("timeout must be positive");
+        }
+        int[] indexes = stripeIndexes(lock);
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        LockingResult lockAcquired = LockingResult.fail();
+        try {
+            do {
+                Attempt attempt = tryAcquire(lock, indexes);
+                lockAcquired = attempt.result;
+                if (!lockAcquired.isAcquired()) {
+                    if (timeoutNanos <= 0L) {
+                        log.info("Failed to acquire lock because timeout was reached. lock {}", lock);
+                        break;
+                    }
+                    log.info("Failed to acquire lock, will try again until timeout. lock '{}'", lock);
+                    timeoutNanos = awaitRelease(attempt, timeoutNanos);
+                }
+            } while (!lockAcquired.isAcquired());
+        } catch (InterruptedException ignore) {
+            log.info("Acquire lock operation was interrupted. lock '{}'", lock);
+        }
+        return lockAcquired;
+    }
+
+    private void validateLockForAcquireAndWait(EngineLock lock) {
+        if (lock.getSharedLocks() != null && lock.getExclusiveLocks().size() > 1) {
+            log.error("Trying to acquire or wait on shared or more than one exclusive locks '{}'", lock);
+            throw new IllegalArgumentException("Trying to acquire or wait on shared or more than one exclusive locks");
+        }
+    }
+
+    @Override
+    public void releaseLock(EngineLock lock) {
+        log.debug("Before releasing a lock '{}'", lock);
+        int[] indexes = stripeIndexes(lock);
+        lockStripes(indexes);
+        try {
+            if (lock.getSharedLocks() != null) {
+                lock.getSharedLocks().entrySet().forEach(entry ->
+                    releaseSharedLock(buildHashMapKey(entry), entry.getValue().getSecond()));
+            }
+            if (lock.getExclusiveLocks() != null) {
+                lock.getExclusiveLocks().entrySet().forEach(entry ->
+                    releaseExclusiveLock(buildHashMapKey(entry)));
+            }
+        } finally {
+            unlockStripes(indexes);
+        }
+    }
+
+    @Override
+    public void clear() {
+        log.warn("Cleaning all in memory locks");
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.locks.clear();
+                stripe.waitQueues.values().forEach(queue -> queue.released.signalAll());
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public boolean releaseLock(String lockId) {
+        log.warn("The following lock is going to be released via external call, lockId '{}', error message can be"
+                + " left for shared lock",
+                lockId);
+        Stripe stripe = stripeFor(lockId);
+        stripe.lock.lock();
+        try {
+            InternalLockView lock = stripe.locks.get(lockId);
+            if (lock == null) {
+                log.warn("Lock with id '{}' does not exist and can not be released via external call", lockId);
+                return false;
+            }
+            if (lock.getExclusive()) {
+                releaseExclusiveLock(lockId);
+            } else {
+                releaseSharedLock(lockId, null);
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+        log.warn("Lock '{}' was released via external call", lockId);
+        return true;
+    }
+
+    @Override
+    public List<String> showAllLocks() {
+        log.debug("All in memory locks will be shown");
+        List<String> descriptions = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                stripe.locks.entrySet().forEach(e -> descriptions.add(createLockDescription(e)));
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        log.debug("All in memory locks were shown");
+        return descriptions;
+    }
+
+    private String createLockDescription(Entry<String, InternalLockView> e) {
+        return "The object id is : " + e.getKey() + ' ' + e.getValue();
+    }
+
+    /**
+     * Internal method should build a key for lock
+     */
+    private String buildHashMapKey(Entry<String, Pair<String, String>> entry) {
+        return entry.getKey() + entry.getValue().getFirst();
+    }
+
+    private Stripe stripeFor(String key) {
+        return stripes[stripeIndex(key)];
+    }
+
+    private int stripeIndex(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /**
+     * Returns the distinct, ascending indexes of all the stripes the given lock touches. Locking the stripes in this
+     * order is what keeps concurrent multi-key acquisitions deadlock free.
+     */
+    private int[] stripeIndexes(EngineLock lock) {
+        int size = (lock.getSharedLocks() == null ? 0 : lock.getSharedLocks().size())
+                + (lock.getExclusiveLocks() == null ? 0 : lock.getExclusiveLocks().size());
+        int[] indexes = new int[size];
+        int i = 0;
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                indexes[i++] = stripeIndex(buildHashMapKey(entry));
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                indexes[i++] = stripeIndex(buildHashMapKey(entry));
+            }
+        }
+        if (size < 2) {
+            return indexes;
+        }
+        return Arrays.stream(indexes).sorted().distinct().toArray();
+    }
+
+    private void lockStripes(int[] indexes) {
+        for (int index : indexes) {
+            stripes[index].lock.lock();
+        }
+    }
+
+    private void unlockStripes(int[] indexes) {
+        for (int i = indexes.length - 1; i >= 0; i--) {
+            stripes[indexes[i]].lock.unlock();
+        }
+    }
+
+    private Attempt tryAcquire(EngineLock lock, int[] indexes) {
+        lockStripes(indexes);
+        try {
+            return acquireLockInternal(lock);
+        } finally {
+            unlockStripes(indexes);
+        }
+    }
+
+    /**
+     * Blocks until the key which caused the given attempt to fail is released, the timeout elapses or the lock
+     * manager is cleared. The conflict is re-checked under the stripe lock before waiting, so a release which
+     * happened between the failed attempt and this call is never missed.
+     *
+     * @param timeoutNanos
+     *            - the time left to wait, a negative value means wait forever
+     * @return the time left to wait
+     */
+    private long awaitRelease(Attempt attempt, long timeoutNanos) throws InterruptedException {
+        Stripe stripe = stripeFor(attempt.conflictingKey);
+        stripe.lock.lock();
+        try {
+            if (!isConflicting(stripe.locks.get(attempt.conflictingKey), attempt.exclusive)) {
+                return timeoutNanos;
+            }
+            KeyWaitQueue queue = stripe.waitQueues.computeIfAbsent(attempt.conflictingKey,
+                    k -> new KeyWaitQueue(stripe.lock.newCondition()));
+            queue.waiters++;
+            try {
+                if (timeoutNanos < 0L) {
+                    queue.released.await();
+                    return timeoutNanos;
+                }
+                return queue.released.awaitNanos(timeoutNanos);
+            } finally {
+                if (--queue.waiters == 0) {
+                    stripe.waitQueues.remove(attempt.conflictingKey);
+                }
+            }
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    private static boolean isConflicting(InternalLockView lock, boolean exclusive) {
+        return lock != null && (exclusive || lock.getExclusive());
+    }
+
+    /**
+     * The following method contains a logic for acquiring a lock. It is comprised of two steps:
+     * 1. Check if the lock can be acquired
+     * 2. If the first step succeeds, acquire a lock
+     * The caller must hold the locks of all the stripes the lock touches.
+     */
+    private Attempt acquireLockInternal(EngineLock lock) {
+        Attempt attempt = acquireLockInternalStep(lock, true);
+        if (!attempt.result.isAcquired()) {
+            return attempt;
+        }
+
+        acquireLockInternalStep(lock, false);
+        log.debug("Success acquiring lock '{}'", lock);
+        return Attempt.SUCCESS;
+    }
+
+    private Attempt acquireLockInternalStep(EngineLock lock, boolean checkOnly) {
+        if (lock.getSharedLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getSharedLocks().entrySet()) {
+                String key = buildHashMapKey(entry);
+                LockingResult result = insertSharedLock(key, entry.getValue().getSecond(), checkOnly);
+                if (!result.isAcquired()) {
+                    log.debug("Failed to acquire lock. Shared lock is taken for key '{}', value '{}'",
+                            entry.getKey(),
+                            entry.getValue().getFirst());
+                    return new Attempt(result, key, false);
+                }
+            }
+        }
+        if (lock.getExclusiveLocks() != null) {
+            for (Entry<String, Pair<String, String>> entry : lock.getExclusiveLocks().entrySet()) {
+                String key = buildHashMapKey(entry);
+                LockingResult result = insertExclusiveLock(key, entry.getValue().getSecond(), checkOnly);
+                if (!result.isAcquired()) {
+                    log.debug("Failed to acquire lock. Exclusive lock is taken for key '{}', value '{}'",
+                            entry.getKey(),
+                            entry.getValue().getFirst());
+                    return new Attempt(result, key, true);
+                }
+            }
+        }
+        return Attempt.SUCCESS;
+    }
+
+    /**
+     * The following method should insert an "shared" internal lock
+     * @param message
+     *            - error message associated with lock
+     */
+    private LockingResult insertSharedLock(String key, String message, boolean isCheckOnly) {
+        Map<String, InternalLockView> locks = stripeFor(key).locks;
+        InternalLockView lock = locks.get(key);
+        if (lock != null) {
+            if (!isCheckOnly) {
+                lock.increaseCount();
+                lock.addMessage(message);
+            } else if (lock.getExclusive()) {
+                return LockingResult.fail(lock.getMessages());
+            }
+        } else if (!isCheckOnly) {
+            locks.put(key, new InternalLockView(1, message, false));
+        }
+        return LockingResult.success();
+    }
+
+    /**
+     * The following method will add exclusive lock, the exclusive key can be
+     * added only if there is not exist any shared or exclusive lock for given key
+     */
+    private LockingResult insertExclusiveLock(String key, String message, boolean isCheckOnly) {
+        Map<String, InternalLockView> locks = stripeFor(key).locks;
+        InternalLockView lock = locks.get(key);
+        if (lock != null) {
+            return LockingResult.fail(lock.getMessages());
+        }
+        if (!isCheckOnly) {
+            locks.put(key, new InternalLockView(0, message, true));
+        }
+        return LockingResult.success();
+    }
+
+    private void releaseExclusiveLock(String key) {
+        Stripe stripe = stripeFor(key);
+        InternalLockView lock = stripe.locks.get(key);
+        if (lock != null && lock.getExclusive()) {
+            stripe.locks.remove(key);
+            stripe.signalReleased(key);
+            log.debug("The exclusive lock for key '{}' is released and lock is removed from map", key);
+        } else if (lock == null) {
+            log.warn("Trying to release exclusive lock which does not exist, lock key: '{}'", key);
+        } else {
+            log.warn("Trying to release exclusive lock but lock is not exclusive. lock key: '{}'", key);
+        }
+    }
+
+    private void releaseSharedLock(String key, String message) {
+        Stripe stripe = stripeFor(key);
+        InternalLockView lock = stripe.locks.get(key);
+        if (lock != null) {
+            if (lock.getCount() > 0) {
+                lock.decreaseCount();
+                log.debug("The shared lock for key '{}' is released.", key);
+                if (lock.getCount() == 0) {
+                    stripe.locks.remove(key);
+                    stripe.signalReleased(key);
+                    log.debug("The shared lock for key '{}' is removed from map", key);
+                } else {
+                    lock.removeMessage(message);
+                }
+            } else {
+                log.warn("Trying to decrease a shared lock for key: '{}' , but shared index is 0", key);
+            }
+        } else {
+            log.warn("Trying to release a shared lock for key: '{}' , but lock does not exist", key);
+        }
+    }
+
+    @Override
+    public LockInfo getLockInfo(String key) {
+        Stripe stripe = stripeFor(key);
+        boolean exclusive;
+        Set<String> messages;
+        stripe.lock.lock();
+        try {
+            InternalLockView internalLockView = stripe.locks.get(key);
+            if (internalLockView == null) {
+                return null;
+            }
+            exclusive = internalLockView.getExclusive();
+            messages = internalLockView.getMessages();
+        } finally {
+            stripe.lock.unlock();
+        }
+
+        messages.remove(EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED.name());
+        if (messages.isEmpty()) {
+            // EngineMessage.ACTION_TYPE_FAILED_OBJECT_LOCKED should only be used for
+            // short locks (locks for the execute phase) so we filter it and if no
+            // other lock exists, the entity should be displayed as unlocked
+            return null;
+        }
+
+        return new LockInfo(exclusive, messages);
+    }
+
+    @Override
+    public boolean isExclusiveLockPresent(EngineLock lock) {
+        return lock.getExclusiveLocks() != null &&
+            lock.getExclusiveLocks().entrySet().stream()
+                .anyMatch(entry -> getLockInfo(buildHashMapKey(entry)) != null);
+    }
+
+    /**
+     * A single stripe - the locks of all the keys which hash to it and the queues of the threads waiting for them
+     */
+    private static class Stripe {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, InternalLockView> locks = new HashMap<>();
+        /** Only keys somebody is currently waiting for have an entry here **/
+        private final Map<String, KeyWaitQueue> waitQueues = new HashMap<>();
+
+        /**
+         * Wakes up the threads waiting for the given key, must be called with the stripe lock held
+         */
+        private void signalReleased(String key) {
+            KeyWaitQueue queue = waitQueues.get(key);
+            if (queue != null) {
+                queue.released.signalAll();
+            }
+        }
+    }
+
+    /**
+     * The threads waiting in {@code acquireLockWait()} for a specific key
+     */
+    private static class KeyWaitQueue {
+
+        private final Condition released;
+        private int waiters;
+
+        private KeyWaitQueue(Condition released) {
+            this.released = released;
+        }
+    }
+
+    /**
+     * The outcome of a single acquisition attempt, along with the key that prevented it in case of a failure
+     */
+    private static class Attempt {
+
+        private static final Attempt SUCCESS = new Attempt(LockingResult.success(), null, false);
+
+        private final LockingResult result;
+        private final String conflictingKey;
+        /** Whether the conflicting key was requested as an exclusive lock **/
+        private final boolean exclusive;
+
+        private Attempt(LockingResult result, String conflictingKey, boolean exclusive) {
+            this.result = result;
+            this.conflictingKey = conflictingKey;
+            this.exclusive = exclusive;
+        }
+    }
+
+    /**
+     * The following class represents different locks which are kept inside StripedInMemoryLockManager
+     */
+    private static class InternalLockView {
+
+        /** Number for shared locks **/
+        private int count;
+        /** Indicate if the lock is exclusive and not allowing any other exclusive/shared locks with the same key **/
+        private final boolean exclusive;
+        /** Contains error messages for that key **/
+        private List<String> messages;
+
+        public InternalLockView(int count, String message, boolean exclusive) {
+            this.count = count;
+            this.exclusive = exclusive;
+            messages = new ArrayList<>();
+            messages.add(message);
+        }
+
+        public boolean getExclusive() {
+            return exclusive;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public void increaseCount() {
+            count++;
+        }
+
+        public void decreaseCount() {
+            count--;
+        }
+
+        public Set<String> getMessages() {
+            return new HashSet<>(messages);
+        }
+
+        public void addMessage(String message) {
+            messages.add(message);
+        }
+
+        public void removeMessage(String message) {
+            if (message != null) {
+                messages.remove(message);
+            }
+        }
+
+        @Override
+        public String toString() {
+            if (exclusive) {
+                return "The lock is exclusive";
+            }
+            return "The lock is shared and a number of shared locks is " + count;
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.stream.Collectors;
 
@@ -49,7 +49,8 @@ public class MacPoolPerCluster {
     private static final Logger log = LoggerFactory.getLogger(MacPoolPerCluster.class);
 
     static final String UNABLE_TO_CREATE_MAC_POOL_IT_ALREADY_EXIST = "This MAC Pool already exist";
-    private final Map<Guid, MacPool> macPools = new HashMap<>();
+    // the lock keeps modifications of a pool atomic, the map can be read without it
+    private final Map<Guid, MacPool> macPools = new ConcurrentHashMap<>();
     private final ReentrantReadWriteLock lockObj = new ReentrantReadWriteLock();
 
     //required by J2EE specification; session bean should have no-arg constructor.
@@ -2,18 +2,19 @@ package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 import java.util.List;
 
-import org.apache.commons.lang.Validate;
 import org.ovirt.engine.core.common.errors.EngineError;
 import org.ovirt.engine.core.common.errors.EngineException;
 
+/**
+ * MACs of a MAC pool. It's safe to be used by several threads, as long as all the ranges are added before.
+ */
 class MacsStorage {
     private final boolean allowDuplicates;
-    private List<Range> ranges = new LinkedList<>();
+    private List<Range> ranges = new ArrayList<>();
     private ObjectCounter<Long> customMacs;
-    private int startIndexForEmptyRangeSearch = 0;
+    private volatile int startIndexForEmptyRangeSearch = 0;
 
     public MacsStorage(boolean allowDuplicates) {
         this.allowDuplicates = allowDuplicates;
@@ -66,20 +67,19 @@ class MacsStorage {
         }
 
         final List<Long> result = new ArrayList<>(numberOfMacs);
-        int remainingMacs = numberOfMacs;
-        while (remainingMacs > 0) {
+        // other threads may claim the available MACs meanwhile, so every range is visited at most once
+        for (int i = 0; i < ranges.size() && result.size() < numberOfMacs; i++) {
             final Range rangeWithAvailableMac = getRangeWithAvailableMac();
-            Validate.notNull(rangeWithAvailableMac);
-
-            final int availableMacsCount = rangeWithAvailableMac.getAvailableCount();
-            int allocatingMacsCount = availableMacsCount < remainingMacs
-                    ? availableMacsCount
-                    : remainingMacs;
+            if (rangeWithAvailableMac == null) {
+                break;
+            }
 
-            final List<Long> allocatedMacs = rangeWithAvailableMac.allocateMacs(allocatingMacsCount);
+            rangeWithAvailableMac.claimMacs(numberOfMacs - result.size(), result);
+        }
 
-            remainingMacs -= allocatedMacs.size();
-            result.addAll(allocatedMacs);
+        if (result.size() < numberOfMacs) {
+            result.forEach(this::freeMac);
+            throw new EngineException(EngineError.MAC_POOL_NO_MACS_LEFT);
         }
 
         return result;
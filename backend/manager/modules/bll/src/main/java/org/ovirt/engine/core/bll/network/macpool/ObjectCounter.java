@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
@@ -7,7 +8,7 @@ import java.util.Map;
 import org.apache.commons.collections.iterators.UnmodifiableIterator;
 
 /**
- * Associative array counting instances of given object.
+ * Associative array counting instances of given object. It's safe to be used by several threads.
  * @param <T> class of instances being count.
  */
 class ObjectCounter<T> implements Iterable<T>{
@@ -28,7 +29,7 @@ class ObjectCounter<T> implements Iterable<T>{
         return increase(key, allowDuplicate);
     }
 
-    public boolean increase(T key, boolean allowDuplicate) {
+    public synchronized boolean increase(T key, boolean allowDuplicate) {
         Counter counter = map.get(key);
         if (counter == null) {
             map.put(key, new Counter());
@@ -46,7 +47,7 @@ class ObjectCounter<T> implements Iterable<T>{
      *
      * @param key instance to remove.
      */
-    public void decrease(T key) {
+    public synchronized void decrease(T key) {
         Counter counter = map.get(key);
         if (counter == null) {
             return;
@@ -64,7 +65,7 @@ class ObjectCounter<T> implements Iterable<T>{
      * @param key instance to look for
      * @return true if there's at least one occurrence of given instance.
      */
-    public boolean contains(T key) {
+    public synchronized boolean contains(T key) {
         return map.containsKey(key);
     }
 
@@ -72,26 +73,26 @@ class ObjectCounter<T> implements Iterable<T>{
      * @param key instance to look for
      * @return number of occurrences of given instance. When instance was not added
      */
-    public int count(T key) {
+    public synchronized int count(T key) {
         final Counter counter = map.get(key);
         return counter == null ? 0 : counter.toInt();
     }
 
-    public boolean containsDuplicates() {
+    public synchronized boolean containsDuplicates() {
         return map.values().stream().anyMatch(counter -> counter.toInt() > 1);
     }
 
-    public boolean containsCounts() {
+    public synchronized boolean containsCounts() {
         return map.values().stream().anyMatch(counter -> counter.toInt() > 0);
     }
 
     /**
-     * @return unmodifiable iterator over all 'registered' instances (i.e. all instances having count >= 0).
+     * @return unmodifiable iterator over a copy of all 'registered' instances (i.e. all instances having count >= 0).
      */
     @Override
     @SuppressWarnings("unchecked")
-    public Iterator<T> iterator() {
-        return UnmodifiableIterator.decorate(map.keySet().iterator());
+    public synchronized Iterator<T> iterator() {
+        return UnmodifiableIterator.decorate(new ArrayList<>(map.keySet()).iterator());
     }
 
     private static class Counter {
@@ -1,13 +1,21 @@
 package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import org.apache.commons.lang.Validate;
 import org.apache.commons.lang.math.LongRange;
 
+/**
+ * Range of MACs, which can be used by several threads at once. The usage of the MACs is kept as a bitmap of words,
+ * and free MACs are claimed by a compare-and-set of a whole word, so up to {@value #MACS_PER_WORD} MACs are
+ * allocated at once. Freeing a MAC and using a duplicate of it synchronize on the duplicity counter.
+ */
 class Range {
+    private static final int MACS_PER_WORD = Long.SIZE;
+
     private final LongRange range;
     private final int numberOfMacsInRange;
 
@@ -15,10 +23,10 @@ class Range {
      * object counter, which holds number of MACs duplicates.
      */
     private final ObjectCounter<Integer> macDuplicityCount = new ObjectCounter<>(true);
-    private int availableMacsCount;
+    private final AtomicInteger availableMacsCount;
 
-    private BitSet usedMacs;
-    private int startingLocationWhenSearchingForUnusedMac = 0;
+    private final AtomicLongArray usedMacs;
+    private volatile int startingLocationWhenSearchingForUnusedMac = 0;
 
     public Range(LongRange range) {
         this.range = range;
@@ -29,8 +37,8 @@ class Range {
 
         numberOfMacsInRange = (int) numberOfMacsLong;
 
-        this.availableMacsCount = numberOfMacsInRange;
-        this.usedMacs = new BitSet(numberOfMacsInRange);
+        this.availableMacsCount = new AtomicInteger(numberOfMacsInRange);
+        this.usedMacs = new AtomicLongArray((int) ((numberOfMacsLong + MACS_PER_WORD - 1) / MACS_PER_WORD));
     }
 
     public boolean contains(long mac) {
@@ -57,17 +65,33 @@ class Range {
         checkIfMacIsFromWithinRange(mac);
         int arrayIndex = macToArrayIndex(mac);
 
-        if (!usedMacs.get(arrayIndex)) {
-            availableMacsCount--;
-            usedMacs.set(arrayIndex, true);
+        if (claimMac(arrayIndex)) {
             return true;
         }
 
-        if (allowDuplicates) {
-            return macDuplicityCount.increase(arrayIndex);
-        } else {
+        if (!allowDuplicates) {
             return false;
         }
+
+        synchronized (macDuplicityCount) {
+            // the mac could have been freed in the meantime
+            return claimMac(arrayIndex) || macDuplicityCount.increase(arrayIndex);
+        }
+    }
+
+    private boolean claimMac(int arrayIndex) {
+        long bit = 1L << arrayIndex;
+        int wordIndex = arrayIndex / MACS_PER_WORD;
+        long word;
+        do {
+            word = usedMacs.get(wordIndex);
+            if ((word & bit) != 0) {
+                return false;
+            }
+        } while (!usedMacs.compareAndSet(wordIndex, word, word | bit));
+
+        availableMacsCount.decrementAndGet();
+        return true;
     }
 
     private int macToArrayIndex(long mac) {
@@ -76,28 +100,39 @@ class Range {
 
     public boolean isAllocated(long mac) {
         checkIfMacIsFromWithinRange(mac);
-        return usedMacs.get(macToArrayIndex(mac));
+        return isAllocated(macToArrayIndex(mac));
+    }
+
+    private boolean isAllocated(int arrayIndex) {
+        return (usedMacs.get(arrayIndex / MACS_PER_WORD) & (1L << arrayIndex)) != 0;
     }
 
     public void freeMac(long mac) {
         checkIfMacIsFromWithinRange(mac);
 
         int arrayIndex = macToArrayIndex(mac);
-        if (!usedMacs.get(arrayIndex)) {
-            return;
-        }
-
-        final boolean duplicatesExist = macDuplicityCount.count(arrayIndex) != 0;
-        if (duplicatesExist) {
-            macDuplicityCount.decrease(arrayIndex);
-        } else {
-            usedMacs.set(arrayIndex, false);
-            availableMacsCount++;
+        synchronized (macDuplicityCount) {
+            if (!isAllocated(arrayIndex)) {
+                return;
+            }
+
+            final boolean duplicatesExist = macDuplicityCount.count(arrayIndex) != 0;
+            if (duplicatesExist) {
+                macDuplicityCount.decrease(arrayIndex);
+            } else {
+                long bit = 1L << arrayIndex;
+                int wordIndex = arrayIndex / MACS_PER_WORD;
+                long word;
+                do {
+                    word = usedMacs.get(wordIndex);
+                } while (!usedMacs.compareAndSet(wordIndex, word, word & ~bit));
+                availableMacsCount.incrementAndGet();
+            }
         }
     }
 
     public int getAvailableCount() {
-        return availableMacsCount;
+        return availableMacsCount.get();
     }
 
     public int getNumberOfMacsInRange() {
@@ -110,27 +145,86 @@ class Range {
         }
 
         List<Long> result = new ArrayList<>(numberOfMacs);
-
-        for (int count = 0; count < numberOfMacs; count++) {
-            final long mac = findUnusedMac();
-
-            // Well duplicates may be allowed, but we're using unallocated mac.
-            use(mac, false);
-            result.add(mac);
+        if (claimMacs(numberOfMacs, result) < numberOfMacs) {
+            result.forEach(this::freeMac);
+            throw new IllegalStateException("Insufficient amount of free MACs.");
         }
 
         return result;
     }
 
-    private long findUnusedMac() {
-        int index = usedMacs.nextClearBit(startingLocationWhenSearchingForUnusedMac);
-        boolean notFound = index == numberOfMacsInRange;
-        if (notFound) {
-            index = usedMacs.nextClearBit(0);
+    /**
+     * Claims free MACs from left to right, starting at the last scan position, so a returned MAC is obtained again
+     * only after all other free MACs were used.
+     *
+     * @param numberOfMacs the number of MACs to claim
+     * @param result list to add the claimed MACs to
+     * @return the number of claimed MACs, which is lower than requested if there are not enough free MACs
+     */
+    int claimMacs(int numberOfMacs, List<Long> result) {
+        int startIndex = startingLocationWhenSearchingForUnusedMac;
+        int claimed = claimMacs(startIndex, numberOfMacsInRange, numberOfMacs, result);
+        if (claimed < numberOfMacs) {
+            claimed += claimMacs(0, startIndex, numberOfMacs - claimed, result);
+        }
+        return claimed;
+    }
+
+    private int claimMacs(int fromIndex, int toIndex, int numberOfMacs, List<Long> result) {
+        int claimed = 0;
+        for (int wordIndex = fromIndex / MACS_PER_WORD;
+                claimed < numberOfMacs && wordIndex * (long) MACS_PER_WORD < toIndex;
+                wordIndex++) {
+            long wordStart = wordIndex * (long) MACS_PER_WORD;
+            long claimedMacs = claimMacsInWord(wordIndex,
+                    wordMask(fromIndex - wordStart, toIndex - wordStart),
+                    numberOfMacs - claimed);
+            if (claimedMacs == 0) {
+                continue;
+            }
+
+            claimed += Long.bitCount(claimedMacs);
+            availableMacsCount.addAndGet(-Long.bitCount(claimedMacs));
+            int lastIndex = 0;
+            for (long macs = claimedMacs; macs != 0; macs &= macs - 1) {
+                lastIndex = (int) (wordStart + Long.numberOfTrailingZeros(macs));
+                result.add(range.getMinimumLong() + lastIndex);
+            }
+            startingLocationWhenSearchingForUnusedMac = (lastIndex + 1) % numberOfMacsInRange;
         }
-        startingLocationWhenSearchingForUnusedMac = (index + 1) % numberOfMacsInRange;
+        return claimed;
+    }
 
-        return range.getMinimumLong() + index;
+    /**
+     * @return the bits of a word, which belong to the indices from {@code from} (inclusive) to {@code to} (exclusive)
+     * relative to the start of the word
+     */
+    private static long wordMask(long from, long to) {
+        long lowMask = from <= 0 ? -1L : -1L << from;
+        long highMask = to >= MACS_PER_WORD ? -1L : (1L << to) - 1;
+        return lowMask & highMask;
+    }
+
+    /**
+     * @return bits of the MACs claimed in the given word, the lowest free ones among the masked bits
+     */
+    private long claimMacsInWord(int wordIndex, long mask, int numberOfMacs) {
+        while (true) {
+            long word = usedMacs.get(wordIndex);
+            long free = ~word & mask;
+            if (free == 0) {
+                return 0;
+            }
+
+            long claim = free;
+            while (Long.bitCount(claim) > numberOfMacs) {
+                claim &= ~Long.highestOneBit(claim);
+            }
+
+            if (usedMacs.compareAndSet(wordIndex, word, word | claim)) {
+                return claim;
+            }
+        }
     }
 
     boolean overlaps(Range other) {
@@ -2,30 +2,31 @@ package org.ovirt.engine.core.bll.network.macpool;
 
 import java.util.List;
 
-import org.ovirt.engine.core.utils.lock.AcquireWriteLock;
+import org.ovirt.engine.core.utils.lock.AcquireReadLock;
 
 /**
- * The interface defines all operations that change a MAC-pool state.
+ * The interface defines all operations that change a MAC-pool state. The MAC-pool is thread safe, so these
+ * operations take just the shared lock of the pool and may run concurrently.
  */
 public interface WriteMacPool {
     /**
      * @return true if there are enough free MACs in the pool.
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     boolean canAllocateMacAddresses(int macs);
 
     /**
      * @return free MAC from pool.
      * @throws org.ovirt.engine.core.common.errors.EngineException if mac address cannot be allocated.
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     String allocateNewMac();
 
     /**
      * Returns MAC back to pool.
      * @param mac mac to return to pool.
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     void freeMac(String mac);
 
     /**
@@ -34,21 +35,21 @@ public interface WriteMacPool {
      * @return true if MAC was added successfully, and false if the MAC is in use and
      * {@link org.ovirt.engine.core.common.businessentities.MacPool#isAllowDuplicateMacAddresses()} is set to false
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     boolean addMac(String mac);
 
     /**
      * @param macs macs to be added.
      * @return list of macs, which failed to be added, because of existence of duplicate.
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     List<String> addMacs(List<String> macs);
 
     /**
      *
      * @param macs macs to return to pool
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     void freeMacs(List<String> macs);
 
     /**
@@ -56,6 +57,6 @@ public interface WriteMacPool {
      * @return The list of MAC addresses, sorted in ascending order
      * @throws org.ovirt.engine.core.common.errors.EngineException if mac address cannot be allocated.
      */
-    @AcquireWriteLock
+    @AcquireReadLock
     List<String> allocateMacAddresses(int numberOfAddresses);
 }
@@ -2,12 +2,18 @@ package org.ovirt.engine.core.bll.quota;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -43,8 +49,14 @@ import org.slf4j.LoggerFactory;
 public class QuotaManager implements BackendService {
     private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
     private final Logger log = LoggerFactory.getLogger(QuotaManager.class);
-    private Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new HashMap<>();
-    private Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new HashMap<>();
+    private volatile Map<Guid, Map<Guid, Quota>> storagePoolQuotaMap = new ConcurrentHashMap<>();
+    private volatile Map<Guid, Guid> storagePoolDefaultQuotaIdMap = new ConcurrentHashMap<>();
+
+    // The usage of the cached cluster limits, the key is: Pair <Quota id, Cluster id or null for a global limit>
+    private volatile Map<Pair<Guid, Guid>, AtomicReference<ClusterUsage>> clusterUsageMap = new ConcurrentHashMap<>();
+
+    // The usage of the cached storage limits, the key is: Pair <Quota id, Storage domain id or null for a global limit>
+    private volatile Map<Pair<Guid, Guid>, AtomicReference<Double>> storageUsageMap = new ConcurrentHashMap<>();
 
     private final List<Integer> nonCountableQutoaVmStatusesList = new ArrayList<>();
 
@@ -85,15 +97,14 @@ public class QuotaManager implements BackendService {
     public void removeQuotaFromCache(Guid storagePoolId, List<Guid> quotaList) {
         lock.writeLock().lock();
         try {
-            if (!storagePoolQuotaMap.containsKey(storagePoolId)) {
+            Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
+            if (map == null) {
                 return;
             }
-            synchronized (storagePoolQuotaMap.get(storagePoolId)) {
-                Map<Guid, Quota> map = storagePoolQuotaMap.get(storagePoolId);
-                for (Guid quotaId : quotaList) {
-                    map.remove(quotaId);
-                }
+            for (Guid quotaId : quotaList) {
+                map.remove(quotaId);
             }
+            removeUsageFromCache(quotaList);
         } finally {
             lock.writeLock().unlock();
         }
@@ -106,19 +117,28 @@ public class QuotaManager implements BackendService {
     public void removeStoragePoolFromCache(Guid storagePoolId) {
         lock.writeLock().lock();
         try {
-            storagePoolQuotaMap.remove(storagePoolId);
+            Map<Guid, Quota> map = storagePoolQuotaMap.remove(storagePoolId);
+            if (map != null) {
+                removeUsageFromCache(map.keySet());
+            }
             storagePoolDefaultQuotaIdMap.remove(storagePoolId);
         } finally {
             lock.writeLock().unlock();
         }
     }
 
+    private void removeUsageFromCache(Collection<Guid> quotaIds) {
+        Set<Guid> removedQuotaIds = new HashSet<>(quotaIds);
+        clusterUsageMap.keySet().removeIf(key -> removedQuotaIds.contains(key.getFirst()));
+        storageUsageMap.keySet().removeIf(key -> removedQuotaIds.contains(key.getFirst()));
+    }
+
     private void addStoragePoolToCache(Guid storagePoolId) {
         if (storagePoolQuotaMap.containsKey(storagePoolId)) {
             return;
         }
 
-        storagePoolQuotaMap.put(storagePoolId, new HashMap<>());
+        storagePoolQuotaMap.put(storagePoolId, new ConcurrentHashMap<>());
         Quota defaultQuota = getQuotaDao().getDefaultQuotaForStoragePool(storagePoolId);
         storagePoolDefaultQuotaIdMap.put(storagePoolId, defaultQuota.getId());
     }
@@ -209,10 +229,9 @@ public class QuotaManager implements BackendService {
 
         lock.readLock().lock();
         try {
+            // The cache is only read here, the usage of every quota limit is reserved separately
             if (command.getStoragePool().getQuotaEnforcementType() != QuotaEnforcementTypeEnum.DISABLED) {
-                synchronized (storagePoolQuotaMap.get(storagePool.getId())) {
-                    return consumeQuotaParameters(params, command, auditLogger);
-                }
+                return consumeQuotaParameters(params, command, auditLogger);
             }
         } finally {
             lock.readLock().unlock();
@@ -236,9 +255,12 @@ public class QuotaManager implements BackendService {
         if (quota == null) {
             quota = getQuotaDao().getById(quotaId);
             if (quota != null) {
-                // cache in quota map
+                // cache in quota map, unless a concurrent consumption has already cached it
                 if (storagePoolId.equals(quota.getStoragePoolId())) {
-                    quotaMap.put(quotaId, quota);
+                    Quota cachedQuota = quotaMap.putIfAbsent(quotaId, quota);
+                    if (cachedQuota != null) {
+                        quota = cachedQuota;
+                    }
                 } else {
                     throw new InvalidQuotaParametersException(
                             String.format("Quota %s does not match storage pool %s", quotaId.toString()
@@ -297,39 +319,67 @@ public class QuotaManager implements BackendService {
 
     private void copyUsageData(Quota quota, Quota quotaExternal) {
         if (quota.getGlobalQuotaStorage() != null) {
-            quotaExternal.setGlobalQuotaStorage(copyQuotaStorageUsage(quota.getGlobalQuotaStorage()));
+            quotaExternal.setGlobalQuotaStorage(copyQuotaStorageUsage(quota, quota.getGlobalQuotaStorage()));
         }
         if (quota.getGlobalQuotaCluster() != null) {
-            quotaExternal.setGlobalQuotaCluster(copyQuotaClusterUsage(quota.getGlobalQuotaCluster()));
+            quotaExternal.setGlobalQuotaCluster(copyQuotaClusterUsage(quota, quota.getGlobalQuotaCluster()));
         }
 
         if (quota.getQuotaStorages() != null) {
             quotaExternal.setQuotaStorages(new ArrayList<>());
             for (QuotaStorage quotaStorage : quota.getQuotaStorages()) {
-                quotaExternal.getQuotaStorages().add(copyQuotaStorageUsage(quotaStorage));
+                quotaExternal.getQuotaStorages().add(copyQuotaStorageUsage(quota, quotaStorage));
             }
         }
 
         if (quota.getQuotaClusters() != null) {
             quotaExternal.setQuotaClusters(new ArrayList<>());
             for (QuotaCluster quotaCluster : quota.getQuotaClusters()) {
-                quotaExternal.getQuotaClusters().add(copyQuotaClusterUsage(quotaCluster));
+                quotaExternal.getQuotaClusters().add(copyQuotaClusterUsage(quota, quotaCluster));
             }
         }
     }
 
-    private QuotaStorage copyQuotaStorageUsage(QuotaStorage quotaStorage) {
+    private QuotaStorage copyQuotaStorageUsage(Quota quota, QuotaStorage quotaStorage) {
         return new QuotaStorage(null, null, null,
                 quotaStorage.getStorageSizeGB(),
-                quotaStorage.getStorageSizeGBUsage());
+                getStorageUsage(quota, quotaStorage).get());
     }
 
-    private QuotaCluster copyQuotaClusterUsage(QuotaCluster quotaCluster) {
+    private QuotaCluster copyQuotaClusterUsage(Quota quota, QuotaCluster quotaCluster) {
+        ClusterUsage usage = getClusterUsage(quota, quotaCluster).get();
         return new QuotaCluster(null, null, null,
                 quotaCluster.getVirtualCpu(),
-                quotaCluster.getVirtualCpuUsage(),
+                usage.getVirtualCpu(),
                 quotaCluster.getMemSizeMB(),
-                quotaCluster.getMemSizeMBUsage());
+                usage.getMemSizeMB());
+    }
+
+    /**
+     * Returns the usage of the cluster limit of the quota, which is taken from the cached quota
+     * when the limit is first used. Only the returned usage is changed by consumptions afterwards.
+     */
+    private AtomicReference<ClusterUsage> getClusterUsage(Quota quota, QuotaCluster quotaCluster) {
+        Pair<Guid, Guid> key = quota.isGlobalClusterQuota() ?
+                new Pair<>(quota.getId(), null) :
+                new Pair<>(quota.getId(), quotaCluster.getClusterId());
+        return clusterUsageMap.computeIfAbsent(key,
+                k -> new AtomicReference<>(new ClusterUsage(quotaCluster.getVirtualCpuUsage(),
+                        quotaCluster.getMemSizeMBUsage())));
+    }
+
+    /**
+     * Returns the usage of the storage limit of the quota, which is taken from the cached quota
+     * when the limit is first used. Only the returned usage is changed by consumptions afterwards.
+     */
+    private AtomicReference<Double> getStorageUsage(Quota quota, QuotaStorage quotaStorage) {
+        Pair<Guid, Guid> key = quota.isGlobalStorageQuota() ?
+                new Pair<>(quota.getId(), null) :
+                new Pair<>(quota.getId(), quotaStorage.getStorageId());
+        return storageUsageMap.computeIfAbsent(key,
+                k -> new AtomicReference<>(quotaStorage.getStorageSizeGBUsage() == null ?
+                        0.0 :
+                        quotaStorage.getStorageSizeGBUsage()));
     }
 
     /**
@@ -357,12 +407,12 @@ public class QuotaManager implements BackendService {
             return;
         }
 
-        Map<Guid, Map<Guid, Quota>> newStoragePoolQuotaMap = new HashMap<>();
-        Map<Guid, Guid> newDefaultQuotaIdMap = new HashMap<>();
+        Map<Guid, Map<Guid, Quota>> newStoragePoolQuotaMap = new ConcurrentHashMap<>();
+        Map<Guid, Guid> newDefaultQuotaIdMap = new ConcurrentHashMap<>();
 
         for (Quota quota : allQuotaIncludingConsumption) {
             if (!newStoragePoolQuotaMap.containsKey(quota.getStoragePoolId())) {
-                newStoragePoolQuotaMap.put(quota.getStoragePoolId(), new HashMap<>());
+                newStoragePoolQuotaMap.put(quota.getStoragePoolId(), new ConcurrentHashMap<>());
             }
             newStoragePoolQuotaMap.get(quota.getStoragePoolId()).put(quota.getId(), quota);
 
@@ -375,6 +425,9 @@ public class QuotaManager implements BackendService {
         try {
             storagePoolQuotaMap = newStoragePoolQuotaMap;
             storagePoolDefaultQuotaIdMap = newDefaultQuotaIdMap;
+            // the usage is taken again from the reloaded quotas
+            clusterUsageMap = new ConcurrentHashMap<>();
+            storageUsageMap = new ConcurrentHashMap<>();
         } finally {
             lock.writeLock().unlock();
         }
@@ -456,23 +509,25 @@ public class QuotaManager implements BackendService {
 
         // Process the quota consumption parameters to a list of Requests
         // Each Request instance aggregates all requested consumptions against a single quota limit
-        Optional<List<Request>> requests = createRequests(parameters, command, hardEnforcement, auditLogger);
+        Optional<List<Request<?>>> requests = createRequests(parameters, command, hardEnforcement, auditLogger);
         if (!requests.isPresent()) {
             return false;
         }
 
-        // Validate that all requests satisfy the quota limits
-        for (Request request : requests.get()) {
-            ValidationResult validation = request.validate(hardEnforcement, auditLogger);
-            if(!validation.isValid()) {
+        // Each request is validated against the usage it is added to, so concurrent consumptions
+        // can not exceed a quota limit together. If a request does not satisfy its quota limit,
+        // the requests that were already reserved are rolled back.
+        // This changes only the usage cached in the QuotaManager, nothing is written to the DB.
+        List<Request<?>> reservedRequests = new ArrayList<>();
+        for (Request<?> request : requests.get()) {
+            ValidationResult validation = request.reserve(hardEnforcement, auditLogger);
+            if (!validation.isValid()) {
+                reservedRequests.forEach(Request::rollback);
                 command.getReturnValue().getValidationMessages().addAll(validation.getMessagesAsStrings());
                 return false;
             }
+            reservedRequests.add(request);
         }
-
-        // After successful validation, the requests are applied.
-        // This changes only the cached quota objects in the QuotaManager, nothing is written to the DB.
-        requests.get().forEach(Request::apply);
         return true;
     }
 
@@ -481,7 +536,7 @@ public class QuotaManager implements BackendService {
      * Each Request instance aggregates all requests against a singe quota limit.
      * Otherwise the validation would not be correct.
      */
-    private Optional<List<Request>> createRequests(List<QuotaConsumptionParameter> parameters,
+    private Optional<List<Request<?>>> createRequests(List<QuotaConsumptionParameter> parameters,
             CommandBase<?> command,
             boolean hardEnforcement,
             QuotaManagerAuditLogger auditLogger) {
@@ -535,7 +590,7 @@ public class QuotaManager implements BackendService {
             }
         }
 
-        List<Request> result = new ArrayList<>(clusterRequests.values());
+        List<Request<?>> result = new ArrayList<>(clusterRequests.values());
         result.addAll(storageRequests.values());
         return Optional.of(result);
     }
@@ -572,7 +627,7 @@ public class QuotaManager implements BackendService {
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
             }
 
-            requestMap.put(key, new ClusterRequest(quota, quotaCluster));
+            requestMap.put(key, new ClusterRequest(quota, quotaCluster, getClusterUsage(quota, quotaCluster)));
         }
 
         // If the quota is released, the values in the request will be negative
@@ -623,7 +678,7 @@ public class QuotaManager implements BackendService {
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_NO_QUOTA_SET_FOR_DOMAIN);
             }
 
-            requestMap.put(key, new StorageRequest(quota, quotaStorage));
+            requestMap.put(key, new StorageRequest(quota, quotaStorage, getStorageUsage(quota, quotaStorage)));
         }
 
         // If the quota is released, the values in the request will be negative
@@ -640,14 +695,38 @@ public class QuotaManager implements BackendService {
         return ValidationResult.VALID;
     }
 
+    /**
+     * The cluster usage of a quota limit. It is immutable, so that the cpu and memory
+     * of a request are reserved together by a single compare-and-set.
+     */
+    private static final class ClusterUsage {
+        private final int virtualCpu;
+        private final long memSizeMB;
+
+        public ClusterUsage(Integer virtualCpu, Long memSizeMB) {
+            this.virtualCpu = virtualCpu == null ? 0 : virtualCpu;
+            this.memSizeMB = memSizeMB == null ? 0L : memSizeMB;
+        }
+
+        public int getVirtualCpu() {
+            return virtualCpu;
+        }
+
+        public long getMemSizeMB() {
+            return memSizeMB;
+        }
+    }
+
     /**
      * Base class for quota consumption request.
      */
-    private abstract class Request {
+    private abstract class Request<T> {
         private Quota quota;
+        private AtomicReference<T> usage;
 
-        protected Request(Quota quota) {
+        protected Request(Quota quota, AtomicReference<T> usage) {
             this.quota = quota;
+            this.usage = usage;
         }
 
         public Quota getQuota() {
@@ -655,26 +734,52 @@ public class QuotaManager implements BackendService {
         }
 
         /**
-         * Validate that the request satisfies quota limits
+         * Validate that the request satisfies quota limits and add it to the usage of the quota limit.
+         * If the usage is changed concurrently, the request is validated again against the new usage.
+         */
+        public ValidationResult reserve(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+            while (true) {
+                T currentUsage = usage.get();
+                // The audit logs are written only for the usage the request is validated against in the end
+                List<Consumer<QuotaManagerAuditLogger>> auditLogs = new ArrayList<>();
+                ValidationResult validation = validate(currentUsage, hardEnforcement, auditLogs);
+                if (!validation.isValid() || usage.compareAndSet(currentUsage, add(currentUsage, 1))) {
+                    auditLogs.forEach(auditLog -> auditLog.accept(auditLogger));
+                    return validation;
+                }
+            }
+        }
+
+        /**
+         * Remove the reserved request from the usage of the quota limit
+         */
+        public void rollback() {
+            usage.updateAndGet(currentUsage -> add(currentUsage, -1));
+        }
+
+        /**
+         * Validate that the request satisfies quota limits, given the current usage
          */
-        public abstract ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger);
+        protected abstract ValidationResult validate(T currentUsage,
+                boolean hardEnforcement,
+                List<Consumer<QuotaManagerAuditLogger>> auditLogs);
 
         /**
-         * Apply the request on the current quota in the QuotaManager cache
+         * Returns the usage with the request added to it, or subtracted from it if the sign is negative
          */
-        public abstract void apply();
+        protected abstract T add(T currentUsage, int sign);
     }
 
     /**
      * Request for cluster quota
      */
-    private class ClusterRequest extends Request{
+    private class ClusterRequest extends Request<ClusterUsage> {
         private QuotaCluster quotaCluster;
         private int coresRequest = 0;
         private long memoryRequestMB = 0L;
 
-        public ClusterRequest(Quota quota, QuotaCluster quotaCluster) {
-            super(quota);
+        public ClusterRequest(Quota quota, QuotaCluster quotaCluster, AtomicReference<ClusterUsage> usage) {
+            super(quota, usage);
             this.quotaCluster = quotaCluster;
         }
 
@@ -687,7 +792,9 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+        protected ValidationResult validate(ClusterUsage currentUsage,
+                boolean hardEnforcement,
+                List<Consumer<QuotaManagerAuditLogger>> auditLogs) {
             // The ClusterQuota must allow cpu and memory
             if (quotaCluster.getVirtualCpu() == 0 || quotaCluster.getMemSizeMB() == 0) {
                 return new ValidationResult(EngineMessage.ACTION_TYPE_FAILED_QUOTA_IS_NOT_VALID);
@@ -707,11 +814,11 @@ public class QuotaManager implements BackendService {
             }
 
             double requestedCoresPercent = 100 * ((double) coresRequest / (double) cpuLimit);
-            double currentCoresPercent = 100 * ((double) quotaCluster.getVirtualCpuUsage() / (double) cpuLimit);
+            double currentCoresPercent = 100 * ((double) currentUsage.getVirtualCpu() / (double) cpuLimit);
             double newCoresPercent = requestedCoresPercent + currentCoresPercent;
 
             double requestedMemoryPercent = 100 * ((double) memoryRequestMB / (double) memLimit);
-            double currentMemoryPercent = 100 * ((double) quotaCluster.getMemSizeMBUsage() / (double) memLimit);
+            double currentMemoryPercent = 100 * ((double) currentUsage.getMemSizeMB() / (double) memLimit);
             double newMemoryPercent = requestedMemoryPercent + currentMemoryPercent;
 
             int threshold = getQuota().getThresholdClusterPercentage();
@@ -721,31 +828,31 @@ public class QuotaManager implements BackendService {
             if (newCoresPercent <= grace && newMemoryPercent <= grace) {
                 // Warn if the cluster limit or threshold is exceeded
                 if (newCoresPercent > 100 || newMemoryPercent > 100) {
-                    auditLogger.logClusterLimitExceeded(
+                    auditLogs.add(auditLogger -> auditLogger.logClusterLimitExceeded(
                             getQuota().getQuotaName(),
                             getQuota().getId(),
                             (newCoresPercent > 100) ? newCoresPercent : null,
-                            (newMemoryPercent > 100) ? newMemoryPercent : null);
+                            (newMemoryPercent > 100) ? newMemoryPercent : null));
                 } else if (newCoresPercent > threshold || newMemoryPercent > threshold) {
-                    auditLogger.logClusterThresholdExceeded(
+                    auditLogs.add(auditLogger -> auditLogger.logClusterThresholdExceeded(
                             getQuota().getQuotaName(),
                             getQuota().getId(),
                             (newCoresPercent > threshold) ? newCoresPercent : null,
-                            (newMemoryPercent > threshold) ? newMemoryPercent : null);
+                            (newMemoryPercent > threshold) ? newMemoryPercent : null));
                 }
 
                 return ValidationResult.VALID;
             }
 
             // CPU or memory is above the grace - fail if enforcement is hard
-            auditLogger.logClusterGraceExceeded(
+            auditLogs.add(auditLogger -> auditLogger.logClusterGraceExceeded(
                     getQuota().getQuotaName(),
                     getQuota().getId(),
                     (newCoresPercent > grace) ? currentCoresPercent : null,
                     (newCoresPercent > grace) ? requestedCoresPercent : null,
                     (newMemoryPercent > grace) ? currentMemoryPercent : null,
                     (newMemoryPercent > grace) ? requestedMemoryPercent : null,
-                    hardEnforcement);
+                    hardEnforcement));
 
             if (!hardEnforcement) {
                 return ValidationResult.VALID;
@@ -754,21 +861,21 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public void apply() {
-            quotaCluster.setVirtualCpuUsage(coresRequest);
-            quotaCluster.setMemSizeMBUsage(memoryRequestMB);
+        protected ClusterUsage add(ClusterUsage currentUsage, int sign) {
+            return new ClusterUsage(currentUsage.getVirtualCpu() + sign * coresRequest,
+                    currentUsage.getMemSizeMB() + sign * memoryRequestMB);
         }
     }
 
     /**
      * Request for storage quota
      */
-    private class StorageRequest extends Request {
+    private class StorageRequest extends Request<Double> {
         private QuotaStorage quotaStorage;
         private double storageRequestGB = 0.0;
 
-        public StorageRequest(Quota quota, QuotaStorage quotaStorage) {
-            super(quota);
+        public StorageRequest(Quota quota, QuotaStorage quotaStorage, AtomicReference<Double> usage) {
+            super(quota, usage);
             this.quotaStorage = quotaStorage;
         }
 
@@ -777,7 +884,9 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public ValidationResult validate(boolean hardEnforcement, QuotaManagerAuditLogger auditLogger) {
+        protected ValidationResult validate(Double currentUsage,
+                boolean hardEnforcement,
+                List<Consumer<QuotaManagerAuditLogger>> auditLogs) {
             long storageLimit = quotaStorage.getStorageSizeGB();
 
             // Valid if quota is unlimited
@@ -791,7 +900,7 @@ public class QuotaManager implements BackendService {
             }
 
             double requestStoragePercent = 100 * (storageRequestGB / (double) storageLimit);
-            double currentStoragePercent = 100 * (quotaStorage.getStorageSizeGBUsage() / (double) storageLimit);
+            double currentStoragePercent = 100 * (currentUsage / (double) storageLimit);
             double newStoragePercent = currentStoragePercent + requestStoragePercent;
 
             int threshold = getQuota().getThresholdStoragePercentage();
@@ -801,27 +910,27 @@ public class QuotaManager implements BackendService {
             if (newStoragePercent <= grace) {
                 // Warn if storage limit or threshold is exceeded
                 if (newStoragePercent > 100) {
-                    auditLogger.logStorageLimitExceeded(
+                    auditLogs.add(auditLogger -> auditLogger.logStorageLimitExceeded(
                             getQuota().getQuotaName(),
                             getQuota().getId(),
-                            newStoragePercent);
+                            newStoragePercent));
                 } else if (newStoragePercent > threshold) {
-                    auditLogger.logStorageThresholdExceeded(
+                    auditLogs.add(auditLogger -> auditLogger.logStorageThresholdExceeded(
                             getQuota().getQuotaName(),
                             getQuota().getId(),
-                            newStoragePercent);
+                            newStoragePercent));
                 }
 
                 return ValidationResult.VALID;
             }
 
             // Storage is above the grace - fail if hard enforcement
-            auditLogger.logStorageGraceExceeded(
+            auditLogs.add(auditLogger -> auditLogger.logStorageGraceExceeded(
                     getQuota().getQuotaName(),
                     getQuota().getId(),
                     currentStoragePercent,
                     requestStoragePercent,
-                    hardEnforcement);
+                    hardEnforcement));
 
             if (!hardEnforcement) {
                 return ValidationResult.VALID;
@@ -830,8 +939,8 @@ public class QuotaManager implements BackendService {
         }
 
         @Override
-        public void apply() {
-            quotaStorage.setStorageSizeGBUsage(storageRequestGB);
+        protected Double add(Double currentUsage, int sign) {
+            return currentUsage + sign * storageRequestGB;
         }
     }
 }
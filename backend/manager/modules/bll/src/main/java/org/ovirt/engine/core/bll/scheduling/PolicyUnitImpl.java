@@ -114,6 +114,15 @@ public abstract class PolicyUnitImpl {
         return pendingResourceManager;
     }
 
+    /**
+     * @return whether parts of the host list may be filtered or scored in parallel, see
+     *         {@link SchedulingUnit#threadSafe()}
+     */
+    public boolean isThreadSafe() {
+        SchedulingUnit unit = getClass().getAnnotation(SchedulingUnit.class);
+        return unit != null && unit.threadSafe();
+    }
+
     // The following methods are only used when instantiating an internal policy unit
 
     protected String getName() {
@@ -0,0 +1,139 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Collects the time spent in every policy unit by the scheduling calls, so it is possible to tell which policy unit
+ * dominates the scheduling of a cluster.
+ */
+@Singleton
+public class PolicyUnitStatistics implements PolicyUnitStatisticsMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(PolicyUnitStatistics.class);
+
+    private final Map<String, UnitStatistics> statistics = new ConcurrentHashMap<>();
+    private final LongAdder schedulingCount = new LongAdder();
+    private volatile String lastSchedulingBreakdown = "";
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    private void init() {
+        registerInJMX();
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        unregisterFromJMX();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("PolicyUnitStatistics:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Problem during unregistration of Monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Records the time spent in every policy unit during a single scheduling call.
+     *
+     * @param policyUnitTimes
+     *            the time spent in every policy unit, in nanoseconds, by policy unit name
+     */
+    public void record(Map<String, Long> policyUnitTimes) {
+        if (policyUnitTimes.isEmpty()) {
+            return;
+        }
+        schedulingCount.increment();
+        policyUnitTimes.forEach((name, nanos) -> statistics.computeIfAbsent(name, k -> new UnitStatistics()).add(nanos));
+        lastSchedulingBreakdown = format(policyUnitTimes);
+    }
+
+    /**
+     * @return the given policy unit times as text, for example {@code CPU=0.12ms, Memory=3.40ms}
+     */
+    public static String format(Map<String, Long> policyUnitTimes) {
+        return policyUnitTimes.entrySet().stream()
+                .map(e -> String.format("%s=%.2fms", e.getKey(), e.getValue() / 1_000_000.0))
+                .collect(Collectors.joining(", "));
+    }
+
+    @Override
+    public long getSchedulingCount() {
+        return schedulingCount.sum();
+    }
+
+    @Override
+    public Map<String, Long> getInvocationCounts() {
+        return collect(s -> s.invocations.sum());
+    }
+
+    @Override
+    public Map<String, Long> getTotalTimesMillis() {
+        return collect(s -> TimeUnit.NANOSECONDS.toMillis(s.totalNanos.sum()));
+    }
+
+    @Override
+    public Map<String, Long> getMaxTimesMillis() {
+        return collect(s -> TimeUnit.NANOSECONDS.toMillis(s.maxNanos.get()));
+    }
+
+    @Override
+    public String getLastSchedulingBreakdown() {
+        return lastSchedulingBreakdown;
+    }
+
+    @Override
+    public void reset() {
+        statistics.clear();
+        schedulingCount.reset();
+        lastSchedulingBreakdown = "";
+    }
+
+    private Map<String, Long> collect(Function<UnitStatistics, Long> value) {
+        return statistics.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> value.apply(e.getValue()), Long::sum, TreeMap::new));
+    }
+
+    private static class UnitStatistics {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+        private void add(long nanos) {
+            invocations.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulate(nanos);
+        }
+    }
+}
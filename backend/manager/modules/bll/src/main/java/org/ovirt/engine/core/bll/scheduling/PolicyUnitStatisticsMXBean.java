@@ -0,0 +1,39 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import java.util.Map;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface PolicyUnitStatisticsMXBean {
+
+    /**
+     * The number of scheduling calls recorded
+     */
+    long getSchedulingCount();
+
+    /**
+     * The number of scheduling calls each policy unit ran in, by policy unit name
+     */
+    Map<String, Long> getInvocationCounts();
+
+    /**
+     * The total time spent in each policy unit, in milliseconds, by policy unit name
+     */
+    Map<String, Long> getTotalTimesMillis();
+
+    /**
+     * The longest time spent in each policy unit during a single scheduling call, in milliseconds, by policy unit name
+     */
+    Map<String, Long> getMaxTimesMillis();
+
+    /**
+     * The time spent in each policy unit during the last scheduling call
+     */
+    String getLastSchedulingBreakdown();
+
+    /**
+     * Clears the recorded statistics
+     */
+    void reset();
+}
@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.bll.scheduling;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -36,6 +37,11 @@ public class SchedulingContext {
 
     private final List<String> messages = new ArrayList<>();
 
+    /**
+     * The time spent in every policy unit during the scheduling, in nanoseconds, in the order the units ran.
+     */
+    private final Map<String, Long> policyUnitTimes = new LinkedHashMap<>();
+
     public SchedulingContext(Cluster cluster, Map<String, String> policyParameters, boolean ignoreHardVmToVmAffinity, boolean doNotGroupVms) {
         this.cluster = cluster;
         this.policyParameters = policyParameters;
@@ -106,4 +112,12 @@ public class SchedulingContext {
     public List<String> getMessages() {
         return messages;
     }
+
+    public Map<String, Long> getPolicyUnitTimes() {
+        return policyUnitTimes;
+    }
+
+    public void addPolicyUnitTime(String policyUnitName, long nanos) {
+        policyUnitTimes.merge(policyUnitName, nanos, Long::sum);
+    }
 }
@@ -16,12 +16,15 @@ import java.util.Map.Entry;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -99,6 +102,13 @@ public class SchedulingManager implements BackendService {
     private static final Logger log = LoggerFactory.getLogger(SchedulingManager.class);
     private static final String HIGH_UTILIZATION = "HighUtilization";
     private static final String LOW_UTILIZATION = "LowUtilization";
+    /**
+     * The least number of hosts evaluated by a single thread when a policy unit runs in parallel, so small clusters
+     * are evaluated by the scheduling thread alone
+     */
+    private static final int MIN_HOSTS_PER_TASK = 25;
+    private static final String EXTERNAL_FILTERS = "External filters";
+    private static final String EXTERNAL_FUNCTIONS = "External weight functions";
 
     @Inject
     private AuditLogDirector auditLogDirector;
@@ -139,9 +149,17 @@ public class SchedulingManager implements BackendService {
     @Inject
     @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
     private ManagedScheduledExecutorService executor;
+    @Inject
+    private PolicyUnitStatistics policyUnitStatistics;
 
     private PendingResourceManager pendingResourceManager;
 
+    /**
+     * Evaluates the hosts of thread-safe policy units in parallel, {@code null} if the hosts are evaluated by the
+     * scheduling thread alone
+     */
+    private ForkJoinPool policyUnitPool;
+
     /**
      * [policy id, policy] map
      */
@@ -178,6 +196,7 @@ public class SchedulingManager implements BackendService {
     public void init() {
         log.info("Initializing Scheduling manager");
         initializePendingResourceManager();
+        initializePolicyUnitPool();
         loadPolicyUnits();
         loadClusterPolicies();
         loadExternalScheduler();
@@ -186,10 +205,24 @@ public class SchedulingManager implements BackendService {
         log.info("Initialized Scheduling manager");
     }
 
+    @PreDestroy
+    public void shutdown() {
+        if (policyUnitPool != null) {
+            policyUnitPool.shutdownNow();
+        }
+    }
+
     private void initializePendingResourceManager() {
         pendingResourceManager = new PendingResourceManager(resourceManager);
     }
 
+    private void initializePolicyUnitPool() {
+        int parallelism = Config.<Integer> getValue(ConfigValues.SchedulerPolicyUnitParallelism);
+        if (parallelism > 1) {
+            policyUnitPool = new ForkJoinPool(parallelism);
+        }
+    }
+
     private void loadExternalScheduler() {
         if (Config.<Boolean>getValue(ConfigValues.ExternalSchedulerEnabled)) {
             log.info("Starting external scheduler discovery thread");
@@ -373,9 +406,11 @@ public class SchedulingManager implements BackendService {
             splitFunctions(policy.getFunctions(), context);
             context.setShouldWeighClusterHosts(shouldWeighClusterHosts(cluster));
 
+            // The pending values are refreshed for all the hosts once, and then only for the hosts the VMs are
+            // placed on, because the cluster is locked and nobody else can add pending resources to its hosts
+            refreshCachedPendingValues(hosts);
             Function<List<VM>, Optional<Guid>> findBestHost = group -> {
                 context.getMessages().clear();
-                refreshCachedPendingValues(hosts);
                 return selectHost(policy, hosts, group, destHostIdList, context, correlationId);
             };
 
@@ -391,6 +426,7 @@ public class SchedulingManager implements BackendService {
                     log.debug("Delaying scheduling...");
                     runVmDelayer.delay(hosts.stream().map(VDS::getId).collect(Collectors.toList()));
                     context.setCanDelay(false);
+                    refreshCachedPendingValues(hosts);
                     bestHost = findBestHost.apply(vmGroup);
                 }
 
@@ -423,11 +459,13 @@ public class SchedulingManager implements BackendService {
                     hostsToNotifyPending.add(bestHostId);
                     vfsUpdates.add(() -> markVfsAsUsedByVm(vm, bestHostId));
                 }
+                refreshCachedPendingValues(Collections.singletonList(host));
             }
 
             hostsToNotifyPending.forEach(hostId -> getPendingResourceManager().notifyHostManagers(hostId));
             vfsUpdates.forEach(Runnable::run);
             messages.addAll(context.getMessages());
+            recordPolicyUnitTimes(context, correlationId);
             return vmToHostAssignment;
         } catch (InterruptedException e) {
             log.error("scheduling interrupted, correlation Id: {}: {}", correlationId, e.getMessage());
@@ -470,9 +508,11 @@ public class SchedulingManager implements BackendService {
     }
 
     private void fetchNumaNodes(List<VM> vms, List<VDS> hosts) {
-        // TODO - fetch numa nodes for all VMs in 1 DB call
+        // The numa nodes of all the VMs are fetched in 1 DB call
+        Map<Guid, List<VmNumaNode>> vmNumaNodes =
+                vmNumaNodeDao.getAllVmNumaNodeByVmIds(vms.stream().map(VM::getId).collect(Collectors.toList()));
         for (VM vm : vms) {
-            vm.setvNumaNodeList(vmNumaNodeDao.getAllVmNumaNodeByVmId(vm.getId()));
+            vm.setvNumaNodeList(vmNumaNodes.getOrDefault(vm.getId(), new ArrayList<>()));
         }
 
         for (VDS host : hosts) {
@@ -825,9 +865,20 @@ public class SchedulingManager implements BackendService {
             vmGroup.forEach(vm -> res.put(vm.getId(), filteredHosts));
         }
         messages.addAll(context.getMessages());
+        recordPolicyUnitTimes(context, null);
         return res;
     }
 
+    private void recordPolicyUnitTimes(SchedulingContext context, String correlationId) {
+        policyUnitStatistics.record(context.getPolicyUnitTimes());
+        if (log.isDebugEnabled()) {
+            log.debug("Time spent in policy units of cluster '{}' (correlation id: {}): {}",
+                    context.getCluster().getName(),
+                    correlationId,
+                    PolicyUnitStatistics.format(context.getPolicyUnitTimes()));
+        }
+    }
+
     private Map<String, String> createClusterPolicyParameters(Cluster cluster) {
         Map<String, String> parameters = new HashMap<>();
         if (cluster.getClusterPolicyProperties() != null) {
@@ -896,7 +947,9 @@ public class SchedulingManager implements BackendService {
                 && Config.<Boolean>getValue(ConfigValues.ExternalSchedulerEnabled)
                 && !context.getExternalFilters().isEmpty()
                 && !hostList.isEmpty()) {
+            long start = System.nanoTime();
             hostList = runExternalFilters(hostList, vmGroup, context, correlationId, result);
+            context.addPolicyUnitTime(EXTERNAL_FILTERS, System.nanoTime() - start);
         }
 
         if (hostList.isEmpty()) {
@@ -948,7 +1001,7 @@ public class SchedulingManager implements BackendService {
                 break;
             }
             List<VDS> currentHostList = new ArrayList<>(hostList);
-            hostList = filterPolicyUnit.filter(context, hostList, vmGroup, result.getDetails());
+            hostList = runInternalFilter(filterPolicyUnit, context, hostList, vmGroup, result.getDetails());
             logFilterActions(currentHostList,
                     toIdSet(hostList),
                     EngineMessage.VAR__FILTERTYPE__INTERNAL,
@@ -959,6 +1012,55 @@ public class SchedulingManager implements BackendService {
         return hostList;
     }
 
+    private List<VDS> runInternalFilter(PolicyUnitImpl filterPolicyUnit,
+            SchedulingContext context,
+            List<VDS> hostList,
+            List<VM> vmGroup,
+            PerHostMessages messages) {
+        long start = System.nanoTime();
+        try {
+            List<List<VDS>> parts = partitionHosts(filterPolicyUnit, hostList);
+            if (parts.size() == 1) {
+                return filterPolicyUnit.filter(context, hostList, vmGroup, messages);
+            }
+
+            // PerHostMessages isn't thread-safe, so every part gets its own messages
+            List<PerHostMessages> partMessages = new ArrayList<>(parts.size());
+            List<ForkJoinTask<List<VDS>>> tasks = new ArrayList<>(parts.size());
+            for (List<VDS> part : parts) {
+                PerHostMessages messagesOfPart = new PerHostMessages();
+                partMessages.add(messagesOfPart);
+                tasks.add(policyUnitPool.submit(() -> filterPolicyUnit.filter(context, part, vmGroup, messagesOfPart)));
+            }
+
+            List<VDS> filteredHosts = new ArrayList<>(hostList.size());
+            for (int i = 0; i < tasks.size(); i++) {
+                filteredHosts.addAll(tasks.get(i).join());
+                partMessages.get(i).getMessages().forEach(messages::addMessages);
+            }
+            return filteredHosts;
+        } finally {
+            context.addPolicyUnitTime(filterPolicyUnit.getPolicyUnit().getName(), System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Splits the hosts into the parts evaluated in parallel by the given policy unit, a single part if the policy
+     * unit doesn't run in parallel.
+     */
+    private List<List<VDS>> partitionHosts(PolicyUnitImpl policyUnit, List<VDS> hostList) {
+        if (policyUnitPool == null || !policyUnit.isThreadSafe() || hostList.size() < 2 * MIN_HOSTS_PER_TASK) {
+            return Collections.singletonList(hostList);
+        }
+        int partCount = Math.min(policyUnitPool.getParallelism(), hostList.size() / MIN_HOSTS_PER_TASK);
+        int partSize = (hostList.size() + partCount - 1) / partCount;
+        List<List<VDS>> parts = new ArrayList<>(partCount);
+        for (int from = 0; from < hostList.size(); from += partSize) {
+            parts.add(hostList.subList(from, Math.min(hostList.size(), from + partSize)));
+        }
+        return parts;
+    }
+
     private Set<Guid> toIdSet(List<VDS> hostList) {
         return hostList.stream().map(VDS::getId).collect(Collectors.toSet());
     }
@@ -1027,7 +1129,9 @@ public class SchedulingManager implements BackendService {
 
         if (Config.<Boolean>getValue(ConfigValues.ExternalSchedulerEnabled) &&
                 !context.getExternalScoreFunctions().isEmpty()) {
+            long start = System.nanoTime();
             runExternalFunctions(selector, hostList, vmGroup, context);
+            context.addPolicyUnitTime(EXTERNAL_FUNCTIONS, System.nanoTime() - start);
         }
 
         return selector.best();
@@ -1039,13 +1143,35 @@ public class SchedulingManager implements BackendService {
             SchedulingContext context) {
 
         for (Pair<PolicyUnitImpl, Integer> pair : context.getInternalScoreFunctions()) {
-            List<Pair<Guid, Integer>> scoreResult = pair.getFirst().score(context, hostList, vmGroup);
+            List<Pair<Guid, Integer>> scoreResult = runInternalFunction(pair.getFirst(), context, hostList, vmGroup);
             for (Pair<Guid, Integer> result : scoreResult) {
                 selector.record(pair.getFirst().getGuid(), result.getFirst(), result.getSecond());
             }
         }
     }
 
+    private List<Pair<Guid, Integer>> runInternalFunction(PolicyUnitImpl functionPolicyUnit,
+            SchedulingContext context,
+            List<VDS> hostList,
+            List<VM> vmGroup) {
+        long start = System.nanoTime();
+        try {
+            List<List<VDS>> parts = partitionHosts(functionPolicyUnit, hostList);
+            if (parts.size() == 1) {
+                return functionPolicyUnit.score(context, hostList, vmGroup);
+            }
+
+            List<ForkJoinTask<List<Pair<Guid, Integer>>>> tasks = parts.stream()
+                    .map(part -> policyUnitPool.submit(() -> functionPolicyUnit.score(context, part, vmGroup)))
+                    .collect(Collectors.toList());
+            List<Pair<Guid, Integer>> scores = new ArrayList<>(hostList.size());
+            tasks.forEach(task -> scores.addAll(task.join()));
+            return scores;
+        } finally {
+            context.addPolicyUnitTime(functionPolicyUnit.getPolicyUnit().getName(), System.nanoTime() - start);
+        }
+    }
+
     private void runExternalFunctions(SelectorInstance selector,
             List<VDS> hostList,
             List<VM> vmGroup,
@@ -1483,6 +1609,13 @@ public class SchedulingManager implements BackendService {
             return this;
         }
 
+        /**
+         * Places a batch of VMs in a single call, which is much cheaper than scheduling them one by one.
+         * The cluster is locked and the hosts, their numa nodes and their pending resources are fetched once,
+         * every placed VM then adds its pending resources to the hosts considered for the following VMs.
+         *
+         * @return the host each VM is placed on, by VM id, VMs that can't be placed are missing
+         */
         public Map<Guid, Guid> schedule(List<VM> vms) {
             return schedule(vms, false);
         }
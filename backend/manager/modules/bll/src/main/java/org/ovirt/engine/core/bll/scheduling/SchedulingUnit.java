@@ -15,4 +15,10 @@ public @interface SchedulingUnit {
     PolicyUnitType type() default PolicyUnitType.FILTER;
     String description() default "";
     PolicyUnitParameter[] parameters() default {};
+
+    /**
+     * Whether the filter or weight function of the unit is thread-safe and evaluates every host independently of the
+     * other hosts, so parts of the host list may be evaluated in parallel and their results joined.
+     */
+    boolean threadSafe() default false;
 }
@@ -24,7 +24,8 @@ import org.slf4j.LoggerFactory;
         guid = "47ea3cd0-8a2f-438d-9f63-49534178882a",
         name = "Migration-Tsc-Frequency",
         description = "High-Performance VMs can only be migrated to hosts with the same TSC frequency",
-        type = PolicyUnitType.FILTER
+        type = PolicyUnitType.FILTER,
+        threadSafe = true
 )
 public class MigrationTscFrequencyPolicyUnit extends PolicyUnitImpl {
     private static final Logger log = LoggerFactory.getLogger(MigrationTscFrequencyPolicyUnit.class);
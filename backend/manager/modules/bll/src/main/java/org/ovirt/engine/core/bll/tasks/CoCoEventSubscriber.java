@@ -75,6 +75,8 @@ public class CoCoEventSubscriber extends EventSubscriber {
             if (commandEntityFromCache != null) {
                 commandEntityFromCache.setWaitingForEvent(false);
             }
+            // The command doesn't wait for the event anymore, so its callback is polled right away
+            commandsRepository.wakeUpCallback(cmdId);
         }
     }
 }
@@ -1,13 +1,14 @@
 package org.ovirt.engine.core.bll.tasks;
 
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.annotation.PostConstruct;
 import javax.enterprise.concurrent.ManagedScheduledExecutorService;
@@ -43,13 +44,24 @@ public class CommandCallbacksPoller implements BackendService {
 
     private int repeatEndMethodsOnFailMaxRetries;
 
+    /**
+     * Makes sure that the callbacks are executed by one thread at a time, a thread that finds the lock taken leaves
+     * the invocation request to the thread holding the lock.
+     */
+    private final Lock invocationLock = new ReentrantLock();
+    private final AtomicBoolean invocationRequested = new AtomicBoolean();
+    private final AtomicBoolean expirationCheckRequested = new AtomicBoolean();
+
     @PostConstruct
     private void init() {
         log.info("Start initializing {}", getClass().getSimpleName());
         pollingRate = Config.<Long>getValue(ConfigValues.AsyncCommandPollingLoopInSeconds);
         repeatEndMethodsOnFailMaxRetries = Config.<Integer>getValue(ConfigValues.RepeatEndMethodsOnFailMaxRetries);
+        commandsRepository.setCallbacksDueListener(() -> executor.execute(this::invokeCallbackMethods));
         initCommandExecutor();
-        executor.scheduleWithFixedDelay(this::invokeCallbackMethods,
+        // Each callback is scheduled by its own delay, the periodic invocation runs the callbacks that are due and
+        // checks for expired commands
+        executor.scheduleWithFixedDelay(this::pollCallbacks,
                 pollingRate,
                 pollingRate,
                 TimeUnit.SECONDS);
@@ -104,11 +116,22 @@ public class CommandCallbacksPoller implements BackendService {
         return new ArrayList<>(commandsRepository.getChildCommandIds(cmdId));
     }
 
+    private void pollCallbacks() {
+        expirationCheckRequested.set(true);
+        invokeCallbackMethods();
+    }
+
     private void invokeCallbackMethods() {
-        try {
-            invokeCallbackMethodsImpl();
-        } catch (Throwable t) {
-            logInvocationCallbackError(t);
+        invocationRequested.set(true);
+        while (invocationRequested.get() && invocationLock.tryLock()) {
+            try {
+                invocationRequested.set(false);
+                invokeCallbackMethodsImpl();
+            } catch (Throwable t) {
+                logInvocationCallbackError(t);
+            } finally {
+                invocationLock.unlock();
+            }
         }
     }
 
@@ -130,105 +153,104 @@ public class CommandCallbacksPoller implements BackendService {
     }
 
     private void invokeCallbackMethodsImpl() {
-        Iterator<Entry<Guid, CallbackTiming>> iterator = commandsRepository.getCallbacksTiming().entrySet().iterator();
-        while (iterator.hasNext()) {
-            Entry<Guid, CallbackTiming> entry = iterator.next();
-
-            Guid cmdId = entry.getKey();
-            CallbackTiming callbackTiming = entry.getValue();
-            CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
-            CorrelationIdTracker.setCorrelationId(commandEntity != null
-                    ? commandEntity.getCommandParameters().getCorrelationId() : null);
-            if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
-                continue;
+        for (Guid cmdId = commandsRepository.pollDueCallback(); cmdId != null;
+                cmdId = commandsRepository.pollDueCallback()) {
+            CallbackTiming callbackTiming = commandsRepository.getCallbackTiming(cmdId);
+            if (callbackTiming != null) {
+                invokeCallbackMethod(cmdId, callbackTiming);
             }
+        }
+        CorrelationIdTracker.setCorrelationId(null);
+        if (expirationCheckRequested.getAndSet(false)) {
+            commandsRepository.markExpiredCommandsAsFailure();
+        }
+    }
 
-            // Decrement counter; execute if it reaches 0
-            callbackTiming.setRemainingDelay(callbackTiming.getRemainingDelay() - pollingRate);
-            ActionType cmdActionType = commandEntity == null ? ActionType.Unknown : commandEntity.getCommandType();
-            if (callbackTiming.getRemainingDelay() > 0) {
-                log.debug("The command {} ({}) has remaining delay {}, polling will be skipped.",
-                        cmdActionType,
-                        cmdId,
-                        callbackTiming.getRemainingDelay());
-                continue;
-            }
+    private void invokeCallbackMethod(Guid cmdId, CallbackTiming callbackTiming) {
+        CommandEntity commandEntity = commandsRepository.getCommandEntity(cmdId);
+        CorrelationIdTracker.setCorrelationId(commandEntity != null
+                ? commandEntity.getCommandParameters().getCorrelationId() : null);
+        if (commandEntity != null && updateCommandWaitingForEvent(commandEntity, callbackTiming)) {
+            return;
+        }
 
-            CommandCallback callback = callbackTiming.getCallback();
-            CommandStatus status = commandsRepository.getCommandStatus(cmdId);
-            log.debug("Command {} ({}) in status {}", cmdActionType, cmdId, status);
-            boolean runCallbackAgain = false;
-            boolean errorInCallback = false;
-            try {
-                switch (status) {
-                    case FAILED:
-                    case SUCCEEDED:
-                        runCallbackAgain = endCallback(cmdId, callback, status);
-                        break;
-                    case ACTIVE:
-                        if (commandEntity == null) {
-                            log.info("Not invoking command's {} doPolling method command entity is null, callback is {}.",
-                                    cmdId,
-                                    callbackTiming.getCallback() == null ? "NULL" : callbackTiming.getCallback().getClass().getCanonicalName());
-                        } else if (commandEntity.isExecuted()) {
-                            log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        }
-                        break;
-                    case EXECUTION_FAILED:
-                        if (callback.pollOnExecutionFailed()) {
-                            log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
-                            callback.doPolling(cmdId, getChildCommandIds(cmdId));
-                        } else {
-                            log.info("Not invoking command's {} ({}) doPolling method callback's pollOnExecutionFailed is false.",
-                                    cmdActionType, cmdId);
-                        }
-                        break;
-                    default:
-                        break;
-                }
-            } catch (Throwable ex) {
-                errorInCallback = true;
-                log.info("Exception in invoking callback of command {} ({}): {}",
-                        cmdActionType,
-                        cmdId,
-                        ExceptionUtils.getRootCauseMessage(ex));
-                log.debug("Exception", ex);
-                handleError(ex, status, cmdId);
-            } finally {
-                if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
-                        && !runCallbackAgain) {
-                    log.debug("Callback of command {} ({}) has been notified, removing command from command repository.",
-                            cmdActionType, cmdId);
-                    commandsRepository.updateCallbackNotified(cmdId);
-                    iterator.remove();
-                    CommandEntity cmdEntity = commandsRepository.getCommandEntity(entry.getKey());
-                    if (cmdEntity != null) {
-                        // When a child finishes, its parent's callback should execute shortly thereafter
-                        CallbackTiming rootCmdContainer =
-                                commandsRepository.getCallbackTiming(cmdEntity.getRootCommandId());
-                        if (rootCmdContainer != null) {
-                            rootCmdContainer.setInitialDelay(pollingRate);
-                            rootCmdContainer.setRemainingDelay(pollingRate);
-                        }
+        ActionType cmdActionType = commandEntity == null ? ActionType.Unknown : commandEntity.getCommandType();
+        CommandCallback callback = callbackTiming.getCallback();
+        CommandStatus status = commandsRepository.getCommandStatus(cmdId);
+        log.debug("Command {} ({}) in status {}", cmdActionType, cmdId, status);
+        boolean runCallbackAgain = false;
+        boolean errorInCallback = false;
+        try {
+            switch (status) {
+                case FAILED:
+                case SUCCEEDED:
+                    runCallbackAgain = endCallback(cmdId, callback, status);
+                    break;
+                case ACTIVE:
+                    if (commandEntity == null) {
+                        log.info("Not invoking command's {} doPolling method command entity is null, callback is {}.",
+                                cmdId,
+                                callbackTiming.getCallback() == null ? "NULL" : callbackTiming.getCallback().getClass().getCanonicalName());
+                    } else if (commandEntity.isExecuted()) {
+                        log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
                     }
-                } else if (status != commandsRepository.getCommandStatus(cmdId)) {
-                    log.debug("Command {} ({}) status {} has been updated to {}, command will be polled again.",
-                            cmdActionType, cmdId,
-                            commandsRepository.getCommandStatus(cmdId),
-                            status);
-                    callbackTiming.setInitialDelay(pollingRate);
-                    callbackTiming.setRemainingDelay(pollingRate);
-                } else {
-                    log.debug("Command {} ({}) will be polled again, updating initial and remaining delay.", cmdActionType, cmdId);
-                    long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
-                    callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
-                    callbackTiming.setRemainingDelay(callbackTiming.getInitialDelay());
+                    break;
+                case EXECUTION_FAILED:
+                    if (callback.pollOnExecutionFailed()) {
+                        log.debug("Invoking command's {} ({}) doPolling method.", cmdActionType, cmdId);
+                        callback.doPolling(cmdId, getChildCommandIds(cmdId));
+                    } else {
+                        log.info("Not invoking command's {} ({}) doPolling method callback's pollOnExecutionFailed is false.",
+                                cmdActionType, cmdId);
+                    }
+                    break;
+                default:
+                    break;
+            }
+        } catch (Throwable ex) {
+            errorInCallback = true;
+            log.info("Exception in invoking callback of command {} ({}): {}",
+                    cmdActionType,
+                    cmdId,
+                    ExceptionUtils.getRootCauseMessage(ex));
+            log.debug("Exception", ex);
+            handleError(ex, status, cmdId);
+        } finally {
+            if ((CommandStatus.FAILED == status || (CommandStatus.SUCCEEDED == status && !errorInCallback))
+                    && !runCallbackAgain) {
+                log.debug("Callback of command {} ({}) has been notified, removing command from command repository.",
+                        cmdActionType, cmdId);
+                commandsRepository.updateCallbackNotified(cmdId);
+                commandsRepository.removeFromCallbackMap(cmdId);
+                CommandEntity cmdEntity = commandsRepository.getCommandEntity(cmdId);
+                if (cmdEntity != null) {
+                    // When a child finishes, its parent's callbacks should execute right away
+                    wakeUpCallback(cmdEntity.getParentCommandId());
+                    wakeUpCallback(cmdEntity.getRootCommandId());
                 }
+            } else if (status != commandsRepository.getCommandStatus(cmdId)) {
+                log.debug("Command {} ({}) status {} has been updated to {}, command will be polled again.",
+                        cmdActionType, cmdId,
+                        commandsRepository.getCommandStatus(cmdId),
+                        status);
+                callbackTiming.setInitialDelay(pollingRate);
+                commandsRepository.scheduleCallback(cmdId, pollingRate, TimeUnit.SECONDS);
+            } else {
+                log.debug("Command {} ({}) will be polled again, updating initial delay.", cmdActionType, cmdId);
+                long maxDelay = Config.<Long>getValue(ConfigValues.AsyncCommandPollingRateInSeconds);
+                callbackTiming.setInitialDelay(Math.min(maxDelay, callbackTiming.getInitialDelay() * 2));
+                commandsRepository.scheduleCallback(cmdId, callbackTiming.getInitialDelay(), TimeUnit.SECONDS);
             }
         }
-        CorrelationIdTracker.setCorrelationId(null);
-        commandsRepository.markExpiredCommandsAsFailure();
+    }
+
+    private void wakeUpCallback(Guid cmdId) {
+        CallbackTiming callbackTiming = commandsRepository.getCallbackTiming(cmdId);
+        if (callbackTiming != null) {
+            callbackTiming.setInitialDelay(pollingRate);
+            commandsRepository.wakeUpCallback(cmdId);
+        }
     }
 
     private void handleError(Throwable ex, CommandStatus status, Guid cmdId) {
@@ -293,6 +315,9 @@ public class CommandCallbacksPoller implements BackendService {
             }
             log.debug("The command '{}' is waiting for event and will not be polled until event or timeout",
                     cmdEntity.getId());
+            commandsRepository.scheduleCallback(cmdEntity.getId(),
+                    callbackTiming.getWaitOnEventEndTime() - System.currentTimeMillis(),
+                    TimeUnit.MILLISECONDS);
             return true;
         }
         return false;
@@ -166,6 +166,11 @@ public class CommandCoordinatorImpl implements BackendService, CommandCoordinato
         commandsRepositoryInstance.get().updateCommandExecuted(commandId);
     }
 
+    @Override
+    public void wakeUpEndedCommandCallback(Guid commandId) {
+        commandsRepositoryInstance.get().wakeUpEndedCommandCallback(commandId);
+    }
+
     @Override
     public boolean hasCommandEntitiesWithRootCommandId(Guid rootCommandId) {
         return commandsRepositoryInstance.get().hasCommandEntitiesWithRootCommandId(rootCommandId);
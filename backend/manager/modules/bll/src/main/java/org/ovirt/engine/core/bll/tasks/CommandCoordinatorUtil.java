@@ -387,6 +387,15 @@ public class CommandCoordinatorUtil implements BackendService {
         coco.get().updateCommandExecuted(commandId);
     }
 
+    /**
+     * Wakes up the callback of the command identified by the command id if the command has already ended, so it doesn't
+     * wait for its next polling.
+     * @param commandId The id of the command
+     */
+    public void wakeUpEndedCommandCallback(Guid commandId) {
+        coco.get().wakeUpEndedCommandCallback(commandId);
+    }
+
     /**
      * Submit the command for asynchronous execution to the Command Executor thread pool.
      * @param actionType The action type of the command
@@ -1,14 +1,28 @@
 package org.ovirt.engine.core.bll.tasks;
 
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
@@ -18,35 +32,156 @@ import org.ovirt.engine.core.compat.DateTime;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.dao.CommandEntityDao;
 import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps all the command entities in memory, indexed by their root command and by the entities associated with them,
+ * so the lookups of the command coordinator don't have to scan the commands or query the database.
+ */
 @Singleton
-public class CommandsCacheImpl implements CommandsCache {
+public class CommandsCacheImpl implements CommandsCache, CommandsCacheMXBean {
 
-    private Map<Guid, CommandEntity> commandMap;
+    private static final Logger log = LoggerFactory.getLogger(CommandsCacheImpl.class);
+
+    private final ConcurrentMap<Guid, CommandEntity> commandMap;
+    private final ConcurrentMap<Guid, Set<Guid>> commandIdsByRootCommandId;
+    private final ConcurrentMap<Guid, Set<CommandAssociatedEntity>> associatedEntitiesByCommandId;
+    private final ConcurrentMap<Guid, Set<Guid>> commandIdsByEntityId;
     private volatile boolean cacheInitialized;
     private Object LOCK = new Object();
 
+    private final LongAdder lookupCount = new LongAdder();
+    private final LongAdder lookupNanos = new LongAdder();
+    private final LongAccumulator maxLookupNanos = new LongAccumulator(Math::max, 0);
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
     @Inject
     private CommandEntityDao commandEntityDao;
 
     public CommandsCacheImpl() {
-        commandMap = new HashMap<>();
+        commandMap = new ConcurrentHashMap<>();
+        commandIdsByRootCommandId = new ConcurrentHashMap<>();
+        associatedEntitiesByCommandId = new ConcurrentHashMap<>();
+        commandIdsByEntityId = new ConcurrentHashMap<>();
+    }
+
+    @PostConstruct
+    private void init() {
+        registerInJMX();
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        unregisterFromJMX();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("CommandsCache:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Problem during unregistration of Monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
     }
 
     private void initializeCache() {
         if (!cacheInitialized) {
             synchronized(LOCK) {
                 if (!cacheInitialized) {
-                    List<CommandEntity> cmdEntities = commandEntityDao.getAll();
-                    for (CommandEntity cmdEntity : cmdEntities) {
-                        commandMap.put(cmdEntity.getId(), cmdEntity);
-                    }
+                    loadCache();
                     cacheInitialized = true;
                 }
             }
         }
     }
 
+    /**
+     * Reads both tables by a single query each and builds the indexes in parallel.
+     *
+     * @return the ids of the loaded commands
+     */
+    private Set<Guid> loadCache() {
+        List<CommandEntity> cmdEntities = commandEntityDao.getAll();
+        List<CommandAssociatedEntity> cmdAssociatedEntities = commandEntityDao.getAllCommandAssociatedEntities();
+        cmdEntities.parallelStream().forEach(this::addToCache);
+        cmdAssociatedEntities.parallelStream().forEach(this::addToIndex);
+        return cmdEntities.stream().map(CommandEntity::getId).collect(Collectors.toSet());
+    }
+
+    private void removeFromCache(Guid commandId) {
+        CommandEntity cmdEntity = commandMap.remove(commandId);
+        if (cmdEntity != null) {
+            removeFromIndex(commandIdsByRootCommandId, cmdEntity.getRootCommandId(), commandId);
+        }
+        Set<CommandAssociatedEntity> cmdAssociatedEntities = associatedEntitiesByCommandId.remove(commandId);
+        if (cmdAssociatedEntities != null) {
+            cmdAssociatedEntities.forEach(e -> removeFromIndex(commandIdsByEntityId, e.getEntityId(), commandId));
+        }
+    }
+
+    private void addToCache(CommandEntity cmdEntity) {
+        CommandEntity previous = commandMap.put(cmdEntity.getId(), cmdEntity);
+        if (previous != null && !Objects.equals(previous.getRootCommandId(), cmdEntity.getRootCommandId())) {
+            removeFromIndex(commandIdsByRootCommandId, previous.getRootCommandId(), cmdEntity.getId());
+        }
+        addToIndex(commandIdsByRootCommandId, cmdEntity.getRootCommandId(), cmdEntity.getId());
+    }
+
+    private void addToIndex(CommandAssociatedEntity cmdAssociatedEntity) {
+        associatedEntitiesByCommandId.compute(cmdAssociatedEntity.getCommandId(), (cmdId, entities) -> {
+            Set<CommandAssociatedEntity> result = entities == null ? ConcurrentHashMap.newKeySet() : entities;
+            result.add(cmdAssociatedEntity);
+            return result;
+        });
+        addToIndex(commandIdsByEntityId, cmdAssociatedEntity.getEntityId(), cmdAssociatedEntity.getCommandId());
+    }
+
+    private static void addToIndex(ConcurrentMap<Guid, Set<Guid>> index, Guid key, Guid commandId) {
+        if (key == null) {
+            return;
+        }
+        index.compute(key, (k, commandIds) -> {
+            Set<Guid> result = commandIds == null ? ConcurrentHashMap.newKeySet() : commandIds;
+            result.add(commandId);
+            return result;
+        });
+    }
+
+    private static void removeFromIndex(ConcurrentMap<Guid, Set<Guid>> index, Guid key, Guid commandId) {
+        if (key == null) {
+            return;
+        }
+        index.computeIfPresent(key, (k, commandIds) -> {
+            commandIds.remove(commandId);
+            return commandIds.isEmpty() ? null : commandIds;
+        });
+    }
+
+    private <T> T lookup(Supplier<T> lookup) {
+        long start = System.nanoTime();
+        try {
+            return lookup.get();
+        } finally {
+            long nanos = System.nanoTime() - start;
+            lookupCount.increment();
+            lookupNanos.add(nanos);
+            maxLookupNanos.accumulate(nanos);
+        }
+    }
+
     @Override
     public Set<Guid> keySet() {
         initializeCache();
@@ -56,26 +191,38 @@ public class CommandsCacheImpl implements CommandsCache {
     @Override
     public CommandEntity get(Guid commandId) {
         initializeCache();
-        return commandMap.get(commandId);
+        return lookup(() -> commandMap.get(commandId));
     }
 
     @Override
     public void remove(final Guid commandId) {
-        commandMap.remove(commandId);
+        initializeCache();
+        removeFromCache(commandId);
         commandEntityDao.remove(commandId);
     }
 
     @Override
     public void put(final CommandEntity cmdEntity) {
-        commandMap.put(cmdEntity.getId(), cmdEntity);
+        addToCache(cmdEntity);
         saveOrUpdateWithoutTransaction(cmdEntity);
     }
 
     @Override
     public void removeAllCommandsBeforeDate(DateTime cutoff) {
         commandEntityDao.removeAllBeforeDate(cutoff);
-        cacheInitialized = false;
-        initializeCache();
+        synchronized(LOCK) {
+            Set<Guid> remainingCommandIds = loadCache();
+            // Commands created after the cutoff may have been added while loading, so only older ones are dropped
+            commandMap.values()
+                    .stream()
+                    .filter(cmdEntity -> cmdEntity.getCreatedAt() != null
+                            && cmdEntity.getCreatedAt().before(cutoff)
+                            && !remainingCommandIds.contains(cmdEntity.getId()))
+                    .map(CommandEntity::getId)
+                    .collect(Collectors.toList())
+                    .forEach(this::removeFromCache);
+            cacheInitialized = true;
+        }
     }
 
     @Override
@@ -83,7 +230,10 @@ public class CommandsCacheImpl implements CommandsCache {
         final CommandEntity cmdEntity = get(commandId);
         if (cmdEntity != null) {
             cmdEntity.setCommandStatus(status);
-            saveOrUpdateWithoutTransaction(cmdEntity);
+            TransactionSupport.executeInSuppressed(() -> {
+                commandEntityDao.updateStatus(commandId, status);
+                return null;
+            });
         }
     }
 
@@ -92,7 +242,10 @@ public class CommandsCacheImpl implements CommandsCache {
         final CommandEntity cmdEntity = get(commandId);
         if (cmdEntity != null) {
             cmdEntity.setData(data);
-            saveOrUpdateWithoutTransaction(cmdEntity);
+            TransactionSupport.executeInSuppressed(() -> {
+                commandEntityDao.updateData(commandId, data);
+                return null;
+            });
         }
     }
 
@@ -131,20 +284,67 @@ public class CommandsCacheImpl implements CommandsCache {
             commandEntityDao.insertCommandAssociatedEntities(cmdAssociatedEntities);
             return null;
         });
+        cmdAssociatedEntities.forEach(this::addToIndex);
     }
 
     @Override
     public List<CommandAssociatedEntity> getCommandAssociatedEntities(Guid cmdId) {
-        return commandEntityDao.getAllCommandAssociatedEntities(cmdId);
+        initializeCache();
+        return lookup(() -> new ArrayList<>(
+                associatedEntitiesByCommandId.getOrDefault(cmdId, Collections.emptySet())));
     }
 
     @Override
     public List<Guid> getCommandIdsByEntityId(Guid entityId) {
-        return commandEntityDao.getCommandIdsByEntity(entityId);
+        initializeCache();
+        return lookup(() -> new ArrayList<>(commandIdsByEntityId.getOrDefault(entityId, Collections.emptySet())));
     }
 
     @Override
     public List<CommandEntity> getChildCmdsByParentCmdId(Guid cmdId) {
-        return commandEntityDao.getCmdEntitiesByParentCmdId(cmdId);
+        initializeCache();
+        return lookup(() -> commandIdsByRootCommandId.getOrDefault(cmdId, Collections.emptySet())
+                .stream()
+                .map(commandMap::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public int getCommandCount() {
+        return commandMap.size();
+    }
+
+    @Override
+    public int getIndexedRootCommandCount() {
+        return commandIdsByRootCommandId.size();
+    }
+
+    @Override
+    public int getIndexedEntityCount() {
+        return commandIdsByEntityId.size();
+    }
+
+    @Override
+    public long getLookupCount() {
+        return lookupCount.sum();
+    }
+
+    @Override
+    public double getAverageLookupMicros() {
+        long count = lookupCount.sum();
+        return count == 0 ? 0 : lookupNanos.sum() / 1000.0 / count;
+    }
+
+    @Override
+    public long getMaxLookupMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLookupNanos.get());
+    }
+
+    @Override
+    public void resetLookupStatistics() {
+        lookupCount.reset();
+        lookupNanos.reset();
+        maxLookupNanos.reset();
     }
 }
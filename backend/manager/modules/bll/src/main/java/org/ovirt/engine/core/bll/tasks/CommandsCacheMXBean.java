@@ -0,0 +1,42 @@
+package org.ovirt.engine.core.bll.tasks;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface CommandsCacheMXBean {
+
+    /**
+     * The number of command entities in the cache
+     */
+    int getCommandCount();
+
+    /**
+     * The number of root commands that have commands in the cache
+     */
+    int getIndexedRootCommandCount();
+
+    /**
+     * The number of entities that are associated with commands in the cache
+     */
+    int getIndexedEntityCount();
+
+    /**
+     * The number of lookups served by the cache
+     */
+    long getLookupCount();
+
+    /**
+     * The average time of a lookup, in microseconds
+     */
+    double getAverageLookupMicros();
+
+    /**
+     * The longest time of a lookup, in microseconds
+     */
+    long getMaxLookupMicros();
+
+    /**
+     * Clears the recorded lookup statistics
+     */
+    void resetLookupStatistics();
+}
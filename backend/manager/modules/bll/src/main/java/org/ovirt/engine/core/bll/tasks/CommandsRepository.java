@@ -11,6 +11,8 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
@@ -45,6 +47,12 @@ public class CommandsRepository {
     private final CommandContextsCache contextsCache;
     private final ConcurrentHashMap<Guid, List<Guid>> childHierarchy;
     private final ConcurrentMap<Guid, CoCoEventSubscriber> subscriptions;
+    /**
+     * The times in which the callbacks should be executed next. A callback that is rescheduled leaves its previous
+     * execution in the queue, so executions that don't match the time of their callback are skipped.
+     */
+    private final DelayQueue<CallbackExecution> callbackExecutions;
+    private volatile Runnable callbacksDueListener = () -> {};
     private final Object LOCK;
     private volatile boolean childHierarchyInitialized;
     @Inject
@@ -58,6 +66,7 @@ public class CommandsRepository {
         callbacksTiming = new ConcurrentHashMap<>();
         childHierarchy = new ConcurrentHashMap<>();
         subscriptions = new ConcurrentHashMap<>();
+        callbackExecutions = new DelayQueue<>();
         LOCK = new Object();
     }
 
@@ -110,6 +119,67 @@ public class CommandsRepository {
 
     public void addToCallbackMap(Guid commandId, CallbackTiming callbackTiming) {
         callbacksTiming.put(commandId, callbackTiming);
+        scheduleCallback(commandId, callbackTiming, TimeUnit.SECONDS.toNanos(callbackTiming.getInitialDelay()));
+    }
+
+    public void removeFromCallbackMap(Guid commandId) {
+        callbacksTiming.remove(commandId);
+    }
+
+    /**
+     * Schedules the next execution of the callback of the given command, replacing its previously scheduled execution.
+     *
+     * @param commandId
+     *            the id of the command
+     * @param delay
+     *            the time to wait before executing the callback
+     * @param unit
+     *            the time unit of the delay
+     */
+    public void scheduleCallback(Guid commandId, long delay, TimeUnit unit) {
+        CallbackTiming callbackTiming = getCallbackTiming(commandId);
+        if (callbackTiming != null) {
+            scheduleCallback(commandId, callbackTiming, unit.toNanos(delay));
+        }
+    }
+
+    private void scheduleCallback(Guid commandId, CallbackTiming callbackTiming, long delayNanos) {
+        long executionTime = System.nanoTime() + delayNanos;
+        callbackTiming.setNextExecutionTime(executionTime);
+        callbackExecutions.add(new CallbackExecution(commandId, executionTime));
+    }
+
+    /**
+     * Schedules the callback of the given command to be executed right away, for example because a child command of it
+     * has ended, and notifies the listener of the due callbacks.
+     */
+    public void wakeUpCallback(Guid commandId) {
+        CallbackTiming callbackTiming = getCallbackTiming(commandId);
+        if (callbackTiming != null) {
+            scheduleCallback(commandId, callbackTiming, 0);
+            callbacksDueListener.run();
+        }
+    }
+
+    /**
+     * Sets the listener that is notified when a callback should be executed right away.
+     */
+    public void setCallbacksDueListener(Runnable callbacksDueListener) {
+        this.callbacksDueListener = callbacksDueListener;
+    }
+
+    /**
+     * @return the id of a command whose callback should be executed now, or {@code null} if there is no such command
+     */
+    public Guid pollDueCallback() {
+        for (CallbackExecution execution = callbackExecutions.poll(); execution != null;
+                execution = callbackExecutions.poll()) {
+            CallbackTiming callbackTiming = callbacksTiming.get(execution.commandId);
+            if (callbackTiming != null && callbackTiming.getNextExecutionTime() == execution.time) {
+                return execution.commandId;
+            }
+        }
+        return null;
     }
 
     public void persistCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -156,6 +226,26 @@ public class CommandsRepository {
 
     public void updateCommandStatus(final Guid commandId, final CommandStatus status) {
         commandsCache.updateCommandStatus(commandId, status);
+        // The callback of an ended command doesn't have to wait for its next polling. A command which ends while it is
+        // still executing is woken up by wakeUpEndedCommandCallback() once its execution is committed instead.
+        CommandEntity cmdEntity = commandsCache.get(commandId);
+        if (isEnded(status) && cmdEntity != null && cmdEntity.isExecuted()) {
+            wakeUpCallback(commandId);
+        }
+    }
+
+    /**
+     * Wakes up the callback of the given command if the command has already ended, to be called once the execution of
+     * the command has been committed.
+     */
+    public void wakeUpEndedCommandCallback(Guid commandId) {
+        if (isEnded(getCommandStatus(commandId))) {
+            wakeUpCallback(commandId);
+        }
+    }
+
+    private static boolean isEnded(CommandStatus status) {
+        return status == CommandStatus.SUCCEEDED || status == CommandStatus.FAILED;
     }
 
     private CommandBase<?> retrieveCommand(CommandEntity cmdEntity, CommandContext cmdContext) {
@@ -370,4 +460,24 @@ public class CommandsRepository {
             subscriber.cancel();
         }
     }
+
+    private static class CallbackExecution implements Delayed {
+        private final Guid commandId;
+        private final long time;
+
+        private CallbackExecution(Guid commandId, long time) {
+            this.commandId = commandId;
+            this.time = time;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(time - System.nanoTime(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.signum(time - ((CallbackExecution) other).time);
+        }
+    }
 }
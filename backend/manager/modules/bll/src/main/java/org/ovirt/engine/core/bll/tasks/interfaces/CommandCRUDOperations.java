@@ -57,5 +57,7 @@ public interface CommandCRUDOperations {
 
     void updateCommandExecuted(Guid commandId);
 
+    void wakeUpEndedCommandCallback(Guid commandId);
+
     List<CommandEntity> getChildCmdsByRootCmdId(Guid cmdId);
 }
@@ -0,0 +1,102 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.VmStatic;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VmDynamicDao;
+import org.ovirt.engine.core.dao.VmStaticDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+import org.ovirt.engine.core.vdsbroker.VmManager;
+
+/**
+ * A test case for {@link GetAllVmsRunningForMultipleVdsQuery}. This test mocks away all the Daos, and just tests the
+ * flow of the query itself.
+ */
+public class GetAllVmsRunningForMultipleVdsQueryTest
+        extends AbstractQueryTest<IdsQueryParameters, GetAllVmsRunningForMultipleVdsQuery<IdsQueryParameters>> {
+
+    @Mock
+    private VmDynamicDao vmDynamicDaoMock;
+
+    @Mock
+    private VmStaticDao vmStaticDaoMock;
+
+    @Mock
+    private VmStatisticsDao vmStatisticsDaoMock;
+
+    @Mock
+    private ResourceManager resourceManagerMock;
+
+    @Test
+    public void testQueryExecution() {
+        Guid hostId1 = Guid.newGuid();
+        Guid hostId2 = Guid.newGuid();
+        VmDynamic monitoredVm = createVmDynamic(hostId1);
+        VmDynamic unmonitoredVm = createVmDynamic(hostId2);
+        List<Guid> hostIds = Arrays.asList(hostId1, hostId2);
+        when(getQueryParameters().getIds()).thenReturn(hostIds);
+        when(vmDynamicDaoMock.getAllRunningForMultipleVds(hostIds))
+                .thenReturn(Arrays.asList(monitoredVm, unmonitoredVm));
+        when(vmStaticDaoMock.getByIds(any())).thenReturn(Arrays.asList(createVmStatic(monitoredVm),
+                createVmStatic(unmonitoredVm)));
+
+        VmStatistics monitoredStatistics = new VmStatistics(monitoredVm.getId());
+        VmManager vmManager = mock(VmManager.class);
+        when(vmManager.getStatistics()).thenReturn(monitoredStatistics);
+        when(resourceManagerMock.getVmManager(monitoredVm.getId(), false)).thenReturn(vmManager);
+        VmStatistics unmonitoredStatistics = new VmStatistics(unmonitoredVm.getId());
+        when(vmStatisticsDaoMock.get(unmonitoredVm.getId())).thenReturn(unmonitoredStatistics);
+
+        getQuery().executeQueryCommand();
+
+        Map<Guid, List<VM>> actual = getQuery().getQueryReturnValue().getReturnValue();
+        assertEquals(2, actual.size(), "Wrong number of hosts");
+        assertSame(monitoredStatistics, actual.get(hostId1).get(0).getStatisticsData());
+        assertSame(unmonitoredStatistics, actual.get(hostId2).get(0).getStatisticsData());
+        verify(vmStatisticsDaoMock).get(unmonitoredVm.getId());
+        verifyNoMoreInteractions(vmStatisticsDaoMock);
+    }
+
+    @Test
+    public void testQueryExecutionWithoutRunningVms() {
+        when(getQueryParameters().getIds()).thenReturn(Collections.singletonList(Guid.newGuid()));
+
+        getQuery().executeQueryCommand();
+
+        Map<Guid, List<VM>> actual = getQuery().getQueryReturnValue().getReturnValue();
+        assertEquals(0, actual.size(), "Wrong number of hosts");
+        verifyNoMoreInteractions(vmStaticDaoMock);
+    }
+
+    private static VmDynamic createVmDynamic(Guid hostId) {
+        VmDynamic vmDynamic = new VmDynamic();
+        vmDynamic.setId(Guid.newGuid());
+        vmDynamic.setRunOnVds(hostId);
+        return vmDynamic;
+    }
+
+    private static VmStatic createVmStatic(VmDynamic vmDynamic) {
+        VmStatic vmStatic = new VmStatic();
+        vmStatic.setId(vmDynamic.getId());
+        return vmStatic;
+    }
+}
@@ -0,0 +1,169 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.Queryable;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.common.queries.SearchChanges;
+import org.ovirt.engine.core.compat.Guid;
+
+public class SearchChangeFeedTest {
+
+    private static final SearchChangeFeed.SearchKey KEY = key("Vms:");
+
+    private final SearchChangeFeed feed = new SearchChangeFeed(2, TimeUnit.DAYS.toMillis(1));
+
+    private final VM vm1 = createVm("vm1");
+    private final VM vm2 = createVm("vm2");
+    private final VM vm3 = createVm("vm3");
+    private List<VM> results = new ArrayList<>(Arrays.asList(vm1, vm2));
+    private int searchCount;
+
+    @Test
+    public void testFirstChangesAreComplete() {
+        SearchChanges<Queryable> changes = getChanges(0, false);
+
+        assertTrue(changes.isComplete());
+        assertEquals(results, changes.getChangedItems());
+        assertEquals(1, searchCount);
+    }
+
+    @Test
+    public void testSearchIsShared() {
+        long version = getChanges(0, false).getVersion();
+
+        SearchChanges<Queryable> changes = getChanges(version, false);
+
+        assertTrue(changes.isEmpty());
+        assertEquals(version, changes.getVersion());
+        assertTrue(getChanges(0, false).isComplete());
+        assertEquals(1, searchCount);
+    }
+
+    @Test
+    public void testChangedItems() {
+        long version = getChanges(0, false).getVersion();
+        results = Arrays.asList(vm1, createVm("vm2", vm2.getId()));
+        results.get(1).setVmDescription("changed");
+
+        SearchChanges<Queryable> changes = getChanges(version, true);
+
+        assertFalse(changes.isComplete());
+        assertTrue(changes.getVersion() > version);
+        assertEquals(Arrays.asList(results.get(1)), changes.getChangedItems());
+        assertNull(changes.getItemIds());
+    }
+
+    @Test
+    public void testUnchangedItemsAfterSearchingAgain() {
+        long version = getChanges(0, false).getVersion();
+        results = Arrays.asList(createVm("vm1", vm1.getId()), createVm("vm2", vm2.getId()));
+
+        SearchChanges<Queryable> changes = getChanges(version, true);
+
+        assertTrue(changes.isEmpty());
+        assertEquals(version, changes.getVersion());
+    }
+
+    @Test
+    public void testAddedAndRemovedItems() {
+        long version = getChanges(0, false).getVersion();
+        results = Arrays.asList(vm3, vm1);
+
+        SearchChanges<Queryable> changes = getChanges(version, true);
+
+        assertEquals(Arrays.asList(vm3), changes.getChangedItems());
+        assertEquals(Arrays.asList(vm3.getId(), vm1.getId()), changes.getItemIds());
+    }
+
+    @Test
+    public void testChangesSinceOlderVersion() {
+        long version = getChanges(0, false).getVersion();
+        results = Arrays.asList(vm1, vm2, vm3);
+        getChanges(version, true);
+        results = Arrays.asList(vm1, vm3);
+
+        SearchChanges<Queryable> changes = getChanges(version, true);
+
+        assertEquals(Arrays.asList(vm3), changes.getChangedItems());
+        assertEquals(Arrays.asList(vm1.getId(), vm3.getId()), changes.getItemIds());
+    }
+
+    @Test
+    public void testUnknownVersionGetsCompleteChanges() {
+        long version = getChanges(0, false).getVersion();
+
+        assertTrue(getChanges(version + 1, false).isComplete());
+        assertTrue(getChanges(version - 1, false).isComplete());
+    }
+
+    @Test
+    public void testExpiredResultsAreSearchedAgain() {
+        SearchChangeFeed expiringFeed = new SearchChangeFeed(2, 0);
+        expiringFeed.getChanges(KEY, 0, false, search());
+        expiringFeed.getChanges(KEY, 0, false, search());
+
+        assertEquals(2, searchCount);
+    }
+
+    @Test
+    public void testLeastRecentlyRequestedSearchIsDropped() {
+        getChanges(0, false);
+        feed.getChanges(key("Vms: name=vm1"), 0, false, search());
+        feed.getChanges(key("Vms: name=vm2"), 0, false, search());
+
+        assertEquals(2, feed.getSize());
+        getChanges(0, false);
+        assertEquals(4, searchCount);
+    }
+
+    @Test
+    public void testFailedSearchIsNotKept() {
+        results = null;
+        assertNull(getChanges(0, false));
+
+        results = Arrays.asList(vm1, vm2);
+        SearchChanges<Queryable> changes = getChanges(0, false);
+
+        assertTrue(changes.isComplete());
+        assertEquals(results, changes.getChangedItems());
+        assertEquals(2, searchCount);
+    }
+
+    private SearchChanges<Queryable> getChanges(long knownVersion, boolean searchAgain) {
+        return feed.getChanges(KEY, knownVersion, searchAgain, search());
+    }
+
+    private Supplier<List<? extends Queryable>> search() {
+        return () -> {
+            searchCount++;
+            return results;
+        };
+    }
+
+    private static SearchChangeFeed.SearchKey key(String searchText) {
+        return new SearchChangeFeed.SearchKey(searchText, SearchType.VM, false, 100, 0, null);
+    }
+
+    private static VM createVm(String name) {
+        return createVm(name, Guid.newGuid());
+    }
+
+    private static VM createVm(String name, Guid id) {
+        VM vm = new VM();
+        vm.setId(id);
+        vm.setName(name);
+        return vm;
+    }
+}
@@ -0,0 +1,124 @@
+package org.ovirt.engine.core.bll;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.aaa.QueryData;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+
+public class SearchPlanCacheTest {
+
+    /** compiles a search the way the syntax checker compiles plain string values */
+    private static final Function<String, String> COMPILER =
+            text -> "SELECT * FROM vms WHERE vm_name ILIKE '" + text.substring(text.indexOf('=') + 1) + "'";
+
+    private final SearchPlanCache cache = new SearchPlanCache(2, TimeUnit.DAYS.toMillis(1));
+
+    @Test
+    public void testExactHit() {
+        SearchPlanCache.SearchPlanKey key = key("Vms: name=vm1");
+        assertNull(cache.get(key));
+
+        QueryData data = compile(key.getSearchText());
+        cache.put(key, data, null);
+
+        assertEquals(data, cache.get(key));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void testTemplateHit() {
+        SearchPlanCache.SearchPlanKey key = key("Vms: name=vm1");
+        cache.put(key, compile(key.getSearchText()), COMPILER);
+
+        QueryData data = cache.get(key("Vms: name=vm2"));
+
+        assertNotNull(data);
+        assertEquals(COMPILER.apply("Vms: name=vm2"), data.getQuery());
+        assertEquals(1, cache.getTemplateHitCount());
+    }
+
+    @Test
+    public void testNoTemplateHitOnOtherSearchType() {
+        SearchPlanCache.SearchPlanKey key = key("Vms: name=vm1");
+        cache.put(key, compile(key.getSearchText()), COMPILER);
+
+        assertNull(cache.get(new SearchPlanCache.SearchPlanKey("Vms: name=vm2", SearchType.VmTemplate, false, 100, 0)));
+    }
+
+    @Test
+    public void testNoTemplateWhenValueIsConverted() {
+        // the placeholder doesn't end up in the query as is, like the values of enums
+        SearchPlanCache.SearchPlanKey key = key("Vms: status=up");
+        cache.put(key,
+                new QueryData("SELECT * FROM vms WHERE status = 1", System.currentTimeMillis(), null, null),
+                text -> "SELECT * FROM vms WHERE status = 0");
+
+        assertNull(cache.get(key("Vms: status=down")));
+    }
+
+    @Test
+    public void testNoTemplateWhenPlaceholderIsRejected() {
+        SearchPlanCache.SearchPlanKey key = key("Vms: name=vm1");
+        cache.put(key, compile(key.getSearchText()), text -> null);
+
+        assertNull(cache.get(key("Vms: name=vm2")));
+    }
+
+    @Test
+    public void testExpiredPlan() {
+        SearchPlanCache.SearchPlanKey key = key("Vms: name=vm1");
+        cache.put(key, new QueryData(COMPILER.apply(key.getSearchText()), 0, null, null), COMPILER);
+
+        assertNull(cache.get(key));
+        assertNull(cache.get(key("Vms: name=vm2")));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEviction() {
+        SearchPlanCache.SearchPlanKey first = key("Vms: cluster=a");
+        SearchPlanCache.SearchPlanKey second = key("Hosts: cluster=b");
+        SearchPlanCache.SearchPlanKey third = key("Templates: cluster=c");
+        cache.put(first, compile(first.getSearchText()), null);
+        cache.put(second, compile(second.getSearchText()), null);
+        cache.get(first);
+        cache.put(third, compile(third.getSearchText()), null);
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertEquals(1, cache.getEvictionCount());
+        assertEquals(2, cache.getPlanCount());
+    }
+
+    @Test
+    public void testTemplateValues() {
+        SearchPlanCache.TemplateValues values =
+                SearchPlanCache.TemplateValues.of("Vms: name=vm1 and cluster = c1 and status!=null sortby name");
+
+        assertEquals("Vms: name=? and cluster = ? and status!=null sortby name", values.getTemplateText());
+        assertEquals(Arrays.asList("vm1", "c1"), values.getValues());
+    }
+
+    @Test
+    public void testNoTemplateValues() {
+        assertNull(SearchPlanCache.TemplateValues.of("Vms:"));
+        assertNull(SearchPlanCache.TemplateValues.of("Vms: name=vm*"));
+        assertNull(SearchPlanCache.TemplateValues.of("Vms: name=\"my vm\""));
+        assertNull(SearchPlanCache.TemplateValues.of("Events: time > 01/01/2020"));
+    }
+
+    private static SearchPlanCache.SearchPlanKey key(String searchText) {
+        return new SearchPlanCache.SearchPlanKey(searchText, SearchType.VM, false, 100, 0);
+    }
+
+    private static QueryData compile(String searchText) {
+        return new QueryData(COMPILER.apply(searchText), System.currentTimeMillis(), null, null);
+    }
+}
@@ -0,0 +1,100 @@
+package org.ovirt.engine.core.bll.context;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.businessentities.BusinessEntitySnapshot;
+import org.ovirt.engine.core.common.businessentities.ReleaseMacsTransientCompensation;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.BusinessEntitySnapshotDao;
+import org.ovirt.engine.core.utils.Serializer;
+
+@ExtendWith(MockitoExtension.class)
+public class DefaultCompensationContextTest {
+
+    private final Guid commandId = Guid.newGuid();
+
+    @Mock
+    private BusinessEntitySnapshotDao businessEntitySnapshotDao;
+
+    @Mock
+    private Serializer serializer;
+
+    private DefaultCompensationContext context;
+
+    @BeforeEach
+    public void setUp() {
+        when(serializer.serialize(any())).thenReturn("snapshot");
+
+        context = new DefaultCompensationContext();
+        context.setCommandId(commandId);
+        context.setCommandType("org.ovirt.engine.core.bll.AddVmCommand");
+        context.setBusinessEntitySnapshotDao(businessEntitySnapshotDao);
+        context.setSnapshotSerializer(serializer);
+    }
+
+    @Test
+    public void testStateChangedSavesSnapshotsInBatch() {
+        List<BusinessEntitySnapshot> savedSnapshots = new ArrayList<>();
+        doAnswer(invocation -> savedSnapshots.addAll(invocation.getArgument(0)))
+                .when(businessEntitySnapshotDao).saveAll(anyCollection());
+        ReleaseMacsTransientCompensation entity = createEntity();
+        context.snapshotObject(entity);
+        context.snapshotObject(entity);
+        context.snapshotObject(createEntity());
+
+        context.stateChanged();
+        context.stateChanged();
+
+        verify(serializer, times(2)).serialize(any());
+        verify(businessEntitySnapshotDao).saveAll(anyCollection());
+        verifyNoMoreInteractions(businessEntitySnapshotDao);
+        assertEquals(Arrays.asList(1, 2), getInsertionOrders(savedSnapshots));
+    }
+
+    @Test
+    public void testInMemorySnapshots() {
+        context.setInMemory(true);
+        context.snapshotObject(createEntity());
+        context.stateChanged();
+        context.snapshotObject(createEntity());
+        context.stateChanged();
+        context.snapshotObject(createEntity());
+
+        assertEquals(Arrays.asList(2, 1), getInsertionOrders(context.getInMemorySnapshots()));
+
+        context.cleanupCompensationDataAfterSuccessfulCommand();
+
+        assertTrue(context.getInMemorySnapshots().isEmpty());
+        verify(businessEntitySnapshotDao, never()).saveAll(anyCollection());
+        verify(businessEntitySnapshotDao, never()).removeAllForCommandId(any());
+    }
+
+    private static ReleaseMacsTransientCompensation createEntity() {
+        return new ReleaseMacsTransientCompensation(Guid.newGuid(), Guid.newGuid(), Collections.emptyList());
+    }
+
+    private static List<Integer> getInsertionOrders(Collection<BusinessEntitySnapshot> snapshots) {
+        return snapshots.stream().map(BusinessEntitySnapshot::getInsertionOrder).collect(Collectors.toList());
+    }
+}
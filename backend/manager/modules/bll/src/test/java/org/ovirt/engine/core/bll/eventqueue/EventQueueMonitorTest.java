@@ -0,0 +1,179 @@
+package org.ovirt.engine.core.bll.eventqueue;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.eventqueue.Event;
+import org.ovirt.engine.core.common.eventqueue.EventResult;
+import org.ovirt.engine.core.common.eventqueue.EventType;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.threadpool.ThreadPoolUtil;
+
+public class EventQueueMonitorTest {
+
+    private static final long TIMEOUT_SECONDS = 10;
+
+    private final Guid storagePoolId = Guid.newGuid();
+    private final EventQueueMonitor eventQueue = new EventQueueMonitor();
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+        ThreadPoolUtil.setExecutorService(executor);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+        ThreadPoolUtil.setExecutorService(null);
+    }
+
+    @Test
+    public void testFailoverEventsOfDifferentDomainsRunInParallel() {
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        Callable<EventResult> callable = () -> {
+            bothRunning.countDown();
+            return new EventResult(bothRunning.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), EventType.DOMAINFAILOVER);
+        };
+
+        CompletableFuture<EventResult> first = CompletableFuture.supplyAsync(
+                () -> eventQueue.submitEventSync(createEvent(Guid.newGuid(), EventType.DOMAINFAILOVER), callable));
+        CompletableFuture<EventResult> second = CompletableFuture.supplyAsync(
+                () -> eventQueue.submitEventSync(createEvent(Guid.newGuid(), EventType.DOMAINFAILOVER), callable));
+
+        assertTrue(first.join().isSuccess());
+        assertTrue(second.join().isSuccess());
+    }
+
+    @Test
+    public void testFailoverEventsOfSameDomainRunOneAtATime() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        Guid domainId = Guid.newGuid();
+        eventQueue.submitEventAsync(createEvent(domainId, EventType.DOMAINFAILOVER), blockUntil(release));
+        eventQueue.submitEventAsync(new Event(storagePoolId, domainId, Guid.newGuid(), EventType.DOMAINFAILOVER, ""),
+                () -> {
+                    secondStarted.countDown();
+                    return null;
+                });
+
+        assertFalse(secondStarted.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, eventQueue.getRunningEventCounts().get(storagePoolId.toString()).intValue());
+
+        release.countDown();
+        assertTrue(secondStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testReconstructWaitsForRunningFailoverEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch reconstructed = new CountDownLatch(1);
+        CountDownLatch failoverStarted = new CountDownLatch(1);
+        eventQueue.submitEventAsync(createEvent(Guid.newGuid(), EventType.DOMAINFAILOVER), blockUntil(release));
+        eventQueue.submitEventAsync(createEvent(Guid.newGuid(), EventType.RECONSTRUCT), () -> {
+            reconstructed.countDown();
+            return null;
+        });
+        eventQueue.submitEventAsync(createEvent(Guid.newGuid(), EventType.DOMAINFAILOVER), () -> {
+            failoverStarted.countDown();
+            return null;
+        });
+
+        assertFalse(reconstructed.await(200, TimeUnit.MILLISECONDS));
+        assertFalse(failoverStarted.await(0, TimeUnit.MILLISECONDS));
+
+        release.countDown();
+        assertTrue(reconstructed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(failoverStarted.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testExclusiveEventWaitsForRunningEvents() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch refreshed = new CountDownLatch(1);
+        eventQueue.submitEventAsync(createEvent(Guid.newGuid(), EventType.DOMAINFAILOVER), blockUntil(release));
+        eventQueue.submitEventAsync(createEvent(null, EventType.POOLREFRESH), () -> {
+            refreshed.countDown();
+            return null;
+        });
+
+        assertFalse(refreshed.await(200, TimeUnit.MILLISECONDS));
+        assertEquals(1, eventQueue.getQueuedEventCounts().get(storagePoolId.toString()).intValue());
+
+        release.countDown();
+        assertTrue(refreshed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testDuplicateFailoverEventIsCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger failovers = new AtomicInteger();
+        Guid domainId = Guid.newGuid();
+        eventQueue.submitEventAsync(createEvent(null, EventType.POOLREFRESH), blockUntil(release));
+        submitFailover(domainId, failovers);
+        submitFailover(domainId, failovers);
+
+        release.countDown();
+        eventQueue.submitEventSync(createEvent(null, EventType.POOLREFRESH), () -> null);
+
+        assertEquals(1, failovers.get());
+        assertEquals(1L, eventQueue.getCoalescedEventCounts().get(storagePoolId.toString()).longValue());
+    }
+
+    @Test
+    public void testRecoveryIsStartedBeforeQueuedEvents() {
+        CountDownLatch release = new CountDownLatch(1);
+        List<EventType> startedEvents = new CopyOnWriteArrayList<>();
+        eventQueue.submitEventAsync(createEvent(null, EventType.POOLREFRESH), blockUntil(release));
+        eventQueue.submitEventAsync(createEvent(null, EventType.VDSCLEARCACHE), recordStart(startedEvents,
+                EventType.VDSCLEARCACHE));
+        eventQueue.submitEventAsync(createEvent(null, EventType.RECOVERY), recordStart(startedEvents,
+                EventType.RECOVERY));
+
+        release.countDown();
+        eventQueue.submitEventSync(createEvent(null, EventType.POOLREFRESH), () -> null);
+
+        assertEquals(Arrays.asList(EventType.RECOVERY, EventType.VDSCLEARCACHE), startedEvents);
+    }
+
+    private void submitFailover(Guid domainId, AtomicInteger failovers) {
+        eventQueue.submitEventAsync(createEvent(domainId, EventType.DOMAINFAILOVER), () -> {
+            failovers.incrementAndGet();
+            return null;
+        });
+    }
+
+    private Event createEvent(Guid domainId, EventType eventType) {
+        return new Event(storagePoolId, domainId, null, eventType, "");
+    }
+
+    private static Callable<EventResult> blockUntil(CountDownLatch release) {
+        return () -> {
+            release.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            return null;
+        };
+    }
+
+    private static Callable<EventResult> recordStart(List<EventType> startedEvents, EventType eventType) {
+        return () -> {
+            startedEvents.add(eventType);
+            return null;
+        };
+    }
+}
@@ -0,0 +1,173 @@
+package org.ovirt.engine.core.bll.lock;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.lock.LockingResult;
+
+public class StripedInMemoryLockManagerTest {
+
+    private static final String ERROR1 = "Error1";
+    private static final String ERROR2 = "Error2";
+    private static final String ERROR3 = "Error3";
+    private EngineLock updateLock1;
+    private EngineLock updateLock2;
+    private EngineLock updateLock3;
+    private EngineLock lockLock1;
+    private EngineLock lockLock2;
+    private EngineLock updateAndLockLock;
+    private EngineLock failLockLock;
+    private String updateGuid;
+    // a single stripe makes sure keys sharing a stripe do not interfere with each other
+    private StripedInMemoryLockManager lockManager = new StripedInMemoryLockManager(1);
+
+    @BeforeEach
+    public void setup() {
+        updateGuid = Guid.newGuid().toString();
+        String lockGuid = Guid.newGuid().toString();
+        Map<String, Pair<String, String>> updateRegionsMap = new HashMap<>();
+        updateRegionsMap.put(updateGuid, new Pair<>("1", ERROR1));
+        updateLock1 = new EngineLock();
+        updateLock1.setSharedLocks(updateRegionsMap);
+        lockLock1 = new EngineLock();
+        lockLock1.setExclusiveLocks(updateRegionsMap);
+        Map<String, Pair<String, String>> lockedRegionsMap = new HashMap<>();
+        lockedRegionsMap.put(lockGuid, new Pair<>("2", ERROR2));
+        lockLock2 = new EngineLock();
+        lockLock2.setExclusiveLocks(lockedRegionsMap);
+        updateLock2 = new EngineLock();
+        updateLock2.setSharedLocks(lockedRegionsMap);
+        updateAndLockLock = new EngineLock();
+        updateAndLockLock.setSharedLocks(updateRegionsMap);
+        updateAndLockLock.setExclusiveLocks(lockedRegionsMap);
+        failLockLock = new EngineLock();
+        failLockLock.setExclusiveLocks(updateRegionsMap);
+        Map<String, Pair<String, String>> updateRegionsMap2 = new HashMap<>();
+        updateRegionsMap2.put(updateGuid, new Pair<>("1", ERROR3));
+        updateLock3 = new EngineLock();
+        updateLock3.setSharedLocks(updateRegionsMap2);
+    }
+
+    @Test
+    public void testInvalidStripesCount() {
+        assertThrows(IllegalArgumentException.class, () -> new StripedInMemoryLockManager(3));
+        assertThrows(IllegalArgumentException.class, () -> new StripedInMemoryLockManager(0));
+    }
+
+    @Test
+    public void checkAcquireLockSuccess() {
+        assertTrue(lockManager.acquireLock(updateLock1).isAcquired());
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        lockManager.releaseLock(lockLock2);
+        assertTrue(lockManager.acquireLock(updateLock2).isAcquired());
+        lockManager.releaseLock(updateLock1);
+        lockManager.releaseLock(updateLock2);
+        assertTrue(lockManager.acquireLock(updateAndLockLock).isAcquired());
+        lockManager.releaseLock(updateAndLockLock);
+        assertTrue(lockManager.acquireLock(updateLock1).isAcquired());
+        assertTrue(lockManager.releaseLock(updateGuid + "1"));
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void checkAcquireLockFailure() {
+        assertTrue(lockManager.acquireLock(updateAndLockLock).isAcquired());
+        LockingResult lockResult = lockManager.acquireLock(lockLock1);
+        assertFalse(lockResult.isAcquired());
+        assertTrue(lockResult.getMessages().contains(ERROR1));
+        assertEquals(1, lockResult.getMessages().size());
+        lockResult = lockManager.acquireLock(updateLock2);
+        assertFalse(lockResult.isAcquired());
+        assertTrue(lockResult.getMessages().contains(ERROR2));
+        assertEquals(1, lockResult.getMessages().size());
+        assertTrue(lockManager.acquireLock(updateLock3).isAcquired());
+        lockResult = lockManager.acquireLock(failLockLock);
+        assertFalse(lockResult.isAcquired());
+        assertEquals(2, lockResult.getMessages().size());
+        lockManager.releaseLock(updateAndLockLock);
+        lockManager.releaseLock(updateLock3);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void checkGetLockInfo() {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        assertNotNull(lockManager.getLockInfo(updateGuid + "1"));
+        assertTrue(lockManager.isExclusiveLockPresent(failLockLock));
+        lockManager.releaseLock(lockLock1);
+        assertNull(lockManager.getLockInfo(updateGuid + "1"));
+        assertFalse(lockManager.isExclusiveLockPresent(failLockLock));
+    }
+
+    @Test
+    public void checkClear() {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        assertEquals(2, lockManager.showAllLocks().size());
+        lockManager.clear();
+        assertTrue(lockManager.showAllLocks().isEmpty());
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        lockManager.clear();
+    }
+
+    @Test
+    public void testAcquireLockWaitTimeout() {
+        assertTrue(lockManager.acquireLockWait(lockLock1, 1000L).isAcquired());
+        long before = System.currentTimeMillis();
+        assertFalse(lockManager.acquireLockWait(failLockLock, 500L).isAcquired());
+        long after = System.currentTimeMillis();
+        assertTrue(after - before >= 500L);
+        assertEquals(1, lockManager.showAllLocks().size());
+        lockManager.releaseLock(lockLock1);
+        assertTrue(lockManager.acquireLockWait(failLockLock, 1000L).isAcquired());
+        lockManager.releaseLock(failLockLock);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void testAcquireLockWaitWokenByRelease() throws Exception {
+        assertTrue(lockManager.acquireLock(lockLock1).isAcquired());
+        CompletableFuture<LockingResult> waiter =
+                CompletableFuture.supplyAsync(() -> lockManager.acquireLockWait(failLockLock, 10000L));
+        // releasing an unrelated key in the same stripe must not grant the waiter anything
+        assertTrue(lockManager.acquireLock(lockLock2).isAcquired());
+        lockManager.releaseLock(lockLock2);
+        assertFalse(waiter.isDone());
+        lockManager.releaseLock(lockLock1);
+        assertTrue(waiter.get(5, TimeUnit.SECONDS).isAcquired());
+        assertEquals(1, lockManager.showAllLocks().size());
+        lockManager.releaseLock(failLockLock);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void testAcquireLockWaitForeverWokenByRelease() throws Exception {
+        assertTrue(lockManager.acquireLock(updateLock1).isAcquired());
+        CompletableFuture<Void> waiter = CompletableFuture.runAsync(() -> lockManager.acquireLockWait(lockLock1));
+        lockManager.releaseLock(updateLock1);
+        waiter.get(5, TimeUnit.SECONDS);
+        assertEquals(1, lockManager.showAllLocks().size());
+        lockManager.releaseLock(lockLock1);
+        assertTrue(lockManager.showAllLocks().isEmpty());
+    }
+
+    @Test
+    public void testAcquireLockNegativeTimeout() {
+        assertThrows(IllegalArgumentException.class, () -> lockManager.acquireLockWait(lockLock1, -1000L));
+    }
+}
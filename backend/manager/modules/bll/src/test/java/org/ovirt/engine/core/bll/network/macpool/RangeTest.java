@@ -5,7 +5,11 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import org.apache.commons.lang.math.LongRange;
 import org.junit.jupiter.api.BeforeEach;
@@ -118,6 +122,33 @@ public class RangeTest {
         assertThat(rangeOf10Macs.containsDuplicates(), is(false));
     }
 
+    @Test
+    public void testAllocateMacsSpanningSeveralWords() {
+        Range range = new Range(new LongRange(0, 199));
+        range.use(70, false);
+
+        List<Long> allocatedMacs = range.allocateMacs(150);
+        assertThat(new HashSet<>(allocatedMacs).size(), is(150));
+        assertThat(allocatedMacs.contains(70L), is(false));
+        assertThat(range.getAvailableCount(), is(49));
+        assertThat(range.allocateMacs(49).size(), is(49));
+        assertThat(range.getAvailableCount(), is(0));
+    }
+
+    @Test
+    public void testConcurrentAllocationAllocatesEveryMacOnce() {
+        Range range = new Range(new LongRange(0, 9999));
+
+        Set<Long> allocatedMacs = IntStream.range(0, 1000)
+                .parallel()
+                .mapToObj(i -> range.allocateMacs(10))
+                .flatMap(List::stream)
+                .collect(Collectors.toSet());
+
+        assertThat(allocatedMacs.size(), is(10000));
+        assertThat(range.getAvailableCount(), is(0));
+    }
+
     @Test
     public void testAllocateMacNoEnoughMacs() {
         assertThrows(IllegalStateException.class, () -> rangeOf10Macs.allocateMacs(NUMBER_OF_MACS + 1));
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.bll.quota;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -13,6 +14,10 @@ import static org.mockito.Mockito.when;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -80,8 +85,16 @@ public class QuotaManagerTest {
 
         doReturn(quotaDao).when(quotaManager).getQuotaDao();
 
+        command = createCommand();
+        command.getReturnValue().setValidationMessages(validationMessages);
+
+        quota = mockBasicQuota();
+        when(quotaDao.getById(quota.getId())).thenReturn(quota);
+    }
+
+    private CommandBase<?> createCommand() {
         ActionParametersBase param = new ActionParametersBase();
-        command = new CommandBase<ActionParametersBase>(
+        CommandBase<?> command = new CommandBase<ActionParametersBase>(
                 param, CommandContext.createContext(param.getSessionId())) {
             @Override
             protected void executeCommand() {}
@@ -93,10 +106,7 @@ public class QuotaManagerTest {
         };
 
         command.setStoragePool(storage_pool);
-        command.getReturnValue().setValidationMessages(validationMessages);
-
-        quota = mockBasicQuota();
-        when(quotaDao.getById(quota.getId())).thenReturn(quota);
+        return command;
     }
 
     private void assertNotEmptyValidateMessage() {
@@ -363,6 +373,46 @@ public class QuotaManagerTest {
         assertAuditLogWritten(AuditLogType.USER_EXCEEDED_QUOTA_CLUSTER_GRACE_LIMIT);
     }
 
+    @Test
+    public void testConsumeClusterQuotaConcurrently() throws Exception {
+        // 1024 MB can be consumed up to the grace of 20%, by 1228 of the 8000 concurrent requests
+        quota.setGlobalQuotaCluster(getQuotaCluster(UNLIMITED_VCPU, 0, 1024, 0));
+        int threads = 8;
+        int requestsPerThread = 1000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> consumers = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                consumers.add(() -> {
+                    CommandBase<?> threadCommand = createCommand();
+                    List<QuotaConsumptionParameter> parameters =
+                            Collections.singletonList(createClusterConsumption(quota.getId(), 0, 1));
+                    int consumed = 0;
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        if (quotaManager.consume(threadCommand, parameters)) {
+                            consumed++;
+                        }
+                    }
+                    return consumed;
+                });
+            }
+
+            int consumed = 0;
+            for (Future<Integer> future : executor.invokeAll(consumers)) {
+                consumed += future.get();
+            }
+            assertEquals(1228, consumed);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Quota quotaExternal = mockBasicQuota();
+        quotaExternal.setId(quota.getId());
+        quotaManager.updateUsage(Collections.singletonList(quotaExternal));
+        assertEquals(1228L, quotaExternal.getGlobalQuotaCluster().getMemSizeMBUsage().longValue());
+    }
+
     @Test
     public void testRemoveFromCache() {
         Quota quota1 = mockBasicQuota();
@@ -0,0 +1,51 @@
+package org.ovirt.engine.core.bll.scheduling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class PolicyUnitStatisticsTest {
+
+    private final PolicyUnitStatistics statistics = new PolicyUnitStatistics();
+
+    @Test
+    public void testRecord() {
+        statistics.record(times(3, 1));
+        statistics.record(times(5, 2));
+
+        assertEquals(2, statistics.getSchedulingCount());
+        assertEquals(Long.valueOf(2), statistics.getInvocationCounts().get("CPU"));
+        assertEquals(Long.valueOf(8), statistics.getTotalTimesMillis().get("CPU"));
+        assertEquals(Long.valueOf(5), statistics.getMaxTimesMillis().get("CPU"));
+        assertEquals(Long.valueOf(3), statistics.getTotalTimesMillis().get("Memory"));
+        assertEquals("CPU=5.00ms, Memory=2.00ms", statistics.getLastSchedulingBreakdown());
+    }
+
+    @Test
+    public void testEmptySchedulingIsNotRecorded() {
+        statistics.record(new LinkedHashMap<>());
+
+        assertEquals(0, statistics.getSchedulingCount());
+        assertEquals("", statistics.getLastSchedulingBreakdown());
+    }
+
+    @Test
+    public void testReset() {
+        statistics.record(times(3, 1));
+        statistics.reset();
+
+        assertEquals(0, statistics.getSchedulingCount());
+        assertEquals(0, statistics.getTotalTimesMillis().size());
+    }
+
+    private static Map<String, Long> times(long cpuMillis, long memoryMillis) {
+        Map<String, Long> times = new LinkedHashMap<>();
+        times.put("CPU", TimeUnit.MILLISECONDS.toNanos(cpuMillis));
+        times.put("Memory", TimeUnit.MILLISECONDS.toNanos(memoryMillis));
+        return times;
+    }
+}
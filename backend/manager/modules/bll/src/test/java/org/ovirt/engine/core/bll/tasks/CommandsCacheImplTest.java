@@ -0,0 +1,121 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.transaction.TransactionManager;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.VdcObjectType;
+import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
+import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.compat.CommandStatus;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.CommandEntityDao;
+import org.ovirt.engine.core.utils.InjectedMock;
+import org.ovirt.engine.core.utils.InjectorExtension;
+
+@ExtendWith({ MockitoExtension.class, InjectorExtension.class })
+public class CommandsCacheImplTest {
+
+    private final Guid storageId = Guid.newGuid();
+    private CommandEntity rootCommand;
+    private CommandEntity childCommand1;
+    private CommandEntity childCommand2;
+
+    @Mock
+    private CommandEntityDao commandEntityDao;
+
+    @Mock(answer = Answers.RETURNS_DEEP_STUBS)
+    @InjectedMock
+    public TransactionManager transactionManager;
+
+    @InjectMocks
+    private CommandsCacheImpl commandsCache;
+
+    @BeforeEach
+    public void setUp() {
+        rootCommand = createCommandEntity(Guid.Empty);
+        childCommand1 = createCommandEntity(rootCommand.getId());
+        childCommand2 = createCommandEntity(rootCommand.getId());
+        when(commandEntityDao.getAll()).thenReturn(Arrays.asList(rootCommand, childCommand1, childCommand2));
+        when(commandEntityDao.getAllCommandAssociatedEntities()).thenReturn(Arrays.asList(
+                new CommandAssociatedEntity(childCommand1.getId(), VdcObjectType.Storage, storageId),
+                new CommandAssociatedEntity(childCommand2.getId(), VdcObjectType.Storage, storageId),
+                new CommandAssociatedEntity(childCommand2.getId(), VdcObjectType.Disk, Guid.newGuid())));
+    }
+
+    @Test
+    public void testGetChildCmdsByParentCmdId() {
+        assertThat(commandsCache.getChildCmdsByParentCmdId(rootCommand.getId()),
+                containsInAnyOrder(childCommand1, childCommand2));
+        assertThat(commandsCache.getChildCmdsByParentCmdId(childCommand1.getId()), empty());
+    }
+
+    @Test
+    public void testGetCommandIdsByEntityId() {
+        assertThat(commandsCache.getCommandIdsByEntityId(storageId),
+                containsInAnyOrder(childCommand1.getId(), childCommand2.getId()));
+        assertEquals(2, commandsCache.getCommandAssociatedEntities(childCommand2.getId()).size());
+    }
+
+    @Test
+    public void testRemove() {
+        commandsCache.remove(childCommand2.getId());
+
+        verify(commandEntityDao).remove(childCommand2.getId());
+        assertNull(commandsCache.get(childCommand2.getId()));
+        assertThat(commandsCache.getChildCmdsByParentCmdId(rootCommand.getId()),
+                containsInAnyOrder(childCommand1));
+        assertEquals(Collections.singletonList(childCommand1.getId()),
+                commandsCache.getCommandIdsByEntityId(storageId));
+        assertThat(commandsCache.getCommandAssociatedEntities(childCommand2.getId()), empty());
+        assertEquals(2, commandsCache.getCommandCount());
+        assertEquals(1, commandsCache.getIndexedEntityCount());
+    }
+
+    @Test
+    public void testUpdateCommandStatus() {
+        commandsCache.updateCommandStatus(childCommand1.getId(), CommandStatus.SUCCEEDED);
+
+        assertEquals(CommandStatus.SUCCEEDED, commandsCache.get(childCommand1.getId()).getCommandStatus());
+        verify(commandEntityDao).updateStatus(childCommand1.getId(), CommandStatus.SUCCEEDED);
+        verify(commandEntityDao, never()).saveOrUpdate(any());
+    }
+
+    @Test
+    public void testUpdateCommandData() {
+        Map<String, Serializable> data = Collections.singletonMap("key", "value");
+
+        commandsCache.updateCommandData(childCommand1.getId(), data);
+
+        assertEquals(data, commandsCache.get(childCommand1.getId()).getData());
+        verify(commandEntityDao).updateData(childCommand1.getId(), data);
+        verify(commandEntityDao, never()).saveOrUpdate(any());
+    }
+
+    private static CommandEntity createCommandEntity(Guid rootCommandId) {
+        CommandEntity commandEntity = new CommandEntity();
+        commandEntity.setId(Guid.newGuid());
+        commandEntity.setRootCommandId(rootCommandId);
+        return commandEntity;
+    }
+}
@@ -0,0 +1,127 @@
+package org.ovirt.engine.core.bll.tasks;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandCallback;
+import org.ovirt.engine.core.bll.tasks.interfaces.CommandContextsCache;
+import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.compat.CommandStatus;
+import org.ovirt.engine.core.compat.Guid;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+public class CommandsRepositoryTest {
+
+    private static final long POLLING_DELAY_SECONDS = 100;
+
+    private final Guid commandId = Guid.newGuid();
+    private final CommandEntity commandEntity = new CommandEntity();
+
+    @Mock
+    private CommandsCache commandsCache;
+
+    @Mock
+    private CommandContextsCache contextsCache;
+
+    @Mock
+    private Runnable callbacksDueListener;
+
+    private CommandsRepository commandsRepository;
+
+    @BeforeEach
+    public void setUp() {
+        commandEntity.setId(commandId);
+        commandEntity.setCommandStatus(CommandStatus.ACTIVE);
+        when(commandsCache.get(commandId)).thenReturn(commandEntity);
+
+        commandsRepository = new CommandsRepository(commandsCache, contextsCache);
+        commandsRepository.setCallbacksDueListener(callbacksDueListener);
+        commandsRepository.addToCallbackMap(commandId,
+                new CallbackTiming(mock(CommandCallback.class), POLLING_DELAY_SECONDS));
+    }
+
+    @Test
+    public void testCallbackIsNotDueBeforeItsDelay() {
+        assertNull(commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testCallbackIsDueAfterItsDelay() {
+        commandsRepository.scheduleCallback(commandId, 0, TimeUnit.SECONDS);
+
+        assertEquals(commandId, commandsRepository.pollDueCallback());
+        assertNull(commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testRescheduledCallbackSkipsItsPreviousExecution() {
+        commandsRepository.scheduleCallback(commandId, 0, TimeUnit.SECONDS);
+        commandsRepository.scheduleCallback(commandId, POLLING_DELAY_SECONDS, TimeUnit.SECONDS);
+
+        assertNull(commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testRemovedCallbackIsNotDue() {
+        commandsRepository.scheduleCallback(commandId, 0, TimeUnit.SECONDS);
+        commandsRepository.removeFromCallbackMap(commandId);
+
+        assertNull(commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testWakeUpCallback() {
+        commandsRepository.wakeUpCallback(commandId);
+
+        assertEquals(commandId, commandsRepository.pollDueCallback());
+        verify(callbacksDueListener).run();
+    }
+
+    @Test
+    public void testEndedExecutedCommandWakesUpCallback() {
+        commandEntity.setExecuted(true);
+        endCommand(CommandStatus.SUCCEEDED);
+
+        assertEquals(commandId, commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testCommandEndedWhileExecutingDoesNotWakeUpCallback() {
+        endCommand(CommandStatus.FAILED);
+
+        assertNull(commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testWakeUpEndedCommandCallbackAfterExecution() {
+        endCommand(CommandStatus.SUCCEEDED);
+        commandsRepository.wakeUpEndedCommandCallback(commandId);
+
+        assertEquals(commandId, commandsRepository.pollDueCallback());
+    }
+
+    @Test
+    public void testWakeUpEndedCommandCallbackOfActiveCommand() {
+        commandsRepository.wakeUpEndedCommandCallback(commandId);
+
+        assertNull(commandsRepository.pollDueCallback());
+    }
+
+    private void endCommand(CommandStatus status) {
+        commandEntity.setCommandStatus(status);
+        commandsRepository.updateCommandStatus(commandId, status);
+    }
+}
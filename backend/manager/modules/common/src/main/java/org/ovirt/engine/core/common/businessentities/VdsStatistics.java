@@ -66,6 +66,40 @@ public class VdsStatistics implements BusinessEntity<Guid> {
         hugePages = new ArrayList<>();
     }
 
+    public VdsStatistics(VdsStatistics statistics) {
+        id = statistics.id;
+        cpuIdle = statistics.cpuIdle;
+        cpuLoad = statistics.cpuLoad;
+        cpuSys = statistics.cpuSys;
+        cpuUser = statistics.cpuUser;
+        usageMemPercent = statistics.usageMemPercent;
+        usageCpuPercent = statistics.usageCpuPercent;
+        usageNetworkPercent = statistics.usageNetworkPercent;
+        memAvailable = statistics.memAvailable;
+        memFree = statistics.memFree;
+        memShared = statistics.memShared;
+        swapFree = statistics.swapFree;
+        swapTotal = statistics.swapTotal;
+        ksmCpuPercent = statistics.ksmCpuPercent;
+        ksmPages = statistics.ksmPages;
+        ksmState = statistics.ksmState;
+        anonymousHugePages = statistics.anonymousHugePages;
+        hugePages = statistics.hugePages == null ? null : new ArrayList<>(statistics.hugePages);
+        bootTime = statistics.bootTime;
+        highlyAvailableScore = statistics.highlyAvailableScore;
+        highlyAvailableIsConfigured = statistics.highlyAvailableIsConfigured;
+        highlyAvailableIsActive = statistics.highlyAvailableIsActive;
+        highlyAvailableGlobalMaintenance = statistics.highlyAvailableGlobalMaintenance;
+        highlyAvailableLocalMaintenance = statistics.highlyAvailableLocalMaintenance;
+        cpuOverCommitTimeStamp = statistics.cpuOverCommitTimeStamp == null
+                ? null
+                : new Date(statistics.cpuOverCommitTimeStamp.getTime());
+        cpuCoreStatistics = statistics.cpuCoreStatistics == null
+                ? null
+                : new ArrayList<>(statistics.cpuCoreStatistics);
+        v2vJobs = statistics.v2vJobs == null ? null : new ArrayList<>(statistics.v2vJobs);
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
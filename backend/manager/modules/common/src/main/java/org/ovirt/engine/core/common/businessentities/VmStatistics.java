@@ -41,6 +41,24 @@ public class VmStatistics implements BusinessEntity<Guid>, Comparable<VmStatisti
         this.vmId = vmId;
     }
 
+    public VmStatistics(VmStatistics statistics) {
+        memoryUsageHistory = statistics.memoryUsageHistory;
+        cpuUsageHistory = statistics.cpuUsageHistory;
+        networkUsageHistory = statistics.networkUsageHistory;
+        cpuSys = statistics.cpuSys;
+        cpuUser = statistics.cpuUser;
+        elapsedTime = statistics.elapsedTime;
+        usageMemPercent = statistics.usageMemPercent;
+        migrationProgressPercent = statistics.migrationProgressPercent;
+        disksUsage = statistics.disksUsage;
+        usageNetworkPercent = statistics.usageNetworkPercent;
+        vmId = statistics.vmId;
+        usageCpuPercent = statistics.usageCpuPercent;
+        guestMemoryCached = statistics.guestMemoryCached;
+        guestMemoryBuffered = statistics.guestMemoryBuffered;
+        guestMemoryFree = statistics.guestMemoryFree;
+    }
+
     @Override
     public int hashCode() {
         return Objects.hash(
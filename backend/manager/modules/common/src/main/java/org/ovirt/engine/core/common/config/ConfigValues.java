@@ -85,6 +85,40 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     AuditLogAgingThreshold,
+
+    /**
+     * Whether audit log events are written to the database in batches by a background writer, instead of on the
+     * thread which logs them.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    AuditLogAsyncWriteEnabled,
+
+    /**
+     * The maximal number of audit log events waiting for the background writer. Events logged while the queue is
+     * full are written on the logging thread.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogAsyncQueueCapacity,
+
+    /**
+     * The maximal number of audit log events the background writer saves in a single batch.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogAsyncBatchSize,
+
+    /**
+     * The interval (in milliseconds) in which the background writer saves the queued audit log events.
+     */
+    @TypeConverterAttribute(Integer.class)
+    AuditLogAsyncFlushIntervalInMillis,
+
+    /**
+     * Whether the event flood regulator keeps the recently logged events in a plain in-memory map instead of the
+     * Infinispan timeout-base cache.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    LocalEventFloodStoreEnabled,
+
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     CoCoLifeInMinutes,
@@ -95,6 +129,14 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     CommandEntityAgingThreshold,
+
+    /**
+     * Whether the parameters and return values of commands are compressed when they are saved to the database.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    CommandEntityPayloadCompressionEnabled,
+
     @Reloadable
     @TypeConverterAttribute(String.class)
     VdsFenceType(ClientAccessLevel.Admin),
@@ -140,6 +182,32 @@ public enum ConfigValues {
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     SearchResultsLimit(ClientAccessLevel.User),
+
+    /**
+     * The maximal number of compiled search queries, and of search query templates, kept by the search plan cache.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchPlanCacheSize,
+
+    /**
+     * The time (in minutes) a compiled search query is kept in the search plan cache before it is compiled again.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchPlanCacheTimeToLiveInMinutes,
+
+    /**
+     * The maximal number of searches whose latest results are kept by the search change feed.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchChangeFeedSize,
+
+    /**
+     * The time (in milliseconds) the latest results of a search are shared by the clients repeating it before the
+     * search is run again.
+     */
+    @TypeConverterAttribute(Integer.class)
+    SearchChangeFeedTimeToLiveInMillis,
+
     @Reloadable
     @TypeConverterAttribute(Integer.class)
     VDSAttemptsToResetCount,
@@ -204,6 +272,42 @@ public enum ConfigValues {
     MaxNumOfThreadsPerCpu(ClientAccessLevel.User),
     @TypeConverterAttribute(Integer.class)
     NumberVmRefreshesBeforeSave,
+
+    /**
+     * Whether the VMs monitoring saves only the statistics rows which changed since they were last saved.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Boolean.class)
+    VmStatisticsDeltaSaveEnabled,
+
+    /**
+     * The change (in percentage points for percentages, in percents of the value for other amounts) below which
+     * VM statistics are not saved.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsSaveThresholdPercent,
+
+    /**
+     * The maximal interval (in seconds) between two saves of all the statistics of a VM, whether they changed or not.
+     */
+    @Reloadable
+    @TypeConverterAttribute(Integer.class)
+    VmStatisticsMaxSaveIntervalInSeconds,
+
+    /**
+     * Whether the statistics of hosts and VMs are saved to the database by a background writer, instead of on the
+     * monitoring threads.
+     */
+    @TypeConverterAttribute(Boolean.class)
+    StatisticsWriteBehindEnabled,
+
+    /**
+     * The interval (in milliseconds) in which the background writer saves the latest statistics of hosts and VMs.
+     */
+    @TypeConverterAttribute(Integer.class)
+    StatisticsWriteBehindIntervalInMillis,
+
     @TypeConverterAttribute(Integer.class)
     NumberVdsRefreshesBeforeTryToStartUnknownVms,
     @TypeConverterAttribute(Integer.class)
@@ -1126,6 +1230,13 @@ public enum ConfigValues {
     @TypeConverterAttribute(Integer.class)
     SchedulerOverBookingThreshold(ClientAccessLevel.Admin),
 
+    /**
+     * Max number of threads evaluating the hosts of a cluster in parallel for a thread-safe policy unit, 1 evaluates
+     * all the hosts in the scheduling thread
+     */
+    @TypeConverterAttribute(Integer.class)
+    SchedulerPolicyUnitParallelism,
+
     @TypeConverterAttribute(Boolean.class)
     IgnoreVmToVmAffinityForHostMaintenance,
 
@@ -112,7 +112,9 @@ public enum QueryType implements Serializable {
 
     // Vm Network
     GetVmInterfacesByVmId(QueryAuthType.User),
+    GetVmInterfacesByVmIds(QueryAuthType.User),
     GetVmGuestAgentInterfacesByVmId(QueryAuthType.User),
+    GetVmGuestAgentInterfacesByVmIds(QueryAuthType.User),
     GetVmInterfaceFilterParametersByVmInterfaceId(QueryAuthType.User),
     GetVmInterfaceFilterParameterById(QueryAuthType.User),
     ValidateVmMacs,
@@ -230,6 +232,7 @@ public enum QueryType implements Serializable {
 
     GetDiskVmElementById(QueryAuthType.User),
     GetDiskVmElementsByVmId(QueryAuthType.User),
+    GetDiskVmElementsByVmIds(QueryAuthType.User),
 
     // Users queries
     GetUserVmsByUserIdAndGroups(QueryAuthType.User),
@@ -301,6 +304,7 @@ public enum QueryType implements Serializable {
 
     // Search queries
     Search(QueryAuthType.User),
+    GetSearchChanges(QueryAuthType.User),
 
     // Public services
     GetDomainList(QueryAuthType.User),
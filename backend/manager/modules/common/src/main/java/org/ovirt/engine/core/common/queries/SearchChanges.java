@@ -0,0 +1,70 @@
+package org.ovirt.engine.core.common.queries;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ovirt.engine.core.common.businessentities.Queryable;
+
+/**
+ * The changes of the results of a search since a version of them which the client already has.
+ * <p>
+ * Complete changes hold all the results in their order. Otherwise the changes hold only the results which were added
+ * or changed since the known version, and the ids of all the results in their order unless they are the same ids in
+ * the same order as in the known version.
+ */
+public class SearchChanges<T extends Queryable> implements Serializable {
+    private static final long serialVersionUID = 6081253713405338217L;
+
+    private long version;
+    private boolean complete;
+    private List<T> changedItems;
+    private List<Object> itemIds;
+
+    /**
+     * For GWT serialization
+     */
+    private SearchChanges() {
+    }
+
+    public SearchChanges(long version, List<T> changedItems, List<Object> itemIds) {
+        this.version = version;
+        this.changedItems = changedItems;
+        this.itemIds = itemIds;
+    }
+
+    public static <T extends Queryable> SearchChanges<T> complete(long version, List<T> items) {
+        SearchChanges<T> changes = new SearchChanges<>(version, new ArrayList<>(items), null);
+        changes.complete = true;
+        return changes;
+    }
+
+    /**
+     * @return the version of the results, to pass as the known version of the next search for the changes
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isComplete() {
+        return complete;
+    }
+
+    public List<T> getChangedItems() {
+        return changedItems;
+    }
+
+    /**
+     * @return the ids of all the results in their order, or {@code null} if they didn't change since the known version
+     */
+    public List<Object> getItemIds() {
+        return itemIds;
+    }
+
+    /**
+     * @return whether nothing changed since the known version
+     */
+    public boolean isEmpty() {
+        return !complete && changedItems.isEmpty() && itemIds == null;
+    }
+}
@@ -0,0 +1,48 @@
+package org.ovirt.engine.core.common.queries;
+
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.common.utils.ToStringBuilder;
+
+public class SearchChangesParameters extends SearchParameters {
+    private static final long serialVersionUID = -3126465418790474227L;
+
+    private long knownVersion;
+    private boolean searchAgain;
+
+    public SearchChangesParameters() {
+    }
+
+    public SearchChangesParameters(String searchPattern, SearchType searchType, boolean caseSensitive) {
+        super(searchPattern, searchType, caseSensitive);
+    }
+
+    /**
+     * @return the version of the results of the same search which the client already has, or 0 if it has none
+     */
+    public long getKnownVersion() {
+        return knownVersion;
+    }
+
+    public void setKnownVersion(long value) {
+        knownVersion = value;
+    }
+
+    /**
+     * @return whether to search again rather than return the latest results of the same search, even if they are
+     *         recent enough to be shared
+     */
+    public boolean isSearchAgain() {
+        return searchAgain;
+    }
+
+    public void setSearchAgain(boolean value) {
+        searchAgain = value;
+    }
+
+    @Override
+    protected ToStringBuilder appendAttributes(ToStringBuilder tsb) {
+        return super.appendAttributes(tsb)
+                .append("knownVersion", getKnownVersion())
+                .append("searchAgain", isSearchAgain());
+    }
+}
@@ -13,6 +13,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
     private int _maxCount;
     private long searchFrom;
     private boolean caseSensitive;
+    private String continuationToken;
 
     public SearchParameters() {
         this (null, SearchType.VM, true);
@@ -53,6 +54,19 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
         return searchFrom;
     }
 
+    /**
+     * @return the token of the last result of the previous page, to continue the search after it, an empty string to
+     *         get the first page in the order the search can be continued in, or {@code null} if the search isn't
+     *         continued by a token
+     */
+    public String getContinuationToken() {
+        return continuationToken;
+    }
+
+    public void setContinuationToken(String value) {
+        continuationToken = value;
+    }
+
     public boolean getCaseSensitive() {
         return caseSensitive;
     }
@@ -68,6 +82,7 @@ public class SearchParameters extends QueryParametersBase implements Serializabl
                 .append("searchPattern", getSearchPattern())
                 .append("caseSensitive", getCaseSensitive())
                 .append("from", getSearchFrom())
+                .append("continuationToken", getContinuationToken())
                 .append("max", getMaxCount());
     }
 }
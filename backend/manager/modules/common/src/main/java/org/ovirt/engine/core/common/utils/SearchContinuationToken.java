@@ -0,0 +1,126 @@
+package org.ovirt.engine.core.common.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Creates and parses the tokens by which a search is continued after the last result of the previous page.
+ * <p>
+ * A token holds the values of the sort key of the last result, which are the ones of
+ * {@code SearchObjectAutoCompleter#getKeyset(String)}, so the next page is found by comparing the sort key instead of
+ * skipping the results of all the previous pages. The token is opaque to the clients, which only pass it back as is,
+ * so a token is only accepted if its values are the ones of the sort key of the search type.
+ */
+public final class SearchContinuationToken {
+
+    private static final String SEPARATOR = "\u0000";
+
+    private static final Predicate<String> TEXT = value -> true;
+    private static final Predicate<String> GUID = SearchContinuationToken::isGuid;
+    private static final Predicate<String> LONG = SearchContinuationToken::isLong;
+
+    private static final Map<SearchType, Function<Object, List<String>>> sortKeyExtractors =
+            new EnumMap<>(SearchType.class);
+
+    /**
+     * The checks of the values of the sort key of each search type, in the order of the values
+     */
+    private static final Map<SearchType, List<Predicate<String>>> sortKeyValidators = new EnumMap<>(SearchType.class);
+
+    static {
+        sortKeyExtractors.put(SearchType.VM, entity -> {
+            VM vm = (VM) entity;
+            return Arrays.asList(vm.getName(), vm.getId().toString());
+        });
+        sortKeyValidators.put(SearchType.VM, Arrays.asList(TEXT, GUID));
+        sortKeyExtractors.put(SearchType.VDS, entity -> {
+            VDS vds = (VDS) entity;
+            return Arrays.asList(vds.getName(), vds.getId().toString());
+        });
+        sortKeyValidators.put(SearchType.VDS, Arrays.asList(TEXT, GUID));
+        sortKeyExtractors.put(SearchType.AuditLog,
+                entity -> Collections.singletonList(String.valueOf(((AuditLog) entity).getAuditLogId())));
+        sortKeyValidators.put(SearchType.AuditLog, Collections.singletonList(LONG));
+    }
+
+    private SearchContinuationToken() {
+    }
+
+    /**
+     * @return whether searches of the given type can be continued by a token
+     */
+    public static boolean isSupported(SearchType searchType) {
+        return sortKeyExtractors.containsKey(searchType);
+    }
+
+    /**
+     * @return the token to continue a search of the given type after the given result
+     */
+    public static String create(SearchType searchType, Object lastResult) {
+        Function<Object, List<String>> extractor = sortKeyExtractors.get(searchType);
+        if (extractor == null) {
+            throw new IllegalArgumentException("Search of " + searchType + " can't be continued by a token");
+        }
+        String sortKey = String.join(SEPARATOR, extractor.apply(lastResult));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @return the values of the sort key held by the given token of a search of the given type, an empty list for an
+     *         empty token
+     * @throws IllegalArgumentException
+     *             if searches of the given type can't be continued by a token, or if the token is malformed or doesn't
+     *             hold the values of the sort key of the search type
+     */
+    public static List<String> parse(SearchType searchType, String token) {
+        List<Predicate<String>> validators = sortKeyValidators.get(searchType);
+        if (validators == null) {
+            throw new IllegalArgumentException("Search of " + searchType + " can't be continued by a token");
+        }
+        if (token.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String sortKey = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        List<String> values = Arrays.asList(sortKey.split(SEPARATOR, -1));
+        if (values.size() != validators.size()) {
+            throw new IllegalArgumentException("Expected " + validators.size() + " sort key values but got "
+                    + values.size());
+        }
+        for (int i = 0; i < values.size(); i++) {
+            if (!validators.get(i).test(values.get(i))) {
+                throw new IllegalArgumentException("Invalid sort key value: " + values.get(i));
+            }
+        }
+        return values;
+    }
+
+    private static boolean isGuid(String value) {
+        try {
+            return new Guid(value).toString().equals(value);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static boolean isLong(String value) {
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.ovirt.engine.core.common.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.interfaces.SearchType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class SearchContinuationTokenTest {
+
+    @Test
+    public void testVmToken() {
+        VM vm = new VM();
+        vm.setId(Guid.newGuid());
+        vm.setName("vm'1 ü");
+
+        String token = SearchContinuationToken.create(SearchType.VM, vm);
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertEquals(Arrays.asList(vm.getName(), vm.getId().toString()),
+                SearchContinuationToken.parse(SearchType.VM, token));
+    }
+
+    @Test
+    public void testAuditLogToken() {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setAuditLogId(42);
+
+        String token = SearchContinuationToken.create(SearchType.AuditLog, auditLog);
+
+        assertEquals(Collections.singletonList("42"), SearchContinuationToken.parse(SearchType.AuditLog, token));
+    }
+
+    @Test
+    public void testEmptyToken() {
+        assertEquals(Collections.emptyList(), SearchContinuationToken.parse(SearchType.VM, ""));
+    }
+
+    @Test
+    public void testMalformedToken() {
+        assertThrows(IllegalArgumentException.class, () -> SearchContinuationToken.parse(SearchType.VM, "not a token"));
+    }
+
+    @Test
+    public void testTokenOfAnotherSearchType() {
+        AuditLog auditLog = new AuditLog();
+        auditLog.setAuditLogId(42);
+
+        String token = SearchContinuationToken.create(SearchType.AuditLog, auditLog);
+
+        assertThrows(IllegalArgumentException.class, () -> SearchContinuationToken.parse(SearchType.VM, token));
+    }
+
+    @Test
+    public void testTokenWithInvalidValues() {
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchContinuationToken.parse(SearchType.VM, encode("vm1\u0000not a guid")));
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchContinuationToken.parse(SearchType.AuditLog, encode("42' OR '1'='1")));
+    }
+
+    @Test
+    public void testUnsupportedSearchType() {
+        assertFalse(SearchContinuationToken.isSupported(SearchType.VmTemplate));
+        assertThrows(IllegalArgumentException.class,
+                () -> SearchContinuationToken.create(SearchType.VmTemplate, new Object()));
+        assertThrows(IllegalArgumentException.class, () -> SearchContinuationToken.parse(SearchType.VmTemplate, ""));
+    }
+
+    private static String encode(String sortKey) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sortKey.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -171,34 +171,7 @@ public final class BatchProcedureExecutionConnectionCallback implements Connecti
             }
 
             SqlCallParameter sqlParam = paramOrderEntry.getValue();
-
-            if (value != null) {
-                if (value.getClass().isEnum()) {
-                    try {
-                        Method method = value.getClass().getMethod("getValue");
-                        value = method.invoke(value);
-                    } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException ex) {
-                        log.error("Error mapping enum type '{}': {}", value, ex.getMessage());
-                        log.debug("Exception", ex);
-                    }
-                }
-
-                if (value instanceof Guid) {
-                    value = value.toString();
-                }
-
-                if (sqlParam.getDataType() == Types.TIMESTAMP) {
-                    value = new Timestamp(((Date) value).getTime());
-                }
-
-                if (value instanceof Map) {
-                    value = SerializationFactory.getSerializer().serialize(value);
-                }
-            } else {
-                if (sqlParam.getDataType() == Types.BOOLEAN || sqlParam.getDataType() == Types.BIT) {
-                    value = false;
-                }
-            }
+            value = toJdbcValue(value, sqlParam.getDataType());
 
             int ordinal = sqlParam.getOrdinal();
             try {
@@ -216,6 +189,40 @@ public final class BatchProcedureExecutionConnectionCallback implements Connecti
         log.debug("Mapped params: {}", values.keySet());
     }
 
+    /**
+     * Converts a parameter value to the value to set in the statement for a parameter of the given SQL type.
+     */
+    static Object toJdbcValue(Object value, int dataType) {
+        if (value != null) {
+            if (value.getClass().isEnum()) {
+                try {
+                    Method method = value.getClass().getMethod("getValue");
+                    value = method.invoke(value);
+                } catch (NoSuchMethodException | InvocationTargetException | IllegalAccessException ex) {
+                    log.error("Error mapping enum type '{}': {}", value, ex.getMessage());
+                    log.debug("Exception", ex);
+                }
+            }
+
+            if (value instanceof Guid) {
+                value = value.toString();
+            }
+
+            if (dataType == Types.TIMESTAMP) {
+                value = new Timestamp(((Date) value).getTime());
+            }
+
+            if (value instanceof Map) {
+                value = SerializationFactory.getSerializer().serialize(value);
+            }
+        } else {
+            if (dataType == Types.BOOLEAN || dataType == Types.BIT) {
+                value = false;
+            }
+        }
+        return value;
+    }
+
     private  static class ProcData {
         private String colName;
         private int ordinal;
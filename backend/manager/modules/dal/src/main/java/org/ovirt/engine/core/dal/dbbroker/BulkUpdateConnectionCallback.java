@@ -0,0 +1,177 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+
+/**
+ * Updates many rows of a table using a few multi-row update commands, instead of a procedure call per row. The
+ * parameters of each row are matched by name to the columns of the table, the same way the parameters of the update
+ * procedures are named after the columns they update.
+ */
+public final class BulkUpdateConnectionCallback implements ConnectionCallback<Integer> {
+    private static final Logger log = LoggerFactory.getLogger(BulkUpdateConnectionCallback.class);
+
+    /** the column the update procedures set to the time of the update */
+    private static final String UPDATE_DATE_COLUMN = "_update_date";
+    private static final int MAX_ROWS_PER_COMMAND = 1000;
+    /** the maximal number of parameters the PostgreSQL protocol allows in a single command */
+    private static final int MAX_PARAMETERS_PER_COMMAND = 32767;
+
+    private static ConcurrentMap<String, Map<String, ColumnMetaData>> tablesMap = new ConcurrentHashMap<>();
+
+    private final String tableName;
+    private final List<String> keyColumns;
+    private final List<MapSqlParameterSource> executions;
+    private final DbEngineDialect dbEngineDialect;
+
+    public BulkUpdateConnectionCallback(DbEngineDialect dbEngineDialect,
+            String tableName,
+            List<String> keyColumns,
+            List<MapSqlParameterSource> executions) {
+        this.dbEngineDialect = dbEngineDialect;
+        this.tableName = tableName;
+        this.keyColumns = keyColumns;
+        this.executions = executions;
+    }
+
+    @Override
+    public Integer doInConnection(Connection con) throws SQLException, DataAccessException {
+        log.debug("Executing bulk update of table " + tableName);
+        Map<String, ColumnMetaData> tableColumns = getTableMetaData(con);
+        Map<String, ColumnMetaData> columns = getUpdatedColumns(tableColumns, executions.get(0));
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        columns.values().forEach(column -> columnTypes.put(column.getName(), column.getTypeName()));
+        List<String> timestampColumns =
+                tableColumns.containsKey(UPDATE_DATE_COLUMN) && !columns.containsKey(UPDATE_DATE_COLUMN) ?
+                        Collections.singletonList(UPDATE_DATE_COLUMN)
+                        : Collections.emptyList();
+
+        int rowsPerCommand = Math.min(MAX_ROWS_PER_COMMAND, MAX_PARAMETERS_PER_COMMAND / columns.size());
+        Map<Integer, String> commands = new HashMap<>();
+        int updatedRows = 0;
+        for (int from = 0; from < executions.size(); from += rowsPerCommand) {
+            List<MapSqlParameterSource> rows =
+                    executions.subList(from, Math.min(from + rowsPerCommand, executions.size()));
+            String command = commands.computeIfAbsent(rows.size(),
+                    size -> dbEngineDialect.createBulkUpdateCommand(tableName,
+                            keyColumns,
+                            columnTypes,
+                            timestampColumns,
+                            size));
+            try (PreparedStatement stmt = con.prepareStatement(command)) {
+                mapParams(stmt, rows, columns);
+                updatedRows += stmt.executeUpdate();
+            } catch (SQLException e) {
+                log.error("Can't execute bulk update of table '{}': {}", tableName, e.getMessage());
+                log.debug("Exception", e);
+                throw e;
+            }
+        }
+
+        log.debug("Executed bulk update, {} rows updated", updatedRows);
+        return updatedRows;
+    }
+
+    private Map<String, ColumnMetaData> getTableMetaData(Connection con) throws SQLException {
+        Map<String, ColumnMetaData> tableColumns = tablesMap.get(tableName);
+        if (tableColumns == null) {
+            tableColumns = fillTableMetaData(con);
+            tablesMap.putIfAbsent(tableName, tableColumns);
+        }
+        return tableColumns;
+    }
+
+    private Map<String, ColumnMetaData> fillTableMetaData(Connection con) throws SQLException {
+        Map<String, ColumnMetaData> tableColumns = new LinkedHashMap<>();
+        try (ResultSet rs = con.getMetaData().getColumns(null, null, tableName.toLowerCase(), "%")) {
+            while (rs.next()) {
+                ColumnMetaData column = new ColumnMetaData(rs.getString("COLUMN_NAME"),
+                        rs.getInt("DATA_TYPE"),
+                        rs.getString("TYPE_NAME"));
+                tableColumns.put(column.getName(), column);
+            }
+        }
+
+        if (tableColumns.isEmpty()) {
+            throw new SQLException("Can't get table '" + tableName + "' meta data");
+        }
+        return tableColumns;
+    }
+
+    /**
+     * @return the columns of the table which are given as parameters, in the order of the table
+     */
+    private Map<String, ColumnMetaData> getUpdatedColumns(Map<String, ColumnMetaData> tableColumns,
+            MapSqlParameterSource paramSource) throws SQLException {
+        Map<String, ColumnMetaData> columns = new LinkedHashMap<>();
+        for (ColumnMetaData column : tableColumns.values()) {
+            if (paramSource.hasValue(column.getName())
+                    || paramSource.hasValue(dbEngineDialect.getParamNamePrefix() + column.getName())) {
+                columns.put(column.getName(), column);
+            }
+        }
+
+        for (String keyColumn : keyColumns) {
+            if (!columns.containsKey(keyColumn)) {
+                throw new SQLException("Key column '" + keyColumn + "' of table '" + tableName + "' is not given");
+            }
+        }
+        return columns;
+    }
+
+    private void mapParams(PreparedStatement stmt,
+            List<MapSqlParameterSource> rows,
+            Map<String, ColumnMetaData> columns) throws SQLException {
+        int index = 1;
+        for (MapSqlParameterSource paramSource : rows) {
+            Map<String, Object> values = paramSource.getValues();
+            for (ColumnMetaData column : columns.values()) {
+                Object value = values.get(dbEngineDialect.getParamNamePrefix() + column.getName());
+                if (value == null) {
+                    value = values.get(column.getName());
+                }
+                stmt.setObject(index++, BatchProcedureExecutionConnectionCallback.toJdbcValue(value,
+                        column.getDataType()));
+            }
+        }
+    }
+
+    private static class ColumnMetaData {
+        private final String name;
+        private final int dataType;
+        private final String typeName;
+
+        public ColumnMetaData(String name, int dataType, String typeName) {
+            this.name = name;
+            this.dataType = dataType;
+            this.typeName = typeName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getDataType() {
+            return dataType;
+        }
+
+        public String getTypeName() {
+            return typeName;
+        }
+    }
+}
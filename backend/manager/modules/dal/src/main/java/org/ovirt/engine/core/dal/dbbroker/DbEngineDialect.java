@@ -1,5 +1,8 @@
 package org.ovirt.engine.core.dal.dbbroker;
 
+import java.util.List;
+import java.util.Map;
+
 import javax.sql.DataSource;
 
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -50,4 +53,20 @@ public interface DbEngineDialect {
      */
     public String createSqlCallCommand(String procSchemaFromDB,
             String procNameFromDB, String params);
+
+    /**
+     * This function creates a single SQL command which updates many rows of a table. The values of each row are
+     * given as parameters, row after row, in the order of the given columns.
+     *
+     * @param tableName The table to update.
+     * @param keyColumns The columns which identify the rows to update.
+     * @param columnTypes The columns whose values are given, mapped to their database type names.
+     * @param timestampColumns The columns to set to the current time.
+     * @param rows The number of rows the command updates.
+     */
+    public String createBulkUpdateCommand(String tableName,
+            List<String> keyColumns,
+            Map<String, String> columnTypes,
+            List<String> timestampColumns,
+            int rows);
 }
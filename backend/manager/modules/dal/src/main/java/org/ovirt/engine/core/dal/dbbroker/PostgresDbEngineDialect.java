@@ -7,6 +7,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.StringJoiner;
 
 import javax.sql.DataSource;
 
@@ -199,4 +200,39 @@ public class PostgresDbEngineDialect implements DbEngineDialect {
                 .append(procNameFromDB).append("(").append(params).append(")}");
         return sqlCommand.toString();
     }
+
+    /**
+     * Creates an <code>UPDATE ... FROM (VALUES ...)</code> command, which updates all the rows in a single statement
+     * instead of a procedure call per row.
+     */
+    @Override
+    public String createBulkUpdateCommand(String tableName,
+            List<String> keyColumns,
+            Map<String, String> columnTypes,
+            List<String> timestampColumns,
+            int rows) {
+        StringBuilder sqlCommand = new StringBuilder("UPDATE ").append(tableName).append(" AS t SET ");
+        StringJoiner assignments = new StringJoiner(", ");
+        columnTypes.keySet().stream()
+                .filter(column -> !keyColumns.contains(column))
+                .forEach(column -> assignments.add(column + " = v." + column));
+        timestampColumns.forEach(column -> assignments.add(column + " = LOCALTIMESTAMP"));
+        sqlCommand.append(assignments).append(" FROM (VALUES ");
+
+        StringJoiner row = new StringJoiner(", ", "(", ")");
+        columnTypes.values().forEach(type -> row.add("CAST (? AS " + type + ")"));
+        String rowValues = row.toString();
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sqlCommand.append(", ");
+            }
+            sqlCommand.append(rowValues);
+        }
+
+        sqlCommand.append(") AS v (").append(String.join(", ", columnTypes.keySet())).append(") WHERE ");
+        StringJoiner conditions = new StringJoiner(" AND ");
+        keyColumns.forEach(column -> conditions.add("t." + column + " = v." + column));
+        sqlCommand.append(conditions);
+        return sqlCommand.toString();
+    }
 }
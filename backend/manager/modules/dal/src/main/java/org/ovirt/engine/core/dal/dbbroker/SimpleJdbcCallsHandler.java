@@ -72,6 +72,29 @@ public class SimpleJdbcCallsHandler {
         executeStoredProcAsBatch(procedureName, sqlParams);
     }
 
+    /**
+     * Updates a set of rows of a table using a few multi-row update commands, which is much faster than calling the
+     * update procedure of each row for large sets. Only suitable for tables whose update procedure simply sets the
+     * columns named after its parameters, and the update date, of the row identified by the key columns.
+     *
+     * @param tableName the table to update
+     * @param keyColumns the columns which identify the rows to update
+     * @param paramValues list of objects to be converted to {@link MapSqlParameterSource}
+     * @param mapper mapper to use to convert the param value objects to {@link MapSqlParameterSource}
+     * @return the number of updated rows
+     */
+    public <T> int executeBulkUpdate(final String tableName,
+            List<String> keyColumns,
+            Collection<T> paramValues,
+            MapSqlParameterMapper<T> mapper) {
+        if (paramValues.isEmpty()) {
+            return 0;
+        }
+
+        List<MapSqlParameterSource> sqlParams = paramValues.stream().map(mapper::map).collect(Collectors.toList());
+        return jdbcTemplate.execute(new BulkUpdateConnectionCallback(dialect, tableName, keyColumns, sqlParams));
+    }
+
     public Map<String, Object> executeModification(final String procedureName, final MapSqlParameterSource paramSource) {
         return executeImpl(procedureName, paramSource, createCallForModification(procedureName));
     }
@@ -0,0 +1,241 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.common.businessentities.AuditLog;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.AuditLogDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Writes audit log events to the database in batches, on a background thread instead of the thread which logged them.
+ * <p>
+ * The writer is only active when {@link ConfigValues#AuditLogAsyncWriteEnabled} is set. Once active, it registers
+ * itself in the {@link AuditLogDirector}, which hands it the events to write. The events wait in a bounded queue
+ * which is drained every {@link ConfigValues#AuditLogAsyncFlushIntervalInMillis} milliseconds, in batches of up to
+ * {@link ConfigValues#AuditLogAsyncBatchSize} events.
+ * <p>
+ * When the queue is full, {@link #offer(AuditLog)} refuses the event and the director writes it on the logging thread,
+ * so a database which can't keep up slows the loggers down rather than losing events. A batch which fails is retried
+ * event by event, so a single bad event doesn't take the rest of the batch with it.
+ * <p>
+ * External events are never handed to the writer, since their callers read them back from the database.
+ */
+@Singleton
+public class AsyncAuditLogWriter implements BackendService, AsyncAuditLogWriterMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncAuditLogWriter.class);
+
+    @Inject
+    private AuditLogDao auditLogDao;
+
+    @Inject
+    private AuditLogDirector auditLogDirector;
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService executor;
+
+    private BlockingQueue<AuditLog> queue;
+    private int queueCapacity;
+    private int batchSize;
+    private ScheduledFuture<?> flushJob;
+
+    private final LongAdder writtenEvents = new LongAdder();
+    private final LongAdder overflowEvents = new LongAdder();
+    private final LongAdder failedEvents = new LongAdder();
+    private volatile long flushCount;
+    private volatile long totalFlushLatencyMillis;
+    private volatile long lastFlushLatencyMillis;
+    private volatile long maxFlushLatencyMillis;
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    private void init() {
+        if (!Config.<Boolean> getValue(ConfigValues.AuditLogAsyncWriteEnabled)) {
+            log.info("Audit log events are written on the logging thread");
+            return;
+        }
+
+        queueCapacity = Config.<Integer> getValue(ConfigValues.AuditLogAsyncQueueCapacity);
+        batchSize = Config.<Integer> getValue(ConfigValues.AuditLogAsyncBatchSize);
+        long flushInterval = Config.<Integer> getValue(ConfigValues.AuditLogAsyncFlushIntervalInMillis);
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        flushJob = executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        registerInJMX();
+        auditLogDirector.setAsyncWriter(this);
+        log.info("Audit log events are written in batches of up to {} events every {} ms, queue capacity is {}",
+                batchSize,
+                flushInterval,
+                queueCapacity);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (queue == null) {
+            return;
+        }
+
+        auditLogDirector.setAsyncWriter(null);
+        flushJob.cancel(false);
+        flush();
+        unregisterFromJMX();
+    }
+
+    private void registerInJMX() {
+        try {
+            objectName = new ObjectName("AsyncAuditLogWriter:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    private void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            log.warn("Problem during unregistration of Monitoring from JMX: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Queues the given event to be written by the background writer
+     *
+     * @return {@code true} if the event was queued, {@code false} if the queue is full and the caller should write the
+     *         event itself
+     */
+    public boolean offer(AuditLog auditLog) {
+        if (queue.offer(auditLog)) {
+            return true;
+        }
+        overflowEvents.increment();
+        return false;
+    }
+
+    synchronized void flush() {
+        List<AuditLog> batch = new ArrayList<>(batchSize);
+        try {
+            while (queue.drainTo(batch, batchSize) > 0) {
+                write(batch);
+                batch.clear();
+            }
+        } catch (RuntimeException e) {
+            // an exception must not escape, otherwise the executor would stop scheduling the writer
+            log.error("Unexpected failure while writing audit log events: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    private void write(List<AuditLog> batch) {
+        long start = System.currentTimeMillis();
+        try {
+            TransactionSupport.executeInNewTransaction(() -> {
+                auditLogDao.saveAll(batch);
+                return null;
+            });
+            writtenEvents.add(batch.size());
+        } catch (RuntimeException e) {
+            log.error("Failed to write a batch of {} audit log events, writing them one by one: {}",
+                    batch.size(),
+                    e.getMessage());
+            log.debug("Exception", e);
+            batch.forEach(this::writeSingle);
+        } finally {
+            updateFlushLatency(System.currentTimeMillis() - start);
+        }
+    }
+
+    private void writeSingle(AuditLog auditLog) {
+        try {
+            TransactionSupport.executeInNewTransaction(() -> {
+                auditLogDao.save(auditLog);
+                return null;
+            });
+            writtenEvents.increment();
+        } catch (RuntimeException e) {
+            failedEvents.increment();
+            log.error("Failed to write audit log event '{}': {}", auditLog.getLogType(), e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    private void updateFlushLatency(long latency) {
+        flushCount++;
+        totalFlushLatencyMillis += latency;
+        lastFlushLatencyMillis = latency;
+        if (latency > maxFlushLatencyMillis) {
+            maxFlushLatencyMillis = latency;
+        }
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    @Override
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public long getWrittenEventsCount() {
+        return writtenEvents.sum();
+    }
+
+    @Override
+    public long getOverflowEventsCount() {
+        return overflowEvents.sum();
+    }
+
+    @Override
+    public long getFailedEventsCount() {
+        return failedEvents.sum();
+    }
+
+    @Override
+    public long getFlushCount() {
+        return flushCount;
+    }
+
+    @Override
+    public long getLastFlushLatencyMillis() {
+        return lastFlushLatencyMillis;
+    }
+
+    @Override
+    public long getMaxFlushLatencyMillis() {
+        return maxFlushLatencyMillis;
+    }
+
+    @Override
+    public double getAverageFlushLatencyMillis() {
+        long count = flushCount;
+        return count == 0 ? 0 : (double) totalFlushLatencyMillis / count;
+    }
+}
@@ -0,0 +1,52 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface AsyncAuditLogWriterMonitorMXBean {
+
+    /**
+     * The number of events currently waiting to be written
+     */
+    int getQueueDepth();
+
+    /**
+     * The maximal number of events which can wait to be written
+     */
+    int getQueueCapacity();
+
+    /**
+     * The number of events written by the background writer since the engine started
+     */
+    long getWrittenEventsCount();
+
+    /**
+     * The number of events written on the logging thread because the queue was full
+     */
+    long getOverflowEventsCount();
+
+    /**
+     * The number of events which could not be written at all
+     */
+    long getFailedEventsCount();
+
+    /**
+     * The number of batches written by the background writer since the engine started
+     */
+    long getFlushCount();
+
+    /**
+     * The time in milliseconds the last batch took to write
+     */
+    long getLastFlushLatencyMillis();
+
+    /**
+     * The longest time in milliseconds a single batch took to write
+     */
+    long getMaxFlushLatencyMillis();
+
+    /**
+     * The average time in milliseconds a single batch took to write
+     */
+    double getAverageFlushLatencyMillis();
+}
@@ -21,6 +21,9 @@ public class AuditLogDirector {
     @Inject
     private AuditLogDao auditLogDao;
 
+    /** Set while audit log events are written in batches in the background **/
+    private volatile AsyncAuditLogWriter asyncWriter;
+
     public void log(AuditLogable auditLogable, AuditLogType logType) {
         log(auditLogable, logType, "");
     }
@@ -28,6 +31,10 @@ public class AuditLogDirector {
     private AuditLogDirector() {
     }
 
+    void setAsyncWriter(AsyncAuditLogWriter asyncWriter) {
+        this.asyncWriter = asyncWriter;
+    }
+
     /**
      * Log an event with the given message
      *
@@ -65,10 +72,15 @@ public class AuditLogDirector {
         // truncate user name
         auditLog.setUserName(StringUtils.abbreviate(auditLog.getUserName(), USERNAME_LENGTH));
 
-        TransactionSupport.executeInNewTransaction(() -> {
-            auditLogDao.save(auditLog);
-            return null;
-        });
+        // external events are read back by their origin and custom id right after being logged, so they are written
+        // before returning
+        AsyncAuditLogWriter writer = asyncWriter;
+        if (auditLogable.isExternal() || writer == null || !writer.offer(auditLog)) {
+            TransactionSupport.executeInNewTransaction(() -> {
+                auditLogDao.save(auditLog);
+                return null;
+            });
+        }
         return auditLog;
     }
 
@@ -0,0 +1,121 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.Objects;
+
+import org.apache.commons.lang.StringUtils;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * Identifies the events which are regulated together by the {@link EventFloodRegulator}: events of the same type
+ * about the same objects. Unlike the key built by {@link EventKeyComposer}, it is compared by its fields and does not
+ * require building a string for every event.
+ */
+public final class EventFloodKey {
+
+    private final AuditLogType logType;
+    private final Guid storageDomainId;
+    private final Guid storagePoolId;
+    private final Guid userId;
+    private final Guid clusterId;
+    private final Guid vdsId;
+    private final Guid vmId;
+    private final Guid vmTemplateId;
+    private final String customId;
+    private final int hash;
+
+    public EventFloodKey(AuditLogable event, AuditLogType logType) {
+        this.logType = logType;
+        storageDomainId = emptyGuidToNull(event.getStorageDomainId());
+        storagePoolId = emptyGuidToNull(event.getStoragePoolId());
+        userId = emptyGuidToNull(event.getUserId());
+        clusterId = emptyGuidToNull(event.getClusterId());
+        vdsId = emptyGuidToNull(event.getVdsId());
+        vmId = emptyGuidToNull(event.getVmId());
+        vmTemplateId = emptyGuidToNull(event.getVmTemplateId());
+        customId = StringUtils.defaultString(event.getCustomId());
+        hash = Objects.hash(logType,
+                storageDomainId,
+                storagePoolId,
+                userId,
+                clusterId,
+                vdsId,
+                vmId,
+                vmTemplateId,
+                customId);
+    }
+
+    private static Guid emptyGuidToNull(Guid guid) {
+        return Guid.Empty.equals(guid) ? null : guid;
+    }
+
+    public AuditLogType getLogType() {
+        return logType;
+    }
+
+    public Guid getStorageDomainId() {
+        return storageDomainId;
+    }
+
+    public Guid getStoragePoolId() {
+        return storagePoolId;
+    }
+
+    public Guid getUserId() {
+        return userId;
+    }
+
+    public Guid getClusterId() {
+        return clusterId;
+    }
+
+    public Guid getVdsId() {
+        return vdsId;
+    }
+
+    public Guid getVmId() {
+        return vmId;
+    }
+
+    public Guid getVmTemplateId() {
+        return vmTemplateId;
+    }
+
+    public String getCustomId() {
+        return customId;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EventFloodKey)) {
+            return false;
+        }
+        EventFloodKey other = (EventFloodKey) obj;
+        return hash == other.hash
+                && logType == other.logType
+                && Objects.equals(storageDomainId, other.storageDomainId)
+                && Objects.equals(storagePoolId, other.storagePoolId)
+                && Objects.equals(userId, other.userId)
+                && Objects.equals(clusterId, other.clusterId)
+                && Objects.equals(vdsId, other.vdsId)
+                && Objects.equals(vmId, other.vmId)
+                && Objects.equals(vmTemplateId, other.vmTemplateId)
+                && customId.equals(other.customId);
+    }
+
+    /**
+     * @return the key in the format of {@link EventKeyComposer#composeObjectId(AuditLogable, AuditLogType)}
+     */
+    @Override
+    public String toString() {
+        return EventKeyComposer.composeObjectId(this);
+    }
+}
@@ -0,0 +1,104 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.inject.Singleton;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Selects the {@link EventFloodStore} used by the {@link EventFloodRegulator} and counts the events it suppresses.
+ * <p>
+ * Until the service is loaded the regulator uses the {@link InfinispanEventFloodStore}. Once loaded, it switches to
+ * the {@link LocalEventFloodStore} if {@link ConfigValues#LocalEventFloodStoreEnabled} is set.
+ */
+@Singleton
+public class EventFloodMonitor implements BackendService, EventFloodMonitorMXBean {
+
+    private static final Logger log = LoggerFactory.getLogger(EventFloodMonitor.class);
+    private static final AuditLogType[] LOG_TYPES = AuditLogType.values();
+
+    private static volatile EventFloodStore store = new InfinispanEventFloodStore();
+    /** Suppressed events counters, indexed by the ordinal of their type **/
+    private static final AtomicLongArray suppressedEvents = new AtomicLongArray(LOG_TYPES.length);
+
+    private MBeanServer platformMBeanServer;
+    private ObjectName objectName;
+
+    @PostConstruct
+    private void init() {
+        if (Config.<Boolean> getValue(ConfigValues.LocalEventFloodStoreEnabled)) {
+            store = new LocalEventFloodStore();
+        }
+        log.info("Using {} for regulating event floods", store.getClass().getSimpleName());
+        try {
+            objectName = new ObjectName("EventFloodMonitor:type=" + getClass().getName());
+            platformMBeanServer = ManagementFactory.getPlatformMBeanServer();
+            platformMBeanServer.registerMBean(this, objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during registration of Monitoring into JMX:" + e);
+        }
+    }
+
+    @PreDestroy
+    private void unregisterFromJMX() {
+        try {
+            platformMBeanServer.unregisterMBean(objectName);
+        } catch (Exception e) {
+            throw new IllegalStateException("Problem during unregistration of Monitoring into JMX:" + e);
+        }
+    }
+
+    static EventFloodStore getStore() {
+        return store;
+    }
+
+    static void eventSuppressed(AuditLogType logType) {
+        suppressedEvents.incrementAndGet(logType.ordinal());
+    }
+
+    @Override
+    public Map<String, Long> getSuppressedEventsCountByType() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (AuditLogType logType : LOG_TYPES) {
+            long count = suppressedEvents.get(logType.ordinal());
+            if (count > 0) {
+                counts.put(logType.name(), count);
+            }
+        }
+        return counts;
+    }
+
+    @Override
+    public long getSuppressedEventsCount() {
+        long total = 0;
+        for (int i = 0; i < suppressedEvents.length(); i++) {
+            total += suppressedEvents.get(i);
+        }
+        return total;
+    }
+
+    @Override
+    public String getStoreType() {
+        return store.getClass().getSimpleName();
+    }
+
+    @Override
+    public void resetCounters() {
+        for (int i = 0; i < suppressedEvents.length(); i++) {
+            suppressedEvents.set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.Map;
+
+/**
+ * The following interface is used as interface for JMX bean
+ */
+public interface EventFloodMonitorMXBean {
+
+    /**
+     * The number of events suppressed by the flood regulator since the engine started (or the counters were reset),
+     * by the names of their types. Types with no suppressed events are omitted.
+     */
+    Map<String, Long> getSuppressedEventsCountByType();
+
+    /**
+     * The total number of events suppressed by the flood regulator since the engine started (or the counters were
+     * reset)
+     */
+    long getSuppressedEventsCount();
+
+    /**
+     * The simple name of the {@link EventFloodStore} implementation in use
+     */
+    String getStoreType();
+
+    /**
+     * The following method will reset the suppressed events counters via JMX console
+     */
+    void resetCounters();
+}
@@ -0,0 +1,23 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+/**
+ * Keeps track of the events which were recently logged, so the {@link EventFloodRegulator} can suppress their repeats
+ */
+public interface EventFloodStore {
+
+    /**
+     * Marks the given event as logged for the given period, unless it is already marked
+     *
+     * @param key
+     *            the key of the event
+     * @param timeoutMillis
+     *            the period in milliseconds in which repeats of the event are suppressed
+     * @return {@code true} if the event was not marked and should be logged, {@code false} if it should be suppressed
+     */
+    boolean mark(EventFloodKey key, long timeoutMillis);
+
+    /**
+     * Removes the mark of the given event, so its next occurrence is logged
+     */
+    void evict(EventFloodKey key);
+}
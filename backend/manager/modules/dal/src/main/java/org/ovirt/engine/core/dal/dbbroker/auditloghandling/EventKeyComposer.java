@@ -1,6 +1,5 @@
 package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
 
-import org.apache.commons.lang.StringUtils;
 import org.ovirt.engine.core.common.AuditLogType;
 import org.ovirt.engine.core.compat.Guid;
 
@@ -22,17 +21,28 @@ public class EventKeyComposer {
      * @return unique object id
      */
     public static String composeObjectId(AuditLogable event, AuditLogType logType) {
+        return composeObjectId(new EventFloodKey(event, logType));
+    }
+
+    /**
+     * Composes an object id from the given event flood key.
+     *
+     * @param key
+     *            the key of the event
+     * @return unique object id
+     */
+    public static String composeObjectId(EventFloodKey key) {
         final StringBuilder builder = new StringBuilder();
 
-        compose(builder, "type", logType.toString());
-        compose(builder, "sd", emptyGuidToEmptyString(event.getStorageDomainId()));
-        compose(builder, "dc", emptyGuidToEmptyString(event.getStoragePoolId()));
-        compose(builder, "user", emptyGuidToEmptyString(event.getUserId()));
-        compose(builder, "cluster", emptyGuidToEmptyString(event.getClusterId()));
-        compose(builder, "vds", emptyGuidToEmptyString(event.getVdsId()));
-        compose(builder, "vm", emptyGuidToEmptyString(event.getVmId()));
-        compose(builder, "template", emptyGuidToEmptyString(event.getVmTemplateId()));
-        compose(builder, "customId", StringUtils.defaultString(event.getCustomId()));
+        compose(builder, "type", key.getLogType().toString());
+        compose(builder, "sd", emptyGuidToEmptyString(key.getStorageDomainId()));
+        compose(builder, "dc", emptyGuidToEmptyString(key.getStoragePoolId()));
+        compose(builder, "user", emptyGuidToEmptyString(key.getUserId()));
+        compose(builder, "cluster", emptyGuidToEmptyString(key.getClusterId()));
+        compose(builder, "vds", emptyGuidToEmptyString(key.getVdsId()));
+        compose(builder, "vm", emptyGuidToEmptyString(key.getVmId()));
+        compose(builder, "template", emptyGuidToEmptyString(key.getVmTemplateId()));
+        compose(builder, "customId", key.getCustomId());
 
         return builder.toString();
     }
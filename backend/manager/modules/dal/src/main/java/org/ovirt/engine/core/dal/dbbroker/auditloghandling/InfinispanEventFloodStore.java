@@ -0,0 +1,27 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.concurrent.TimeUnit;
+
+import org.ovirt.engine.core.dal.utils.CacheManager;
+
+/**
+ * An {@link EventFloodStore} which keeps the marks in the Infinispan timeout-base cache, by their string keys
+ */
+public class InfinispanEventFloodStore implements EventFloodStore {
+
+    @Override
+    public boolean mark(EventFloodKey key, long timeoutMillis) {
+        String objectId = key.toString();
+        String oldValue = CacheManager.getTimeoutBaseCache().putIfAbsent(
+                objectId,
+                objectId,
+                timeoutMillis,
+                TimeUnit.MILLISECONDS);
+        return oldValue == null;
+    }
+
+    @Override
+    public void evict(EventFloodKey key) {
+        CacheManager.getTimeoutBaseCache().computeIfPresent(key.toString(), (k, v) -> null);
+    }
+}
@@ -0,0 +1,46 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An in memory {@link EventFloodStore} which maps each marked event to the time its mark expires.
+ * <p>
+ * Expired marks are simply overwritten when the event is logged again. Marks of events which are not logged again are
+ * purged once every {@link #PURGE_INTERVAL} marks, so the map doesn't grow with every object which ever had an event.
+ */
+public class LocalEventFloodStore implements EventFloodStore {
+
+    static final int PURGE_INTERVAL = 1024;
+
+    private final ConcurrentMap<EventFloodKey, Long> expirations = new ConcurrentHashMap<>();
+    private final AtomicInteger marksSincePurge = new AtomicInteger();
+
+    @Override
+    public boolean mark(EventFloodKey key, long timeoutMillis) {
+        long now = System.nanoTime();
+        Long expiration = now + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        Long current = expirations.putIfAbsent(key, expiration);
+        boolean marked = current == null || current - now <= 0 && expirations.replace(key, current, expiration);
+        if (marked && marksSincePurge.incrementAndGet() >= PURGE_INTERVAL) {
+            marksSincePurge.set(0);
+            purgeExpired(now);
+        }
+        return marked;
+    }
+
+    @Override
+    public void evict(EventFloodKey key) {
+        expirations.remove(key);
+    }
+
+    private void purgeExpired(long now) {
+        expirations.values().removeIf(expiration -> expiration - now <= 0);
+    }
+
+    int size() {
+        return expirations.size();
+    }
+}
@@ -0,0 +1,110 @@
+package org.ovirt.engine.core.dal.dbbroker.generic;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+
+/**
+ * An immutable copy of the configuration values, indexed by the ordinal of their {@link ConfigValues} and by the
+ * index of their version, so that looking up a value doesn't allocate nor hash the name of the option.
+ */
+final class ConfigSnapshot {
+
+    /**
+     * Returned by {@link #get(ConfigValues, String)} when the option has no value for the version, to tell it apart
+     * from an option whose value is {@code null}
+     */
+    static final Object MISSING = new Object();
+
+    static final ConfigSnapshot EMPTY = new Builder().build();
+
+    private final Map<String, Integer> versionIndexes;
+    private final int defaultVersionIndex;
+    private final Object[][] values;
+    private final Map<String, Object>[] valuesForAllVersions;
+
+    private ConfigSnapshot(Map<String, Integer> versionIndexes,
+            Object[][] values,
+            Map<String, Object>[] valuesForAllVersions) {
+        this.versionIndexes = versionIndexes;
+        this.defaultVersionIndex = versionIndexes.getOrDefault(ConfigCommon.defaultConfigurationVersion, -1);
+        this.values = values;
+        this.valuesForAllVersions = valuesForAllVersions;
+    }
+
+    /**
+     * @return the value of the option for the given version, or {@link #MISSING} if it has none
+     */
+    Object get(ConfigValues configValue, String version) {
+        Object[] optionValues = values[configValue.ordinal()];
+        if (optionValues == null) {
+            return MISSING;
+        }
+        int versionIndex = getVersionIndex(version);
+        return versionIndex < 0 ? MISSING : optionValues[versionIndex];
+    }
+
+    /**
+     * @return the values of the option by version, which must not be modified, or {@code null} if it has none
+     */
+    Map<String, Object> getValuesForAllVersions(ConfigValues configValue) {
+        return valuesForAllVersions[configValue.ordinal()];
+    }
+
+    private int getVersionIndex(String version) {
+        // most of the options are read through Config.getValue(ConfigValues), which passes the constant
+        if (version == ConfigCommon.defaultConfigurationVersion) {
+            return defaultVersionIndex;
+        }
+        Integer versionIndex = versionIndexes.get(version);
+        return versionIndex == null ? -1 : versionIndex;
+    }
+
+    static class Builder {
+        private final Map<ConfigValues, Map<String, Object>> options = new EnumMap<>(ConfigValues.class);
+
+        void put(ConfigValues configValue, String version, Object value) {
+            options.computeIfAbsent(configValue, k -> new HashMap<>()).put(version, value);
+        }
+
+        /**
+         * @return the value already added for the option and version
+         * @throws IllegalArgumentException if no value was added for them
+         */
+        Object getValue(ConfigValues configValue, String version) {
+            Map<String, Object> optionValues = options.get(configValue);
+            if (optionValues == null || !optionValues.containsKey(version)) {
+                throw new IllegalArgumentException(configValue + " has no value for version: " + version);
+            }
+            return optionValues.get(version);
+        }
+
+        @SuppressWarnings("unchecked")
+        ConfigSnapshot build() {
+            SortedSet<String> versions = new TreeSet<>();
+            options.values().forEach(optionValues -> versions.addAll(optionValues.keySet()));
+            Map<String, Integer> versionIndexes = new HashMap<>();
+            for (String version : versions) {
+                versionIndexes.put(version, versionIndexes.size());
+            }
+
+            int optionCount = ConfigValues.values().length;
+            Object[][] values = new Object[optionCount][];
+            Map<String, Object>[] valuesForAllVersions = new Map[optionCount];
+            options.forEach((configValue, optionValues) -> {
+                Object[] row = new Object[versionIndexes.size()];
+                Arrays.fill(row, MISSING);
+                optionValues.forEach((version, value) -> row[versionIndexes.get(version)] = value);
+                values[configValue.ordinal()] = row;
+                valuesForAllVersions[configValue.ordinal()] = new HashMap<>(optionValues);
+            });
+            return new ConfigSnapshot(versionIndexes, values, valuesForAllVersions);
+        }
+    }
+}
@@ -24,7 +24,6 @@ import org.ovirt.engine.core.common.config.ConfigCommon;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
 import org.ovirt.engine.core.common.config.OptionBehaviourAttribute;
-import org.ovirt.engine.core.common.config.Reloadable;
 import org.ovirt.engine.core.common.config.TypeConverterAttribute;
 import org.ovirt.engine.core.compat.Version;
 import org.ovirt.engine.core.dao.VdcOptionDao;
@@ -38,7 +37,7 @@ public class DBConfigUtils implements IConfigUtilsInterface {
     private static final Logger log = LoggerFactory.getLogger(DBConfigUtils.class);
 
     private static final String TEMP = "Temp";
-    private final Map<String, Map<String, Object>> _vdcOptionCache = new HashMap<>();
+    private volatile ConfigSnapshot snapshot = ConfigSnapshot.EMPTY;
 
     @Inject
     private VdcOptionDao vdcOptionDao;
@@ -126,58 +125,54 @@ public class DBConfigUtils implements IConfigUtilsInterface {
     }
 
     /**
-     * Refreshes the VDC option cache.
+     * Refreshes the VDC option cache. The options are read into a new snapshot, which replaces the current one once
+     * it is complete, so the values are never read while they are being refreshed.
      */
     @PostConstruct
     public void refresh() {
-        _vdcOptionCache.clear();
+        ConfigSnapshot.Builder builder = new ConfigSnapshot.Builder();
         List<VdcOption> list = moveDependentToEnd(vdcOptionDao.getAll());
         for (VdcOption option : list) {
-            try {
-                if (!_vdcOptionCache.containsKey(option.getOptionName()) ||
-                        !_vdcOptionCache.get(option.getOptionName()).containsKey(option.getVersion()) ||
-                        isReloadable(option.getOptionName())) {
-                    updateOption(option);
-                }
-            } catch (NoSuchFieldException e) {
-                log.error("Not refreshing field '{}': does not exist in class {}.", option.getOptionName(),
-                        ConfigValues.class.getSimpleName());
+            ConfigValues configValue = toConfigValue(option.getOptionName());
+            if (configValue != null) {
+                builder.put(configValue, option.getVersion(), getValue(option, builder));
             }
         }
+        snapshot = builder.build();
     }
 
     @Override
     @SuppressWarnings("unchecked")
     public <T> Map<String, T> getValuesForAllVersions(ConfigValues configValue) {
-        return (Map<String, T>) _vdcOptionCache.get(configValue.toString());
+        return (Map<String, T>) snapshot.getValuesForAllVersions(configValue);
     }
 
     @Override
+    @SuppressWarnings("unchecked")
     public <T> T getValue(ConfigValues name, String version) {
-        Map<String, T> values = getValuesForAllVersions(name);
-        if (valueExists(name, version)) {
-            return values.get(version);
+        Object value = snapshot.get(name, version);
+        if (value == ConfigSnapshot.MISSING) {
+            throw new IllegalArgumentException(name.toString() + " has no value for version: " + version);
         }
-        throw new IllegalArgumentException(name.toString() + " has no value for version: " + version);
+        return (T) value;
     }
 
     @Override
     public boolean valueExists(ConfigValues configValue, String version) {
-        Map<String, Object> values = getValuesForAllVersions(configValue);
-        return values != null && values.containsKey(version);
+        return snapshot.get(configValue, version) != ConfigSnapshot.MISSING;
     }
 
-    private void updateOption(VdcOption option) {
-        Map<String, Object> values = _vdcOptionCache.get(option.getOptionName());
-        if (values == null) {
-            values = new HashMap<>();
-            _vdcOptionCache.put(option.getOptionName(), values);
+    private static ConfigValues toConfigValue(String optionName) {
+        try {
+            return ConfigValues.valueOf(optionName);
+        } catch (IllegalArgumentException e) {
+            // Ignore temporary values inserted to vdc_options by upgrades as flags.
+            if (!optionName.startsWith(TEMP)) {
+                log.error("Not refreshing field '{}': does not exist in class {}.", optionName,
+                        ConfigValues.class.getSimpleName());
+            }
+            return null;
         }
-        values.put(option.getVersion(), getValue(option));
-    }
-
-    private static boolean isReloadable(String optionName) throws NoSuchFieldException {
-        return ConfigValues.class.getField(optionName).isAnnotationPresent(Reloadable.class);
     }
 
     private List<VdcOption> moveDependentToEnd(List<VdcOption> list) {
@@ -196,9 +191,10 @@ public class DBConfigUtils implements IConfigUtilsInterface {
     }
 
     /**
-     * Returns the typed value of the given option. returns default value if option.option_value is null
+     * Returns the typed value of the given option. returns default value if option.option_value is null. The options
+     * that the value depends on are read from the given builder.
      */
-    protected Object getValue(VdcOption option) {
+    protected Object getValue(VdcOption option, ConfigSnapshot.Builder builder) {
         Object result = option.getOptionValue();
         EnumValue enumValue = parseEnumValue(option.getOptionName());
         if (enumValue != null) {
@@ -224,11 +220,13 @@ public class DBConfigUtils implements IConfigUtilsInterface {
                         break;
                     case ValueDependent:
                         // get the config that this value depends on
-                        String prefix = getValue(optionBehaviour.dependentOn(), ConfigCommon.defaultConfigurationVersion);
+                        String prefix = (String) builder.getValue(optionBehaviour.dependentOn(),
+                                ConfigCommon.defaultConfigurationVersion);
                         // combine the prefix with the 'real value'
                         if (prefix != null) {
                             String realName = String.format("%1$s%2$s", prefix, optionBehaviour.realValue());
-                            result = getValue(ConfigValues.valueOf(realName), ConfigCommon.defaultConfigurationVersion);
+                            result = builder.getValue(ConfigValues.valueOf(realName),
+                                    ConfigCommon.defaultConfigurationVersion);
                         }
                         break;
                     case CommaSeparatedVersionArray:
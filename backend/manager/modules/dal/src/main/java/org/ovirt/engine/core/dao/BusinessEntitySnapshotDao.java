@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.apache.commons.collections.KeyValue;
@@ -30,6 +31,12 @@ public interface BusinessEntitySnapshotDao extends Dao {
      */
     public void save(BusinessEntitySnapshot entitySnapshot);
 
+    /**
+     * Saves new snapshots in a single batch
+     * @param entitySnapshots the snapshots to save
+     */
+    void saveAll(Collection<BusinessEntitySnapshot> entitySnapshots);
+
     /**
      * Get all commands awaiting for compensation.
      */
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Named;
@@ -50,23 +51,32 @@ public class BusinessEntitySnapshotDaoImpl extends BaseDao implements BusinessEn
 
     @Override
     public void save(BusinessEntitySnapshot entitySnapshot) {
+        getCallsHandler().executeModification("insert_entity_snapshot", createInsertParameterSource(entitySnapshot));
+    }
+
+    @Override
+    public void saveAll(Collection<BusinessEntitySnapshot> entitySnapshots) {
+        getCallsHandler().executeStoredProcAsBatch("insert_entity_snapshot",
+                entitySnapshots,
+                this::createInsertParameterSource);
+    }
+
+    private MapSqlParameterSource createInsertParameterSource(BusinessEntitySnapshot entitySnapshot) {
         Guid id = entitySnapshot.getId();
         if (Guid.isNullOrEmpty(id)) {
             id = Guid.newGuid();
             entitySnapshot.setId(id);
         }
-        MapSqlParameterSource parameterSource =
-                getCustomMapSqlParameterSource()
-                        .addValue("id", entitySnapshot.getId())
-                        .addValue("command_id", entitySnapshot.getCommandId())
-                        .addValue("command_type", entitySnapshot.getCommandType())
-                        .addValue("entity_id", entitySnapshot.getEntityId())
-                        .addValue("entity_type", entitySnapshot.getEntityType())
-                        .addValue("entity_snapshot", entitySnapshot.getEntitySnapshot())
-                        .addValue("snapshot_class", entitySnapshot.getSnapshotClass())
-                        .addValue("snapshot_type", entitySnapshot.getSnapshotType())
-                        .addValue("insertion_order", entitySnapshot.getInsertionOrder());
-        getCallsHandler().executeModification("insert_entity_snapshot", parameterSource);
+        return getCustomMapSqlParameterSource()
+                .addValue("id", entitySnapshot.getId())
+                .addValue("command_id", entitySnapshot.getCommandId())
+                .addValue("command_type", entitySnapshot.getCommandType())
+                .addValue("entity_id", entitySnapshot.getEntityId())
+                .addValue("entity_type", entitySnapshot.getEntityType())
+                .addValue("entity_snapshot", entitySnapshot.getEntitySnapshot())
+                .addValue("snapshot_class", entitySnapshot.getSnapshotClass())
+                .addValue("snapshot_type", entitySnapshot.getSnapshotType())
+                .addValue("insertion_order", entitySnapshot.getInsertionOrder());
     }
 
     @Override
@@ -1,8 +1,10 @@
 package org.ovirt.engine.core.dao;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 
 import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
@@ -19,6 +21,8 @@ public interface CommandEntityDao extends GenericDao<CommandEntity, Guid> {
 
     void updateNotified(Guid id);
 
+    void updateData(Guid id, Map<String, Serializable> data);
+
     void removeAllBeforeDate(Date cutoff);
 
     List<CommandEntity> getCmdEntitiesByParentCmdId(Guid parentId);
@@ -28,4 +32,6 @@ public interface CommandEntityDao extends GenericDao<CommandEntity, Guid> {
     void insertCommandAssociatedEntities(Collection<CommandAssociatedEntity> cmdAssociatedEntities);
 
     List<CommandAssociatedEntity> getAllCommandAssociatedEntities(Guid cmdId);
+
+    List<CommandAssociatedEntity> getAllCommandAssociatedEntities();
 }
@@ -5,6 +5,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Named;
 import javax.inject.Singleton;
@@ -16,6 +17,8 @@ import org.ovirt.engine.core.common.action.ActionReturnValue;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.PersistedCommandContext;
 import org.ovirt.engine.core.compat.CommandStatus;
 import org.ovirt.engine.core.compat.Guid;
@@ -24,6 +27,7 @@ import org.ovirt.engine.core.dal.dbbroker.DbFacadeUtils;
 import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
 import org.ovirt.engine.core.utils.ReflectionUtils;
 import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.utils.serialization.json.CompressedJson;
 import org.springframework.jdbc.core.RowMapper;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 
@@ -105,11 +109,23 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
     }
 
     private String serializeReturnValue(ActionReturnValue retVal) {
-        return SerializationFactory.getSerializer().serialize(retVal);
+        return serializePayload(retVal);
     }
 
     private String serializeParameters(ActionParametersBase params) {
-        return SerializationFactory.getSerializer().serialize(params);
+        return serializePayload(params);
+    }
+
+    /**
+     * The parameters and return values of commands may be large, so they are compressed if it is configured. Both
+     * compressed and plain payloads are read back, so the configuration may be changed at any time.
+     */
+    private String serializePayload(Serializable payload) {
+        String json = SerializationFactory.getSerializer().serialize(payload);
+        if (Config.<Boolean> getValue(ConfigValues.CommandEntityPayloadCompressionEnabled)) {
+            return CompressedJson.compress(json);
+        }
+        return json;
     }
 
     @SuppressWarnings("unchecked")
@@ -118,7 +134,8 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
             return null;
         }
         Class<Serializable> retValueClass = (Class<Serializable>) ReflectionUtils.getClassFor(className);
-        return (ActionReturnValue) SerializationFactory.getDeserializer().deserialize(payload,
+        return (ActionReturnValue) SerializationFactory.getDeserializer().deserialize(
+                CompressedJson.decompress(payload),
                 retValueClass);
     }
 
@@ -128,7 +145,8 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
             return null;
         }
         Class<Serializable> actionParamsClass = (Class<Serializable>) ReflectionUtils.getClassFor(className);
-        return (ActionParametersBase) SerializationFactory.getDeserializer().deserialize(payload,
+        return (ActionParametersBase) SerializationFactory.getDeserializer().deserialize(
+                CompressedJson.decompress(payload),
                 actionParamsClass);
     }
 
@@ -163,6 +181,12 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
         getCallsHandler().executeModification("UpdateCommandEntityExecuted", createIdParameterMapper(id).addValue("executed", true));
     }
 
+    @Override
+    public void updateData(Guid id, Map<String, Serializable> data) {
+        getCallsHandler().executeModification("UpdateCommandEntityData",
+                createIdParameterMapper(id).addValue("data", SerializationFactory.getSerializer().serialize(data)));
+    }
+
     @Override
     public void removeAllBeforeDate(Date cutoff) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
@@ -204,4 +228,11 @@ public class CommandEntityDaoImpl extends DefaultGenericDao<CommandEntity, Guid>
                 parameterSource);
     }
 
+    @Override
+    public List<CommandAssociatedEntity> getAllCommandAssociatedEntities() {
+        return getCallsHandler().executeReadList("GetAllFromCommandAssociatedEntities",
+                coCoCmdEntityRowMapper,
+                getCustomMapSqlParameterSource());
+    }
+
 }
@@ -61,6 +61,29 @@ public abstract class MassOperationsGenericDao<T extends BusinessEntity<ID>, ID
                 sortedParamValues, mapper);
     }
 
+    /**
+     * Updates the given entities using multi-row update commands instead of a call to the update procedure per entity.
+     * Only suitable for entities whose update procedure simply sets the columns named after its parameters.
+     *
+     * @param tableName
+     *            the table of the entities
+     * @param keyColumn
+     *            the column which identifies the entities
+     */
+    protected void updateAllInBulk(String tableName, String keyColumn, Collection<T> entities) {
+        if (entities.isEmpty()) {
+            return;
+        }
+
+        // To overcome possible deadlocks, we need to sort the collection
+        List<T> sortedEntities = new ArrayList<>(entities);
+        Collections.sort(sortedEntities, BusinessEntityComparator.newInstance());
+        getCallsHandler().executeBulkUpdate(tableName,
+                Collections.singletonList(keyColumn),
+                sortedEntities,
+                getBatchMapper());
+    }
+
     @Override
     public void removeAll(Collection<ID> ids) {
         ids.forEach(this::remove);
@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Named;
@@ -139,7 +140,18 @@ public class VdsStatisticsDaoImpl extends BaseDao implements VdsStatisticsDao {
 
     @Override
     public void update(VdsStatistics stats) {
-        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+        getCallsHandler().executeModification("UpdateVdsStatistics", createUpdateParameterSource(stats));
+    }
+
+    @Override
+    public void updateAllInBatch(Collection<VdsStatistics> statistics) {
+        getCallsHandler().executeStoredProcAsBatch("UpdateVdsStatistics",
+                statistics,
+                this::createUpdateParameterSource);
+    }
+
+    private MapSqlParameterSource createUpdateParameterSource(VdsStatistics stats) {
+        return getCustomMapSqlParameterSource()
                 .addValue("cpu_idle", stats.getCpuIdle())
                 .addValue("cpu_load", stats.getCpuLoad())
                 .addValue("cpu_sys", stats.getCpuSys())
@@ -166,8 +178,6 @@ public class VdsStatisticsDaoImpl extends BaseDao implements VdsStatisticsDao {
                 .addValue("ha_local_maintenance", stats.getHighlyAvailableLocalMaintenance())
                 .addValue("cpu_over_commit_time_stamp", stats.getCpuOverCommitTimeStamp())
                 .addValue("hugepages", serializeHugePages(stats.getHugePages()));
-
-        getCallsHandler().executeModification("UpdateVdsStatistics", parameterSource);
     }
 
     @Override
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -20,6 +21,15 @@ public interface VmDynamicDao extends GenericDao<VmDynamic, Guid>, StatusAwareDa
      */
     List<VmDynamic> getAllRunningForVds(Guid vds);
 
+    /**
+     * Retrieves all running dynamic VMs for the given VDS instances.
+     *
+     * @param vdsIds
+     *            the VDS ids
+     * @return the list of dynamic vms
+     */
+    List<VmDynamic> getAllRunningForMultipleVds(Collection<Guid> vdsIds);
+
     /**
      * Check whether or not any VM runs on the given VDS instance.
      *
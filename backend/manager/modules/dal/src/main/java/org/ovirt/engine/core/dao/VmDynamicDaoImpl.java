@@ -3,6 +3,7 @@ package org.ovirt.engine.core.dao;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +53,14 @@ public class VmDynamicDaoImpl extends MassOperationsGenericDao<VmDynamic, Guid>
         return getCallsHandler().executeReadList("GetVmsDynamicRunningOnVds", mapper, parameterSource);
     }
 
+    @Override
+    public List<VmDynamic> getAllRunningForMultipleVds(Collection<Guid> vdsIds) {
+        return getCallsHandler().executeReadList("GetVmsDynamicRunningOnMultipleVds",
+                createEntityRowMapper(),
+                getCustomMapSqlParameterSource()
+                        .addValue("vds_ids", createArrayOfUUIDs(vdsIds)));
+    }
+
     @Override
     public boolean isAnyVmRunOnVds(Guid vdsId) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
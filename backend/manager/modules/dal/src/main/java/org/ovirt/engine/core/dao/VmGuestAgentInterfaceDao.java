@@ -32,6 +32,18 @@ public interface VmGuestAgentInterfaceDao extends Dao {
      */
     List<VmGuestAgentInterface> getAllForVm(Guid vmId, Guid userId, boolean filtered);
 
+    /**
+     * Returns a list of the VmGuestAgentInterfaces for the given VMs Ids
+     * @param vmIds
+     *            the VMs' IDs
+     * @param userId
+     *            the ID of the user requesting the information
+     * @param filtered
+     *            Whether the results should be filtered according to the user's permissions
+     * @return the list of VmGuestAgentInterfaces
+     */
+    List<VmGuestAgentInterface> getAllForVms(Collection<Guid> vmIds, Guid userId, boolean filtered);
+
     /**
      * Removes all the VmGuestAgentInterfaces of the given VMs
      * @param vmIds
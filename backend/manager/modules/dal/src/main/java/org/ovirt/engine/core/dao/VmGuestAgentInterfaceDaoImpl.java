@@ -33,6 +33,15 @@ public class VmGuestAgentInterfaceDaoImpl extends BaseDao implements VmGuestAgen
                         .addValue("filtered", filtered));
     }
 
+    @Override
+    public List<VmGuestAgentInterface> getAllForVms(Collection<Guid> vmIds, Guid userId, boolean filtered) {
+        return getCallsHandler().executeReadList("GetVmGuestAgentInterfacesByVmIds",
+                vmGuestAgentInterfaceRowMapper,
+                getCustomMapSqlParameterSource().addValue("vm_ids", createArrayOfUUIDs(vmIds))
+                        .addValue("user_id", userId)
+                        .addValue("filtered", filtered));
+    }
+
     @Override
     public void save(VmGuestAgentInterface vmGuestAgentInterface) {
         getCallsHandler().executeModification("InsertVmGuestAgentInterface",
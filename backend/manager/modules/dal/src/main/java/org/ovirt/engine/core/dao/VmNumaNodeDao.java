@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -16,6 +17,14 @@ public interface VmNumaNodeDao extends Dao {
      */
     List<VmNumaNode> getAllVmNumaNodeByVmId(Guid vmId);
 
+    /**
+     * Get all numa nodes of the given vms
+     * @param vmIds
+     *            the ids of the vms
+     * @return Map with VM id as key and a list of numa nodes as value, VMs without numa nodes are not included
+     */
+    Map<Guid, List<VmNumaNode>> getAllVmNumaNodeByVmIds(Collection<Guid> vmIds);
+
      /**
      * Get vm numa node information that in the vms which belong to the specified vds group
      * @param clusterId
@@ -4,6 +4,7 @@ import static org.ovirt.engine.core.utils.CollectionUtils.pairsToMap;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -38,6 +39,25 @@ public class VmNumaNodeDaoImpl extends NumaNodeDaoBase<VmNumaNode> implements Vm
         return vmNumaNodes;
     }
 
+    @Override
+    public Map<Guid, List<VmNumaNode>> getAllVmNumaNodeByVmIds(Collection<Guid> vmIds) {
+        MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
+                .addValue("vm_ids", createArrayOfUUIDs(vmIds));
+
+        List<Pair<Guid, VmNumaNode>> vmNumaNodes =
+                getCallsHandler().executeReadList("GetNumaNodeByVmIds",
+                        vmNumaNodeCpuWithVmRowMapper, parameterSource);
+
+        Map<Guid, List<Integer>> vmNumaNodesPinMap = pairsToMap(
+                getCallsHandler().executeReadList("GetAssignedNumaNodeInfomationByVmIds",
+                        vmNumaNodeAssignmentRowMapper, parameterSource));
+
+        vmNumaNodes.stream().map(Pair::getSecond).filter(node -> vmNumaNodesPinMap.containsKey(node.getId())).forEach(
+                node -> node.setVdsNumaNodeList(vmNumaNodesPinMap.get(node.getId())));
+
+        return pairsToMap(vmNumaNodes);
+    }
+
     @Override
     public Map<Guid, List<VmNumaNode>> getVmNumaNodeInfoByClusterId(Guid clusterId) {
         MapSqlParameterSource parameterSource = getCustomMapSqlParameterSource()
@@ -116,6 +136,9 @@ public class VmNumaNodeDaoImpl extends NumaNodeDaoBase<VmNumaNode> implements Vm
         return entity;
     };
 
+    private static final RowMapper<Pair<Guid, VmNumaNode>> vmNumaNodeCpuWithVmRowMapper =
+            (rs, rowNum) -> new Pair<>(getGuid(rs, "vm_id"), vmNumaNodeCpuRowMapper.mapRow(rs, rowNum));
+
     private static final RowMapper<Pair<Guid, VmNumaNode>> vmNumaNodeInfoWithClusterRowMapper = (rs, rowNum) -> {
         VmNumaNode entity = new VmNumaNode();
         entity.setId(getGuid(rs, "vm_numa_node_id"));
@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Named;
@@ -25,6 +26,11 @@ public class VmStatisticsDaoImpl extends MassOperationsGenericDao<VmStatistics,
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void updateAllInBatch(Collection<VmStatistics> statistics) {
+        updateAllInBulk("vm_statistics", "vm_guid", statistics);
+    }
+
     @Override
     protected MapSqlParameterSource createIdParameterMapper(Guid id) {
         return getCustomMapSqlParameterSource().addValue("vm_guid", id);
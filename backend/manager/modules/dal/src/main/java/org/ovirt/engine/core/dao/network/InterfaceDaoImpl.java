@@ -4,6 +4,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -91,10 +92,10 @@ public class InterfaceDaoImpl extends BaseDao implements InterfaceDao {
 
     @Override
     public void massUpdateStatisticsForVds(Collection<VdsNetworkStatistics> statistics) {
-        List<MapSqlParameterSource> executions =
-                statistics.stream().map(this::createStatisticsParametersMapper).collect(Collectors.toList());
-
-        getCallsHandler().executeStoredProcAsBatch("Updatevds_interface_statistics", executions);
+        getCallsHandler().executeBulkUpdate("vds_interface_statistics",
+                Collections.singletonList("id"),
+                statistics,
+                this::createStatisticsParametersMapper);
     }
 
     /**
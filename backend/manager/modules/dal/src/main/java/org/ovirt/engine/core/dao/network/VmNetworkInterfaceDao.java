@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao.network;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
@@ -30,6 +31,19 @@ public interface VmNetworkInterfaceDao extends ReadDao<VmNetworkInterface, Guid>
      */
     List<VmNetworkInterface> getAllForVm(Guid id, Guid userID, boolean isFiltered);
 
+    /**
+     * Retrieves all interfaces for the given VM ids, with optional filtering
+     *
+     * @param ids
+     *            the Vm ids
+     * @param userID
+     *            the ID of the user requesting the information
+     * @param isFiltered
+     *            Whether the results should be filtered according to the user's permissions
+     * @return the list of interfaces
+     */
+    List<VmNetworkInterface> getAllForVms(Collection<Guid> ids, Guid userID, boolean isFiltered);
+
     /**
      * Retrieves all interfaces for the given template id.
      *
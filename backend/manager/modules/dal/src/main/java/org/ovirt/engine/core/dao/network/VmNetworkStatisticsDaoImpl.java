@@ -1,5 +1,6 @@
 package org.ovirt.engine.core.dao.network;
 
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Named;
@@ -24,6 +25,11 @@ public class VmNetworkStatisticsDaoImpl extends NetworkStatisticsDaoImpl<VmNetwo
         throw new UnsupportedOperationException();
     }
 
+    @Override
+    public void updateAllInBatch(Collection<VmNetworkStatistics> statistics) {
+        updateAllInBulk("vm_interface_statistics", "id", statistics);
+    }
+
     @Override
     protected MapSqlParameterSource createFullParametersMapper(VmNetworkStatistics stats) {
         return super.createFullParametersMapper(stats)
@@ -0,0 +1,51 @@
+package org.ovirt.engine.core.dal.dbbroker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class PostgresDbEngineDialectTest {
+
+    private final PostgresDbEngineDialect dialect = new PostgresDbEngineDialect();
+
+    @Test
+    public void testCreateBulkUpdateCommand() {
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        columnTypes.put("id", "uuid");
+        columnTypes.put("rx_rate", "numeric");
+        columnTypes.put("iface_status", "int4");
+
+        assertEquals("UPDATE vds_interface_statistics AS t "
+                        + "SET rx_rate = v.rx_rate, iface_status = v.iface_status, _update_date = LOCALTIMESTAMP "
+                        + "FROM (VALUES (CAST (? AS uuid), CAST (? AS numeric), CAST (? AS int4)), "
+                        + "(CAST (? AS uuid), CAST (? AS numeric), CAST (? AS int4))) "
+                        + "AS v (id, rx_rate, iface_status) WHERE t.id = v.id",
+                dialect.createBulkUpdateCommand("vds_interface_statistics",
+                        Collections.singletonList("id"),
+                        columnTypes,
+                        Collections.singletonList("_update_date"),
+                        2));
+    }
+
+    @Test
+    public void testCreateBulkUpdateCommandWithCompositeKey() {
+        Map<String, String> columnTypes = new LinkedHashMap<>();
+        columnTypes.put("vm_id", "uuid");
+        columnTypes.put("device_id", "uuid");
+        columnTypes.put("is_plugged", "bool");
+
+        assertEquals("UPDATE vm_device AS t SET is_plugged = v.is_plugged "
+                        + "FROM (VALUES (CAST (? AS uuid), CAST (? AS uuid), CAST (? AS bool))) "
+                        + "AS v (vm_id, device_id, is_plugged) WHERE t.vm_id = v.vm_id AND t.device_id = v.device_id",
+                dialect.createBulkUpdateCommand("vm_device",
+                        Arrays.asList("vm_id", "device_id"),
+                        columnTypes,
+                        Collections.emptyList(),
+                        1));
+    }
+}
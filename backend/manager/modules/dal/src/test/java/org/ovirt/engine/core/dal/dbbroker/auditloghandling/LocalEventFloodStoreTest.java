@@ -0,0 +1,78 @@
+package org.ovirt.engine.core.dal.dbbroker.auditloghandling;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.AuditLogType;
+import org.ovirt.engine.core.compat.Guid;
+
+public class LocalEventFloodStoreTest {
+
+    private static final long TIMEOUT = 60000L;
+
+    private LocalEventFloodStore store;
+    private AuditLogable event;
+
+    @BeforeEach
+    public void setUp() {
+        store = new LocalEventFloodStore();
+        event = new AuditLogableImpl();
+        event.setVdsId(Guid.newGuid());
+    }
+
+    @Test
+    public void keysOfSameEventAreEqual() {
+        EventFloodKey key = new EventFloodKey(event, AuditLogType.VDS_FAILURE);
+        assertEquals(key, new EventFloodKey(event, AuditLogType.VDS_FAILURE));
+        assertEquals(key.hashCode(), new EventFloodKey(event, AuditLogType.VDS_FAILURE).hashCode());
+        assertNotEquals(key, new EventFloodKey(event, AuditLogType.VDS_DETECTED));
+        assertEquals(EventKeyComposer.composeObjectId(event, AuditLogType.VDS_FAILURE), key.toString());
+    }
+
+    @Test
+    public void emptyIdsAreIgnored() {
+        AuditLogable eventWithEmptyIds = new AuditLogableImpl();
+        eventWithEmptyIds.setVdsId(event.getVdsId());
+        eventWithEmptyIds.setVmId(Guid.Empty);
+        assertEquals(new EventFloodKey(event, AuditLogType.VDS_FAILURE),
+                new EventFloodKey(eventWithEmptyIds, AuditLogType.VDS_FAILURE));
+    }
+
+    @Test
+    public void repeatedEventIsSuppressed() {
+        EventFloodKey key = new EventFloodKey(event, AuditLogType.VDS_FAILURE);
+        assertTrue(store.mark(key, TIMEOUT));
+        assertFalse(store.mark(new EventFloodKey(event, AuditLogType.VDS_FAILURE), TIMEOUT));
+        assertTrue(store.mark(new EventFloodKey(event, AuditLogType.VDS_DETECTED), TIMEOUT));
+    }
+
+    @Test
+    public void evictedEventIsLogged() {
+        EventFloodKey key = new EventFloodKey(event, AuditLogType.VDS_FAILURE);
+        assertTrue(store.mark(key, TIMEOUT));
+        store.evict(key);
+        assertTrue(store.mark(key, TIMEOUT));
+    }
+
+    @Test
+    public void expiredEventIsLogged() {
+        EventFloodKey key = new EventFloodKey(event, AuditLogType.VDS_FAILURE);
+        assertTrue(store.mark(key, 0L));
+        assertTrue(store.mark(key, TIMEOUT));
+        assertFalse(store.mark(key, TIMEOUT));
+    }
+
+    @Test
+    public void expiredEventsArePurged() {
+        for (int i = 0; i < LocalEventFloodStore.PURGE_INTERVAL; i++) {
+            AuditLogable other = new AuditLogableImpl();
+            other.setVmId(Guid.newGuid());
+            store.mark(new EventFloodKey(other, AuditLogType.VDS_FAILURE), 0L);
+        }
+        assertEquals(0, store.size());
+    }
+}
@@ -0,0 +1,96 @@
+package org.ovirt.engine.core.dal.dbbroker.generic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.ovirt.engine.core.common.businessentities.VdcOption;
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.dao.VdcOptionDao;
+
+@ExtendWith(MockitoExtension.class)
+public class DBConfigUtilsTest {
+
+    private static final String VERSION = "4.2";
+
+    @Mock
+    private VdcOptionDao vdcOptionDao;
+
+    @InjectMocks
+    private DBConfigUtils configUtils;
+
+    @BeforeEach
+    public void setUp() {
+        when(vdcOptionDao.getAll()).thenReturn(Arrays.asList(
+                createOption(ConfigValues.DBPagingSyntax.name(), null, ConfigCommon.defaultConfigurationVersion),
+                createOption(ConfigValues.DBEngine.name(), "Postgres", ConfigCommon.defaultConfigurationVersion),
+                createOption(ConfigValues.PostgresPagingSyntax.name(), "OFFSET",
+                        ConfigCommon.defaultConfigurationVersion),
+                createOption(ConfigValues.vdsTimeout.name(), "180", ConfigCommon.defaultConfigurationVersion),
+                createOption(ConfigValues.ScsiReservationSupported.name(), "true", VERSION),
+                createOption("TempUpgradeFlag", "true", ConfigCommon.defaultConfigurationVersion)));
+        configUtils.refresh();
+    }
+
+    @Test
+    public void testGetValue() {
+        assertEquals(180, configUtils.<Integer> getValue(ConfigValues.vdsTimeout,
+                ConfigCommon.defaultConfigurationVersion).intValue());
+        assertTrue(configUtils.<Boolean> getValue(ConfigValues.ScsiReservationSupported, VERSION));
+    }
+
+    @Test
+    public void testGetValueOfDependentOption() {
+        assertEquals("OFFSET", configUtils.getValue(ConfigValues.DBPagingSyntax,
+                ConfigCommon.defaultConfigurationVersion));
+    }
+
+    @Test
+    public void testGetMissingValue() {
+        assertFalse(configUtils.valueExists(ConfigValues.ScsiReservationSupported,
+                ConfigCommon.defaultConfigurationVersion));
+        assertFalse(configUtils.valueExists(ConfigValues.vdsTimeout, "4.3"));
+        assertThrows(IllegalArgumentException.class,
+                () -> configUtils.getValue(ConfigValues.vdsRetries, ConfigCommon.defaultConfigurationVersion));
+        assertNull(configUtils.getValuesForAllVersions(ConfigValues.vdsRetries));
+    }
+
+    @Test
+    public void testGetValuesForAllVersions() {
+        assertEquals(Collections.singletonMap(VERSION, true),
+                configUtils.getValuesForAllVersions(ConfigValues.ScsiReservationSupported));
+    }
+
+    @Test
+    public void testRefresh() {
+        when(vdcOptionDao.getAll()).thenReturn(Collections.singletonList(
+                createOption(ConfigValues.vdsTimeout.name(), "60", ConfigCommon.defaultConfigurationVersion)));
+
+        configUtils.refresh();
+
+        assertEquals(60, configUtils.<Integer> getValue(ConfigValues.vdsTimeout,
+                ConfigCommon.defaultConfigurationVersion).intValue());
+        assertFalse(configUtils.valueExists(ConfigValues.ScsiReservationSupported, VERSION));
+    }
+
+    private static VdcOption createOption(String name, String value, String version) {
+        VdcOption option = new VdcOption();
+        option.setOptionName(name);
+        option.setOptionValue(value);
+        option.setVersion(version);
+        return option;
+    }
+}
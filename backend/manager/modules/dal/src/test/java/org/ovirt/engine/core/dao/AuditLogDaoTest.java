@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 
@@ -271,6 +272,13 @@ public class AuditLogDaoTest extends BaseDaoTestCase<AuditLogDao> {
         assertEquals(newAuditLog, result);
     }
 
+    @Test
+    public void testSaveAll() {
+        newAuditLog.setSeverity(AuditLogSeverity.NORMAL);
+        dao.saveAll(Collections.singletonList(newAuditLog));
+        assertEquals(TOTAL_COUNT + 1, dao.getAll(null, false).size());
+    }
+
     @Test
     public void testSaveExternalEvent() {
         AuditLog newExternalEvent = new AuditLog();
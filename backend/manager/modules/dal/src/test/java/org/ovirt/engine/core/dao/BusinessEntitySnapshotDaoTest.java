@@ -3,6 +3,8 @@ package org.ovirt.engine.core.dao;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -29,19 +31,37 @@ public class BusinessEntitySnapshotDaoTest extends BaseDaoTestCase<BusinessEntit
 
     @Test
     public void testInsertSnapshot() {
-        BusinessEntitySnapshot snapshot = new BusinessEntitySnapshot();
         Guid commandId = Guid.newGuid();
+        BusinessEntitySnapshot snapshot = createSnapshot(commandId, 0);
+        dao.save(snapshot);
+        List<BusinessEntitySnapshot> snapshotsFromDb = dao.getAllForCommandId(commandId);
+        assertNotNull(snapshotsFromDb);
+        assertEquals(1, snapshotsFromDb.size());
+        assertEquals(snapshot, snapshotsFromDb.get(0));
+    }
+
+    @Test
+    public void testInsertSnapshots() {
+        Guid commandId = Guid.newGuid();
+        List<BusinessEntitySnapshot> snapshots = Arrays.asList(createSnapshot(commandId, 1),
+                createSnapshot(commandId, 2),
+                createSnapshot(commandId, 3));
+        dao.saveAll(snapshots);
+        List<BusinessEntitySnapshot> snapshotsFromDb = dao.getAllForCommandId(commandId);
+        Collections.reverse(snapshotsFromDb);
+        assertEquals(snapshots, snapshotsFromDb);
+    }
+
+    private static BusinessEntitySnapshot createSnapshot(Guid commandId, int insertionOrder) {
+        BusinessEntitySnapshot snapshot = new BusinessEntitySnapshot();
         snapshot.setCommandId(commandId);
         snapshot.setCommandType("org.ovirt.engine.core.bll.UpdateVdsCommand");
         snapshot.setEntityId(Guid.newGuid().toString());
         snapshot.setEntityType("org.ovirt.engine.core.common.businessentities.VdsStatic");
         snapshot.setEntitySnapshot("something");
         snapshot.setSnapshotClass("someClass");
-        dao.save(snapshot);
-        List<BusinessEntitySnapshot> snapshotsFromDb = dao.getAllForCommandId(commandId);
-        assertNotNull(snapshotsFromDb);
-        assertEquals(1, snapshotsFromDb.size());
-        assertEquals(snapshot, snapshotsFromDb.get(0));
+        snapshot.setInsertionOrder(insertionOrder);
+        return snapshot;
     }
 
     @Test
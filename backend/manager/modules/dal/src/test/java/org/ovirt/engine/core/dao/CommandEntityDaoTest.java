@@ -9,22 +9,30 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.Serializable;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.ovirt.engine.core.common.VdcObjectType;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.businessentities.CommandAssociatedEntity;
 import org.ovirt.engine.core.common.businessentities.CommandEntity;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.compat.CommandStatus;
 import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.MockConfigDescriptor;
+import org.ovirt.engine.core.utils.MockConfigExtension;
+import org.ovirt.engine.core.utils.MockedConfig;
 
+@ExtendWith(MockConfigExtension.class)
 public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEntity, CommandEntityDao> {
 
     @Override
@@ -43,6 +51,14 @@ public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEn
         return commandEntity;
     }
 
+    public static Stream<MockConfigDescriptor<?>> mockConfiguration() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.CommandEntityPayloadCompressionEnabled, false));
+    }
+
+    public static Stream<MockConfigDescriptor<?>> mockConfigurationWithCompression() {
+        return Stream.of(MockConfigDescriptor.of(ConfigValues.CommandEntityPayloadCompressionEnabled, true));
+    }
+
     @Override
     protected void updateExistingEntity() {
         // TODO Auto-generated method stub
@@ -116,4 +132,49 @@ public class CommandEntityDaoTest extends BaseGenericDaoTestCase<Guid, CommandEn
         assertEquals(2, entities.size());
         assertThat(entities, hasItems(cocoCmdEntities.toArray(new CommandAssociatedEntity[cocoCmdEntities.size()])));
     }
+
+    @Test
+    public void testGetAllCommandAssociatedEntities() {
+        CommandEntity cmdEntity1 = generateNewEntity();
+        dao.save(cmdEntity1);
+        CommandAssociatedEntity cocoCmdEntity1 =
+                new CommandAssociatedEntity(cmdEntity1.getId(), VdcObjectType.Storage, Guid.newGuid());
+        dao.insertCommandAssociatedEntities(Collections.singleton(cocoCmdEntity1));
+
+        CommandEntity cmdEntity2 = generateNewEntity();
+        dao.save(cmdEntity2);
+        CommandAssociatedEntity cocoCmdEntity2 =
+                new CommandAssociatedEntity(cmdEntity2.getId(), VdcObjectType.Disk, Guid.newGuid());
+        dao.insertCommandAssociatedEntities(Collections.singleton(cocoCmdEntity2));
+
+        List<CommandAssociatedEntity> entities = dao.getAllCommandAssociatedEntities();
+        assertThat(entities, hasItems(cocoCmdEntity1, cocoCmdEntity2));
+    }
+
+    @Test
+    public void testUpdateStatusAndData() {
+        CommandEntity cmdEntity = generateNewEntity();
+        dao.save(cmdEntity);
+        Map<String, Serializable> data = new HashMap<>();
+        data.put("NEXT_COMMAND_TYPE", ActionType.RemoveDisk);
+
+        dao.updateStatus(cmdEntity.getId(), CommandStatus.SUCCEEDED);
+        dao.updateData(cmdEntity.getId(), data);
+
+        CommandEntity result = dao.get(cmdEntity.getId());
+        assertEquals(CommandStatus.SUCCEEDED, result.getCommandStatus());
+        assertEquals(data, result.getData());
+        assertEquals(cmdEntity.getCommandParameters().getClass(), result.getCommandParameters().getClass());
+    }
+
+    @Test
+    @MockedConfig("mockConfigurationWithCompression")
+    public void testSaveWithCompression() {
+        CommandEntity cmdEntity = generateNewEntity();
+        cmdEntity.getCommandParameters().setCorrelationId("correlation");
+        dao.save(cmdEntity);
+
+        CommandEntity result = dao.get(cmdEntity.getId());
+        assertEquals("correlation", result.getCommandParameters().getCorrelationId());
+    }
 }
@@ -1,6 +1,11 @@
 package org.ovirt.engine.core.dao;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Arrays;
+
 import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
 import org.ovirt.engine.core.common.businessentities.VdsStatistics;
 import org.ovirt.engine.core.compat.Guid;
 
@@ -37,4 +42,17 @@ public class VdsStatisticsDaoTest extends BaseGenericDaoTestCase<Guid, VdsStatis
     public void testGetAll() {
         // Not Supported
     }
+
+    @Test
+    public void testUpdateAllInBatch() {
+        VdsStatistics existingVds = dao.get(FixturesTool.VDS_RHEL6_NFS_SPM);
+        VdsStatistics existingVds2 = dao.get(FixturesTool.VDS_GLUSTER_SERVER2);
+        existingVds.setCpuSys(50.0);
+        existingVds2.setCpuUser(50.0);
+
+        dao.updateAllInBatch(Arrays.asList(existingVds, existingVds2));
+
+        assertEquals(existingVds, dao.get(existingVds.getId()));
+        assertEquals(existingVds2, dao.get(existingVds2.getId()));
+    }
 }
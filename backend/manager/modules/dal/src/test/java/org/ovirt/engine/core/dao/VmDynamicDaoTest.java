@@ -66,6 +66,17 @@ public class VmDynamicDaoTest extends BaseGenericDaoTestCase<Guid, VmDynamic, Vm
         result.forEach(vm -> assertEquals(FixturesTool.VDS_RHEL6_NFS_SPM, vm.getRunOnVds()));
     }
 
+    /**
+     * Gets all dynamic details for VMs running on several VDSs.
+     */
+    @Test
+    public void testGetAllRunningForMultipleVds() {
+        List<VmDynamic> result = dao.getAllRunningForMultipleVds(
+                Arrays.asList(FixturesTool.VDS_RHEL6_NFS_SPM, FixturesTool.GLUSTER_BRICK_SERVER1));
+        assertEquals(DYNAMIC_RUNNING_COUNT, result.size());
+        result.forEach(vm -> assertEquals(FixturesTool.VDS_RHEL6_NFS_SPM, vm.getRunOnVds()));
+    }
+
     @Test
     public void testIsAnyVmRunOnVds() {
         assertTrue(dao.isAnyVmRunOnVds(FixturesTool.VDS_RHEL6_NFS_SPM));
@@ -46,6 +46,20 @@ public class VmGuestAgentInterfaceDaoTest extends BaseDaoTestCase<VmGuestAgentIn
         assertVmGuestAgentInterfaceForVm(interfaces);
     }
 
+    @Test
+    public void getAllForVms() {
+        List<VmGuestAgentInterface> interfaces =
+                dao.getAllForVms(Arrays.asList(FixturesTool.VM_RHEL5_POOL_50, Guid.Empty), null, false);
+        assertVmGuestAgentInterfaceForVm(interfaces);
+    }
+
+    @Test
+    public void getAllForVmsForUnprivilegedUser() {
+        List<VmGuestAgentInterface> interfaces =
+                dao.getAllForVms(Arrays.asList(FixturesTool.VM_RHEL5_POOL_50), UNPRIVILEGED_USER_ID, true);
+        assertTrue(interfaces.isEmpty());
+    }
+
     @Test
     public void removeAllForVms() {
         List<VmGuestAgentInterface> interfaces = dao.getAllForVm(FixturesTool.VM_RHEL5_POOL_50);
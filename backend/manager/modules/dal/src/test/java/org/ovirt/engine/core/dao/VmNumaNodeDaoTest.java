@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -56,6 +57,24 @@ public class VmNumaNodeDaoTest extends BaseDaoTestCase<VmNumaNodeDao> {
         assertEquals(0, nodes.get(vmNumaNode2).getVdsNumaNodeList().size());
     }
 
+    @Test
+    public void testGetAllVmNumaNodeByVmIds() {
+        Map<Guid, List<VmNumaNode>> result =
+                dao.getAllVmNumaNodeByVmIds(Arrays.asList(EXISTING_VM_ID, ANOTHER_EXISTING_VM_ID));
+
+        assertNotNull(result);
+        assertEquals(1, result.size());
+
+        Map<Guid, VmNumaNode> nodes = new HashMap<>(2);
+        result.get(EXISTING_VM_ID).forEach(node -> nodes.put(node.getId(), node));
+        assertEquals(dao.getAllVmNumaNodeByVmId(EXISTING_VM_ID).size(), nodes.size());
+
+        VmNumaNode vmNumaNode1 = nodes.get(new Guid("3c2b81e6-5080-4ad1-86a1-cf513b15b517"));
+        assertEquals(2, vmNumaNode1.getVdsNumaNodeList().size());
+        assertTrue(vmNumaNode1.getVdsNumaNodeList().contains(0));
+        assertTrue(vmNumaNode1.getVdsNumaNodeList().contains(1));
+    }
+
     @Test
     public void testGetVmNumaNodeInfoByBdsGroupId() {
         Guid vdsGroupId = FixturesTool.CLUSTER;
@@ -0,0 +1,160 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dal.dbbroker.CustomMapSqlParameterSource;
+import org.ovirt.engine.core.dal.dbbroker.MapSqlParameterMapper;
+import org.ovirt.engine.core.dal.dbbroker.PostgresDbEngineDialect;
+import org.ovirt.engine.core.dal.dbbroker.SimpleJdbcCallsHandler;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+/**
+ * <p> Compares saving VM statistics with a batch of update procedure calls, as
+ * {@link SimpleJdbcCallsHandler#executeStoredProcAsBatch(String, java.util.Collection, MapSqlParameterMapper)} does,
+ * with the multi-row update of
+ * {@link SimpleJdbcCallsHandler#executeBulkUpdate(String, List, java.util.Collection, MapSqlParameterMapper)}.</p>
+ * <p> The benchmark runs against a local PostgreSQL database, set by the {@code benchmarks.db.url},
+ * {@code benchmarks.db.user} and {@code benchmarks.db.pass} properties, in which it creates a copy of the
+ * {@code vm_statistics} table and its update procedure. Every invocation updates {@code rows} rows, so the rows per
+ * second are the reported operations per second multiplied by {@code rows}.</p>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkUpdateBenchmark {
+
+    private static final String TABLE_NAME = "benchmark_vm_statistics";
+    private static final String PROCEDURE_NAME = "UpdateBenchmarkVmStatistics";
+
+    @Benchmark
+    public void procedureBatch(BenchmarkState state) {
+        state.callsHandler.executeStoredProcAsBatch(PROCEDURE_NAME, state.nextStatistics(), state.mapper);
+    }
+
+    @Benchmark
+    public void bulkUpdate(BenchmarkState state) {
+        state.callsHandler.executeBulkUpdate(TABLE_NAME,
+                Collections.singletonList("vm_guid"),
+                state.nextStatistics(),
+                state.mapper);
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkState {
+
+        @Param({ "100", "1000", "5000" })
+        private int rows;
+
+        private SingleConnectionDataSource dataSource;
+        private JdbcTemplate jdbcTemplate;
+        private SimpleJdbcCallsHandler callsHandler;
+        private MapSqlParameterMapper<VmStatistics> mapper;
+        private List<VmStatistics> statistics;
+
+        @Setup
+        public void setup() {
+            String url = System.getProperty("benchmarks.db.url", "jdbc:postgresql://localhost:5432/engine");
+            String user = System.getProperty("benchmarks.db.user", "engine");
+            String pass = System.getProperty("benchmarks.db.pass", "engine");
+
+            dataSource = new SingleConnectionDataSource(url, user, pass, true);
+            PostgresDbEngineDialect dialect = new PostgresDbEngineDialect();
+            jdbcTemplate = dialect.createJdbcTemplate(dataSource);
+            callsHandler = new SimpleJdbcCallsHandler(dialect, jdbcTemplate);
+            mapper = stats -> new CustomMapSqlParameterSource(dialect)
+                    .addValue("vm_guid", stats.getId())
+                    .addValue("cpu_sys", stats.getCpuSys())
+                    .addValue("cpu_user", stats.getCpuUser())
+                    .addValue("elapsed_time", stats.getElapsedTime())
+                    .addValue("usage_cpu_percent", stats.getUsageCpuPercent())
+                    .addValue("usage_mem_percent", stats.getUsageMemPercent())
+                    .addValue("usage_network_percent", stats.getUsageNetworkPercent())
+                    .addValue("disks_usage", stats.getDisksUsage())
+                    .addValue("guest_mem_buffered", stats.getGuestMemoryBuffered())
+                    .addValue("guest_mem_cached", stats.getGuestMemoryCached());
+
+            dropSchema();
+            jdbcTemplate.execute("CREATE TABLE " + TABLE_NAME + " ("
+                    + "vm_guid UUID PRIMARY KEY, "
+                    + "cpu_sys DECIMAL(18, 0), "
+                    + "cpu_user DECIMAL(18, 0), "
+                    + "elapsed_time DECIMAL(18, 0), "
+                    + "usage_cpu_percent INT, "
+                    + "usage_mem_percent INT, "
+                    + "usage_network_percent INT, "
+                    + "disks_usage TEXT, "
+                    + "guest_mem_buffered BIGINT, "
+                    + "guest_mem_cached BIGINT, "
+                    + "_update_date TIMESTAMP WITH TIME ZONE)");
+            jdbcTemplate.execute("CREATE FUNCTION " + PROCEDURE_NAME + " ("
+                    + "v_cpu_sys DECIMAL(18, 0), v_cpu_user DECIMAL(18, 0), v_elapsed_time DECIMAL(18, 0), "
+                    + "v_usage_cpu_percent INT, v_usage_mem_percent INT, v_usage_network_percent INT, "
+                    + "v_disks_usage TEXT, v_vm_guid UUID, v_guest_mem_buffered BIGINT, v_guest_mem_cached BIGINT) "
+                    + "RETURNS VOID AS $PROCEDURE$ BEGIN "
+                    + "UPDATE " + TABLE_NAME + " SET cpu_sys = v_cpu_sys, cpu_user = v_cpu_user, "
+                    + "elapsed_time = v_elapsed_time, usage_cpu_percent = v_usage_cpu_percent, "
+                    + "usage_mem_percent = v_usage_mem_percent, usage_network_percent = v_usage_network_percent, "
+                    + "disks_usage = v_disks_usage, guest_mem_buffered = v_guest_mem_buffered, "
+                    + "guest_mem_cached = v_guest_mem_cached, _update_date = LOCALTIMESTAMP "
+                    + "WHERE vm_guid = v_vm_guid; "
+                    + "END; $PROCEDURE$ LANGUAGE plpgsql");
+
+            statistics = new ArrayList<>(rows);
+            for (int i = 0; i < rows; i++) {
+                VmStatistics stats = new VmStatistics(Guid.newGuid());
+                statistics.add(stats);
+                jdbcTemplate.update("INSERT INTO " + TABLE_NAME + " (vm_guid) VALUES (?)", stats.getId().getUuid());
+            }
+            statistics.sort(null);
+        }
+
+        @TearDown
+        public void teardown() {
+            dropSchema();
+            dataSource.destroy();
+        }
+
+        private void dropSchema() {
+            jdbcTemplate.execute("DROP FUNCTION IF EXISTS " + PROCEDURE_NAME
+                    + " (DECIMAL, DECIMAL, DECIMAL, INT, INT, INT, TEXT, UUID, BIGINT, BIGINT)");
+            jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE_NAME);
+        }
+
+        /**
+         * @return the statistics of all the VMs, changed the way the monitoring changes them between two saves
+         */
+        private List<VmStatistics> nextStatistics() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (VmStatistics stats : statistics) {
+                stats.setCpuSys((double) random.nextInt(100));
+                stats.setCpuUser((double) random.nextInt(100));
+                stats.setElapsedTime(stats.getElapsedTime() + 15);
+                stats.setUsageCpuPercent(random.nextInt(100));
+                stats.setUsageMemPercent(random.nextInt(100));
+                stats.setUsageNetworkPercent(random.nextInt(100));
+                stats.setGuestMemoryBuffered(random.nextLong(1L << 30));
+                stats.setGuestMemoryCached(random.nextLong(1L << 30));
+            }
+            return statistics;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.action.AddVmPoolParameters;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.businessentities.VmPool;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.utils.serialization.json.CompressedJson;
+
+/**
+ * <p> Measures the cost of writing and reading back the parameters of an {@code AddVmPool} command the way the
+ * command entities persist them, as plain JSON and as compressed JSON. The compressed payload of these parameters
+ * is less than half the size of the plain one, which is what the time spent compressing it buys.</p>
+ *
+ * @see CompressedJson
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CommandEntityPayloadBenchmark {
+
+    @Benchmark
+    public void serialize(BenchmarkState state, Blackhole blackhole) {
+        String json = SerializationFactory.getSerializer().serialize(state.parameters);
+        blackhole.consume(state.compressed ? CompressedJson.compress(json) : json);
+    }
+
+    @Benchmark
+    public void deserialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getDeserializer().deserialize(
+                CompressedJson.decompress(state.payload),
+                AddVmPoolParameters.class));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "plain", "compressed" })
+        private String encoding;
+
+        private boolean compressed;
+        private AddVmPoolParameters parameters;
+        private String payload;
+
+        @Setup
+        public void setup() {
+            VM vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setName("pool-vm");
+            vm.setClusterId(Guid.newGuid());
+            vm.setVmtGuid(Guid.newGuid());
+            vm.setVmDescription("a VM of a pool");
+            VmPool vmPool = new VmPool();
+            vmPool.setVmPoolId(Guid.newGuid());
+            vmPool.setName("pool");
+            parameters = new AddVmPoolParameters(vmPool, vm, 100);
+            parameters.setCorrelationId(Guid.newGuid().toString());
+
+            compressed = "compressed".equals(encoding);
+            String json = SerializationFactory.getSerializer().serialize(parameters);
+            payload = compressed ? CompressedJson.compress(json) : json;
+        }
+    }
+}
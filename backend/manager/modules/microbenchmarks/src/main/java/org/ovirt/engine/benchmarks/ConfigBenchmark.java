@@ -0,0 +1,167 @@
+package org.ovirt.engine.benchmarks;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.businessentities.VdcOption;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigCommon;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
+import org.ovirt.engine.core.common.config.OptionBehaviourAttribute;
+import org.ovirt.engine.core.dal.dbbroker.generic.DBConfigUtils;
+import org.ovirt.engine.core.dao.VdcOptionDao;
+
+/**
+ * <p> Measures the throughput of {@link Config#getValue} by reading every option that has a value once per
+ * operation, for the default version and for a cluster version, under 1 and 8 threads.</p>
+ * <p> The {@code nested} mode looks the values up in a map of the option names to maps of the versions to values,
+ * the way {@link DBConfigUtils} kept them before, while the {@code snapshot} mode goes through {@link DBConfigUtils},
+ * which indexes them by the ordinal of the option and the index of the version.</p>
+ *
+ * @see DBConfigUtils
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConfigBenchmark {
+
+    private static final String[] CLUSTER_VERSIONS = { "4.2", "4.3", "4.4", "4.5", "4.6" };
+
+    @Benchmark
+    @Threads(1)
+    public void getValue1Thread(BenchmarkState state, Blackhole blackhole) {
+        getValues(state.configValues, ConfigCommon.defaultConfigurationVersion, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void getValue8Threads(BenchmarkState state, Blackhole blackhole) {
+        getValues(state.configValues, ConfigCommon.defaultConfigurationVersion, blackhole);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void getVersionedValue1Thread(BenchmarkState state, Blackhole blackhole) {
+        getValues(state.versionedConfigValues, CLUSTER_VERSIONS[0], blackhole);
+    }
+
+    private static void getValues(ConfigValues[] configValues, String version, Blackhole blackhole) {
+        for (ConfigValues configValue : configValues) {
+            blackhole.consume((Object) Config.getValue(configValue, version));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "nested", "snapshot" })
+        private String lookupMode;
+
+        private ConfigValues[] configValues;
+        private ConfigValues[] versionedConfigValues;
+
+        @Setup
+        public void setup() throws Exception {
+            List<ConfigValues> values = new ArrayList<>();
+            List<ConfigValues> versionedValues = new ArrayList<>();
+            List<VdcOption> options = new ArrayList<>();
+            for (ConfigValues configValue : ConfigValues.values()) {
+                // the options that are parsed by their behaviour need real values
+                if (ConfigValues.class.getField(configValue.name())
+                        .isAnnotationPresent(OptionBehaviourAttribute.class)) {
+                    continue;
+                }
+                values.add(configValue);
+                options.add(createOption(configValue, ConfigCommon.defaultConfigurationVersion));
+                // about one option out of ten depends on the cluster version
+                if (values.size() % 10 == 0) {
+                    versionedValues.add(configValue);
+                    for (String version : CLUSTER_VERSIONS) {
+                        options.add(createOption(configValue, version));
+                    }
+                }
+            }
+            configValues = values.toArray(new ConfigValues[0]);
+            versionedConfigValues = versionedValues.toArray(new ConfigValues[0]);
+
+            IConfigUtilsInterface configUtils;
+            if ("nested".equals(lookupMode)) {
+                configUtils = new NestedMapConfigUtils(options);
+            } else {
+                DBConfigUtils dbConfigUtils = new DBConfigUtils();
+                // the dao is injected by the engine, which needs the database
+                Field vdcOptionDao = DBConfigUtils.class.getDeclaredField("vdcOptionDao");
+                vdcOptionDao.setAccessible(true);
+                vdcOptionDao.set(dbConfigUtils, Proxy.newProxyInstance(VdcOptionDao.class.getClassLoader(),
+                        new Class<?>[] { VdcOptionDao.class },
+                        (proxy, method, args) -> "getAll".equals(method.getName()) ? options : null));
+                dbConfigUtils.refresh();
+                configUtils = dbConfigUtils;
+            }
+            Config.setConfigUtils(configUtils);
+        }
+
+        private static VdcOption createOption(ConfigValues configValue, String version) {
+            VdcOption option = new VdcOption();
+            option.setOptionName(configValue.name());
+            option.setVersion(version);
+            return option;
+        }
+    }
+
+    private static class NestedMapConfigUtils implements IConfigUtilsInterface {
+        private final Map<String, Map<String, Object>> values = new HashMap<>();
+
+        NestedMapConfigUtils(List<VdcOption> options) {
+            for (VdcOption option : options) {
+                values.computeIfAbsent(option.getOptionName(), name -> new HashMap<>())
+                        .put(option.getVersion(), option.getOptionValue());
+            }
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T getValue(ConfigValues configValue, String version) {
+            Map<String, T> optionValues = getValuesForAllVersions(configValue);
+            if (valueExists(configValue, version)) {
+                return optionValues.get(version);
+            }
+            throw new IllegalArgumentException(configValue.toString() + " has no value for version: " + version);
+        }
+
+        @Override
+        public void refresh() {
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> Map<String, T> getValuesForAllVersions(ConfigValues configValue) {
+            return (Map<String, T>) values.get(configValue.toString());
+        }
+
+        @Override
+        public boolean valueExists(ConfigValues configValue, String version) {
+            Map<String, Object> optionValues = getValuesForAllVersions(configValue);
+            return optionValues != null && optionValues.containsKey(version);
+        }
+    }
+}
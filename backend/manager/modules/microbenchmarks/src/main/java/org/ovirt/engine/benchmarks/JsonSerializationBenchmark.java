@@ -0,0 +1,83 @@
+package org.ovirt.engine.benchmarks;
+
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.common.action.AddVmTemplateParameters;
+import org.ovirt.engine.core.common.action.RunVmParams;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.SerializationFactory;
+import org.ovirt.engine.core.utils.serialization.json.JsonObjectDeserializer;
+import org.ovirt.engine.core.utils.serialization.json.JsonObjectSerializer;
+
+/**
+ * <p> Measures the cost of writing and reading back a {@link VM} and the parameters of the {@code RunVm} and
+ * {@code AddVmTemplate} commands with the JSON serializer and deserializer that the engine persists them with.</p>
+ *
+ * @see JsonObjectSerializer
+ * @see JsonObjectDeserializer
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JsonSerializationBenchmark {
+
+    @Benchmark
+    public void serialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getSerializer().serialize(state.value));
+    }
+
+    @Benchmark
+    public void deserialize(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(SerializationFactory.getDeserializer().deserialize(state.json, state.value.getClass()));
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "VM", "RunVmParams", "AddVmTemplateParameters" })
+        private String type;
+
+        private Serializable value;
+        private String json;
+
+        @Setup
+        public void setup() {
+            VM vm = new VM();
+            vm.setId(Guid.newGuid());
+            vm.setName("vm");
+            vm.setClusterId(Guid.newGuid());
+            vm.setVmtGuid(Guid.newGuid());
+            vm.setVmDescription("a VM");
+            switch (type) {
+            case "VM":
+                value = vm;
+                break;
+            case "RunVmParams":
+                RunVmParams runVmParams = new RunVmParams(vm.getId());
+                runVmParams.setCorrelationId(Guid.newGuid().toString());
+                value = runVmParams;
+                break;
+            default:
+                AddVmTemplateParameters addVmTemplateParameters =
+                        new AddVmTemplateParameters(vm, "template", "a template of a VM");
+                addVmTemplateParameters.setCorrelationId(Guid.newGuid().toString());
+                value = addVmTemplateParameters;
+            }
+            json = SerializationFactory.getSerializer().serialize(value);
+        }
+    }
+}
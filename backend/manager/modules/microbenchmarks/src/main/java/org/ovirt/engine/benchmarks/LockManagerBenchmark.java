@@ -0,0 +1,97 @@
+package org.ovirt.engine.benchmarks;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.lock.InMemoryLockManager;
+import org.ovirt.engine.core.bll.lock.StripedInMemoryLockManager;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.utils.lock.EngineLock;
+import org.ovirt.engine.core.utils.lock.LockManager;
+
+/**
+ * <p> Compares the throughput of the global lock based {@link InMemoryLockManager} with the
+ * {@link StripedInMemoryLockManager} under 1, 8 and 64 threads.</p>
+ * <p> Every invocation acquires and releases an exclusive lock on a random key out of {@code keys}
+ * keys, together with a shared lock on a random key out of a smaller set, which mimics a command
+ * locking a VM exclusively and its cluster in shared mode.</p>
+ *
+ * @see InMemoryLockManager
+ * @see StripedInMemoryLockManager
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LockManagerBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public void acquireRelease1Thread(BenchmarkState state, Blackhole blackhole) {
+        acquireRelease(state, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void acquireRelease8Threads(BenchmarkState state, Blackhole blackhole) {
+        acquireRelease(state, blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void acquireRelease64Threads(BenchmarkState state, Blackhole blackhole) {
+        acquireRelease(state, blackhole);
+    }
+
+    private static void acquireRelease(BenchmarkState state, Blackhole blackhole) {
+        EngineLock lock = state.locks[ThreadLocalRandom.current().nextInt(state.locks.length)];
+        boolean acquired = state.lockManager.acquireLock(lock).isAcquired();
+        if (acquired) {
+            state.lockManager.releaseLock(lock);
+        }
+        blackhole.consume(acquired);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "InMemoryLockManager", "StripedInMemoryLockManager" })
+        private String implementation;
+
+        @Param({ "10000" })
+        private int keys;
+
+        private LockManager lockManager;
+        private EngineLock[] locks;
+
+        @Setup
+        public void setup() {
+            lockManager = "InMemoryLockManager".equals(implementation)
+                    ? new InMemoryLockManager()
+                    : new StripedInMemoryLockManager();
+            locks = new EngineLock[keys];
+            int sharedKeys = Math.max(1, keys / 100);
+            for (int i = 0; i < keys; i++) {
+                Map<String, Pair<String, String>> exclusive = new HashMap<>();
+                exclusive.put("vm-" + i, new Pair<>("VM", "ACTION_TYPE_FAILED_VM_IS_LOCKED"));
+                Map<String, Pair<String, String>> shared = new HashMap<>();
+                shared.put("cluster-" + i % sharedKeys, new Pair<>("CLUSTER", "ACTION_TYPE_FAILED_OBJECT_LOCKED"));
+                locks[i] = new EngineLock(exclusive, shared);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package org.ovirt.engine.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.apache.commons.lang.math.LongRange;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.network.macpool.MacPool;
+import org.ovirt.engine.core.bll.network.macpool.MacPoolUsingRanges;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.utils.lock.LockedObjectFactory;
+
+/**
+ * <p> Measures the throughput of allocating {@code macsPerAllocation} MACs and freeing them back to a single MAC
+ * pool under 1, 8 and 64 threads.</p>
+ * <p> The {@code exclusive} lock mode serializes every call on the pool, the way all the changes of a pool were
+ * serialized before the pool became thread safe, while the {@code shared} mode goes through the locking proxy the
+ * engine uses, which lets the calls run concurrently.</p>
+ *
+ * @see MacPoolUsingRanges
+ */
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MacPoolBenchmark {
+
+    @Benchmark
+    @Threads(1)
+    public void allocateFree1Thread(BenchmarkState state, Blackhole blackhole) {
+        allocateFree(state, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void allocateFree8Threads(BenchmarkState state, Blackhole blackhole) {
+        allocateFree(state, blackhole);
+    }
+
+    @Benchmark
+    @Threads(64)
+    public void allocateFree64Threads(BenchmarkState state, Blackhole blackhole) {
+        allocateFree(state, blackhole);
+    }
+
+    private static void allocateFree(BenchmarkState state, Blackhole blackhole) {
+        if (state.exclusive) {
+            synchronized (state.macPool) {
+                allocateFree(state.macPool, state.macsPerAllocation, blackhole);
+            }
+        } else {
+            allocateFree(state.macPool, state.macsPerAllocation, blackhole);
+        }
+    }
+
+    private static void allocateFree(MacPool macPool, int macsPerAllocation, Blackhole blackhole) {
+        List<String> macs = macPool.allocateMacAddresses(macsPerAllocation);
+        macPool.freeMacs(macs);
+        blackhole.consume(macs);
+    }
+
+    @State(Scope.Benchmark)
+    public static class BenchmarkState {
+
+        @Param({ "exclusive", "shared" })
+        private String lockMode;
+
+        @Param({ "1", "100" })
+        private int macsPerAllocation;
+
+        @Param({ "65536" })
+        private int macsInPool;
+
+        private boolean exclusive;
+        private MacPool macPool;
+
+        @Setup
+        public void setup() throws Exception {
+            MacPoolUsingRanges macPoolUsingRanges = new MacPoolUsingRanges(Guid.newGuid(),
+                    Collections.singletonList(new LongRange(0x001a4a160000L, 0x001a4a160000L + macsInPool - 1)),
+                    false,
+                    null);
+            // the pool is initialized by its factory, which needs the engine running
+            Method initialize = MacPoolUsingRanges.class.getDeclaredMethod("initialize", boolean.class, List.class);
+            initialize.setAccessible(true);
+            initialize.invoke(macPoolUsingRanges, false, Collections.emptyList());
+
+            exclusive = "exclusive".equals(lockMode);
+            macPool = new LockedObjectFactory().createLockingInstance(macPoolUsingRanges,
+                    MacPool.class,
+                    new ReentrantReadWriteLock());
+        }
+    }
+}
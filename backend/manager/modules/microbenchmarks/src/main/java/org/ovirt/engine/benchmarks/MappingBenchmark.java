@@ -0,0 +1,114 @@
+package org.ovirt.engine.benchmarks;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.restapi.types.Mapper;
+import org.ovirt.engine.api.restapi.types.MappingLocator;
+import org.ovirt.engine.api.restapi.types.VmMapper;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
+import org.ovirt.engine.core.common.osinfo.OsRepository;
+import org.ovirt.engine.core.common.utils.SimpleDependencyInjector;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * <p> Compares mapping {@code 10000} backend {@link VM} entities to REST {@link Vm} models by invoking the mapping
+ * method by reflection, the way the {@link MappingLocator} used to do it, with the mappers that the
+ * {@link MappingLocator} generates now, including the lookup of the mapper for every entity.</p>
+ * <p> The configuration and the operating systems repository used by the mapping are replaced by stubs that return
+ * empty values.</p>
+ *
+ * @see MappingLocator
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MappingBenchmark {
+
+    private static final int VM_COUNT = 10000;
+
+    @Benchmark
+    public void reflectiveMapping(BenchmarkState state, Blackhole blackhole) throws Exception {
+        for (VM vm : state.vms) {
+            blackhole.consume(state.mappingMethod.invoke(null, vm, null));
+        }
+    }
+
+    @Benchmark
+    public void generatedMapping(BenchmarkState state, Blackhole blackhole) {
+        for (VM vm : state.vms) {
+            Mapper<VM, Vm> mapper = state.mappingLocator.getMapper(VM.class, Vm.class);
+            blackhole.consume(mapper.map(vm, null));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkState {
+
+        private MappingLocator mappingLocator;
+        private Method mappingMethod;
+        private List<VM> vms;
+
+        @Setup
+        public void setup() throws Exception {
+            Config.setConfigUtils(stub(IConfigUtilsInterface.class));
+            SimpleDependencyInjector.getInstance().bind(OsRepository.class, stub(OsRepository.class));
+
+            mappingLocator = new MappingLocator();
+            mappingLocator.populate();
+            mappingMethod = VmMapper.class.getMethod("map", VM.class, Vm.class);
+
+            vms = new ArrayList<>(VM_COUNT);
+            for (int i = 0; i < VM_COUNT; i++) {
+                VM vm = new VM();
+                vm.setId(Guid.newGuid());
+                vm.setName("vm" + i);
+                vm.setClusterId(Guid.newGuid());
+                vm.setVmtGuid(Guid.Empty);
+                vms.add(vm);
+            }
+        }
+
+        /**
+         * @return an implementation of the given interface whose methods do nothing but return empty values
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T stub(Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                Class<?> returnType = method.getReturnType();
+                if (returnType == Map.class) {
+                    return Collections.emptyMap();
+                }
+                if (returnType == List.class) {
+                    return Collections.emptyList();
+                }
+                if (returnType == boolean.class) {
+                    return false;
+                }
+                if (returnType == int.class) {
+                    return 0;
+                }
+                return null;
+            });
+        }
+    }
+}
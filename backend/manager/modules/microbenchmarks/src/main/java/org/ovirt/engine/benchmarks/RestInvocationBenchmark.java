@@ -24,6 +24,11 @@ import org.ovirt.engine.sdk4.types.LogSeverity;
 @OutputTimeUnit(TimeUnit.SECONDS)
 public class RestInvocationBenchmark {
 
+    /**
+     * The sub-collections of every VM, which are listed for the whole page of VMs with one query per link.
+     */
+    private static final String FOLLOWED_VM_LINKS = "disk_attachments,nics";
+
     private static AtomicInteger id = new AtomicInteger();
 
     @Benchmark
@@ -31,6 +36,11 @@ public class RestInvocationBenchmark {
         blackhole.consume(state.systemService.vmsService().list().send());
     }
 
+    @Benchmark
+    public void getVmsFollowingLinks(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.systemService.vmsService().list().query("follow", FOLLOWED_VM_LINKS).send());
+    }
+
     @Benchmark
     public void getHosts(BenchmarkState state, Blackhole blackhole) {
         blackhole.consume(state.systemService.hostsService().list().send());
@@ -0,0 +1,222 @@
+package org.ovirt.engine.benchmarks;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.ovirt.engine.core.bll.VmHandler;
+import org.ovirt.engine.core.bll.network.host.VfScheduler;
+import org.ovirt.engine.core.bll.scheduling.InternalPolicyUnits;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitImpl;
+import org.ovirt.engine.core.bll.scheduling.PolicyUnitStatistics;
+import org.ovirt.engine.core.bll.scheduling.SchedulingManager;
+import org.ovirt.engine.core.bll.scheduling.pending.PendingResourceManager;
+import org.ovirt.engine.core.bll.scheduling.policyunits.EvenDistributionCPUWeightPolicyUnit;
+import org.ovirt.engine.core.bll.scheduling.policyunits.RankSelectorPolicyUnit;
+import org.ovirt.engine.core.common.businessentities.Cluster;
+import org.ovirt.engine.core.common.businessentities.VDS;
+import org.ovirt.engine.core.common.businessentities.VM;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.common.config.IConfigUtilsInterface;
+import org.ovirt.engine.core.common.scheduling.ClusterPolicy;
+import org.ovirt.engine.core.common.scheduling.VmOverheadCalculator;
+import org.ovirt.engine.core.common.utils.Pair;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.dao.VdsDao;
+import org.ovirt.engine.core.dao.VdsNumaNodeDao;
+import org.ovirt.engine.core.dao.VmNumaNodeDao;
+import org.ovirt.engine.core.vdsbroker.ResourceManager;
+
+/**
+ * <p> Compares placing {@code vmCount} VMs on {@code hostCount} hosts by a call of
+ * {@link SchedulingManager.CallBuilder#schedule(VM)} per VM, the way a pool of VMs started by separate commands is
+ * placed, with placing them by a single call of {@link SchedulingManager.CallBuilder#schedule(List)}.</p>
+ * <p> Both run the real {@link SchedulingManager} with a real {@link PendingResourceManager}. The cluster policy only
+ * weighs the hosts by their CPU load, so the pending resources of the placed VMs spread the following VMs over the
+ * hosts. The DAOs are replaced by stubs that park for {@code roundTripMicros} microseconds on every call to simulate
+ * the database round trips, the other dependencies by stubs that return empty values.</p>
+ *
+ * @see SchedulingManager
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SchedulingBatchBenchmark {
+
+    @Benchmark
+    public void scheduleOneByOne(BenchmarkState state, Blackhole blackhole) {
+        for (VM vm : state.vms) {
+            blackhole.consume(state.schedulingManager.prepareCall(state.cluster).schedule(vm));
+        }
+    }
+
+    @Benchmark
+    public void scheduleBatch(BenchmarkState state, Blackhole blackhole) {
+        blackhole.consume(state.schedulingManager.prepareCall(state.cluster).schedule(state.vms));
+    }
+
+    @State(Scope.Thread)
+    public static class BenchmarkState {
+
+        @Param({ "10", "100" })
+        private int hostCount;
+
+        @Param({ "50", "500" })
+        private int vmCount;
+
+        @Param({ "200" })
+        private long roundTripMicros;
+
+        private SchedulingManager schedulingManager;
+        private PendingResourceManager pendingResourceManager;
+        private Cluster cluster;
+        private List<VDS> hosts;
+        private List<VM> vms;
+
+        @Setup
+        public void setup() throws Exception {
+            Map<ConfigValues, Object> configValues = new EnumMap<>(ConfigValues.class);
+            configValues.put(ConfigValues.VcpuConsumptionPercentage, 10);
+            configValues.put(ConfigValues.SpmVCpuConsumption, 1);
+            configValues.put(ConfigValues.MaxSchedulerWeight, 1000);
+            configValues.put(ConfigValues.SpeedOptimizationSchedulingThreshold, 10);
+            configValues.put(ConfigValues.ExternalSchedulerEnabled, false);
+            configValues.put(ConfigValues.EventProcessingPoolSize, 10);
+            configValues.put(ConfigValues.EventPurgeTimeoutInHours, 3);
+            Config.setConfigUtils((IConfigUtilsInterface) Proxy.newProxyInstance(
+                    IConfigUtilsInterface.class.getClassLoader(),
+                    new Class<?>[] { IConfigUtilsInterface.class },
+                    (proxy, method, args) -> "getValue".equals(method.getName()) ? configValues.get(args[0]) : null));
+
+            pendingResourceManager = new PendingResourceManager();
+            PolicyUnitImpl weightUnit = InternalPolicyUnits.instantiate(EvenDistributionCPUWeightPolicyUnit.class,
+                    pendingResourceManager);
+            PolicyUnitImpl selectorUnit = InternalPolicyUnits.instantiate(RankSelectorPolicyUnit.class,
+                    pendingResourceManager);
+
+            ClusterPolicy policy = new ClusterPolicy();
+            policy.setId(Guid.newGuid());
+            policy.setFunctions(Collections.singletonList(new Pair<>(weightUnit.getPolicyUnit().getId(), 1)));
+
+            cluster = new Cluster();
+            cluster.setId(Guid.newGuid());
+            cluster.setName("cluster");
+            cluster.setClusterPolicyId(policy.getId());
+
+            hosts = new ArrayList<>(hostCount);
+            for (int i = 0; i < hostCount; i++) {
+                VDS host = new VDS();
+                host.setId(Guid.newGuid());
+                host.setVdsName("host" + i);
+                host.setClusterId(cluster.getId());
+                host.setCpuCores(16);
+                host.setUsageCpuPercent(0);
+                hosts.add(host);
+            }
+
+            vms = new ArrayList<>(vmCount);
+            for (int i = 0; i < vmCount; i++) {
+                VM vm = new VM();
+                vm.setId(Guid.newGuid());
+                vm.setClusterId(cluster.getId());
+                vm.setNumOfSockets(1);
+                vm.setCpuPerSocket(2);
+                vm.setThreadsPerCpu(1);
+                vm.setVmMemSizeMb(1024);
+                vms.add(vm);
+            }
+
+            // the dependencies are injected by the engine, which needs the database
+            VmHandler vmHandler = new VmHandler();
+            inject(vmHandler, "resourceManager", new ResourceManager());
+
+            Constructor<SchedulingManager> constructor = SchedulingManager.class.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            schedulingManager = constructor.newInstance();
+            inject(schedulingManager, "pendingResourceManager", pendingResourceManager);
+            inject(schedulingManager, "vmHandler", vmHandler);
+            inject(schedulingManager, "policyUnitStatistics", new PolicyUnitStatistics());
+            inject(schedulingManager, "vmOverheadCalculator", stub(VmOverheadCalculator.class));
+            inject(schedulingManager, "vfScheduler", stub(VfScheduler.class));
+            inject(schedulingManager, "vdsDao", dao(VdsDao.class, () -> new ArrayList<>(hosts)));
+            inject(schedulingManager, "vmNumaNodeDao", dao(VmNumaNodeDao.class, Collections::emptyMap));
+            inject(schedulingManager, "vdsNumaNodeDao", dao(VdsNumaNodeDao.class, ArrayList::new));
+            Map<Guid, ClusterPolicy> policyMap = get(schedulingManager, "policyMap");
+            policyMap.put(policy.getId(), policy);
+            Map<Guid, PolicyUnitImpl> policyUnits = get(schedulingManager, "policyUnits");
+            policyUnits.put(weightUnit.getPolicyUnit().getId(), weightUnit);
+            policyUnits.put(selectorUnit.getPolicyUnit().getId(), selectorUnit);
+        }
+
+        /**
+         * Releases the resources of the VMs placed by the previous call, so every call starts with idle hosts.
+         */
+        @Setup(Level.Invocation)
+        public void clearPendingResources() {
+            vms.forEach(pendingResourceManager::clearVm);
+        }
+
+        /**
+         * @return a DAO whose every call parks for a round trip and then returns the value of the given supplier
+         */
+        @SuppressWarnings("unchecked")
+        private <T> T dao(Class<T> type, Supplier<Object> result) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(roundTripMicros));
+                return result.get();
+            });
+        }
+
+        /**
+         * @return an implementation of the given interface whose methods do nothing but return empty values
+         */
+        @SuppressWarnings("unchecked")
+        private static <T> T stub(Class<T> type) {
+            return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (proxy, method, args) -> {
+                Class<?> returnType = method.getReturnType();
+                if (returnType == Map.class) {
+                    return Collections.emptyMap();
+                }
+                if (returnType == int.class) {
+                    return 0;
+                }
+                return null;
+            });
+        }
+
+        private static void inject(Object target, String fieldName, Object value) throws Exception {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static <T> T get(Object target, String fieldName) throws Exception {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return (T) field.get(target);
+        }
+    }
+}
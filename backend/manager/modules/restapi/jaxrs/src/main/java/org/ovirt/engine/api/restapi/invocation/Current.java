@@ -8,6 +8,9 @@ package org.ovirt.engine.api.restapi.invocation;
 import java.util.HashMap;
 import java.util.Map;
 
+import javax.servlet.http.HttpServletResponse;
+
+import org.ovirt.engine.api.model.BaseResources;
 import org.ovirt.engine.core.common.businessentities.aaa.DbUser;
 import org.ovirt.engine.core.common.interfaces.BackendLocal;
 import org.ovirt.engine.core.common.mode.ApplicationMode;
@@ -69,6 +72,31 @@ public class Current {
      */
     private BackendLocal backend;
 
+    /**
+     * The HTTP response of the current request, used to add headers that depend on the result of the request.
+     */
+    private HttpServletResponse response;
+
+    /**
+     * Indicates if the response should be indented, so that it is easier to read for humans. It is disabled by default
+     * because it makes large responses much larger.
+     */
+    private boolean pretty;
+
+    /**
+     * Indicates if the response is written by the providers of the application, which write the items of collections
+     * one at a time, so that resources can let them map the items while the response is written. It is disabled when
+     * the resources are used directly.
+     */
+    private boolean streaming;
+
+    /**
+     * The collection returned by the current request, when its items are mapped while the response is written instead
+     * of in advance, and the items that will be written into it.
+     */
+    private BaseResources lazyCollection;
+    private Iterable<?> lazyItems;
+
     /**
      * Returns the request version of the API.
      */
@@ -227,4 +255,50 @@ public class Current {
     public BackendLocal getBackend() {
         return backend;
     }
+
+    public HttpServletResponse getResponse() {
+        return response;
+    }
+
+    public void setResponse(HttpServletResponse response) {
+        this.response = response;
+    }
+
+    /**
+     * Returns {@code true} if the response should be indented.
+     */
+    public boolean isPretty() {
+        return pretty;
+    }
+
+    public void setPretty(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    /**
+     * Returns {@code true} if the items of collections can be mapped while the response is written.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public void setStreaming(boolean streaming) {
+        this.streaming = streaming;
+    }
+
+    /**
+     * Registers the items of the collection returned by the current request, so that they are created one at a time
+     * while the response is written. The collection itself should be returned without items.
+     */
+    public void setLazyItems(BaseResources collection, Iterable<?> items) {
+        lazyCollection = collection;
+        lazyItems = items;
+    }
+
+    /**
+     * Returns the items registered for the given collection, or {@code null} if its items are already populated.
+     */
+    public Iterable<?> getLazyItems(BaseResources collection) {
+        return collection == lazyCollection ? lazyItems : null;
+    }
 }
@@ -38,6 +38,7 @@ public class CurrentFilter implements Filter {
 
     private static final String CORRELATION_ID_HEADER = "Correlation-Id";
     private static final String CORRELATION_ID_PARAM = "correlation_id";
+    private static final String PRETTY_PARAM = "pretty";
     private static final Pattern INVALID_CORRELATION_ID_CHARACTERS_RE = Pattern.compile("[^0-9a-zA-Z_-]+");
 
     /**
@@ -82,6 +83,15 @@ public class CurrentFilter implements Filter {
         return correlationId;
     }
 
+    /**
+     * Checks if the {@code pretty} parameter asks for an indented response, for example {@code ?pretty} or
+     * {@code ?pretty=true}.
+     */
+    private static boolean isPretty(HttpServletRequest request) {
+        String pretty = request.getParameter(PRETTY_PARAM);
+        return pretty != null && !Boolean.FALSE.toString().equalsIgnoreCase(pretty);
+    }
+
     private void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws IOException, ServletException {
         String sessionId = (String) request.getAttribute(SessionConstants.HTTP_SESSION_ENGINE_SESSION_ID_KEY);
@@ -97,6 +107,9 @@ public class CurrentFilter implements Filter {
         current.setPrefix(getPrefix(request));
         current.setPath(getPath(request));
         current.setBackend(backend);
+        current.setResponse(response);
+        current.setPretty(isPretty(request));
+        current.setStreaming(true);
         String correlationId = getCorrelationId(request);
         current.getParameters().put(CORRELATION_ID_PARAM, correlationId);
         response.setHeader(CORRELATION_ID_HEADER, correlationId);
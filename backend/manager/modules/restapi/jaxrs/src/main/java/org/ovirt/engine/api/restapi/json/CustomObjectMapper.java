@@ -14,10 +14,14 @@ import org.codehaus.jackson.xc.JaxbAnnotationIntrospector;
 
 public class CustomObjectMapper extends ObjectMapper {
     public static CustomObjectMapper get() {
+        return get(false);
+    }
+
+    public static CustomObjectMapper get(boolean indent) {
         CustomObjectMapper mapper = new CustomObjectMapper();
         mapper.setSerializer(new CustomBeanFactory())
                 .includeDefaults(false)
-                .indent(true)
+                .indent(indent)
                 .addSerializationConfig();
         return mapper;
     }
@@ -5,12 +5,33 @@
 
 package org.ovirt.engine.api.restapi.json;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
 import javax.ws.rs.ext.Provider;
+import javax.xml.bind.annotation.XmlElement;
 
+import org.codehaus.jackson.JsonEncoding;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonNode;
 import org.codehaus.jackson.jaxrs.JacksonJsonProvider;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.node.ObjectNode;
+import org.ovirt.engine.api.model.BaseResources;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+import org.ovirt.engine.api.restapi.util.StreamingHelper;
 
 @Provider
 @Consumes(MediaType.APPLICATION_JSON)
@@ -19,9 +40,89 @@ public class JSONProvider extends JacksonJsonProvider {
     // The version of the API supported by this provider:
     public static final String SUPPORTED_VERSION = "4";
 
+    // The mapper used when the response should be indented:
+    private final ObjectMapper prettyMapper = CustomObjectMapper.get(true);
+
+    // The names of the fields that contain the items of collections, indexed by the type of collection:
+    private final Map<Class<?>, String> itemsNames = new ConcurrentHashMap<>();
+
     public JSONProvider() {
         super();
         setMapper(CustomObjectMapper.get());
     }
 
+    @Override
+    public ObjectMapper locateMapper(Class<?> type, MediaType mediaType) {
+        Current current = CurrentManager.get();
+        if (current != null && current.isPretty()) {
+            return prettyMapper;
+        }
+        return super.locateMapper(type, mediaType);
+    }}
+
+    @Override
+    public void writeTo(Object value, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+            MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream) throws IOException {
+        if (!(value instanceof BaseResources)) {
+            super.writeTo(value, type, genericType, annotations, mediaType, httpHeaders, entityStream);
+            return;
+        }
+
+        // Write the fields of the collection first, and then the items one at a time, so that the items registered
+        // for the collection are mapped while they are written:
+        BaseResources collection = (BaseResources) value;
+        Iterable<?> items = StreamingHelper.detachItems(collection);
+        ObjectMapper mapper = locateMapper(type, mediaType);
+        JsonGenerator generator = mapper.getJsonFactory().createJsonGenerator(entityStream, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (mapper == prettyMapper) {
+            generator.useDefaultPrettyPrinter();
+        }
+        String itemsName = itemsNames.computeIfAbsent(type, JSONProvider::findItemsName);
+        ObjectNode fields = mapper.valueToTree(collection);
+        JsonNode noItems = fields.remove(itemsName);
+        generator.writeStartObject();
+        Iterator<Map.Entry<String, JsonNode>> iterator = fields.getFields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = iterator.next();
+            generator.writeFieldName(field.getKey());
+            mapper.writeTree(generator, field.getValue());
+        }
+        boolean empty = true;
+        for (Object item : items) {
+            if (empty) {
+                generator.writeArrayFieldStart(itemsName);
+                empty = false;
+            }
+            mapper.writeValue(generator, item);
+        }
+        if (!empty) {
+            generator.writeEndArray();
+        } else if (noItems != null) {
+            // Write the field of an empty collection only if the mapper writes it:
+            generator.writeFieldName(itemsName);
+            mapper.writeTree(generator, noItems);
+        }
+        generator.writeEndObject();
+        generator.flush();
+    }
+
+    /**
+     * Finds the name of the field that contains the items of the given type of collection, the name given by its
+     * {@link XmlElement} annotation, as the mapper uses it.
+     */
+    private static String findItemsName(Class<?> type) {
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            for (Field field : current.getDeclaredFields()) {
+                if (List.class.isAssignableFrom(field.getType())) {
+                    XmlElement element = field.getAnnotation(XmlElement.class);
+                    if (element != null && !"##default".equals(element.name())) {
+                        return element.name();
+                    }
+                    return field.getName();
+                }
+            }
+        }
+        throw new IllegalStateException("Collection type \"" + type.getName() + "\" doesn't contain a list.");
+    }
 }
@@ -6,12 +6,15 @@ import static java.util.stream.Collectors.toSet;
 import java.net.URI;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
 
 import javax.ws.rs.core.Response;
 
 import org.ovirt.engine.api.model.ActionableResource;
 import org.ovirt.engine.api.model.BaseResource;
+import org.ovirt.engine.api.model.BaseResources;
 import org.ovirt.engine.api.model.CreationStatus;
+import org.ovirt.engine.api.restapi.invocation.Current;
 import org.ovirt.engine.api.restapi.util.ExpectationHelper;
 import org.ovirt.engine.api.restapi.util.LinkHelper;
 import org.ovirt.engine.api.restapi.util.ParametersHelper;
@@ -24,6 +27,7 @@ import org.ovirt.engine.core.common.interfaces.SearchType;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.common.utils.SearchContinuationToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,6 +38,8 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     private static final String CREATION_STATUS_REL = "creation_status";
     public static final String FROM_CONSTRAINT_PARAMETER = "from";
     public static final String CASE_SENSITIVE_CONSTRAINT_PARAMETER = "case_sensitive";
+    public static final String PAGE_TOKEN_CONSTRAINT_PARAMETER = "page_token";
+    public static final String NEXT_PAGE_TOKEN_HEADER = "Next-Page-Token";
     private static final Logger log = LoggerFactory.getLogger(AbstractBackendCollectionResource.class);
 
     protected AbstractBackendCollectionResource(Class<R> modelType, Class<Q> entityType) {
@@ -45,9 +51,28 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
     }
 
     protected List<Q> getBackendCollection(SearchType searchType, String constraint) {
-        return getBackendCollection(entityType,
-                QueryType.Search,
-                getSearchParameters(searchType, constraint));
+        SearchParameters searchParams = getSearchParameters(searchType, constraint);
+        List<Q> entities = getBackendCollection(entityType, QueryType.Search, searchParams);
+        setNextPageToken(searchParams, entities);
+        return entities;
+    }
+
+    /**
+     * When the client continues the search by a page token and the page is full, sends the token of the next page in
+     * the {@code Next-Page-Token} header, so the client passes it back in the {@code page_token} parameter.
+     */
+    private void setNextPageToken(SearchParameters searchParams, List<Q> entities) {
+        if (searchParams.getContinuationToken() == null
+                || searchParams.getMaxCount() == Integer.MAX_VALUE
+                || entities.size() < searchParams.getMaxCount()) {
+            return;
+        }
+        Current current = getCurrent();
+        if (current == null || current.getResponse() == null) {
+            return;
+        }
+        current.getResponse().setHeader(NEXT_PAGE_TOKEN_HEADER,
+                SearchContinuationToken.create(searchParams.getSearchTypeValue(), entities.get(entities.size() - 1)));
     }
 
     private SearchParameters getSearchParameters(SearchType searchType, String constraint) {
@@ -61,6 +86,10 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
             searchParams.setSearchFrom(from);
         }
         searchParams.setMaxCount(max);
+        String pageToken = ParametersHelper.getParameter(httpHeaders, uriInfo, PAGE_TOKEN_CONSTRAINT_PARAMETER);
+        if (pageToken != null) {
+            searchParams.setContinuationToken(pageToken);
+        }
         return searchParams;
     }
 
@@ -111,6 +140,29 @@ public abstract class AbstractBackendCollectionResource<R extends BaseResource,
             .collect(toList());
     }
 
+    /**
+     * Adds the items mapped from the given entities to the collection. Unless the request follows links, which needs
+     * the mapped items, the entities are mapped one at a time while the response is written, so that the items of
+     * large collections don't need to be held in memory all together. This should only be used by collections that
+     * other resources don't list, as the items aren't added to the returned collection.
+     */
+    protected <C extends BaseResources> C mapLazily(C collection, List<R> items, List<Q> entities,
+            Function<Q, R> mapper) {
+        Iterable<R> mapped = () -> entities.stream().map(mapper).iterator();
+        Current current = getCurrent();
+        if (current != null && current.isStreaming() && !isFollowRequested()) {
+            current.setLazyItems(collection, mapped);
+        } else {
+            mapped.forEach(items::add);
+        }
+        return collection;
+    }
+
+    private boolean isFollowRequested() {
+        String follow = ParametersHelper.getParameter(httpHeaders, uriInfo, FOLLOW);
+        return follow != null && !follow.isEmpty();
+    }
+
     /**
      * Obtains the identifier of a backend object. This id will be used to compare the objects instead of the
      * {@link Object#equals(Object)} method. Should be overridden by resources that manage objects that don't implement
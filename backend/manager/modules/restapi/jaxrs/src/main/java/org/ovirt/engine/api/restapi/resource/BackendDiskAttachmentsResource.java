@@ -5,7 +5,10 @@
 
 package org.ovirt.engine.api.restapi.resource;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ws.rs.core.Response;
 
@@ -28,6 +31,7 @@ import org.ovirt.engine.core.common.action.AttachDetachVmDiskParameters;
 import org.ovirt.engine.core.common.businessentities.VmDeviceId;
 import org.ovirt.engine.core.common.businessentities.storage.DiskVmElement;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.common.queries.VmDeviceIdQueryParameters;
@@ -35,7 +39,7 @@ import org.ovirt.engine.core.compat.Guid;
 
 public class BackendDiskAttachmentsResource
         extends AbstractBackendCollectionResource<DiskAttachment, org.ovirt.engine.core.common.businessentities.storage.DiskVmElement>
-        implements DiskAttachmentsResource {
+        implements DiskAttachmentsResource, MultipleParentsCollectionResource<DiskAttachments> {
 
     private Guid vmId;
 
@@ -49,6 +53,22 @@ public class BackendDiskAttachmentsResource
         return mapCollection(getBackendCollection(QueryType.GetDiskVmElementsByVmId, new IdQueryParameters(vmId)));
     }
 
+    @Override
+    public Map<Guid, DiskAttachments> listForParents(List<Guid> vmIds) {
+        Map<Guid, List<DiskVmElement>> entitiesByVm = new HashMap<>();
+        vmIds.forEach(id -> entitiesByVm.put(id, new ArrayList<>()));
+        for (DiskVmElement entity : getBackendCollection(QueryType.GetDiskVmElementsByVmIds,
+                new IdsQueryParameters(vmIds))) {
+            entitiesByVm.get(entity.getVmId()).add(entity);
+        }
+
+        // The attachments are mapped by a resource of their VM, so that their links point to it:
+        Map<Guid, DiskAttachments> collections = new HashMap<>();
+        entitiesByVm.forEach((id, entities) ->
+                collections.put(id, inject(new BackendDiskAttachmentsResource(id)).mapCollection(entities)));
+        return collections;
+    }
+
     @Override
     public Response add(DiskAttachment attachment) {
         if (attachment.isSetDisk() && attachment.getDisk().isSetId()) {
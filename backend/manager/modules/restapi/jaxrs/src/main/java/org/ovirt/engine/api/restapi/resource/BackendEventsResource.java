@@ -35,10 +35,7 @@ public class BackendEventsResource
 
     private Events mapCollection(List<AuditLog> entities) {
         Events collection = new Events();
-        for (AuditLog entity : entities) {
-            collection.getEvents().add(addLinks(map(entity)));
-        }
-        return collection;
+        return mapLazily(collection, collection.getEvents(), entities, entity -> addLinks(map(entity)));
     }
 
     @Override
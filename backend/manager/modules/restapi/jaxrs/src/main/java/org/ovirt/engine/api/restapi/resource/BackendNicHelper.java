@@ -27,7 +27,16 @@ import org.ovirt.engine.core.compat.Guid;
  */
 public class BackendNicHelper {
     public static void addReportedDevices(BackendResource resource, Nic model, VmNetworkInterface entity) {
-        List<ReportedDevice> devices = getDevices(resource, entity.getVmId(), entity.getMacAddress());
+        addReportedDevices(model, entity, getDevicesCollection(resource, entity.getVmId()));
+    }
+
+    /**
+     * Adds the reported devices of the nic from the given guest agent interfaces of its VM, which may have been
+     * fetched together with the ones of other VMs.
+     */
+    public static void addReportedDevices(Nic model, VmNetworkInterface entity,
+            List<VmGuestAgentInterface> guestAgentInterfaces) {
+        List<ReportedDevice> devices = getDevices(guestAgentInterfaces, entity.getMacAddress());
         if (!devices.isEmpty()) {
             ReportedDevices reportedDevices = new ReportedDevices();
             reportedDevices.getReportedDevices().addAll(devices);
@@ -35,9 +44,9 @@ public class BackendNicHelper {
         }
     }
 
-    private static List<ReportedDevice> getDevices(BackendResource resource, Guid vmId, String mac) {
+    private static List<ReportedDevice> getDevices(List<VmGuestAgentInterface> guestAgentInterfaces, String mac) {
         List<ReportedDevice> devices = new ArrayList<>();
-        for (VmGuestAgentInterface iface : getDevicesCollection(resource, vmId)) {
+        for (VmGuestAgentInterface iface : guestAgentInterfaces) {
             if (StringUtils.equals(iface.getMacAddress(), mac)) {
                 ReportedDevice device = LinkHelper.addLinks(ReportedDeviceMapper.map(iface, new ReportedDevice()));
                 devices.add(device);
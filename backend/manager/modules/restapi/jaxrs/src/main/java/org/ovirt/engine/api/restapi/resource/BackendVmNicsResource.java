@@ -1,6 +1,9 @@
 package org.ovirt.engine.api.restapi.resource;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import javax.ws.rs.core.Response;
@@ -13,14 +16,23 @@ import org.ovirt.engine.api.resource.VmNicResource;
 import org.ovirt.engine.api.resource.VmNicsResource;
 import org.ovirt.engine.core.common.action.ActionType;
 import org.ovirt.engine.core.common.action.AddVmInterfaceParameters;
+import org.ovirt.engine.core.common.businessentities.VmGuestAgentInterface;
 import org.ovirt.engine.core.common.businessentities.network.VmNetworkInterface;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
+import org.ovirt.engine.core.common.queries.IdsQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryType;
 import org.ovirt.engine.core.compat.Guid;
 
-public class BackendVmNicsResource extends AbstractBackendNicsResource implements VmNicsResource {
+public class BackendVmNicsResource extends AbstractBackendNicsResource
+        implements VmNicsResource, MultipleParentsCollectionResource<Nics> {
     private Guid vmId;
 
+    /**
+     * The guest agent interfaces of the VM, when they have been fetched together with the ones of other VMs, so that
+     * they aren't fetched again for every nic.
+     */
+    private List<VmGuestAgentInterface> guestAgentInterfaces;
+
     public BackendVmNicsResource(Guid vmId) {
         super(vmId, QueryType.GetVmInterfacesByVmId);
         this.vmId = vmId;
@@ -40,6 +52,41 @@ public class BackendVmNicsResource extends AbstractBackendNicsResource implement
         return nics;
     }
 
+    @Override
+    public Map<Guid, Nics> listForParents(List<Guid> vmIds) {
+        Map<Guid, Nics> collections = new HashMap<>();
+        vmIds.forEach(id -> collections.put(id, new Nics()));
+        List<VmNetworkInterface> entities = getBackendCollection(
+            QueryType.GetVmInterfacesByVmIds,
+            new IdsQueryParameters(vmIds)
+        );
+        if (entities.isEmpty()) {
+            return collections;
+        }
+
+        // The nics are mapped by a resource of their VM, so that their links point to it:
+        Map<Guid, BackendVmNicsResource> resources = new HashMap<>();
+        for (Guid id : vmIds) {
+            BackendVmNicsResource resource = inject(new BackendVmNicsResource(id));
+            resource.guestAgentInterfaces = new ArrayList<>();
+            resources.put(id, resource);
+        }
+        List<VmGuestAgentInterface> guestAgentInterfaces = getBackendCollection(
+            VmGuestAgentInterface.class,
+            QueryType.GetVmGuestAgentInterfacesByVmIds,
+            new IdsQueryParameters(vmIds)
+        );
+        for (VmGuestAgentInterface guestAgentInterface : guestAgentInterfaces) {
+            resources.get(guestAgentInterface.getVmId()).guestAgentInterfaces.add(guestAgentInterface);
+        }
+        for (VmNetworkInterface entity : entities) {
+            BackendVmNicsResource resource = resources.get(entity.getVmId());
+            Nic nic = resource.populate(resource.map(entity), entity);
+            collections.get(entity.getVmId()).getNics().add(resource.addLinks(nic));
+        }
+        return collections;
+    }
+
     @Override
     public Response add(Nic nic) {
         validateParameters(nic, "name");
@@ -53,7 +100,11 @@ public class BackendVmNicsResource extends AbstractBackendNicsResource implement
     @Override
     protected Nic deprecatedPopulate(Nic model, VmNetworkInterface entity) {
         Set<String> details = DetailHelper.getDetails(httpHeaders, uriInfo);
-        BackendNicHelper.addReportedDevices(this, model, entity);
+        if (guestAgentInterfaces != null) {
+            BackendNicHelper.addReportedDevices(model, entity, guestAgentInterfaces);
+        } else {
+            BackendNicHelper.addReportedDevices(this, model, entity);
+        }
         if (details.contains("statistics")) {
             BackendNicHelper.addStatistics( model, entity);
         }
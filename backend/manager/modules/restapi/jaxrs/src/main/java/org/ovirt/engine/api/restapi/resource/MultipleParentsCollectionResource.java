@@ -0,0 +1,23 @@
+package org.ovirt.engine.api.restapi.resource;
+
+import java.util.List;
+import java.util.Map;
+
+import org.ovirt.engine.api.model.BaseResources;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * This interface is implemented by the resources of sub-collections (e.g: the nics of a VM) that can list the
+ * sub-collections of many parents with a single backend query. The link follower uses it to follow a sub-collection
+ * link of a whole page of entities at once, instead of querying the backend for every entity.
+ */
+public interface MultipleParentsCollectionResource<C extends BaseResources> {
+
+    /**
+     * Lists the sub-collections of the given parents, regardless of the parent of this resource.
+     *
+     * @param parentIds the ids of the parents, e.g: the ids of the VMs
+     * @return the sub-collection of every parent, indexed by the id of the parent
+     */
+    Map<Guid, C> listForParents(List<Guid> parentIds);
+}
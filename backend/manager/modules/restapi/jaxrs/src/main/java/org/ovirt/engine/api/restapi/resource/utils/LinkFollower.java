@@ -2,10 +2,14 @@ package org.ovirt.engine.api.restapi.resource.utils;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import javax.ws.rs.GET;
 
@@ -14,12 +18,22 @@ import org.ovirt.engine.api.model.BaseResource;
 import org.ovirt.engine.api.model.BaseResources;
 import org.ovirt.engine.api.model.Link;
 import org.ovirt.engine.api.restapi.resource.BaseBackendResource;
+import org.ovirt.engine.api.restapi.resource.MultipleParentsCollectionResource;
 import org.ovirt.engine.api.restapi.resource.ResourceLocator;
 import org.ovirt.engine.api.utils.EntityHelper;
 import org.ovirt.engine.api.utils.ReflectionHelper;
+import org.ovirt.engine.core.compat.Guid;
 
 public class LinkFollower {
 
+    /**
+     * The methods annotated with @GET, by resource class, the reflective lookup of them is too
+     * expensive to repeat for every followed link.
+     */
+    private static final ConcurrentMap<Class<?>, Optional<Method>> getMethods = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Method>> getters = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ConcurrentMap<String, Method>> setters = new ConcurrentHashMap<>();
+
     private ResourceLocator resourceLocator;
 
     public LinkFollower() {
@@ -116,8 +130,9 @@ public class LinkFollower {
      *         networkfilter
      *         qos
      *
-     * This method will fetch the vnic-profiles of nic11, nic12, nic13, nic21, nic22, nic23,
-     * set them in the respected Nic objects, and store them in a list.
+     * This method will fetch the vnic-profiles of nic11, nic12, nic21, nic22, nic31, nic32,
+     * set them in the respected Nic objects, and store them in a list. A vnic-profile shared
+     * by several nics is fetched only once.
      *
      * Then the method will recursively run on the list of vnic-profiles with the sub-tree
      *
@@ -126,98 +141,168 @@ public class LinkFollower {
      * and again with the sub-tree
      *
      *    qos
+     *
+     * So every link in the tree is followed once for all the entities of the page, and not once per entity.
      */
     private void followLinks(List<ActionableResource> entities, LinksTreeNode node) {
-        for (ActionableResource entity : entities) {
-            followLink(entity, node);
+        List<ActionableResource> nextStepEntities = fetchData(toSingleEntities(entities, node), node);
+        for (LinksTreeNode child : node.getChildren()) {
+            followLinks(nextStepEntities, child);
         }
         node.setFollowed(true);
     }
 
     /**
-     * For the provided business entity (whether single (e.g: Nic) or collection (e.g: Nics) type,
-     * follow all links in the provided links-tree, recursively.
+     * Replaces the collection-type entities (e.g: Nics) among the provided entities by the
+     * entities they hold (e.g: nic1, nic2).
      */
-    private void followLink(ActionableResource entity, LinksTreeNode node) {
-        List<ActionableResource> nextStepEntities = new LinkedList<>();
-        if (EntityHelper.isCollection(entity)) {
-            nextStepEntities.addAll(fetchData((BaseResources)entity, node));
-        } else {
-            nextStepEntities.add(fetchData((BaseResource)entity, node));
-        }
-        for (LinksTreeNode child : node.getChildren()) {
-            followLinks(nextStepEntities, child);
+    @SuppressWarnings("unchecked")
+    private List<BaseResource> toSingleEntities(List<ActionableResource> entities, LinksTreeNode node) {
+        List<BaseResource> results = new ArrayList<>();
+        for (ActionableResource entity : entities) {
+            if (EntityHelper.isCollection(entity)) {
+                Method collectionGetter = EntityHelper.getCollectionGetter((BaseResources) entity);
+                try {
+                    //get the actual list of entities in the collection-type, e.g for Nics get List<Nic>
+                    //(by invoking nics.getNics() using reflection)
+                    results.addAll((List<BaseResource>) collectionGetter.invoke(entity));
+                } catch (Exception e) {
+                    throw new IllegalStateException("Problem following '" + node.getElement() + "' link in " + entity.getClass().getSimpleName() + " entity.", e);
+                }
+            } else {
+                results.add((BaseResource) entity);
+            }
         }
+        return results;
     }
 
     /**
-     * For the provided collection-type entity (e.g: Nics), follow the link represented by the
+     * For the provided single-entity types (e.g: nic1, nic2), follow the link represented by the
      * provided node. Do not follow child-links of this node.
      *
-     * For example, for a Nics object:
-     *
-     *   nics [nic1, nic2]
-     *
-     * and the tree:
+     * For example, for the Nic objects and the tree:
      *
      *   vnicprofiles
      *        networkfilter
      *        qos
      *
-     * This method fetches all vnicprofiles of nic1, nic2, and sets them in these Nic objects.
-     * The method will return the fetched vnic-profile objects. The child links networkfilter, qos
-     * are purposely ignored.
+     * This method fetches the vnicprofiles of these nic objects and sets them in them. The links
+     * of all the entities are collected first, so every distinct link is fetched once, even when
+     * it is shared by many entities (e.g: the template of many VMs). The method then returns the
+     * fetched vnic-profiles. The child links networkfilter, qos are purposely ignored.
      */
-    @SuppressWarnings("unchecked")
-    private List<ActionableResource> fetchData(BaseResources collectionEntity, LinksTreeNode node) {
-        List<ActionableResource> results = new LinkedList<>();
-        Method collectionGetter = EntityHelper.getCollectionGetter(collectionEntity);
-        try {
-            //get the actual list of entities in the collection-type, e.g for Nics get List<Nic>
-            //(by invoking nics.getNics() using reflection)
-            List<BaseResource> entities = (List<BaseResource>)collectionGetter.invoke(collectionEntity);
-            //for each entity in the list, fetch link data.
+    private List<ActionableResource> fetchData(List<BaseResource> entities, LinksTreeNode link) {
+        List<ActionableResource> results = new ArrayList<>();
+        String element = underscoreToCamelCase(link.getElement());
+        if (link.isFollowed()) {
             for (BaseResource entity : entities) {
-                results.add(fetchData(entity, node));
+                try {
+                    addResult(results, (ActionableResource) getGetter(entity, element).invoke(entity));
+                } catch (Exception e) {
+                    throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                            "' from " + entity.getClass().getSimpleName(), e);
+                }
             }
-        } catch (Exception e) {
-            throw new IllegalStateException("Problem following '" + node.getElement() + "' link in " + collectionEntity.getClass().getSimpleName() + " entity.", e);
+            return results;
+        }
+
+        List<ActionableResource> collections = fetchForAllParents(entities, link, element);
+        if (collections != null) {
+            return collections;
+        }
+
+        Map<String, List<BaseResource>> entitiesByHref = new LinkedHashMap<>();
+        for (BaseResource entity : entities) {
+            try {
+                entitiesByHref.computeIfAbsent(getHref(entity, link.getElement()), k -> new ArrayList<>()).add(entity);
+            } catch (Exception e) {
+                throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                        "' from " + entity.getClass().getSimpleName(), e);
+            }
+        }
+        for (Map.Entry<String, List<BaseResource>> entry : entitiesByHref.entrySet()) {
+            ActionableResource result = fetch(entry.getKey());
+            for (BaseResource entity : entry.getValue()) {
+                try {
+                    getSetter(entity, element).invoke(entity, result);
+                } catch (Exception e) {
+                    throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                            "' from " + entity.getClass().getSimpleName(), e);
+                }
+            }
+            addResult(results, result);
         }
         return results;
     }
 
     /**
-     * For the provided single-entity type (e.g: Nic), follow the link represented by the
-     * provided node. Do not follow child-links of this node.
-     *
-     * For example, for a Nic object and the tree:
-     *
-     *   vnicprofiles
-     *        networkfilter
-     *        qos
-     *
-     * This method fetches all vnicprofiles of this nic object and sets them in it. The method
-     * then returns the fetched vnic-profiles. The child links networkfilter, qos are purposely ignored.
+     * For a sub-collection link (e.g: nics) of entities of the same type (e.g: VMs), fetches the sub-collections of all
+     * the entities with a single backend query, when the resource of the sub-collection supports it (see
+     * {@link MultipleParentsCollectionResource}), and sets them in the entities. Returns the fetched sub-collections,
+     * or null if they can't be fetched together, in which case the link of every entity is followed separately.
      */
-    private ActionableResource fetchData(BaseResource entity, LinksTreeNode link) {
+    private List<ActionableResource> fetchForAllParents(List<BaseResource> entities, LinksTreeNode link,
+            String element) {
+        if (entities.size() < 2) {
+            return null;
+        }
+        String rel = toRelFormat(link.getElement());
+        Class<?> type = entities.get(0).getClass();
+        List<Guid> parentIds = new ArrayList<>();
+        for (BaseResource entity : entities) {
+            if (entity.getClass() != type || entity.getId() == null || !findLink(entity, rel).isPresent()) {
+                return null;
+            }
+            parentIds.add(Guid.createGuidFromString(entity.getId()));
+        }
+
+        Map<Guid, ? extends ActionableResource> collections;
+        String href = findLink(entities.get(0), rel).get().getHref();
         try {
-            String element = underscoreToCamelCase(link.getElement());
-            if (link.isFollowed()) {
-                Method getter = ReflectionHelper.getGetter(entity, element);
-                return (ActionableResource)getter.invoke(entity);
-            } else {
-                String href = getHref((BaseResource)entity, link.getElement());
-                ActionableResource result = fetch(href);
-                Method setter = ReflectionHelper.getSetter(entity, element);
-                setter.invoke(entity, result);
-                return result;
+            BaseBackendResource resource = resourceLocator.locateResource(href);
+            if (!(resource instanceof MultipleParentsCollectionResource)) {
+                return null;
             }
+            collections = ((MultipleParentsCollectionResource<?>) resource).listForParents(parentIds);
         } catch (Exception e) {
-            throw new IllegalStateException("Problem fetching '" + link.getElement() +
-                    "' from " + entity.getClass().getSimpleName(), e);
+            throw new IllegalStateException("Problem following link: " + href, e);
+        }
+
+        List<ActionableResource> results = new ArrayList<>();
+        for (int i = 0; i < entities.size(); i++) {
+            BaseResource entity = entities.get(i);
+            ActionableResource result = collections.get(parentIds.get(i));
+            try {
+                getSetter(entity, element).invoke(entity, result);
+            } catch (Exception e) {
+                throw new IllegalStateException("Problem fetching '" + link.getElement() +
+                        "' from " + entity.getClass().getSimpleName(), e);
+            }
+            addResult(results, result);
+        }
+        return results;
+    }
+
+    private Optional<Link> findLink(BaseResource entity, String rel) {
+        return entity.getLinks().stream().filter(x -> x.getRel().equals(rel)).findFirst();
+    }
+
+    private void addResult(List<ActionableResource> results, ActionableResource result) {
+        if (result != null) {
+            results.add(result);
         }
     }
 
+    private Method getGetter(BaseResource entity, String element) {
+        return getters.computeIfAbsent(entity.getClass(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(element, k -> ReflectionHelper.getGetter(entity, element));
+    }
+
+    private Method getSetter(BaseResource entity, String element) {
+        return setters.computeIfAbsent(entity.getClass(), k -> new ConcurrentHashMap<>())
+                .computeIfAbsent(element, k -> ReflectionHelper.getSetter(entity, element));
+    }
+
     private String underscoreToCamelCase(String element) {
         StringBuilder builder = new StringBuilder();
         for (String s : element.split("_")) {
@@ -238,11 +323,11 @@ public class LinkFollower {
      *    in the member itself (vm.getTemplate().getHref()).
      */
     private String getHref(BaseResource entity, String link) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException {
-        Optional<Link> optional = entity.getLinks().stream().filter(x -> x.getRel().equals(toRelFormat(link))).findFirst();
+        Optional<Link> optional = findLink(entity, toRelFormat(link));
         if (optional.isPresent()) {
             return optional.get().getHref();
         } else {//assume this is not a sub-collection, since it wasn't found among links.
-            Method getter = ReflectionHelper.getGetter(entity, underscoreToCamelCase(link));
+            Method getter = getGetter(entity, underscoreToCamelCase(link));
             BaseResource member = (BaseResource)getter.invoke(entity);
             return member.getHref();
         }
@@ -256,10 +341,9 @@ public class LinkFollower {
             BaseBackendResource resource = resourceLocator.locateResource(href);
             //need to invoke the method in the resource annotated with @GET
             //(it could be get() or list())
-            for (Method method : resource.getClass().getMethods()) {
-                if (method.isAnnotationPresent(GET.class)) {
-                    return (ActionableResource) method.invoke(resource);
-                }
+            Optional<Method> method = getMethods.computeIfAbsent(resource.getClass(), LinkFollower::findGetMethod);
+            if (method.isPresent()) {
+                return (ActionableResource) method.get().invoke(resource);
             }
         } catch (Exception e) {
             throw new IllegalStateException("Problem following link: " + href, e);
@@ -267,6 +351,12 @@ public class LinkFollower {
         return null;
     }
 
+    private static Optional<Method> findGetMethod(Class<?> resourceClass) {
+        return Arrays.stream(resourceClass.getMethods())
+                .filter(method -> method.isAnnotationPresent(GET.class))
+                .findFirst();
+    }
+
     /**
      * The value of 'rel' inside the Link object is a string of lowercase letters with no spaces,
      * e.g: diskattachments. This method converts a string into this format.
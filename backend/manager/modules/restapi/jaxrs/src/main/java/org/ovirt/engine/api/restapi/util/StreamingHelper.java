@@ -0,0 +1,75 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.util;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ovirt.engine.api.model.BaseResources;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+import org.ovirt.engine.api.utils.EntityHelper;
+
+/**
+ * This class helps the providers to write collections without their items, and then the items one at a time, so that
+ * the items registered with {@link Current#setLazyItems(BaseResources, Iterable)} are mapped while they are written.
+ */
+public class StreamingHelper {
+
+    private StreamingHelper() {
+    }
+
+    /**
+     * Removes the items from the given collection, so that it can be written without them.
+     *
+     * @param collection the collection to remove the items from
+     * @return the items registered for the collection in the current request, if any, otherwise the items that the
+     *     collection contained
+     */
+    public static Iterable<?> detachItems(BaseResources collection) throws IOException {
+        Iterable<?> lazyItems = getLazyItems(collection);
+        if (lazyItems != null) {
+            return lazyItems;
+        }
+        List<Object> list = getList(collection);
+        List<Object> items = new ArrayList<>(list);
+        list.clear();
+        return items;
+    }
+
+    /**
+     * Adds to the given collection the items registered for it in the current request, for the writers that need the
+     * complete collection.
+     *
+     * @param collection the collection to add the items to
+     */
+    public static void attachLazyItems(BaseResources collection) throws IOException {
+        Iterable<?> lazyItems = getLazyItems(collection);
+        if (lazyItems != null) {
+            List<Object> list = getList(collection);
+            lazyItems.forEach(list::add);
+        }
+    }
+
+    private static Iterable<?> getLazyItems(BaseResources collection) {
+        Current current = CurrentManager.get();
+        return current != null ? current.getLazyItems(collection) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> getList(BaseResources collection) throws IOException {
+        Method getter = EntityHelper.getCollectionGetter(collection);
+        try {
+            return (List<Object>) getter.invoke(collection);
+        } catch (IllegalAccessException | InvocationTargetException exception) {
+            throw new IOException("Can't get the items of collection of type \"" + collection.getClass().getName() +
+                    "\".", exception);
+        }
+    }
+}
@@ -14,6 +14,8 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.ws.rs.Consumes;
 import javax.ws.rs.Produces;
@@ -30,11 +32,17 @@ import javax.xml.bind.Marshaller;
 import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.ValidationEventHandler;
 import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLOutputFactory;
 import javax.xml.stream.XMLStreamException;
 import javax.xml.stream.XMLStreamReader;
+import javax.xml.stream.XMLStreamWriter;
 
 import org.ovirt.engine.api.model.Api;
+import org.ovirt.engine.api.model.BaseResources;
 import org.ovirt.engine.api.model.ObjectFactory;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+import org.ovirt.engine.api.restapi.util.StreamingHelper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -73,6 +81,11 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private XMLInputFactory parserFactory;
 
+    /**
+     * The factory used to create the XML writers used to write collections one item at a time.
+     */
+    private XMLOutputFactory writerFactory = XMLOutputFactory.newFactory();
+
     /**
      * The JAXB jaxbContext used to convert XML documents into the corresponding model objects.
      */
@@ -83,6 +96,12 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
      */
     private ValidationEventHandler jaxbHandler = new JAXBValidationEventHandler();
 
+    /**
+     * The marshallers that aren't currently in use. Creating a marshaller for every response is expensive, and a
+     * marshaller can be reused as long as it is used by one response at a time.
+     */
+    private Queue<Marshaller> marshallers = new ConcurrentLinkedQueue<>();
+
     public JAXBProvider() {
         // In order to create the JAXB element that wraps the object we need to call the method of the object factory
         // that uses the correct element name, and in order to avoid doing this with every request we populate this
@@ -186,6 +205,65 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
     public void writeTo(Object object, Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType,
             MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
             throws IOException, WebApplicationException {
+        JAXBElement<Object> element = createElement(object, type);
+
+        // Marshal the element, indenting it only if requested, as it makes large responses much larger. Collections
+        // are written one item at a time, unless indented, as JAXB doesn't indent what it writes to XML stream
+        // writers:
+        Current current = CurrentManager.get();
+        boolean pretty = current != null && current.isPretty();
+        try {
+            Marshaller marshaller = acquireMarshaller();
+            try {
+                if (object instanceof BaseResources && !pretty) {
+                    writeCollection(marshaller, element, StreamingHelper.detachItems((BaseResources) object),
+                            entityStream);
+                } else {
+                    if (object instanceof BaseResources) {
+                        StreamingHelper.attachLazyItems((BaseResources) object);
+                    }
+                    marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, pretty);
+                    marshaller.setProperty(Marshaller.JAXB_FRAGMENT, false);
+                    marshaller.marshal(element, entityStream);
+                }
+            } finally {
+                // The marshaller resets its state every time it is used, so it can be reused even if it failed:
+                marshallers.offer(marshaller);
+            }
+        } catch(JAXBException exception) {
+            throw new IOException("Can't marshall JAXB element of type \"" + type.getName() + "\".", exception);
+        }
+    }
+
+    /**
+     * Writes the element of a collection whose items have been removed, and then writes the items inside it one at a
+     * time.
+     */
+    private void writeCollection(Marshaller marshaller, JAXBElement<Object> element, Iterable<?> items,
+            OutputStream entityStream) throws IOException, JAXBException {
+        try {
+            XMLStreamWriter writer = writerFactory.createXMLStreamWriter(entityStream, "UTF-8");
+            writer.writeStartDocument("UTF-8", "1.0");
+            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, false);
+            marshaller.setProperty(Marshaller.JAXB_FRAGMENT, true);
+            marshaller.marshal(element, new OpenElementXMLStreamWriter(writer));
+            for (Object item : items) {
+                marshaller.marshal(createElement(item, item.getClass()), writer);
+            }
+            writer.writeEndElement();
+            writer.writeEndDocument();
+            writer.flush();
+        } catch(XMLStreamException exception) {
+            throw new IOException("Can't write collection of type \"" + element.getDeclaredType().getName() + "\".",
+                    exception);
+        }
+    }
+
+    /**
+     * Creates the JAXB element that wraps the given object, with the right tag.
+     */
+    @SuppressWarnings("unchecked")
+    private JAXBElement<Object> createElement(Object object, Class<?> type) throws IOException {
         // Find the factory method used to create the JAXB element with the right tag:
         Method factoryMethod = factoryMethods.get(type);
         if (factoryMethod == null) {
@@ -193,21 +271,23 @@ public class JAXBProvider implements MessageBodyReader<Object>, MessageBodyWrite
         }
 
         // Invoke the method to create the JAXB element:
-        JAXBElement<Object> element;
         try {
-            element = (JAXBElement<Object>) factoryMethod.invoke(objectFactory, object);
+            return (JAXBElement<Object>) factoryMethod.invoke(objectFactory, object);
         } catch(IllegalAccessException|InvocationTargetException exception) {
             throw new IOException("Error invoking factory method for type \"" +  type.getName() + "\".", exception);
         }
+    }
 
-        // Marshal the element:
-        try {
-            Marshaller marshaller = jaxbContext.createMarshaller();
+    /**
+     * Takes a marshaller from the pool, or creates a new one if all of them are in use. The marshaller should be
+     * returned to the pool once the response is written.
+     */
+    private Marshaller acquireMarshaller() throws JAXBException {
+        Marshaller marshaller = marshallers.poll();
+        if (marshaller == null) {
+            marshaller = jaxbContext.createMarshaller();
             marshaller.setProperty(Marshaller.JAXB_ENCODING, "UTF-8");
-            marshaller.setProperty(Marshaller.JAXB_FORMATTED_OUTPUT, Boolean.TRUE);
-            marshaller.marshal(element, entityStream);
-        } catch(JAXBException exception) {
-            throw new IOException("Can't marshall JAXB element of type \"" + type.getName() + "\".", exception);
         }
+        return marshaller;
     }
 }
@@ -0,0 +1,104 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.ws.rs.core.MediaType;
+
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.model.Vms;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+
+public class JSONProviderTest {
+
+    private JSONProvider provider = new JSONProvider();
+    private Current current;
+
+    @BeforeEach
+    public void setUp() {
+        current = new Current();
+        CurrentManager.put(current);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CurrentManager.remove();
+    }
+
+    @Test
+    public void testNotIndentedByDefault() throws Exception {
+        String json = write(createVm("vm0"));
+        assertTrue(json.contains("\"name\":\"vm0\""));
+        assertFalse(json.contains("\n"));
+    }
+
+    @Test
+    public void testIndentedWhenPretty() throws Exception {
+        current.setPretty(true);
+        String json = write(createVm("vm0"));
+        assertTrue(json.contains("\n  \"name\" : \"vm0\""));
+    }
+
+    @Test
+    public void testCollectionItemsWritten() throws Exception {
+        Vms vms = new Vms();
+        vms.getVms().add(createVm("vm0"));
+        vms.getVms().add(createVm("vm1"));
+        String json = write(vms);
+        assertFalse(json.contains("\n"));
+        verifyItems(json);
+    }
+
+    @Test
+    public void testLazyItemsWritten() throws Exception {
+        Vms vms = new Vms();
+        current.setLazyItems(vms, Arrays.asList(createVm("vm0"), createVm("vm1")));
+        verifyItems(write(vms));
+    }
+
+    @Test
+    public void testLazyItemsIndentedWhenPretty() throws Exception {
+        current.setPretty(true);
+        Vms vms = new Vms();
+        current.setLazyItems(vms, Arrays.asList(createVm("vm0"), createVm("vm1")));
+        String json = write(vms);
+        assertTrue(json.contains("\n    \"name\" : \"vm0\""));
+        verifyItems(json);
+    }
+
+    private void verifyItems(String json) throws IOException {
+        JsonNode items = new ObjectMapper().readTree(json).get("vm");
+        assertEquals(2, items.size());
+        assertEquals("vm0", items.get(0).get("name").getTextValue());
+        assertEquals("vm1", items.get(1).get("name").getTextValue());
+    }
+
+    private String write(Object object) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        provider.writeTo(object, object.getClass(), null, null, MediaType.APPLICATION_JSON_TYPE, null, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Vm createVm(String name) {
+        Vm vm = new Vm();
+        vm.setName(name);
+        return vm;
+    }
+}
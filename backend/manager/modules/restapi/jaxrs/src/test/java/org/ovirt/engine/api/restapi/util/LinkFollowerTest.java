@@ -3,7 +3,15 @@ package org.ovirt.engine.api.restapi.util;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,15 +25,21 @@ import org.ovirt.engine.api.model.DiskAttachments;
 import org.ovirt.engine.api.model.Link;
 import org.ovirt.engine.api.model.Nic;
 import org.ovirt.engine.api.model.Nics;
+import org.ovirt.engine.api.model.Template;
 import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.model.Vms;
 import org.ovirt.engine.api.restapi.resource.BackendVmNicsResource;
 import org.ovirt.engine.api.restapi.resource.ResourceLocator;
 import org.ovirt.engine.api.restapi.resource.utils.LinkFollower;
 import org.ovirt.engine.api.restapi.resource.utils.LinksTreeNode;
+import org.ovirt.engine.core.compat.Guid;
 
 @ExtendWith(MockitoExtension.class)
 public class LinkFollowerTest {
 
+    private static final Guid VM1_ID = Guid.createGuidFromString("63978315-2d17-4e67-b393-2ea60a8aeacb");
+    private static final Guid VM2_ID = Guid.createGuidFromString("0f3f1e8a-4c6d-4f7b-9a52-7d1c3b2e5a91");
+
     private LinkFollower linkFollower;
 
     @Mock
@@ -33,11 +47,14 @@ public class LinkFollowerTest {
 
     @Mock BackendVmNicsResource vmNicsResource;
 
+    private Map<String, Integer> fetches = new HashMap<>();
+
     @BeforeEach
     public void setUp() {
         linkFollower = new LinkFollower(resourceLocator) {
             //override fetch() since it requires a real environment and would crash tests.
             protected ActionableResource fetch(String href) {
+                fetches.merge(href, 1, Integer::sum);
                 if (href.equals("/ovirt-engine/api/vms/63978315-2d17-4e67-b393-2ea60a8aeacb/nics")){
                     return createNics();
                 } else if (href.equals("/ovirt-engine/api/vms/63978315-2d17-4e67-b393-2ea60a8aeacb/diskattachments")) {
@@ -48,6 +65,8 @@ public class LinkFollowerTest {
                     return new Disk();
                 } else if (href.equals("/ovirt-engine/api/disks/ccc")) {
                     return new Disk();
+                } else if (href.equals("/ovirt-engine/api/templates/ttt")) {
+                    return new Template();
                 } else {
                     return null;
                 }
@@ -75,6 +94,58 @@ public class LinkFollowerTest {
         assertNotNull(vm.getDiskAttachments().getDiskAttachments().get(2).getDisk());
     }
 
+    @Test
+    public void testFollowLinksOfCollection() {
+        LinksTreeNode linksTree = linkFollower.createLinksTree(Vms.class, "template,disk_attachments.disk");
+        Vms vms = new Vms();
+        vms.getVms().add(createVm());
+        vms.getVms().add(createVm());
+        linkFollower.followLinks(vms, linksTree);
+
+        Vm vm1 = vms.getVms().get(0);
+        Vm vm2 = vms.getVms().get(1);
+        //the template shared by the VMs is fetched once, and set in both of them
+        assertEquals(Integer.valueOf(1), fetches.get("/ovirt-engine/api/templates/ttt"));
+        assertNotNull(vm1.getTemplate());
+        assertSame(vm1.getTemplate(), vm2.getTemplate());
+        //the child links are followed for the fetched disk attachments
+        assertNotNull(vm2.getDiskAttachments());
+        assertEquals(3, vm2.getDiskAttachments().getDiskAttachments().size());
+        assertNotNull(vm2.getDiskAttachments().getDiskAttachments().get(2).getDisk());
+    }
+
+    @Test
+    public void testFollowSubCollectionOfCollection() throws Exception {
+        LinksTreeNode linksTree = linkFollower.createLinksTree(Vms.class, "nics");
+        Vm vm1 = createVm(VM1_ID);
+        Vm vm2 = createVm(VM2_ID);
+        Vms vms = new Vms();
+        vms.getVms().add(vm1);
+        vms.getVms().add(vm2);
+        Map<Guid, Nics> nics = new HashMap<>();
+        nics.put(VM1_ID, createNics());
+        nics.put(VM2_ID, new Nics());
+        when(resourceLocator.locateResource("/ovirt-engine/api/vms/" + VM1_ID + "/nics")).thenReturn(vmNicsResource);
+        when(vmNicsResource.listForParents(anyList())).thenReturn(nics);
+        linkFollower.followLinks(vms, linksTree);
+
+        //the nics of all the VMs are listed together, and not fetched per VM
+        verify(vmNicsResource).listForParents(Arrays.asList(VM1_ID, VM2_ID));
+        assertTrue(fetches.isEmpty());
+        assertSame(nics.get(VM1_ID), vm1.getNics());
+        assertSame(nics.get(VM2_ID), vm2.getNics());
+    }
+
+    private Vm createVm(Guid id) {
+        Vm vm = new Vm();
+        vm.setId(id.toString());
+        Link nicsLink = new Link();
+        nicsLink.setHref("/ovirt-engine/api/vms/" + id + "/nics");
+        nicsLink.setRel("nics");
+        vm.getLinks().add(nicsLink);
+        return vm;
+    }
+
     private Vm createVm() {
         Vm vm = new Vm();
         //add an irrelevant link
@@ -86,6 +157,9 @@ public class LinkFollowerTest {
         nicsLink.setHref("/ovirt-engine/api/vms/63978315-2d17-4e67-b393-2ea60a8aeacb/nics");
         nicsLink.setRel("nics");
         vm.getLinks().add(nicsLink);
+        Template template = new Template();
+        template.setHref("/ovirt-engine/api/templates/ttt");
+        vm.setTemplate(template);
         return vm;
     }
 
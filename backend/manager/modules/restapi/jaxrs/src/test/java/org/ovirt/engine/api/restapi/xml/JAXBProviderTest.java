@@ -0,0 +1,96 @@
+/*
+ * Copyright oVirt Authors
+ * SPDX-License-Identifier: Apache-2.0
+*/
+
+package org.ovirt.engine.api.restapi.xml;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import javax.ws.rs.core.MediaType;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.api.model.Vm;
+import org.ovirt.engine.api.model.Vms;
+import org.ovirt.engine.api.restapi.invocation.Current;
+import org.ovirt.engine.api.restapi.invocation.CurrentManager;
+
+public class JAXBProviderTest {
+
+    private static final String ITEMS = "<vm><name>vm0</name></vm><vm><name>vm1</name></vm>";
+
+    private JAXBProvider provider = new JAXBProvider();
+    private Current current;
+
+    @BeforeEach
+    public void setUp() {
+        current = new Current();
+        CurrentManager.put(current);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        CurrentManager.remove();
+    }
+
+    @Test
+    public void testNotIndentedByDefault() throws Exception {
+        String xml = write(createVm("vm0"));
+        assertTrue(xml.contains("<vm><name>vm0</name></vm>"));
+        assertFalse(xml.contains("\n"));
+    }
+
+    @Test
+    public void testIndentedWhenPretty() throws Exception {
+        current.setPretty(true);
+        String xml = write(createVm("vm0"));
+        assertTrue(xml.contains("<vm>\n    <name>vm0</name>\n</vm>"));
+    }
+
+    @Test
+    public void testCollectionItemsWrittenInsideCollection() throws Exception {
+        Vms vms = new Vms();
+        vms.getVms().add(createVm("vm0"));
+        vms.getVms().add(createVm("vm1"));
+        String xml = write(vms);
+        assertTrue(xml.contains("<vms>" + ITEMS + "</vms>"));
+        assertFalse(xml.contains("\n"));
+    }
+
+    @Test
+    public void testLazyItemsWrittenInsideCollection() throws Exception {
+        Vms vms = new Vms();
+        current.setLazyItems(vms, Arrays.asList(createVm("vm0"), createVm("vm1")));
+        String xml = write(vms);
+        assertTrue(xml.contains("<vms>" + ITEMS + "</vms>"));
+    }
+
+    @Test
+    public void testLazyItemsIndentedWhenPretty() throws Exception {
+        current.setPretty(true);
+        Vms vms = new Vms();
+        current.setLazyItems(vms, Arrays.asList(createVm("vm0"), createVm("vm1")));
+        String xml = write(vms);
+        assertTrue(xml.contains("<vms>\n    <vm>\n        <name>vm0</name>\n    </vm>\n    <vm>\n"));
+    }
+
+    private String write(Object object) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        provider.writeTo(object, object.getClass(), null, null, MediaType.APPLICATION_XML_TYPE, null, out);
+        return new String(out.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    private static Vm createVm(String name) {
+        Vm vm = new Vm();
+        vm.setName(name);
+        return vm;
+    }
+}
@@ -5,12 +5,15 @@
 
 package org.ovirt.engine.api.restapi.types;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 
 import javax.ws.rs.WebApplicationException;
 
@@ -30,7 +33,12 @@ public class MappingLocator {
     private static final Logger log = LoggerFactory.getLogger(MappingLocator.class);
 
     private String discoverPackageName;
-    private Map<ClassPairKey, Mapper<?, ?>> mappers;
+
+    /**
+     * The mappers indexed first by the from class and then by the to class, so that finding a mapper doesn't need to
+     * allocate a key object for every lookup.
+     */
+    private Map<Class<?>, Map<Class<?>, Mapper<?, ?>>> mappers;
 
     /**
      * Normal constructor used when injected
@@ -66,8 +74,8 @@ public class MappingLocator {
                 for (Method method : mapperClass.getMethods()) {
                     Mapping mapping = method.getAnnotation(Mapping.class);
                     if (mapping != null) {
-                        mappers.put(new ClassPairKey(mapping.from(), mapping.to()),
-                            new MethodInvokerMapper(method, mapping.to()));
+                        mappers.computeIfAbsent(mapping.from(), k -> new HashMap<>())
+                            .put(mapping.to(), new DirectCallMapper(method, mapping.to()));
                     }
                 }
             } catch (ClassNotFoundException exception) {
@@ -95,65 +103,71 @@ public class MappingLocator {
      */
     @SuppressWarnings("unchecked")
     public <F, T> Mapper<F, T> getMapper(Class<F> from, Class<T> to) {
-        return (Mapper<F, T>) mappers.get(new ClassPairKey(from, to));
+        Map<Class<?>, Mapper<?, ?>> mappersFrom = mappers.get(from);
+        return mappersFrom != null ? (Mapper<F, T>) mappersFrom.get(to) : null;
     }
 
-    private static class ClassPairKey {
-        private Class<?> from;
+    /**
+     * Calls a static mapping method directly, through a {@link Mapper} implementation generated for it when the
+     * mappers are discovered, instead of invoking it by reflection for every mapped object.
+     */
+    private static class DirectCallMapper implements Mapper<Object, Object> {
+        private Method method;
         private Class<?> to;
+        private Mapper<Object, Object> target;
 
-        private ClassPairKey(Class<?> from, Class<?> to) {
-            this.from = from;
+        private DirectCallMapper(Method method, Class<?> to) {
+            this.method = method;
             this.to = to;
+            // REVISIT support non-static mapping methods also
+            this.target = createTarget(method);
         }
 
-        public int hashCode() {
-            return Objects.hash(
-                    to,
-                    from
-            );
-        }
-
-        public boolean equals(Object obj) {
-            if (this == obj) {
-                return true;
+        @SuppressWarnings("unchecked")
+        private static Mapper<Object, Object> createTarget(Method method) {
+            // The generated class is defined in the class that declares the mapping method, so that it can see
+            // the mapped types:
+            MethodHandles.Lookup lookup;
+            MethodHandle handle;
+            try {
+                lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+                handle = lookup.unreflect(method);
+            } catch (IllegalAccessException e) {
+                throw new MappingException(e);
             }
-            if (!(obj instanceof ClassPairKey)) {
-                return false;
+            try {
+                MethodType mapType = MethodType.methodType(Object.class, Object.class, Object.class);
+                CallSite site = LambdaMetafactory.metafactory(lookup,
+                        "map",
+                        MethodType.methodType(Mapper.class),
+                        mapType,
+                        handle,
+                        handle.type());
+                return (Mapper<Object, Object>) site.getTarget().invoke();
+            } catch (Throwable t) {
+                // If the class can't be generated the method handle is invoked instead, which is still much
+                // cheaper than reflection:
+                log.debug("Can't generate direct call mapper for method \"{}\", will use a method handle.", method, t);
+                MethodHandle generic = handle.asType(MethodType.methodType(Object.class, Object.class, Object.class));
+                return (from, template) -> {
+                    try {
+                        return generic.invokeExact(from, template);
+                    } catch (RuntimeException | Error e) {
+                        throw e;
+                    } catch (Throwable e) {
+                        throw new MappingException(e);
+                    }
+                };
             }
-            ClassPairKey other = (ClassPairKey) obj;
-            return Objects.equals(to, other.to)
-                    && Objects.equals(from, other.from);
-        }
-
-        public String toString() {
-            return "map from: " + from + " to: " + to;
-        }
-    }
-
-    private static class MethodInvokerMapper implements Mapper<Object, Object> {
-        private Method method;
-        private Class<?> to;
-
-        private MethodInvokerMapper(Method method, Class<?> to) {
-            this.method = method;
-            this.to = to;
         }
 
         @Override
         public Object map(Object from, Object template) {
             try {
-                // REVISIT support non-static mapping methods also
-                return to.cast(method.invoke(null, from, template));
-            } catch (InvocationTargetException ite) {
-              if (ite.getTargetException() instanceof MalformedIdException) {
-                   throw (MalformedIdException) ite.getTargetException();
-              } else if (ite.getTargetException() instanceof WebApplicationException) {
-                  throw (WebApplicationException) ite.getTargetException();
-              } else {
-                  throw new MappingException(ite);
-              }
-            } catch (IllegalAccessException e) {
+                return target.map(from, template);
+            } catch (MalformedIdException | WebApplicationException e) {
+                throw e;
+            } catch (RuntimeException e) {
                 throw new MappingException(e);
             }
         }
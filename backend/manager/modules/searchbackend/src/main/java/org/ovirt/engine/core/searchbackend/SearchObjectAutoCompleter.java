@@ -493,6 +493,68 @@ public class SearchObjectAutoCompleter extends SearchObjectsBaseAutoCompleter {
         return entitySearchInfo.get(singular(key));
     }
 
+    /**
+     * The columns by which the results of a search are ordered when the search is continued after the last result of
+     * the previous page. The columns together identify a result, so comparing them to the ones of the last result
+     * tells which results come after it without counting the results before.
+     */
+    public static final class Keyset {
+
+        private final List<String> columns;
+        private final boolean ascending;
+
+        public Keyset(boolean ascending, String... columns) {
+            this.columns = Arrays.asList(columns);
+            this.ascending = ascending;
+        }
+
+        public int getColumnCount() {
+            return columns.size();
+        }
+
+        public String getOrderBy() {
+            StringBuilder builder = new StringBuilder();
+            for (String column : columns) {
+                if (builder.length() > 0) {
+                    builder.append(", ");
+                }
+                builder.append(column).append(ascending ? " ASC" : " DESC");
+            }
+            return builder.toString();
+        }
+
+        /**
+         * @return the condition which matches the results coming after the one with the given column values
+         */
+        public String getSeekCondition(String tableName, List<String> values) {
+            if (values.size() != columns.size()) {
+                throw new IllegalArgumentException(StringFormat.format("Expected %1$s sort key values but got %2$s",
+                        columns.size(),
+                        values.size()));
+            }
+            StringBuilder columnList = new StringBuilder();
+            StringBuilder valueList = new StringBuilder();
+            for (int i = 0; i < columns.size(); i++) {
+                if (i > 0) {
+                    columnList.append(", ");
+                    valueList.append(", ");
+                }
+                columnList.append(tableName).append(".").append(columns.get(i));
+                valueList.append("'").append(values.get(i).replace("'", "''")).append("'");
+            }
+            return StringFormat.format("(%1$s) %2$s (%3$s)", columnList, ascending ? ">" : "<", valueList);
+        }
+    }
+
+    @SuppressWarnings("serial")
+    private static final Map<String, Keyset> keysets = Collections.unmodifiableMap(new HashMap<String, Keyset>() {
+        {
+            put(SearchObjects.VM_OBJ_NAME, new Keyset(true, "vm_name", "vm_guid"));
+            put(SearchObjects.VDS_OBJ_NAME, new Keyset(true, "vds_name", "vds_id"));
+            put(SearchObjects.AUDIT_OBJ_NAME, new Keyset(false, "audit_log_id"));
+        }
+    });
+
     @SuppressWarnings("serial")
     private static final Map<String, String> singulars = Collections.unmodifiableMap(new HashMap<String, String>() {
         {
@@ -652,6 +714,14 @@ public class SearchObjectAutoCompleter extends SearchObjectsBaseAutoCompleter {
         return "";
     }
 
+    /**
+     * @return the columns by which a search of the given object can be continued after the last result of the
+     *         previous page, or {@code null} if such searches aren't supported
+     */
+    public Keyset getKeyset(String obj) {
+        return obj == null ? null : keysets.get(singular(obj));
+    }
+
     public List<String> getCommaDelimitedListColumns(String obj) {
         return getEntitySearchInfo(obj).commaDelimitedListColumns;
     }
@@ -849,6 +849,19 @@ public class SyntaxChecker implements ISyntaxChecker {
                 sortByPhrase = builder.toString();
             }
 
+            // continuing the search after the last result of the previous page
+            SearchObjectAutoCompleter.Keyset keyset = null;
+            if (syntax.getSearchAfter() != null) {
+                keyset = searchObjectAC.getKeyset(searchObjStr);
+                if (keyset == null) {
+                    throw new IllegalArgumentException("Search of " + searchObjStr + " can't be continued by a token");
+                }
+                if (sortByElements != null || !"".equals(pageNumber)) {
+                    throw new IllegalArgumentException("Search continued by a token can't be sorted or paged");
+                }
+                sortByPhrase = " ORDER BY " + keyset.getOrderBy();
+            }
+
             // implying precedence rules
             String[] lookFor = { "AND", "OR" };
             for (int idx = 0; idx < lookFor.length; idx++) {
@@ -876,6 +889,10 @@ public class SyntaxChecker implements ISyntaxChecker {
             if (searchObjStr.equalsIgnoreCase("EVENT")) {
                 whereBuilder.add("not deleted");
             }
+            if (keyset != null && !syntax.getSearchAfter().isEmpty()) {
+                whereBuilder.add(keyset.getSeekCondition(searchObjectAC.getRelatedTableName(searchObjStr, useTags),
+                        syntax.getSearchAfter()));
+            }
 
             // adding WHERE if required and All implicit AND
             StringBuilder wherePhrase = new StringBuilder();
@@ -904,7 +921,7 @@ public class SyntaxChecker implements ISyntaxChecker {
             // adding a secondary default sort by entity name
             StringBuilder sortExpr = new StringBuilder();
             sortExpr.append(sortByPhrase);
-            if (!sortByPhrase.contains(searchObjectAC.getDefaultSort(searchObjStr))) {
+            if (keyset == null && !sortByPhrase.contains(searchObjectAC.getDefaultSort(searchObjStr))) {
                 sortExpr.append(",");
                 sortExpr.append(searchObjectAC.getDefaultSort(searchObjStr));
             }
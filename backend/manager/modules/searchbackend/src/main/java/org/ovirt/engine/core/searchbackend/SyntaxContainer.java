@@ -18,6 +18,7 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
     private final int[] errorPos = new int[2];
     private int privateMaxCount;
     private long searchFrom = 0;
+    private List<String> searchAfter;
     private boolean caseSensitive=true;
 
     /**
@@ -50,6 +51,18 @@ public class SyntaxContainer implements Iterable<SyntaxObject> {
         searchFrom = value;
     }
 
+    /**
+     * @return the sort key of the last result of the previous page, to return only the results which come after it,
+     *         an empty list to return the first page in sort key order, or {@code null} to use the regular order
+     */
+    public List<String> getSearchAfter() {
+        return searchAfter;
+    }
+
+    public void setSearchAfter(List<String> value) {
+        searchAfter = value;
+    }
+
     public boolean getvalid() {
         return valid;
     }
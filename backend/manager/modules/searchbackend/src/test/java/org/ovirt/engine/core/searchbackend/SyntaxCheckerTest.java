@@ -2,12 +2,15 @@ package org.ovirt.engine.core.searchbackend;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -237,6 +240,35 @@ public class SyntaxCheckerTest {
                 "SELECT * FROM ((SELECT  audit_log.* FROM  audit_log   WHERE not deleted)  ORDER BY audit_log_id DESC ) as T1 OFFSET (1 -1) LIMIT 0");
     }
 
+    @Test
+    public void testContinuedVms() {
+        testContinuedSql("Vms:",
+                Collections.emptyList(),
+                "SELECT * FROM ((SELECT  vms.* FROM  vms  )  ORDER BY vm_name ASC, vm_guid ASC) as T1 OFFSET (1 -1) LIMIT 0");
+        testContinuedSql("Vms: status=up",
+                Arrays.asList("vm'1", "b0ad7b6c-8a58-4a7e-8f5a-6b2c1e5d1d42"),
+                "SELECT * FROM ((SELECT  vms.* FROM  vms   WHERE  vms.status = '1'  AND (vms.vm_name, vms.vm_guid) > ('vm''1', 'b0ad7b6c-8a58-4a7e-8f5a-6b2c1e5d1d42'))  ORDER BY vm_name ASC, vm_guid ASC) as T1 OFFSET (1 -1) LIMIT 0");
+    }
+
+    @Test
+    public void testContinuedEvents() {
+        testContinuedSql("Events: severity=error",
+                Collections.singletonList("42"),
+                "SELECT * FROM ((SELECT  audit_log.* FROM  audit_log   WHERE  audit_log.severity = '2'  AND not deleted AND (audit_log.audit_log_id) < ('42'))  ORDER BY audit_log_id DESC) as T1 OFFSET (1 -1) LIMIT 0");
+    }
+
+    @Test
+    public void testContinuedSearchNotSupported() {
+        assertThrows(IllegalArgumentException.class,
+                () -> testContinuedSql("Templates:", Collections.emptyList(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> testContinuedSql("Vms: sortby cpu_usage desc", Collections.emptyList(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> testContinuedSql("Vms: page 2", Collections.emptyList(), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> testContinuedSql("Vms:", Collections.singletonList("vm1"), null));
+    }
+
     @Test
     public void testTemplate() {
         testValidSql("Template: ",
@@ -506,4 +538,14 @@ public class SyntaxCheckerTest {
         String query = chkr.generateQueryFromSyntaxContainer(res, true);
         assertEquals(exepctedSQLResult, query);
     }
+
+    private void testContinuedSql(String dynamicQuery, List<String> searchAfter, String exepctedSQLResult) {
+        SyntaxChecker chkr = new SyntaxChecker();
+        ISyntaxChecker curSyntaxChecker = SyntaxCheckerFactory.createBackendSyntaxChecker("foo");
+        SyntaxContainer res = curSyntaxChecker.analyzeSyntaxState(dynamicQuery, true);
+        assertTrue(res.getvalid(), "Invalid syntax: " + dynamicQuery);
+        res.setSearchAfter(searchAfter);
+        String query = chkr.generateQueryFromSyntaxContainer(res, true);
+        assertEquals(exepctedSQLResult, query);
+    }
 }
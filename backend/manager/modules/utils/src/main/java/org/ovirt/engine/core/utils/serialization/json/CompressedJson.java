@@ -0,0 +1,60 @@
+package org.ovirt.engine.core.utils.serialization.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.ovirt.engine.core.utils.SerializationException;
+
+/**
+ * Compresses serialized JSON documents into a gzip stream encoded in base64, so they can still be stored in text
+ * columns. A JSON document never starts with the base64 encoding of the gzip header, so compressed and plain
+ * documents can be told apart and {@link #decompress(String)} accepts both.
+ */
+public final class CompressedJson {
+
+    /**
+     * The base64 encoding of the gzip magic number followed by the deflate compression method
+     */
+    private static final String COMPRESSED_PREFIX = "H4sI";
+
+    private CompressedJson() {
+    }
+
+    public static String compress(String json) {
+        if (json == null) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length() / 4);
+        try (OutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+
+    /**
+     * @return the given document if it is not compressed, otherwise the document it was compressed from
+     */
+    public static String decompress(String payload) {
+        if (!isCompressed(payload)) {
+            return payload;
+        }
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(Base64.getDecoder().decode(payload)))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    public static boolean isCompressed(String payload) {
+        return payload != null && payload.startsWith(COMPRESSED_PREFIX);
+    }
+}
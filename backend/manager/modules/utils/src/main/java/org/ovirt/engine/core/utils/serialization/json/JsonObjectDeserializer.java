@@ -3,10 +3,13 @@ package org.ovirt.engine.core.utils.serialization.json;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.map.DeserializationConfig.Feature;
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectReader;
 import org.codehaus.jackson.map.type.CollectionType;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.AddVmTemplateParameters;
@@ -51,12 +54,19 @@ public class JsonObjectDeserializer implements Deserializer {
         formattedMapper.setDeserializerProvider(new JsonObjectDeserializerProvider());
     }
 
+    /**
+     * The readers of each type, which are immutable and thread safe, and unlike the mappers don't resolve the type and
+     * copy their configuration for every value they read
+     */
+    private static final ConcurrentMap<Class<?>, ObjectReader> unformattedReaders = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Class<?>, ObjectReader> formattedReaders = new ConcurrentHashMap<>();
+
     @Override
     public <T extends Serializable> T deserialize(Object source, Class<T> type) throws SerializationException {
         if (source == null) {
             return null;
         }
-        return readJsonString(source, type, formattedMapper);
+        return readJsonString(source, type, formattedReaders, formattedMapper);
     }
 
     /**
@@ -91,7 +101,7 @@ public class JsonObjectDeserializer implements Deserializer {
      * @return The serialized object.
      */
     public <T extends Serializable> T deserializeUnformattedJson(Object source, Class<T> type) throws SerializationException {
-        return readJsonString(source, type, unformattedMapper);
+        return readJsonString(source, type, unformattedReaders, unformattedMapper);
     }
 
     public <T extends Serializable> List<T> deserializeUnformattedList(String source, Class<T> contentType) {
@@ -103,9 +113,12 @@ public class JsonObjectDeserializer implements Deserializer {
         }
     }
 
-    private <T> T readJsonString(Object source, Class<T> type, ObjectMapper mapper) {
+    private <T> T readJsonString(Object source,
+            Class<T> type,
+            ConcurrentMap<Class<?>, ObjectReader> readers,
+            ObjectMapper mapper) {
         try {
-            return mapper.readValue(source.toString(), type);
+            return readers.computeIfAbsent(type, mapper::reader).readValue(source.toString());
         } catch (IOException e) {
             throw new org.apache.commons.lang.SerializationException(e);
         }
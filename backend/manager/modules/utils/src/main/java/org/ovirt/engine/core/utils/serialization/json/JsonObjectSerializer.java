@@ -9,6 +9,7 @@ import java.util.Collection;
 import java.util.Map;
 
 import org.codehaus.jackson.map.ObjectMapper;
+import org.codehaus.jackson.map.ObjectWriter;
 import org.codehaus.jackson.map.SerializationConfig.Feature;
 import org.ovirt.engine.core.common.action.ActionParametersBase;
 import org.ovirt.engine.core.common.action.AddVmTemplateParameters;
@@ -32,10 +33,14 @@ import org.ovirt.engine.core.utils.Serializer;
  */
 public class JsonObjectSerializer implements Serializer {
 
-    private static final ObjectMapper unformattedMapper = new ObjectMapper();
-    private static final ObjectMapper formattedMapper;
+    /**
+     * The writers are immutable and thread safe, and unlike the mappers they don't copy their configuration for
+     * every value they write, so they are built once, after the mappers are configured
+     */
+    private static final ObjectWriter unformattedWriter = new ObjectMapper().writer();
+    private static final ObjectWriter formattedWriter;
     static {
-        formattedMapper = new ObjectMapper();
+        ObjectMapper formattedMapper = new ObjectMapper();
         formattedMapper.getSerializationConfig().addMixInAnnotations(Guid.class, JsonGuidMixIn.class);
         formattedMapper.getSerializationConfig().addMixInAnnotations(ActionParametersBase.class,
                 JsonActionParametersBaseMixIn.class);
@@ -59,6 +64,7 @@ public class JsonObjectSerializer implements Serializer {
 
         formattedMapper.configure(Feature.INDENT_OUTPUT, true);
         formattedMapper.enableDefaultTyping();
+        formattedWriter = formattedMapper.writer();
     }
 
     @Override
@@ -66,22 +72,22 @@ public class JsonObjectSerializer implements Serializer {
         if (payload == null) {
             return null;
         } else {
-            return writeJsonAsString(payload, formattedMapper);
+            return writeJsonAsString(payload, formattedWriter);
         }
     }
 
     /**
-     * Use the ObjectMapper to parse the payload to String.
+     * Use the ObjectWriter to parse the payload to String.
      *
      * @param payload
      *            - The payload to be returned.
-     * @param mapper
-     *            - The ObjectMapper.
+     * @param writer
+     *            - The ObjectWriter.
      * @return Parsed string of the serialized object.
      */
-    private String writeJsonAsString(Object payload, ObjectMapper mapper) {
+    private String writeJsonAsString(Object payload, ObjectWriter writer) {
         try {
-            return mapper.writeValueAsString(payload);
+            return writer.writeValueAsString(payload);
         } catch (IOException e) {
             throw new org.apache.commons.lang.SerializationException(e);
         }
@@ -95,6 +101,6 @@ public class JsonObjectSerializer implements Serializer {
      * @return The string value of the serialized object.
      */
     public String serializeUnformattedJson(Serializable payload) throws SerializationException {
-        return writeJsonAsString(payload, unformattedMapper);
+        return writeJsonAsString(payload, unformattedWriter);
     }
 }
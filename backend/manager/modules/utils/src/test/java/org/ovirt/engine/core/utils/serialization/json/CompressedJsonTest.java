@@ -0,0 +1,41 @@
+package org.ovirt.engine.core.utils.serialization.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.action.ActionParametersBase;
+import org.ovirt.engine.core.compat.Guid;
+
+public class CompressedJsonTest {
+
+    @Test
+    public void testCompressAndDecompress() {
+        ActionParametersBase params = new ActionParametersBase();
+        params.setCommandId(Guid.newGuid());
+        params.setCorrelationId("correlation");
+        String json = new JsonObjectSerializer().serialize(params);
+
+        String compressed = CompressedJson.compress(json);
+
+        assertTrue(CompressedJson.isCompressed(compressed));
+        assertTrue(compressed.length() < json.length());
+        assertEquals(json, CompressedJson.decompress(compressed));
+    }
+
+    @Test
+    public void testDecompressPlainJson() {
+        String json = new JsonObjectSerializer().serialize(new ActionParametersBase());
+
+        assertFalse(CompressedJson.isCompressed(json));
+        assertEquals(json, CompressedJson.decompress(json));
+    }
+
+    @Test
+    public void testNull() {
+        assertNull(CompressedJson.compress(null));
+        assertNull(CompressedJson.decompress(null));
+    }
+}
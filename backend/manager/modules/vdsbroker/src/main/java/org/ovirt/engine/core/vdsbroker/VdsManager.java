@@ -1,6 +1,7 @@
 package org.ovirt.engine.core.vdsbroker;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -35,6 +36,7 @@ import org.ovirt.engine.core.common.businessentities.VdsNumaNode;
 import org.ovirt.engine.core.common.businessentities.VdsSpmStatus;
 import org.ovirt.engine.core.common.businessentities.VdsStatistics;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
+import org.ovirt.engine.core.common.businessentities.network.VdsNetworkStatistics;
 import org.ovirt.engine.core.common.config.Config;
 import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.locks.LockingGroup;
@@ -75,6 +77,7 @@ import org.ovirt.engine.core.vdsbroker.monitoring.MonitoringStrategy;
 import org.ovirt.engine.core.vdsbroker.monitoring.MonitoringStrategyFactory;
 import org.ovirt.engine.core.vdsbroker.monitoring.RefresherFactory;
 import org.ovirt.engine.core.vdsbroker.monitoring.VmStatsRefresher;
+import org.ovirt.engine.core.vdsbroker.monitoring.WriteBehindStatisticsStore;
 import org.ovirt.engine.core.vdsbroker.monitoring.kubevirt.KubevirtNodesMonitoring;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.HostNetworkTopologyPersister;
 import org.ovirt.engine.core.vdsbroker.vdsbroker.IVdsServer;
@@ -139,6 +142,9 @@ public class VdsManager {
     @Inject
     private HostNetworkTopologyPersister hostNetworkTopologyPersister;
 
+    @Inject
+    private WriteBehindStatisticsStore statisticsStore;
+
     @Inject
     private Instance<IrsProxyManager> irsProxyManager;
     private final AtomicInteger unrespondedAttempts;
@@ -525,10 +531,27 @@ public class VdsManager {
      * Save statistics data to cache and DB.
      */
     public void updateStatisticsData(VdsStatistics statisticsData) {
-        vdsStatisticsDao.update(statisticsData);
+        if (!statisticsStore.publishVdsStatistics(statisticsData)) {
+            vdsStatisticsDao.update(statisticsData);
+        }
         cachedVds.setStatisticsData(statisticsData);
     }
 
+    /**
+     * Save the statistics of the network interfaces of the host to DB.
+     */
+    public void updateInterfacesStatistics(Collection<VdsNetworkStatistics> statistics) {
+        if (statisticsStore.publishVdsNetworkStatistics(statistics)) {
+            return;
+        }
+
+        TransactionSupport.executeInScope(TransactionScopeOption.Required,
+                () -> {
+                    interfaceDao.massUpdateStatisticsForVds(statistics);
+                    return null;
+                });
+    }
+
     /**
      * Publish the current pending resource summary. This method also refreshes the committed
      * memory for the host to make the operation atomic.
@@ -28,6 +28,8 @@ import org.ovirt.engine.core.dao.VmStaticDao;
 import org.ovirt.engine.core.dao.VmStatisticsDao;
 import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
 import org.ovirt.engine.core.vdsbroker.monitoring.VdsmVm;
+import org.ovirt.engine.core.vdsbroker.monitoring.VmStatisticsSnapshot;
+import org.ovirt.engine.core.vdsbroker.monitoring.WriteBehindStatisticsStore;
 
 public class VmManager {
 
@@ -57,6 +59,8 @@ public class VmManager {
     private Double lastStatusEventTimestamp;
     private Guid lastStatusEventReporterId;
     private VmStatistics statistics;
+    /** the statistics that were last saved by the VMs monitoring */
+    private final VmStatisticsSnapshot statisticsSnapshot;
 
     private boolean coldReboot;
 
@@ -81,12 +85,15 @@ public class VmManager {
     private ClusterDao clusterDao;
     @Inject
     private VmOverheadCalculator vmOverheadCalculator;
+    @Inject
+    private WriteBehindStatisticsStore statisticsStore;
 
     VmManager(Guid vmId) {
         this.vmId = vmId;
         lock = new ReentrantLock();
         convertOperationProgress = -1;
         statistics = new VmStatistics(vmId);
+        statisticsSnapshot = new VmStatisticsSnapshot();
         vmMemoryWithOverheadInMB = 0;
     }
 
@@ -147,12 +154,16 @@ public class VmManager {
     }
 
     public void update(VmStatistics statistics) {
+        statisticsStore.discardVmStatistics(statistics.getId());
         vmStatisticsDao.update(statistics);
         setStatistics(statistics);
+        clearStatisticsSnapshot();
     }
 
     public void update(VmNetworkStatistics networkStatistics) {
+        statisticsStore.discardVmNetworkStatistics(networkStatistics.getId());
         vmNetworkStatisticsDao.update(networkStatistics);
+        clearStatisticsSnapshot();
     }
 
     public void update(VmStatic vmStatic) {
@@ -247,6 +258,18 @@ public class VmManager {
         this.statistics = statistics;
     }
 
+    public VmStatisticsSnapshot getStatisticsSnapshot() {
+        return statisticsSnapshot;
+    }
+
+    /**
+     * Should be called when the statistics of the VM are saved outside of the VMs monitoring, so the next monitoring
+     * cycle won't skip saving them based on what it saved before.
+     */
+    public void clearStatisticsSnapshot() {
+        statisticsSnapshot.clear();
+    }
+
     public String getName() {
         return name;
     }
@@ -287,6 +310,10 @@ public class VmManager {
         this.clusterArchitecture = clusterArchitecture;
     }
 
+    public BiosType getClusterBiosType() {
+        return clusterBiosType;
+    }
+
     public Guid getLeaseStorageDomainId() {
         return leaseStorageDomainId;
     }
@@ -12,12 +12,15 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import javax.annotation.PostConstruct;
@@ -36,6 +39,7 @@ import org.ovirt.engine.core.common.businessentities.NonOperationalReason;
 import org.ovirt.engine.core.common.businessentities.SpmStatus;
 import org.ovirt.engine.core.common.businessentities.SpmStatusResult;
 import org.ovirt.engine.core.common.businessentities.StorageDomain;
+import org.ovirt.engine.core.common.businessentities.StorageDomainDynamic;
 import org.ovirt.engine.core.common.businessentities.StorageDomainStatic;
 import org.ovirt.engine.core.common.businessentities.StorageDomainStatus;
 import org.ovirt.engine.core.common.businessentities.StorageDomainType;
@@ -354,12 +358,13 @@ public class IrsProxyImpl implements IrsProxy {
             storagePool.setStatus(StoragePoolStatus.Up);
             getEventListener().storagePoolStatusChanged(storagePool.getId(), storagePool.getStatus());
         }
-        List<StorageDomain> domainsInDb = storageDomainDao.getAllForStoragePool(storagePoolId);
         GetStoragePoolInfoVDSCommandParameters tempVar = new GetStoragePoolInfoVDSCommandParameters(
                 storagePoolId);
         tempVar.setIgnoreFailoverLimit(true);
         VDSReturnValue storagePoolInfoResult = resourceManager.runVdsCommand(
                 VDSCommandType.GetStoragePoolInfo, tempVar);
+        // The domains reported by vdsm are compared with a single read of the domains of the pool
+        Map<Guid, StorageDomain> domainsInDb = getDomainsInPool();
         if (storagePoolInfoResult.getSucceeded()) {
             KeyValuePairCompat<StoragePool, List<StorageDomain>> data =
                     (KeyValuePairCompat<StoragePool, List<StorageDomain>>) storagePoolInfoResult
@@ -369,13 +374,16 @@ public class IrsProxyImpl implements IrsProxy {
             List<StorageDomain> storageDomainsToSync = data.getValue()
                     .stream()
                     .peek(storageDomain -> domainsInVds.add(storageDomain.getId()))
-                    .filter(storageDomain -> proceedStorageDomain(storageDomain, masterVersion, storagePool))
+                    .filter(storageDomain -> proceedStorageDomain(storageDomain,
+                            domainsInDb.get(storageDomain.getId()),
+                            masterVersion,
+                            storagePool))
                     .collect(Collectors.toList());
             if (!storageDomainsToSync.isEmpty()) {
                 getEventListener().syncStorageDomainsLuns(getCurrentVdsId(),
                         storageDomainsToSync.stream().map(StorageDomain::getId).collect(Collectors.toList()));
             }
-            for (final StorageDomain domainInDb : domainsInDb) {
+            for (final StorageDomain domainInDb : domainsInDb.values()) {
                 if (domainInDb.getStorageDomainType() != StorageDomainType.Master
                         && domainInDb.getStatus() != StorageDomainStatus.Locked
                         && !domainInDb.getStorageType().isCinderDomain()
@@ -390,10 +398,35 @@ public class IrsProxyImpl implements IrsProxy {
             }
         }
 
-        domainsInMaintenanceCheck(domainsInDb, storagePool);
+        domainsInMaintenanceCheck(domainsInDb.values(), storagePool);
     }
 
-    private void domainsInMaintenanceCheck(List<StorageDomain> storageDomains, StoragePool pool) {
+    /**
+     * Returns the domains of the pool, with their static data and their status in the pool, by id. The domains are
+     * read from the pool map and the static data tables rather than from the storage domains view, so their dynamic
+     * data is not loaded.
+     */
+    private Map<Guid, StorageDomain> getDomainsInPool() {
+        Map<Guid, StoragePoolIsoMap> poolMaps = storagePoolIsoMapDao.getAllForStoragePool(storagePoolId).stream()
+                .collect(Collectors.toMap(StoragePoolIsoMap::getStorageId, Function.identity()));
+        Map<Guid, StorageDomain> domainsInPool = new HashMap<>();
+        for (StorageDomainStatic staticData : storageDomainStaticDao.getAllForStoragePool(storagePoolId)) {
+            StorageDomain domain = new StorageDomain();
+            domain.setStorageStaticData(staticData);
+            domain.setStoragePoolIsoMapData(poolMaps.get(staticData.getId()));
+            domainsInPool.put(staticData.getId(), domain);
+        }
+        return domainsInPool;
+    }
+
+    private static Set<Guid> getDomainIds(Map<Guid, StorageDomain> domainsInPool, StorageDomainStatus status) {
+        return domainsInPool.values().stream()
+                .filter(domain -> domain.getStatus() == status)
+                .map(StorageDomain::getId)
+                .collect(Collectors.toSet());
+    }
+
+    private void domainsInMaintenanceCheck(Collection<StorageDomain> storageDomains, StoragePool pool) {
         for (StorageDomain domainInDb : storageDomains) {
             if (domainInDb.getStatus() == StorageDomainStatus.PreparingForMaintenance) {
                 queueDomainMaintenanceCheck(domainInDb, pool);
@@ -406,10 +439,13 @@ public class IrsProxyImpl implements IrsProxy {
                 .submitEventAsync(new Event(storagePoolId, domain.getId(), null, EventType.DOMAINFAILOVER, ""),
                         () -> {
                             Collection<Guid> vdsConnectedToPool = getVdsConnectedToPool(storagePoolId);
-                            Set<Guid> vdsDomInMaintenance = _domainsInMaintenance.get(domain.getId());
-                            if (vdsConnectedToPool.isEmpty() ||
-                                    (vdsDomInMaintenance != null &&
-                                            vdsDomInMaintenance.containsAll(vdsConnectedToPool))) {
+                            boolean inMaintenanceOnAllVdss;
+                            synchronized (domainsCacheLock) {
+                                Set<Guid> vdsDomInMaintenance = _domainsInMaintenance.get(domain.getId());
+                                inMaintenanceOnAllVdss = vdsDomInMaintenance != null
+                                        && vdsDomInMaintenance.containsAll(vdsConnectedToPool);
+                            }
+                            if (vdsConnectedToPool.isEmpty() || inMaintenanceOnAllVdss) {
                                 log.info("Moving domain '{}' to maintenance", domain.getId());
                                 storagePoolIsoMapDao.updateStatus(
                                         domain.getStoragePoolIsoMapData().getId(),
@@ -447,12 +483,13 @@ public class IrsProxyImpl implements IrsProxy {
         this.preferredHostId = preferredHostId;
     }
 
-    private boolean proceedStorageDomain(StorageDomain domainFromVdsm, int dataMasterVersion, StoragePool storagePool) {
-        StorageDomain storage_domain = storageDomainDao.getForStoragePool(domainFromVdsm.getId(), storagePoolId);
-
-        if (storage_domain != null) {
-            StorageDomainStatic domainFromDb = storage_domain.getStorageStaticData();
-            StoragePoolIsoMap domainPoolMapFromDb = storage_domain.getStoragePoolIsoMapData();
+    private boolean proceedStorageDomain(StorageDomain domainFromVdsm,
+            StorageDomain storageDomainInDb,
+            int dataMasterVersion,
+            StoragePool storagePool) {
+        if (storageDomainInDb != null) {
+            StorageDomainStatic domainFromDb = storageDomainInDb.getStorageStaticData();
+            StoragePoolIsoMap domainPoolMapFromDb = storageDomainInDb.getStoragePoolIsoMapData();
             // If the domain is master in the DB
             if (domainFromDb.getStorageDomainType() == StorageDomainType.Master && domainPoolMapFromDb != null
                     && domainPoolMapFromDb.getStatus() != StorageDomainStatus.Locked) {
@@ -505,7 +542,11 @@ public class IrsProxyImpl implements IrsProxy {
             // update dynamic data
             if (statusChanged
                     || (domainPoolMapFromDb.getStatus() != StorageDomainStatus.Inactive && domainFromVdsm.getStatus() == StorageDomainStatus.Active)) {
-                storageDomainDynamicDao.update(domainFromVdsm.getStorageDynamicData());
+                // the sizes are written only when they changed, not on every refresh of an active domain
+                if (isDiskSizeChanged(storageDomainDynamicDao.get(domainFromVdsm.getId()),
+                        domainFromVdsm.getStorageDynamicData())) {
+                    storageDomainDynamicDao.update(domainFromVdsm.getStorageDynamicData());
+                }
                 if (domainFromVdsm.getAvailableDiskSize() != null && domainFromVdsm.getUsedDiskSize() != null) {
                     double freePercent = domainFromVdsm.getStorageDynamicData().getfreeDiskPercent();
                     AuditLogType type = AuditLogType.UNASSIGNED;
@@ -561,7 +602,7 @@ public class IrsProxyImpl implements IrsProxy {
             // Block domains should have their LUNs synchronized and updated in the DB.
             if (statusChanged &&
                     domainFromVdsm.getStatus() == StorageDomainStatus.Active &&
-                    storage_domain.getStorageType().isBlockDomain()) {
+                    storageDomainInDb.getStorageType().isBlockDomain()) {
                 return true;
             }
 
@@ -571,6 +612,13 @@ public class IrsProxyImpl implements IrsProxy {
         return false;
     }
 
+    private static boolean isDiskSizeChanged(StorageDomainDynamic dynamicDataInDb,
+            StorageDomainDynamic dynamicDataFromVdsm) {
+        return dynamicDataInDb == null
+                || !Objects.equals(dynamicDataInDb.getAvailableDiskSize(), dynamicDataFromVdsm.getAvailableDiskSize())
+                || !Objects.equals(dynamicDataInDb.getUsedDiskSize(), dynamicDataFromVdsm.getUsedDiskSize());
+    }
+
     /**
      * Reconstructs the master domain when the old domain is not in sync.
      *
@@ -1151,11 +1199,15 @@ public class IrsProxyImpl implements IrsProxy {
         currentVdsId = null;
     }
 
+    // Failover events of different domains run in parallel, so the sets of the domain caches are only accessed
+    // while holding this lock
+    private final Object domainsCacheLock = new Object();
     private final Map<Guid, Set<Guid>> domainsInProblem = new ConcurrentHashMap<>();
     private final Map<Guid, Set<Guid>> _domainsInMaintenance = new ConcurrentHashMap<>();
     private final Map<Guid, Guid> vdsReportsOnUnseenDomain = new ConcurrentHashMap<>();
     private final Map<Guid, Guid> vdsHandeledReportsOnUnseenDomains = new ConcurrentHashMap<>();
-    private final Map<Guid, ScheduledFuture> timersMap = new HashMap<>();
+    private final Map<Guid, ScheduledFuture> timersMap = new ConcurrentHashMap<>();
+    private final Set<Guid> vdssMovingToNonOperational = ConcurrentHashMap.newKeySet();
 
     @Override
     public void updateVdsDomainsData(VDS vds,
@@ -1173,6 +1225,8 @@ public class IrsProxyImpl implements IrsProxy {
             Guid vdsId = vds.getId();
             String vdsName = vds.getName();
             try {
+                // The report is analyzed against a single read of the domains of the pool
+                Map<Guid, StorageDomain> domainsInPool = getDomainsInPool();
                 Set<Guid> monitoredDomains = new HashSet<>();
                 for (VDSDomainsData tempData : data) {
                     monitoredDomains.add(tempData.getDomainId());
@@ -1185,12 +1239,13 @@ public class IrsProxyImpl implements IrsProxy {
                             handleMonitoredDomainsForHost(vdsId,
                                     vdsName,
                                     data,
-                                    monitoredDomains);
+                                    monitoredDomains,
+                                    domainsInPool);
                 }
 
                 Set<Guid> domainsInMaintenance = Collections.emptySet();
                 if (StoragePoolDomainHelper.vdsDomainsMaintenanceMonitoringStatus.contains(vds.getStatus())) {
-                    domainsInMaintenance = handleDomainsInMaintenanceForHost(monitoredDomains);
+                    domainsInMaintenance = handleDomainsInMaintenanceForHost(monitoredDomains, domainsInPool);
                 }
 
                 updateDomainInProblem(vdsId, vdsName, domainsProblematicReportInfo, domainsInMaintenance);
@@ -1214,16 +1269,15 @@ public class IrsProxyImpl implements IrsProxy {
      * The methods inspects which domains status can be changed to Maintenance according to the host
      * domains report.
      * @param monitoredDomains domains that the host monitors
+     * @param domainsInPool the domains of the pool by id
      * @return domains that are not monitored by the host and are in
      * @link StorageDomainStatus#Maintenance or @link StorageDomainStatus#PreparingForMaintenance.
      */
-    private Set<Guid> handleDomainsInMaintenanceForHost(Collection<Guid> monitoredDomains) {
+    private Set<Guid> handleDomainsInMaintenanceForHost(Collection<Guid> monitoredDomains,
+            Map<Guid, StorageDomain> domainsInPool) {
         Set<Guid>  domainsInMaintenance = new HashSet<>();
-        Set<Guid> maintInPool = new HashSet<>(
-                storageDomainStaticDao.getAllIds(
-                        storagePoolId, StorageDomainStatus.Maintenance));
-        maintInPool.addAll(storageDomainStaticDao.getAllIds(
-                storagePoolId, StorageDomainStatus.PreparingForMaintenance));
+        Set<Guid> maintInPool = getDomainIds(domainsInPool, StorageDomainStatus.Maintenance);
+        maintInPool.addAll(getDomainIds(domainsInPool, StorageDomainStatus.PreparingForMaintenance));
 
         for (Guid tempDomainId : maintInPool) {
             if (!monitoredDomains.contains(tempDomainId)) {
@@ -1240,17 +1294,14 @@ public class IrsProxyImpl implements IrsProxy {
      * the host reporting is problematic for.
      */
     private Map<Guid, DomainMonitoringResult> handleMonitoredDomainsForHost(final Guid vdsId, final String vdsName,
-            final ArrayList<VDSDomainsData> data, Collection<Guid> monitoredDomains) {
+            final ArrayList<VDSDomainsData> data, Collection<Guid> monitoredDomains,
+            Map<Guid, StorageDomain> domainsInPool) {
         Map<Guid, DomainMonitoringResult> domainsProblematicReportInfo = new HashMap<>();
         // build a list of all domains in pool
         // which are in status Active or Unknown
-        Set<Guid> activeDomainsInPool = new HashSet<>(
-                storageDomainStaticDao.getAllIds(
-                        storagePoolId, StorageDomainStatus.Active));
-        Set<Guid> unknownDomainsInPool = new HashSet<>(storageDomainStaticDao.getAllIds(
-                storagePoolId, StorageDomainStatus.Unknown));
-        Set<Guid> inActiveDomainsInPool =
-                new HashSet<>(storageDomainStaticDao.getAllIds(storagePoolId, StorageDomainStatus.Inactive));
+        Set<Guid> activeDomainsInPool = getDomainIds(domainsInPool, StorageDomainStatus.Active);
+        Set<Guid> unknownDomainsInPool = getDomainIds(domainsInPool, StorageDomainStatus.Unknown);
+        Set<Guid> inActiveDomainsInPool = getDomainIds(domainsInPool, StorageDomainStatus.Inactive);
 
         // build a list of all the domains in
         // pool (activeDomainsInPool and unknownDomainsInPool) that are not
@@ -1275,7 +1326,7 @@ public class IrsProxyImpl implements IrsProxy {
         // and are contained in the Active or
         // Unknown domains in pool
         for (VDSDomainsData tempData : data) {
-            StorageDomainStatic storageDomain = storageDomainStaticDao.get(tempData.getDomainId());
+            StorageDomain storageDomain = domainsInPool.get(tempData.getDomainId());
             if (activeDomainsInPool.contains(tempData.getDomainId()) || unknownDomainsInPool.contains(tempData.getDomainId())) {
                 DomainMonitoringResult domainMonitoringResult = analyzeDomainReport(tempData, false);
                 if (domainMonitoringResult.invalidAndActual()) {
@@ -1314,8 +1365,10 @@ public class IrsProxyImpl implements IrsProxy {
                 null, vdsId, EventType.DOMAINMONITORING, ""),
                 () -> {
                     EventResult result = new EventResult(true, EventType.DOMAINMONITORING);
-                    updateProblematicVdsData(vdsId, vdsName, domainsInProblem);
-                    updateMaintenanceVdsData(vdsId, vdsName, domainsInMaintenance);
+                    synchronized (domainsCacheLock) {
+                        updateProblematicVdsData(vdsId, vdsName, domainsInProblem);
+                        updateMaintenanceVdsData(vdsId, vdsName, domainsInMaintenance);
+                    }
                     return result;
                 });
     }
@@ -1527,9 +1580,10 @@ public class IrsProxyImpl implements IrsProxy {
                 domainId, null, EventType.DOMAINFAILOVER, ""),
                 () -> {
                     EventResult result = null;
-                    if (domainsInProblem.containsKey(domainId)) {
+                    Set<Guid> hostsThatReportedDomainAsInProblem = getHostsThatReportedDomainAsInProblem(domainId);
+                    if (hostsThatReportedDomainAsInProblem != null) {
                         log.info("starting processDomainRecovery for domain '{}'.", getDomainIdTuple(domainId));
-                        result = processDomainRecovery(domainId);
+                        result = processDomainRecovery(domainId, hostsThatReportedDomainAsInProblem);
                     }
                     timersMap.remove(domainId);
                     return result;
@@ -1650,7 +1704,14 @@ public class IrsProxyImpl implements IrsProxy {
         domainsInProblem.get(domainId).add(vdsId);
     }
 
-    private EventResult processDomainRecovery(final Guid domainId) {
+    private Set<Guid> getHostsThatReportedDomainAsInProblem(Guid domainId) {
+        synchronized (domainsCacheLock) {
+            Set<Guid> hosts = domainsInProblem.get(domainId);
+            return hosts == null ? null : new HashSet<>(hosts);
+        }
+    }
+
+    private EventResult processDomainRecovery(final Guid domainId, Set<Guid> hostsThatReportedDomainAsInProblem) {
         EventResult result = null;
         // build a list of all the hosts in status UP in
         // Pool.
@@ -1671,7 +1732,6 @@ public class IrsProxyImpl implements IrsProxy {
         // on this domain as in problem.
         // Mark the above list as hosts we suspect are in
         // problem.
-        Set<Guid> hostsThatReportedDomainAsInProblem = domainsInProblem.get(domainId);
         List<Guid> vdssInProblem = new ArrayList<>();
         for (Guid tempVDSId : vdssInPool) {
             if (!hostsThatReportedDomainAsInProblem.contains(tempVDSId)) {
@@ -1695,7 +1755,7 @@ public class IrsProxyImpl implements IrsProxy {
                 // Moving all the hosts which reported on
                 // this domain as in problem to non
                 // operational.
-                for (final Guid vdsId : domainsInProblem.get(domainId)) {
+                for (final Guid vdsId : hostsThatReportedDomainAsInProblem) {
                     VDS vds = vdsMap.get(vdsId);
                     if (vds == null) {
                         log.warn(
@@ -1709,10 +1769,7 @@ public class IrsProxyImpl implements IrsProxy {
                                 domainIdTuple);
 
                         final Map<String, String> customLogValues = Collections.singletonMap("StorageDomainNames", storageDomain.getName());
-                        ThreadPoolUtil.execute(() -> resourceManager
-                                .getEventListener()
-                                .vdsNonOperational(vdsId, NonOperationalReason.STORAGE_DOMAIN_UNREACHABLE,
-                                        true, domainId, customLogValues));
+                        moveVdsToNonOperational(vdsId, domainId, customLogValues);
 
                         nonOpVdss.add(vdsId);
                     } else {
@@ -1742,7 +1799,11 @@ public class IrsProxyImpl implements IrsProxy {
             } else {
                 log.warn("Domain '{}' was reported by all hosts in status UP as problematic. Not moving the domain to NonOperational because it is being reconstructed now.",
                         domainIdTuple);
-                result = getEventListener().masterDomainNotOperational(domainId, storagePoolId, false, false);
+                // The reconstruct runs alone in the pool, so it is not run as part of the failover event
+                getEventQueue().submitEventAsync(new Event(storagePoolId,
+                        domainId, null, EventType.RECONSTRUCT, "IrsProxyImpl.processDomainRecovery()"),
+                        () -> getEventListener().masterDomainNotOperational(domainId, storagePoolId, false, false));
+                result = new EventResult(true, EventType.DOMAINFAILOVER);
             }
         }
 
@@ -1751,6 +1812,30 @@ public class IrsProxyImpl implements IrsProxy {
         return result;
     }
 
+    /**
+     * Moves the host to status NonOperational unless the failover of another domain is already moving it.
+     */
+    private void moveVdsToNonOperational(Guid vdsId, Guid domainId, Map<String, String> customLogValues) {
+        if (!vdssMovingToNonOperational.add(vdsId)) {
+            log.info("vds '{}' is already being moved to status NonOperational", vdsId);
+            return;
+        }
+        try {
+            ThreadPoolUtil.execute(() -> {
+                try {
+                    resourceManager.getEventListener()
+                            .vdsNonOperational(vdsId, NonOperationalReason.STORAGE_DOMAIN_UNREACHABLE,
+                                    true, domainId, customLogValues);
+                } finally {
+                    vdssMovingToNonOperational.remove(vdsId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            vdssMovingToNonOperational.remove(vdsId);
+            throw e;
+        }
+    }
+
     /**
      * clears the time for the given domain
      *
@@ -1773,12 +1858,14 @@ public class IrsProxyImpl implements IrsProxy {
      * @param nonOpVdss - passed vdss that non operational
      */
     private void clearDomainFromCache(Guid domainId, List<Guid> nonOpVdss) {
-        if (domainId != null) {
-            domainsInProblem.remove(domainId);
+        synchronized (domainsCacheLock) {
+            if (domainId != null) {
+                domainsInProblem.remove(domainId);
+            }
+            removeVdsAsProblematic(nonOpVdss);
+            removeVdsFromDomainMaintenance(nonOpVdss);
+            removeVdsFromUnseenDomainsReport(nonOpVdss);
         }
-        removeVdsAsProblematic(nonOpVdss);
-        removeVdsFromDomainMaintenance(nonOpVdss);
-        removeVdsFromUnseenDomainsReport(nonOpVdss);
     }
 
     private void removeVdsAsProblematic(List<Guid> nonOpVdss) {
@@ -1822,8 +1909,10 @@ public class IrsProxyImpl implements IrsProxy {
     public void clearCache() {
         log.info("clearing cache for problematic entities in pool '{}'.", storagePoolId);
         // clear lists
-        timersMap.clear();
-        domainsInProblem.clear();
+        synchronized (domainsCacheLock) {
+            timersMap.clear();
+            domainsInProblem.clear();
+        }
     }
 
     @Override
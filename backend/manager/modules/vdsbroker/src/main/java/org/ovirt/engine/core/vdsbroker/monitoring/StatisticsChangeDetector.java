@@ -0,0 +1,84 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.Objects;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+
+/**
+ * Decides whether statistics reported by VDSM differ enough from the ones that were last saved to the database to be
+ * worth saving again.
+ * <p>
+ * Values which are percentages are considered changed when they moved by at least the threshold (in percentage
+ * points), other amounts when they moved by at least the threshold relatively to their value. Values which change on
+ * every report anyway, like counters and elapsed time, are not compared - they are brought up to date by saving all the
+ * statistics of a VM once every maximal save interval.
+ */
+public class StatisticsChangeDetector {
+
+    private final int thresholdPercent;
+    private final long maxSaveIntervalMillis;
+
+    public StatisticsChangeDetector(int thresholdPercent, long maxSaveIntervalMillis) {
+        this.thresholdPercent = thresholdPercent;
+        this.maxSaveIntervalMillis = maxSaveIntervalMillis;
+    }
+
+    /**
+     * @return whether all the statistics of the VM need to be saved, regardless of whether they changed
+     */
+    public boolean isFullSaveDue(VmStatisticsSnapshot snapshot, long now) {
+        return now - snapshot.getFullSaveTime() >= maxSaveIntervalMillis;
+    }
+
+    public boolean isChanged(VmStatistics saved, VmStatistics current) {
+        return saved == null
+                || percentChanged(saved.getUsageCpuPercent(), current.getUsageCpuPercent())
+                || percentChanged(saved.getUsageMemPercent(), current.getUsageMemPercent())
+                || percentChanged(saved.getUsageNetworkPercent(), current.getUsageNetworkPercent())
+                || percentChanged(saved.getCpuSys(), current.getCpuSys())
+                || percentChanged(saved.getCpuUser(), current.getCpuUser())
+                || !Objects.equals(saved.getMigrationProgressPercent(), current.getMigrationProgressPercent())
+                || !Objects.equals(saved.getDisksUsage(), current.getDisksUsage())
+                || amountChanged(saved.getGuestMemoryCached(), current.getGuestMemoryCached())
+                || amountChanged(saved.getGuestMemoryBuffered(), current.getGuestMemoryBuffered())
+                || amountChanged(saved.getGuestMemoryFree(), current.getGuestMemoryFree());
+    }
+
+    public boolean isChanged(VmNetworkStatistics saved, VmNetworkStatistics current) {
+        return saved == null
+                || saved.getStatus() != current.getStatus()
+                || percentChanged(saved.getReceiveRate(), current.getReceiveRate())
+                || percentChanged(saved.getReceiveDropRate(), current.getReceiveDropRate())
+                || percentChanged(saved.getTransmitRate(), current.getTransmitRate())
+                || percentChanged(saved.getTransmitDropRate(), current.getTransmitDropRate());
+    }
+
+    public boolean isChanged(DiskImageDynamic saved, DiskImageDynamic current) {
+        return saved == null
+                || amountChanged(saved.getActualSize(), current.getActualSize())
+                || amountChanged(saved.getReadRate(), current.getReadRate())
+                || amountChanged(saved.getWriteRate(), current.getWriteRate())
+                || amountChanged(saved.getReadLatency(), current.getReadLatency())
+                || amountChanged(saved.getWriteLatency(), current.getWriteLatency())
+                || amountChanged(saved.getFlushLatency(), current.getFlushLatency());
+    }
+
+    private boolean percentChanged(Number saved, Number current) {
+        if (saved == null || current == null) {
+            return saved != current;
+        }
+        double delta = Math.abs(saved.doubleValue() - current.doubleValue());
+        return delta > 0 && delta >= thresholdPercent;
+    }
+
+    private boolean amountChanged(Number saved, Number current) {
+        if (saved == null || current == null) {
+            return saved != current;
+        }
+        double delta = Math.abs(saved.doubleValue() - current.doubleValue());
+        double base = Math.max(Math.abs(saved.doubleValue()), Math.abs(current.doubleValue()));
+        return delta > 0 && delta * 100 >= base * thresholdPercent;
+    }
+}
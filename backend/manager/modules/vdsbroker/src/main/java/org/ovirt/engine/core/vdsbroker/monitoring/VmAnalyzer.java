@@ -87,6 +87,10 @@ public class VmAnalyzer {
     private List<VmJob> vmJobs;
     private VmStatistics statistics;
     private List<VmNetworkInterface> ifaces;
+    private boolean vmStatisticsUnchanged;
+    private List<VmNetworkStatistics> vmNetworkStatisticsToSave;
+    private long fullStatisticsSaveTime;
+    private int skippedStatisticsRows;
 
     private static final int TO_MEGA_BYTES = 1024;
     /** names of fields in {@link org.ovirt.engine.core.common.businessentities.VmDynamic} that may change by VDSM */
@@ -106,6 +110,7 @@ public class VmAnalyzer {
     private ResourceManager resourceManager;
 
     private final boolean updateStatistics;
+    private final StatisticsChangeDetector statisticsChangeDetector;
 
     private VdsDynamicDao vdsDynamicDao;
     private VmNetworkInterfaceDao vmNetworkInterfaceDao;
@@ -118,7 +123,8 @@ public class VmAnalyzer {
             AuditLogDirector auditLogDirector,
             ResourceManager resourceManager,
             VdsDynamicDao vdsDynamicDao,
-            VmNetworkInterfaceDao vmNetworkInterfaceDao) {
+            VmNetworkInterfaceDao vmNetworkInterfaceDao,
+            StatisticsChangeDetector statisticsChangeDetector) {
         this.dbVm = dbVm;
         this.vdsmVm = vdsmVm;
         this.updateStatistics = updateStatistics;
@@ -127,6 +133,7 @@ public class VmAnalyzer {
         this.resourceManager = resourceManager;
         this.vdsDynamicDao = vdsDynamicDao;
         this.vmNetworkInterfaceDao = vmNetworkInterfaceDao;
+        this.statisticsChangeDetector = statisticsChangeDetector;
     }
 
     /**
@@ -428,6 +435,7 @@ public class VmAnalyzer {
 
     private void resetVmStatistics() {
         statistics = new VmStatistics(getVmId());
+        getVmManager().clearStatisticsSnapshot();
     }
 
     protected void resetVmInterfaceStatistics() {
@@ -436,7 +444,7 @@ public class VmAnalyzer {
     }
 
     public VmStatistics getVmStatisticsToSave() {
-        return statistics;
+        return vmStatisticsUnchanged ? null : statistics;
     }
 
     public VmDynamic getVmDynamicToSave() {
@@ -444,6 +452,9 @@ public class VmAnalyzer {
     }
 
     public List<VmNetworkStatistics> getVmNetworkStatistics() {
+        if (vmNetworkStatisticsToSave != null) {
+            return vmNetworkStatisticsToSave;
+        }
         return ifaces != null ?
                 ifaces.stream().map(VmNetworkInterface::getStatistics).collect(Collectors.toList())
                 : Collections.emptyList();
@@ -912,6 +923,71 @@ public class VmAnalyzer {
         updateInterfaceStatistics();
         updateDiskImageDynamics();
         updateVmJobs();
+        skipUnchangedStatistics();
+    }
+
+    /**
+     * Leaves out of the statistics to save the ones which didn't change significantly since they were last saved,
+     * unless it is time to save all the statistics of the VM.
+     */
+    private void skipUnchangedStatistics() {
+        if (statisticsChangeDetector == null) {
+            return;
+        }
+
+        VmStatisticsSnapshot snapshot = getVmManager().getStatisticsSnapshot();
+        long now = System.currentTimeMillis();
+        if (statisticsChangeDetector.isFullSaveDue(snapshot, now)) {
+            fullStatisticsSaveTime = now;
+            return;
+        }
+
+        if (!statisticsChangeDetector.isChanged(snapshot.getStatistics(), statistics)) {
+            vmStatisticsUnchanged = true;
+            skippedStatisticsRows++;
+        }
+
+        List<VmNetworkStatistics> networkStatistics = getVmNetworkStatistics();
+        vmNetworkStatisticsToSave = networkStatistics.stream()
+                .filter(stats -> statisticsChangeDetector.isChanged(
+                        snapshot.getInterfaceStatistics(stats.getId()), stats))
+                .collect(Collectors.toList());
+        skippedStatisticsRows += networkStatistics.size() - vmNetworkStatisticsToSave.size();
+
+        int numOfDiskImageDynamics = vmDiskImageDynamicToSave.size();
+        vmDiskImageDynamicToSave = vmDiskImageDynamicToSave.stream()
+                .filter(pair -> statisticsChangeDetector.isChanged(
+                        snapshot.getDiskImageDynamic(pair.getSecond().getId()), pair.getSecond()))
+                .collect(Collectors.toList());
+        skippedStatisticsRows += numOfDiskImageDynamics - vmDiskImageDynamicToSave.size();
+    }
+
+    /**
+     * Records the statistics that were saved, to compare them with the statistics of the following monitoring cycles.
+     * Should be called once the statistics are saved to the database.
+     */
+    public void statisticsSaved() {
+        if (statisticsChangeDetector == null || !updateStatistics) {
+            return;
+        }
+
+        VmStatisticsSnapshot snapshot = getVmManager().getStatisticsSnapshot();
+        VmStatistics statisticsToSave = getVmStatisticsToSave();
+        if (statisticsToSave != null) {
+            snapshot.setStatistics(statisticsToSave);
+        }
+        getVmNetworkStatistics().forEach(snapshot::setInterfaceStatistics);
+        getVmDiskImageDynamicToSave().stream().map(Pair::getSecond).forEach(snapshot::setDiskImageDynamic);
+        if (fullStatisticsSaveTime > 0) {
+            snapshot.setFullSaveTime(fullStatisticsSaveTime);
+        }
+    }
+
+    /**
+     * @return the number of statistics rows which were not saved because they didn't change
+     */
+    public int getSkippedStatisticsRows() {
+        return skippedStatisticsRows;
     }
 
     private void updateVmStatistics() {
@@ -13,6 +13,7 @@ public class VmAnalyzerFactory {
 
     private final VdsManager vdsManager;
     private final boolean updateStatistics;
+    private final StatisticsChangeDetector statisticsChangeDetector;
 
     private AuditLogDirector auditLogDirector;
     private ResourceManager resourceManager;
@@ -28,7 +29,8 @@ public class VmAnalyzerFactory {
             ResourceManager resourceManager,
             VmDynamicDao vmDynamicDao,
             VmNetworkInterfaceDao vmNetworkInterfaceDao,
-            VdsDynamicDao vdsDynamicDao) {
+            VdsDynamicDao vdsDynamicDao,
+            StatisticsChangeDetector statisticsChangeDetector) {
         this.vdsManager = vdsManager;
         this.updateStatistics = updateStatistics;
         this.auditLogDirector = auditLogDirector;
@@ -36,6 +38,7 @@ public class VmAnalyzerFactory {
         this.vmDynamicDao = vmDynamicDao;
         this.vmNetworkInterfaceDao = vmNetworkInterfaceDao;
         this.vdsDynamicDao = vdsDynamicDao;
+        this.statisticsChangeDetector = statisticsChangeDetector;
     }
 
     protected VmAnalyzer getVmAnalyzer(Pair<VmDynamic, VdsmVm> monitoredVm) {
@@ -54,7 +57,8 @@ public class VmAnalyzerFactory {
                 auditLogDirector,
                 resourceManager,
                 vdsDynamicDao,
-                vmNetworkInterfaceDao);
+                vmNetworkInterfaceDao,
+                statisticsChangeDetector);
     }
 
 }
@@ -0,0 +1,84 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.compat.Guid;
+
+/**
+ * The statistics of a VM as they were last saved to the database by the VMs monitoring. They are compared by the
+ * {@link StatisticsChangeDetector} with the statistics reported in the following monitoring cycles in order to save
+ * only the rows which have changed.
+ * <p>
+ * The snapshot is updated by the monitoring while the VM is locked, but may be cleared by other flows which save the
+ * statistics of the VM on their own.
+ */
+public class VmStatisticsSnapshot {
+
+    private volatile VmStatistics statistics;
+    private final Map<Guid, VmNetworkStatistics> interfaceStatistics = new ConcurrentHashMap<>();
+    private final Map<Guid, DiskImageDynamic> diskImageDynamics = new ConcurrentHashMap<>();
+    /** the time (in milliseconds) in which all the statistics of the VM were last saved */
+    private volatile long fullSaveTime;
+
+    public VmStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setStatistics(VmStatistics statistics) {
+        this.statistics = copyOf(statistics);
+    }
+
+    public VmNetworkStatistics getInterfaceStatistics(Guid interfaceId) {
+        return interfaceStatistics.get(interfaceId);
+    }
+
+    public void setInterfaceStatistics(VmNetworkStatistics statistics) {
+        interfaceStatistics.put(statistics.getId(), new VmNetworkStatistics(statistics));
+    }
+
+    public DiskImageDynamic getDiskImageDynamic(Guid diskId) {
+        return diskImageDynamics.get(diskId);
+    }
+
+    public void setDiskImageDynamic(DiskImageDynamic diskImageDynamic) {
+        diskImageDynamics.put(diskImageDynamic.getId(), diskImageDynamic);
+    }
+
+    public long getFullSaveTime() {
+        return fullSaveTime;
+    }
+
+    public void setFullSaveTime(long fullSaveTime) {
+        this.fullSaveTime = fullSaveTime;
+    }
+
+    public void clear() {
+        statistics = null;
+        interfaceStatistics.clear();
+        diskImageDynamics.clear();
+        fullSaveTime = 0;
+    }
+
+    /**
+     * Copies the fields which are compared by the {@link StatisticsChangeDetector}. The statistics that are kept by
+     * the {@link org.ovirt.engine.core.vdsbroker.VmManager} are updated in place, so they can't be kept as is.
+     */
+    private static VmStatistics copyOf(VmStatistics statistics) {
+        VmStatistics copy = new VmStatistics(statistics.getId());
+        copy.setCpuSys(statistics.getCpuSys());
+        copy.setCpuUser(statistics.getCpuUser());
+        copy.setUsageCpuPercent(statistics.getUsageCpuPercent());
+        copy.setUsageMemPercent(statistics.getUsageMemPercent());
+        copy.setUsageNetworkPercent(statistics.getUsageNetworkPercent());
+        copy.setMigrationProgressPercent(statistics.getMigrationProgressPercent());
+        copy.setDisksUsage(statistics.getDisksUsage());
+        copy.setGuestMemoryCached(statistics.getGuestMemoryCached());
+        copy.setGuestMemoryBuffered(statistics.getGuestMemoryBuffered());
+        copy.setGuestMemoryFree(statistics.getGuestMemoryFree());
+        return copy;
+    }
+}
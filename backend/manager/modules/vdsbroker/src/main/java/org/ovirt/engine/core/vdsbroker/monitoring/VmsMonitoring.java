@@ -6,6 +6,7 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -14,6 +15,9 @@ import javax.inject.Singleton;
 import org.ovirt.engine.core.common.businessentities.IVdsEventListener;
 import org.ovirt.engine.core.common.businessentities.VmDynamic;
 import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.TransactionScopeOption;
@@ -50,6 +54,8 @@ public class VmsMonitoring {
     private LunDisksMonitoring lunDisksMonitoring;
     @Inject
     private VmJobsMonitoring vmJobsMonitoring;
+    @Inject
+    private WriteBehindStatisticsStore statisticsStore;
 
     @Inject
     private DiskImageDynamicDao diskImageDynamicDao;
@@ -95,6 +101,7 @@ public class VmsMonitoring {
             // It is important to add the unmanaged VMs before flushing the dynamic data into the database
             addUnmanagedVms(vmAnalyzers, vdsManager.getVdsId());
             flush(vmAnalyzers);
+            statisticsSaved(vmAnalyzers, vdsManager);
             postFlush(vmAnalyzers, vdsManager, fetchTime);
             vdsManager.vmsMonitoringInitFinished();
         } catch (RuntimeException ex) {
@@ -157,7 +164,18 @@ public class VmsMonitoring {
                 resourceManager,
                 vmDynamicDao,
                 vmNetworkInterfaceDao,
-                vdsDynamicDao);
+                vdsDynamicDao,
+                statistics ? getStatisticsChangeDetector() : null);
+    }
+
+    private StatisticsChangeDetector getStatisticsChangeDetector() {
+        if (!Config.<Boolean> getValue(ConfigValues.VmStatisticsDeltaSaveEnabled)) {
+            return null;
+        }
+
+        return new StatisticsChangeDetector(
+                Config.<Integer> getValue(ConfigValues.VmStatisticsSaveThresholdPercent),
+                TimeUnit.SECONDS.toMillis(Config.<Integer> getValue(ConfigValues.VmStatisticsMaxSaveIntervalInSeconds)));
     }
 
     private boolean shouldAnalyzeVm(Pair<VmDynamic, VdsmVm> pair, long fetchTime, Guid vdsId) {
@@ -303,10 +321,13 @@ public class VmsMonitoring {
     }
 
     private void saveVmInterfaceStatistics(List<VmAnalyzer> vmAnalyzers) {
-        vmNetworkStatisticsDao.updateAllInBatch(vmAnalyzers.stream()
+        List<VmNetworkStatistics> statistics = vmAnalyzers.stream()
                 .map(VmAnalyzer::getVmNetworkStatistics)
                 .flatMap(List::stream)
-                .collect(Collectors.toList()));
+                .collect(Collectors.toList());
+        if (!statisticsStore.publishVmNetworkStatistics(statistics)) {
+            vmNetworkStatisticsDao.updateAllInBatch(statistics);
+        }
     }
 
     private void saveVmStatistics(List<VmAnalyzer> vmAnalyzers) {
@@ -314,10 +335,22 @@ public class VmsMonitoring {
                 .map(VmAnalyzer::getVmStatisticsToSave)
                 .filter(Objects::nonNull)
                 .collect(Collectors.toList());
-        vmStatisticsDao.updateAllInBatch(statistics);
+        if (!statisticsStore.publishVmStatistics(statistics)) {
+            vmStatisticsDao.updateAllInBatch(statistics);
+        }
         statistics.forEach(stats -> getVmManager(stats.getId()).setStatistics(stats));
     }
 
+    private void statisticsSaved(List<VmAnalyzer> vmAnalyzers, VdsManager vdsManager) {
+        vmAnalyzers.forEach(VmAnalyzer::statisticsSaved);
+        int skippedRows = vmAnalyzers.stream().mapToInt(VmAnalyzer::getSkippedStatisticsRows).sum();
+        if (skippedRows > 0) {
+            log.debug("Skipped saving {} unchanged statistics rows of VMs running on host '{}'",
+                    skippedRows,
+                    vdsManager.getVdsName());
+        }
+    }
+
     protected void addUnmanagedVms(List<VmAnalyzer> vmAnalyzers, Guid vdsId) {
         List<Guid> unmanagedVmIds = vmAnalyzers.stream()
                 .filter(VmAnalyzer::isUnmanagedVm)
@@ -0,0 +1,192 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.enterprise.concurrent.ManagedScheduledExecutorService;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+import org.ovirt.engine.core.common.BackendService;
+import org.ovirt.engine.core.common.businessentities.VdsStatistics;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VdsNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.config.Config;
+import org.ovirt.engine.core.common.config.ConfigValues;
+import org.ovirt.engine.core.compat.Guid;
+import org.ovirt.engine.core.compat.TransactionScopeOption;
+import org.ovirt.engine.core.dao.VdsStatisticsDao;
+import org.ovirt.engine.core.dao.VmStatisticsDao;
+import org.ovirt.engine.core.dao.network.InterfaceDao;
+import org.ovirt.engine.core.dao.network.VmNetworkStatisticsDao;
+import org.ovirt.engine.core.utils.threadpool.ThreadPools;
+import org.ovirt.engine.core.utils.transaction.TransactionSupport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Saves the statistics of hosts and VMs to the database on its own schedule, instead of on the monitoring threads.
+ * <p>
+ * The store is only active when {@link ConfigValues#StatisticsWriteBehindEnabled} is set. Once active, the monitoring
+ * publishes the statistics into the store and goes on, and the store saves them every
+ * {@link ConfigValues#StatisticsWriteBehindIntervalInMillis} milliseconds. Only the latest statistics published for
+ * each entity are kept, so statistics published a few times between two saves are saved only once, and a slow
+ * database delays the statistics in the database rather than the monitoring.
+ * <p>
+ * The store keeps copies of the published statistics, since the monitoring keeps updating the published instances in
+ * its next cycles while the store saves them.
+ * <p>
+ * When the store is not active, the publish methods return {@code false} and the callers save the statistics on their
+ * own.
+ */
+@Singleton
+public class WriteBehindStatisticsStore implements BackendService {
+
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindStatisticsStore.class);
+
+    @Inject
+    private VmStatisticsDao vmStatisticsDao;
+
+    @Inject
+    private VmNetworkStatisticsDao vmNetworkStatisticsDao;
+
+    @Inject
+    private VdsStatisticsDao vdsStatisticsDao;
+
+    @Inject
+    private InterfaceDao interfaceDao;
+
+    @Inject
+    @ThreadPools(ThreadPools.ThreadPoolType.EngineScheduledThreadPool)
+    private ManagedScheduledExecutorService executor;
+
+    private final Map<Guid, VmStatistics> vmStatistics = new ConcurrentHashMap<>();
+    private final Map<Guid, VmNetworkStatistics> vmNetworkStatistics = new ConcurrentHashMap<>();
+    private final Map<Guid, VdsStatistics> vdsStatistics = new ConcurrentHashMap<>();
+    private final Map<Guid, VdsNetworkStatistics> vdsNetworkStatistics = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+    private ScheduledFuture<?> flushJob;
+
+    @PostConstruct
+    private void init() {
+        if (!Config.<Boolean> getValue(ConfigValues.StatisticsWriteBehindEnabled)) {
+            log.info("Statistics are saved by the monitoring");
+            return;
+        }
+
+        long flushInterval = Config.<Integer> getValue(ConfigValues.StatisticsWriteBehindIntervalInMillis);
+        flushJob = executor.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+        enabled = true;
+        log.info("Statistics are saved every {} ms", flushInterval);
+    }
+
+    @PreDestroy
+    private void shutdown() {
+        if (!enabled) {
+            return;
+        }
+
+        enabled = false;
+        flushJob.cancel(false);
+        flush();
+    }
+
+    public boolean publishVmStatistics(Collection<VmStatistics> statistics) {
+        return publish(vmStatistics, statistics, VmStatistics::getId, VmStatistics::new);
+    }
+
+    public boolean publishVmNetworkStatistics(Collection<VmNetworkStatistics> statistics) {
+        return publish(vmNetworkStatistics, statistics, VmNetworkStatistics::getId, VmNetworkStatistics::new);
+    }
+
+    public boolean publishVdsStatistics(VdsStatistics statistics) {
+        return publish(vdsStatistics, Collections.singletonList(statistics), VdsStatistics::getId, VdsStatistics::new);
+    }
+
+    public boolean publishVdsNetworkStatistics(Collection<VdsNetworkStatistics> statistics) {
+        return publish(vdsNetworkStatistics, statistics, VdsNetworkStatistics::getId, VdsNetworkStatistics::new);
+    }
+
+    /**
+     * Drops the statistics of the given VM which were not saved yet. Should be called by flows which save the
+     * statistics of the VM on their own, so older statistics won't override them.
+     */
+    public void discardVmStatistics(Guid vmId) {
+        vmStatistics.remove(vmId);
+    }
+
+    /**
+     * Drops the statistics of the given VM network interface which were not saved yet.
+     */
+    public void discardVmNetworkStatistics(Guid interfaceId) {
+        vmNetworkStatistics.remove(interfaceId);
+    }
+
+    private <T> boolean publish(Map<Guid, T> store,
+            Collection<T> statistics,
+            Function<T, Guid> idExtractor,
+            UnaryOperator<T> copier) {
+        if (!enabled) {
+            return false;
+        }
+        statistics.forEach(stats -> store.put(idExtractor.apply(stats), copier.apply(stats)));
+        return true;
+    }
+
+    synchronized void flush() {
+        try {
+            flush(vmStatistics, VmStatistics::getId, vmStatisticsDao::updateAllInBatch);
+            flush(vmNetworkStatistics, VmNetworkStatistics::getId, vmNetworkStatisticsDao::updateAllInBatch);
+            flush(vdsStatistics, VdsStatistics::getId, vdsStatisticsDao::updateAllInBatch);
+            flush(vdsNetworkStatistics, VdsNetworkStatistics::getId, statistics ->
+                    TransactionSupport.executeInScope(TransactionScopeOption.Required, () -> {
+                        interfaceDao.massUpdateStatisticsForVds(statistics);
+                        return null;
+                    }));
+        } catch (RuntimeException e) {
+            // an exception must not escape, otherwise the executor would stop scheduling the store
+            log.error("Unexpected failure while saving statistics: {}", e.getMessage());
+            log.debug("Exception", e);
+        }
+    }
+
+    /**
+     * Takes the statistics out of the store before saving them, so statistics which are published while they are
+     * saved are kept for the next save. Statistics which fail to be saved are returned to the store, unless newer
+     * ones were published meanwhile.
+     */
+    private <T> void flush(Map<Guid, T> store, Function<T, Guid> idExtractor, Consumer<List<T>> saver) {
+        if (store.isEmpty()) {
+            return;
+        }
+
+        List<T> statistics = new ArrayList<>(store.size());
+        for (Guid id : store.keySet()) {
+            T stats = store.remove(id);
+            if (stats != null) {
+                statistics.add(stats);
+            }
+        }
+
+        try {
+            saver.accept(statistics);
+        } catch (RuntimeException e) {
+            log.error("Failed to save {} statistics, will retry: {}", statistics.size(), e.getMessage());
+            log.debug("Exception", e);
+            statistics.forEach(stats -> store.putIfAbsent(idExtractor.apply(stats), stats));
+        }
+    }
+}
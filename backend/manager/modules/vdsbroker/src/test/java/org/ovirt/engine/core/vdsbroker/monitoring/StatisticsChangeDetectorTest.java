@@ -0,0 +1,105 @@
+package org.ovirt.engine.core.vdsbroker.monitoring;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.ovirt.engine.core.common.businessentities.VmStatistics;
+import org.ovirt.engine.core.common.businessentities.network.InterfaceStatus;
+import org.ovirt.engine.core.common.businessentities.network.VmNetworkStatistics;
+import org.ovirt.engine.core.common.businessentities.storage.DiskImageDynamic;
+import org.ovirt.engine.core.compat.Guid;
+
+public class StatisticsChangeDetectorTest {
+
+    private static final Guid VM_ID = Guid.newGuid();
+
+    private final StatisticsChangeDetector detector = new StatisticsChangeDetector(5, 60000);
+
+    @Test
+    public void testNothingSavedYet() {
+        assertTrue(detector.isChanged((VmStatistics) null, createVmStatistics(10, 1000L)));
+        assertTrue(detector.isChanged((VmNetworkStatistics) null, createNetworkStatistics(InterfaceStatus.UP, 10.0)));
+        assertTrue(detector.isChanged((DiskImageDynamic) null, createDiskImageDynamic(1000)));
+    }
+
+    @Test
+    public void testVmStatisticsPercentChange() {
+        VmStatistics saved = createVmStatistics(10, 1000L);
+        assertFalse(detector.isChanged(saved, createVmStatistics(14, 1000L)));
+        assertTrue(detector.isChanged(saved, createVmStatistics(15, 1000L)));
+    }
+
+    @Test
+    public void testVmStatisticsAmountChange() {
+        VmStatistics saved = createVmStatistics(10, 1000L);
+        assertFalse(detector.isChanged(saved, createVmStatistics(10, 1040L)));
+        assertTrue(detector.isChanged(saved, createVmStatistics(10, 1100L)));
+        assertTrue(detector.isChanged(saved, createVmStatistics(10, null)));
+    }
+
+    @Test
+    public void testVmStatisticsIgnoresElapsedTime() {
+        VmStatistics saved = createVmStatistics(10, 1000L);
+        VmStatistics current = createVmStatistics(10, 1000L);
+        current.setElapsedTime(1000.0);
+        assertFalse(detector.isChanged(saved, current));
+    }
+
+    @Test
+    public void testVmStatisticsMigrationProgressChange() {
+        VmStatistics saved = createVmStatistics(10, 1000L);
+        VmStatistics current = createVmStatistics(10, 1000L);
+        current.setMigrationProgressPercent(1);
+        assertTrue(detector.isChanged(saved, current));
+    }
+
+    @Test
+    public void testNetworkStatisticsChange() {
+        VmNetworkStatistics saved = createNetworkStatistics(InterfaceStatus.UP, 10.0);
+        assertFalse(detector.isChanged(saved, createNetworkStatistics(InterfaceStatus.UP, 12.0)));
+        assertTrue(detector.isChanged(saved, createNetworkStatistics(InterfaceStatus.UP, 20.0)));
+        assertTrue(detector.isChanged(saved, createNetworkStatistics(InterfaceStatus.DOWN, 10.0)));
+    }
+
+    @Test
+    public void testDiskImageDynamicChange() {
+        DiskImageDynamic saved = createDiskImageDynamic(1000);
+        assertFalse(detector.isChanged(saved, createDiskImageDynamic(1020)));
+        assertTrue(detector.isChanged(saved, createDiskImageDynamic(2000)));
+    }
+
+    @Test
+    public void testFullSaveDue() {
+        VmStatisticsSnapshot snapshot = new VmStatisticsSnapshot();
+        assertTrue(detector.isFullSaveDue(snapshot, System.currentTimeMillis()));
+        snapshot.setFullSaveTime(100000);
+        assertFalse(detector.isFullSaveDue(snapshot, 159999));
+        assertTrue(detector.isFullSaveDue(snapshot, 160000));
+    }
+
+    private static VmStatistics createVmStatistics(int usageCpuPercent, Long guestMemoryFree) {
+        VmStatistics statistics = new VmStatistics(VM_ID);
+        statistics.setUsageCpuPercent(usageCpuPercent);
+        statistics.setUsageMemPercent(50);
+        statistics.setGuestMemoryFree(guestMemoryFree);
+        return statistics;
+    }
+
+    private static VmNetworkStatistics createNetworkStatistics(InterfaceStatus status, Double receiveRate) {
+        VmNetworkStatistics statistics = new VmNetworkStatistics();
+        statistics.setVmId(VM_ID);
+        statistics.setStatus(status);
+        statistics.setReceiveRate(receiveRate);
+        statistics.setTransmitRate(0.0);
+        return statistics;
+    }
+
+    private static DiskImageDynamic createDiskImageDynamic(int readRate) {
+        DiskImageDynamic diskImageDynamic = new DiskImageDynamic();
+        diskImageDynamic.setReadRate(readRate);
+        diskImageDynamic.setWriteRate(0);
+        diskImageDynamic.setActualSize(1024);
+        return diskImageDynamic;
+    }
+}
@@ -341,6 +341,7 @@ public class VmAnalyzerTest {
                 auditLogDirector,
                 resourceManager,
                 vdsDynamicDao,
+                null,
                 null));
         doNothing().when(vmAnalyzer).resetVmInterfaceStatistics();
         doReturn(vmManager).when(vmAnalyzer).getVmManager();
@@ -4,8 +4,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.logging.Logger;
@@ -14,6 +16,8 @@ import org.ovirt.engine.core.common.businessentities.Queryable;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
+import org.ovirt.engine.core.common.queries.SearchChanges;
+import org.ovirt.engine.core.common.queries.SearchChangesParameters;
 import org.ovirt.engine.core.searchbackend.ISyntaxChecker;
 import org.ovirt.engine.core.searchbackend.SyntaxChecker;
 import org.ovirt.engine.core.searchbackend.SyntaxContainer;
@@ -815,6 +819,74 @@ public abstract class SearchableListModel<E, T> extends SortedListModel<T> imple
         syncSearch(queryType, queryParametersBase, new SetItemsAsyncQuery());
     }
 
+    private String searchChangesKey;
+    private long knownSearchVersion;
+
+    /**
+     * Searches for the changes of the items since the ones this model already has, and applies them to its items.
+     * The items which didn't change keep their instances, and the items aren't set at all if nothing changed.
+     * <p>
+     * The items must be {@link Queryable}.
+     */
+    protected void syncSearchChanges(SearchChangesParameters parameters) {
+        final String key = parameters.getSearchTypeValue() + ":" + parameters.getSearchPattern() //$NON-NLS-1$
+                + ":" + parameters.getCaseSensitive() //$NON-NLS-1$
+                + ":" + parameters.getMaxCount() //$NON-NLS-1$
+                + ":" + parameters.getSearchFrom(); //$NON-NLS-1$
+        if (getIsQueryFirstTime() || !key.equals(searchChangesKey) || getItems() == null) {
+            knownSearchVersion = 0;
+        }
+        parameters.setKnownVersion(knownSearchVersion);
+        parameters.setSearchAgain(getIsQueryFirstTime());
+
+        syncSearch(QueryType.GetSearchChanges, parameters, new AsyncQuery<>(
+                (QueryReturnValue returnValue) -> applySearchChanges(key, returnValue.getReturnValue())));
+    }
+
+    private void applySearchChanges(String key, SearchChanges<Queryable> changes) {
+        if (changes.isComplete()) {
+            searchChangesKey = key;
+            knownSearchVersion = changes.getVersion();
+            setItems((Collection<T>) changes.getChangedItems());
+            return;
+        }
+
+        // a response to a search which was replaced meanwhile, or an older response than the items
+        if (!key.equals(searchChangesKey) || changes.getVersion() < knownSearchVersion || getItems() == null) {
+            return;
+        }
+        knownSearchVersion = changes.getVersion();
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        Map<Object, T> itemsById = new HashMap<>();
+        for (T item : getItems()) {
+            itemsById.put(((Queryable) item).getQueryableId(), item);
+        }
+        for (Queryable item : changes.getChangedItems()) {
+            itemsById.put(item.getQueryableId(), (T) item);
+        }
+
+        List<T> newItems = new ArrayList<>();
+        if (changes.getItemIds() != null) {
+            for (Object id : changes.getItemIds()) {
+                T item = itemsById.get(id);
+                if (item == null) {
+                    // the items got out of sync, get all of them on the next search
+                    knownSearchVersion = 0;
+                    return;
+                }
+                newItems.add(item);
+            }
+        } else {
+            for (T item : getItems()) {
+                newItems.add(itemsById.get(((Queryable) item).getQueryableId()));
+            }
+        }
+        setItems(newItems);
+    }
+
     public void stopRefresh() {
         if (getTimer() != null) {
             //Timer can be null if the event bus hasn't been set yet. If the timer is null we can't stop it.
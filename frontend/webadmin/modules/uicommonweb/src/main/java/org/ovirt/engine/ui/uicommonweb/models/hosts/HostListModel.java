@@ -58,7 +58,7 @@ import org.ovirt.engine.core.common.mode.ApplicationMode;
 import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
-import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.common.queries.SearchChangesParameters;
 import org.ovirt.engine.core.common.utils.pm.FenceProxySourceTypeHelper;
 import org.ovirt.engine.core.compat.Guid;
 import org.ovirt.engine.core.compat.StringHelper;
@@ -1712,10 +1712,10 @@ public class HostListModel<E> extends ListWithSimpleDetailsModel<E, VDS> impleme
 
     @Override
     protected void syncSearch() {
-        SearchParameters tempVar = new SearchParameters(applySortOptions(getModifiedSearchString()), SearchType.VDS,
-                isCaseSensitiveSearch());
+        SearchChangesParameters tempVar = new SearchChangesParameters(applySortOptions(getModifiedSearchString()),
+                SearchType.VDS, isCaseSensitiveSearch());
         tempVar.setMaxCount(getSearchPageSize());
-        super.syncSearch(QueryType.Search, tempVar);
+        syncSearchChanges(tempVar);
     }
 
     @Override
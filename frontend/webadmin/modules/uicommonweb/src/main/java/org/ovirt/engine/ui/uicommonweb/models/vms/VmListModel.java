@@ -49,7 +49,7 @@ import org.ovirt.engine.core.common.queries.IdQueryParameters;
 import org.ovirt.engine.core.common.queries.QueryParametersBase;
 import org.ovirt.engine.core.common.queries.QueryReturnValue;
 import org.ovirt.engine.core.common.queries.QueryType;
-import org.ovirt.engine.core.common.queries.SearchParameters;
+import org.ovirt.engine.core.common.queries.SearchChangesParameters;
 import org.ovirt.engine.core.common.utils.Pair;
 import org.ovirt.engine.core.common.utils.VmCommonUtils;
 import org.ovirt.engine.core.compat.Guid;
@@ -705,10 +705,10 @@ public class VmListModel<E> extends VmBaseListModel<E, VM>
 
     @Override
     protected void syncSearch() {
-        SearchParameters tempVar = new SearchParameters(applySortOptions(getModifiedSearchString()),
+        SearchChangesParameters tempVar = new SearchChangesParameters(applySortOptions(getModifiedSearchString()),
                 SearchType.VM, isCaseSensitiveSearch());
         tempVar.setMaxCount(getSearchPageSize());
-        super.syncSearch(QueryType.Search, tempVar);
+        syncSearchChanges(tempVar);
     }
 
     private void newVm() {
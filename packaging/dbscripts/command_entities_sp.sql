@@ -141,6 +141,20 @@ END;$PROCEDURE$
 
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION UpdateCommandEntityData (
+    v_command_id uuid,
+    v_data TEXT
+    )
+RETURNS VOID AS $PROCEDURE$
+
+BEGIN
+    UPDATE command_entities
+    SET data = v_data
+    WHERE command_id = v_command_id;
+END;$PROCEDURE$
+
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION InsertOrUpdateCommandEntity (
     v_user_id uuid,
     v_engine_session_seq_id BIGINT,
@@ -326,4 +340,14 @@ END;$PROCEDURE$
 
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetAllFromCommandAssociatedEntities ()
+RETURNS SETOF command_assoc_entities STABLE AS $PROCEDURE$
+
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM command_assoc_entities;
+END;$PROCEDURE$
 
+LANGUAGE plpgsql;
@@ -1040,6 +1040,30 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetVmNetworkInterfaceViewByVmIds (
+    v_vm_ids UUID[],
+    v_user_id UUID,
+    v_is_filtered BOOLEAN
+    )
+RETURNS SETOF vm_interface_view STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM vm_interface_view
+    WHERE vm_guid = ANY(v_vm_ids)
+        AND (
+            NOT v_is_filtered
+            OR EXISTS (
+                SELECT 1
+                FROM user_vm_permissions_view
+                WHERE user_id = v_user_id
+                    AND entity_id = vm_interface_view.vm_guid
+                )
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION GetVmNetworkInterfaceToMonitorByVmId (v_vm_id UUID)
 RETURNS SETOF vm_interface_monitoring_view STABLE AS $PROCEDURE$
 BEGIN
@@ -1247,6 +1271,30 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetVmGuestAgentInterfacesByVmIds (
+    v_vm_ids UUID[],
+    v_user_id UUID,
+    v_filtered BOOLEAN
+    )
+RETURNS SETOF vm_guest_agent_interfaces STABLE AS $PROCEDURE$
+BEGIN
+    RETURN QUERY
+
+    SELECT *
+    FROM vm_guest_agent_interfaces
+    WHERE vm_id = ANY(v_vm_ids)
+        AND (
+            NOT v_filtered
+            OR EXISTS (
+                SELECT 1
+                FROM user_vm_permissions_view
+                WHERE user_id = v_user_id
+                    AND entity_id = vm_guest_agent_interfaces.vm_id
+                )
+            );
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 CREATE OR REPLACE FUNCTION DeleteVmGuestAgentInterfacesByVmIds (v_vm_ids UUID[])
 RETURNS VOID AS $PROCEDURE$
 BEGIN
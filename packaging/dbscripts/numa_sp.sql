@@ -148,6 +148,21 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetNumaNodeByVmIds (v_vm_ids UUID[])
+RETURNS SETOF numa_node_cpus_view STABLE AS $PROCEDURE$
+BEGIN
+    BEGIN
+        RETURN QUERY
+
+        SELECT numa_node_cpus_view.*
+        FROM numa_node_cpus_view
+        WHERE vm_id = ANY(v_vm_ids);
+    END;
+
+    RETURN;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 ----------------------------------------------------------------
 -- [numa_node_cpu_map] Table
 --
@@ -260,6 +275,21 @@ BEGIN
 END;$PROCEDURE$
 LANGUAGE plpgsql;
 
+CREATE OR REPLACE FUNCTION GetAssignedNumaNodeInfomationByVmIds (v_vm_ids UUID[])
+RETURNS SETOF numa_node_assignment_view STABLE AS $PROCEDURE$
+BEGIN
+    BEGIN
+        RETURN QUERY
+
+        SELECT numa_node_assignment_view.*
+        FROM numa_node_assignment_view
+        WHERE vm_numa_node_vm_id = ANY(v_vm_ids);
+    END;
+
+    RETURN;
+END;$PROCEDURE$
+LANGUAGE plpgsql;
+
 ----------------------------------------------------------------
 -- [numa_node_with_cluster_view] View
 --
@@ -64,11 +64,16 @@ select fn_db_add_config_value('AsyncTaskStatusCacheRefreshRateInSeconds','30','g
 select fn_db_add_config_value('AsyncTaskStatusCachingTimeInMinutes','1','general');
 select fn_db_add_config_value('AsyncTaskZombieTaskLifeInMinutes','300','general');
 select fn_db_add_config_value('AuditLogAgingThreshold','30','general');
+select fn_db_add_config_value('AuditLogAsyncBatchSize','500','general');
+select fn_db_add_config_value('AuditLogAsyncFlushIntervalInMillis','200','general');
+select fn_db_add_config_value('AuditLogAsyncQueueCapacity','10000','general');
+select fn_db_add_config_value('AuditLogAsyncWriteEnabled','false','general');
 select fn_db_add_config_value('AuditLogCleanupTime','03:35:35','general');
 select fn_db_add_config_value('CoCoLifeInMinutes','3000','general');
 select fn_db_add_config_value('CoCoWaitForEventInMinutes','300','general');
 select fn_db_add_config_value('CommandEntityAgingThreshold','30','general');
 select fn_db_add_config_value('CommandEntityCleanupTime','03:35:35','general');
+select fn_db_add_config_value('CommandEntityPayloadCompressionEnabled','false','general');
 select fn_db_add_config_value('MaintenanceVdsIgnoreExternalVms','false','general');
 select fn_db_add_config_value('OnlyRequiredNetworksMandatoryForVdsSelection','false','general');
 select fn_db_add_config_value('RepeatEndMethodsOnFailMaxRetries','5','general');
@@ -342,6 +347,11 @@ select fn_db_add_config_value('NicDHCPDelayGraceInMS','60','general');
 select fn_db_add_config_value('NumberOfFailedRunsOnVds','3','general');
 select fn_db_add_config_value('NumberOfUSBSlots','4','general');
 select fn_db_add_config_value('NumberVmRefreshesBeforeSave','5','general');
+select fn_db_add_config_value('VmStatisticsDeltaSaveEnabled','true','general');
+select fn_db_add_config_value('VmStatisticsSaveThresholdPercent','1','general');
+select fn_db_add_config_value('VmStatisticsMaxSaveIntervalInSeconds','60','general');
+select fn_db_add_config_value('StatisticsWriteBehindEnabled','false','general');
+select fn_db_add_config_value('StatisticsWriteBehindIntervalInMillis','5000','general');
 select fn_db_add_config_value('NumberVdsRefreshesBeforeTryToStartUnknownVms','10','general');
 select fn_db_add_config_value('NumberVdsRefreshesBeforeRetryToStartUnknownVms','100','general');
 select fn_db_add_config_value('EnableMACAntiSpoofingFilterRules','true', 'general');
@@ -349,6 +359,7 @@ select fn_db_add_config_value('MaxSchedulerWeight','1000','general');
 select fn_db_add_config_value('SpeedOptimizationSchedulingThreshold','10','general');
 select fn_db_add_config_value('SchedulerAllowOverBooking','false','general');
 select fn_db_add_config_value('SchedulerOverBookingThreshold','10','general');
+select fn_db_add_config_value('SchedulerPolicyUnitParallelism','4','general');
 select fn_db_add_config_value_for_versions_up_to('IgnoreVmToVmAffinityForHostMaintenance', 'false', '4.2');
 select fn_db_add_config_value_for_versions_up_to('IgnoreVmToVmAffinityForHostMaintenance', 'true', '4.4');
 select fn_db_add_config_value('UploadFileMaxTimeInMinutes','5','general');
@@ -385,6 +396,10 @@ select fn_db_add_config_value('QuotaThresholdCluster','80','general');
 select fn_db_add_config_value('SANWipeAfterDelete','false','general');
 --Handling SASL QOP
 select fn_db_add_config_value('SearchResultsLimit','100','general');
+select fn_db_add_config_value('SearchPlanCacheSize','1000','general');
+select fn_db_add_config_value('SearchPlanCacheTimeToLiveInMinutes','1440','general');
+select fn_db_add_config_value('SearchChangeFeedSize','50','general');
+select fn_db_add_config_value('SearchChangeFeedTimeToLiveInMillis','1000','general');
 select fn_db_add_config_value('SendSMPOnRunVm','true','general');
 
 select fn_db_add_config_value('ServerCPUList',
@@ -799,6 +814,8 @@ select fn_db_add_config_value('SetupNetworksWaitTimeoutSeconds', '20', 'general'
 
 select fn_db_add_config_value('KubevirtProviderSupportEnabled', 'false', 'general');
 
+select fn_db_add_config_value('LocalEventFloodStoreEnabled', 'true', 'general');
+
 -- Sku -> Version mapping for Windows Update
 select fn_db_add_config_value('SkuToAVLevel', '', '4.4');
 ------------------------------------------------------------------------------------
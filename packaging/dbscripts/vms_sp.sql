@@ -1720,6 +1720,17 @@ LANGUAGE plpgsql;
 
 
 
+Create or replace FUNCTION GetVmsDynamicRunningOnMultipleVds(v_vds_ids UUID[]) RETURNS SETOF vm_dynamic STABLE
+   AS $procedure$
+BEGIN
+      RETURN QUERY SELECT vm_dynamic.*
+      FROM vm_dynamic
+      WHERE run_on_vds = ANY(v_vds_ids);
+END; $procedure$
+LANGUAGE plpgsql;
+
+
+
 CREATE OR REPLACE FUNCTION IsAnyVmRunOnVds(v_vds_id UUID)
 RETURNS SETOF booleanResultType STABLE
     AS $PROCEDURE$